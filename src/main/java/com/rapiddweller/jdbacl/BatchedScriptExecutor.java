@@ -0,0 +1,380 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl;
+
+import com.rapiddweller.common.ErrorHandler;
+import com.rapiddweller.common.SystemInfo;
+import com.rapiddweller.common.exception.ExceptionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Executes the statements of an SQL script in a transactional, batched mode: Consecutive DML statements are sent
+ * with one reused {@link Statement} using {@link Statement#addBatch(String)}/{@link Statement#executeBatch()},
+ * and a commit is performed every {@link #getCommitInterval()} statements instead of after each one.
+ * The pending batch is flushed before any DDL statement, query or other statement is executed.
+ * Failures are reported to the {@link ErrorHandler} as {@link SQLScriptException}s with the script line
+ * of the failed statement; if the error handler does not throw an exception, execution continues
+ * with the statement following the failed one.<br/><br/>
+ * Created: 18.03.2022 10:05:31
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+public class BatchedScriptExecutor implements ScriptExecutor {
+
+  private static final Logger logger = LoggerFactory.getLogger(BatchedScriptExecutor.class);
+
+  public static final int DEFAULT_BATCH_SIZE = 100;
+  public static final int DEFAULT_COMMIT_INTERVAL = 1000;
+
+  private final Connection connection;
+  private final int batchSize;
+  private final int commitInterval;
+  private final ErrorHandler errorHandler;
+  private final boolean autoCommit;
+  private final Statement statement;
+
+  private final String[] batchSql;
+  private final int[] batchLineNos;
+  private int batchCount;
+
+  private int uncommittedCount;
+  private final Set<String> writtenTables;
+  private boolean unknownTablesWritten;
+
+  private long statementCount;
+  private long committedCount;
+  private long commitCount;
+  private ScriptProgress progress;
+  private Object result;
+  private SQLScriptException exception;
+  private boolean changedStructure;
+
+  // constructor -----------------------------------------------------------------------------------------------------
+
+  /**
+   * @param connection     the connection on which to execute the statements
+   * @param batchSize      the maximum number of DML statements to send in one batch
+   * @param commitInterval the number of statements after which a commit is performed,
+   *                       or 0 for committing only in {@link #finish()}
+   * @param errorHandler   the error handler to notify of failed statements, or null for a default one
+   */
+  public BatchedScriptExecutor(Connection connection, int batchSize, int commitInterval, ErrorHandler errorHandler) {
+    if (batchSize <= 0) {
+      throw ExceptionFactory.getInstance().illegalArgument("batchSize must be positive, but was " + batchSize);
+    }
+    if (commitInterval < 0) {
+      throw ExceptionFactory.getInstance().illegalArgument("commitInterval must not be negative: " + commitInterval);
+    }
+    this.connection = connection;
+    this.batchSize = batchSize;
+    this.commitInterval = commitInterval;
+    this.errorHandler = (errorHandler != null ? errorHandler : new ErrorHandler(DBUtil.class));
+    try {
+      this.autoCommit = connection.getAutoCommit();
+      this.statement = connection.createStatement();
+    } catch (SQLException e) {
+      throw ExceptionFactory.getInstance().componentInitializationFailed("Error creating statement for script", e);
+    }
+    this.batchSql = new String[batchSize];
+    this.batchLineNos = new int[batchSize];
+    this.batchCount = 0;
+    this.writtenTables = new HashSet<>();
+  }
+
+  // properties ------------------------------------------------------------------------------------------------------
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  public int getCommitInterval() {
+    return commitInterval;
+  }
+
+  /** @return the number of statements executed so far, including failed ones */
+  @Override
+  public long getStatementCount() {
+    return statementCount;
+  }
+
+  /** @return the number of statements committed so far. In autocommit mode, this is the number of statements
+   *  executed, excluding the ones of a batch which failed. */
+  @Override
+  public long getCommittedCount() {
+    return (autoCommit ? statementCount : committedCount);
+  }
+
+  @Override
+  public void setProgress(ScriptProgress progress) {
+    this.progress = progress;
+  }
+
+  public long getCommitCount() {
+    return commitCount;
+  }
+
+  /** @return the result of the last query or non-batched update */
+  @Override
+  public Object getResult() {
+    return result;
+  }
+
+  /** @return the first error that occurred or null if all statements succeeded */
+  @Override
+  public SQLScriptException getException() {
+    return exception;
+  }
+
+  @Override
+  public boolean isChangedStructure() {
+    return changedStructure;
+  }
+
+  // operational interface -------------------------------------------------------------------------------------------
+
+  /** Executes a statement or adds it to the current batch.
+   *  @param sql    the SQL statement without separator
+   *  @param lineNo the script line on which the statement starts */
+  @Override
+  public void execute(String sql, int lineNo) {
+    if (isBatchable(sql)) {
+      batchSql[batchCount] = sql;
+      batchLineNos[batchCount] = lineNo;
+      try {
+        statement.addBatch(sql);
+        batchCount++;
+      } catch (SQLException e) {
+        handleError(sql, lineNo, e);
+        return;
+      }
+      if (batchCount == batchSize) {
+        flush();
+      }
+    } else {
+      flush();
+      long startNanos = System.nanoTime();
+      try {
+        if (SQLUtil.isQuery(sql)) {
+          result = DBUtil.queryAndSimplify(sql, connection);
+        } else {
+          result = statement.executeUpdate(sql);
+          changedStructure |= SQLUtil.mutatesStructure(sql);
+          registerWrite(sql);
+        }
+      } catch (SQLException e) {
+        handleError(sql, lineNo, e);
+      }
+      if (progress != null) {
+        progress.statementExecuted(sql, lineNo, System.nanoTime() - startNanos);
+      }
+      statementCount++;
+      uncommittedCount++;
+      commitIfDue();
+    }
+  }
+
+  /** Sends the pending batch to the database. */
+  public void flush() {
+    if (batchCount == 0) {
+      return;
+    }
+    long startNanos = System.nanoTime();
+    int offset = 0;
+    while (offset < batchCount) {
+      try {
+        statement.executeBatch();
+        offset = batchCount;
+      } catch (BatchUpdateException e) {
+        int[] updateCounts = e.getUpdateCounts();
+        // some drivers continue after a failed statement, others stop and need the rest to be resent
+        boolean continued = (updateCounts != null && updateCounts.length >= batchCount - offset);
+        if (continued) {
+          handleErrors(offset, updateCounts, e);
+          offset = batchCount;
+          clearBatch();
+        } else {
+          int failed = Math.min(offset + failedStatementIndex(updateCounts), batchCount - 1);
+          handleError(batchSql[failed], batchLineNos[failed], e);
+          offset = failed + 1;
+          resendFrom(offset);
+        }
+      } catch (SQLException e) {
+        // no information about the failed statement, so the error is reported for the first one
+        handleError(batchSql[offset], batchLineNos[offset], e);
+        offset = batchCount;
+        clearBatch();
+      }
+    }
+    // the statements of a batch are recorded with the average execution time
+    long averageNanos = (System.nanoTime() - startNanos) / batchCount;
+    for (int i = 0; i < batchCount; i++) {
+      registerWrite(batchSql[i]);
+      if (progress != null) {
+        progress.statementExecuted(batchSql[i], batchLineNos[i], averageNanos);
+      }
+      batchSql[i] = null;
+    }
+    statementCount += batchCount;
+    uncommittedCount += batchCount;
+    batchCount = 0;
+    commitIfDue();
+  }
+
+  /** Flushes the pending batch and commits all changes. */
+  @Override
+  public void finish() {
+    flush();
+    commit();
+  }
+
+  /** Closes the underlying statement without committing pending changes. */
+  @Override
+  public void close() {
+    DBUtil.close(statement);
+  }
+
+  // private helpers -------------------------------------------------------------------------------------------------
+
+  static boolean isBatchable(String sql) {
+    String start = sql.substring(0, Math.min(sql.length(), 7)).toLowerCase();
+    return start.startsWith("insert") || start.startsWith("update") || start.startsWith("delete")
+        || start.startsWith("merge");
+  }
+
+  /** @return the index of the failed statement, relative to the statements of the executed batch */
+  private static int failedStatementIndex(int[] updateCounts) {
+    if (updateCounts == null) {
+      return 0;
+    }
+    for (int i = 0; i < updateCounts.length; i++) {
+      if (updateCounts[i] == Statement.EXECUTE_FAILED) {
+        return i;
+      }
+    }
+    // the driver stopped at the first failure and returned the counts of the preceding statements
+    return updateCounts.length;
+  }
+
+  /** Reports each statement which is marked as failed in the update counts of a batch that has been executed
+   *  completely. If the driver marked none, the error is reported for the first statement. */
+  private void handleErrors(int offset, int[] updateCounts, BatchUpdateException e) {
+    boolean reported = false;
+    for (int i = 0; i < batchCount - offset; i++) {
+      if (updateCounts[i] == Statement.EXECUTE_FAILED) {
+        handleError(batchSql[offset + i], batchLineNos[offset + i], e);
+        reported = true;
+      }
+    }
+    if (!reported) {
+      handleError(batchSql[offset], batchLineNos[offset], e);
+    }
+  }
+
+  private void resendFrom(int offset) {
+    clearBatch();
+    for (int i = offset; i < batchCount; i++) {
+      try {
+        statement.addBatch(batchSql[i]);
+      } catch (SQLException e) {
+        throw ExceptionFactory.getInstance().mutationFailed("Error resending SQL batch", e);
+      }
+    }
+  }
+
+  private void clearBatch() {
+    try {
+      statement.clearBatch();
+    } catch (SQLException e) {
+      throw ExceptionFactory.getInstance().mutationFailed("Error clearing SQL batch", e);
+    }
+  }
+
+  private void commitIfDue() {
+    if (commitInterval > 0 && uncommittedCount >= commitInterval) {
+      commit();
+    }
+  }
+
+  private void commit() {
+    try {
+      if (!autoCommit) {
+        connection.commit();
+        commitCount++;
+      }
+      uncommittedCount = 0;
+      committedCount = statementCount;
+      logger.debug("Committed after {} script statements", statementCount);
+    } catch (SQLException e) {
+      throw ExceptionFactory.getInstance().mutationFailed("Error committing script statements", e);
+    } finally {
+      invalidateQueryCache();
+    }
+  }
+
+  private void registerWrite(String sql) {
+    if (DBUtil.getQueryCache() != null && !unknownTablesWritten) {
+      Set<String> tables = SQLUtil.referencedTables(sql);
+      if (tables.isEmpty()) {
+        unknownTablesWritten = true;
+      } else {
+        writtenTables.addAll(tables);
+      }
+    }
+  }
+
+  /** Invalidates cached query results after a commit, like {@link DBUtil#executeUpdate(String, Connection)} does */
+  private void invalidateQueryCache() {
+    QueryCache cache = DBUtil.getQueryCache();
+    if (cache != null) {
+      if (unknownTablesWritten) {
+        cache.clear();
+      } else if (!writtenTables.isEmpty()) {
+        cache.invalidateTables(writtenTables);
+      }
+    }
+    writtenTables.clear();
+    unknownTablesWritten = false;
+  }
+
+  private void handleError(String sql, int lineNo, SQLException cause) {
+    SQLScriptException scriptException = new SQLScriptException(cause, lineNo);
+    if (exception == null) { // only the first exception is saved
+      exception = scriptException;
+    }
+    errorHandler.handleError("Error in executing SQL of line " + lineNo + ": " + SystemInfo.getLineSeparator() + sql,
+        scriptException);
+  }
+
+}
@@ -0,0 +1,511 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl;
+
+import com.rapiddweller.common.ArrayUtil;
+import com.rapiddweller.common.converter.AnyConverter;
+import com.rapiddweller.common.exception.ExceptionFactory;
+import com.rapiddweller.jdbacl.model.DBRow;
+import com.rapiddweller.jdbacl.model.DBTable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Writes rows to a database table using a parameterized statement rendered by
+ * {@link DatabaseDialect#insert(DBTable, List)}, {@link DatabaseDialect#update(DBTable, String[], List)}
+ * or {@link DatabaseDialect#upsert(DBTable, List)}.
+ * Rows are collected and sent with {@link PreparedStatement#addBatch()}/{@link PreparedStatement#executeBatch()}
+ * in batches of {@link #getBatchSize()} rows and committed every {@link #getCommitInterval()} rows.
+ * If the dialect supports multi-row inserts, inserted rows are grouped into statements rendered by
+ * {@link DatabaseDialect#insertMultiRow(DBTable, List, int)}, respecting the database's statement limits.
+ * If the driver inlines the parameter values into the statement text ({@link DatabaseDialect#isInliningParameters()}),
+ * batches are additionally split by the estimated length of their values.
+ * In pipelined mode, a batch is bound and executed by a worker thread while the caller collects the next one.<br/><br/>
+ * Created: 14.03.2022 08:41:52
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+public class BulkWriter implements Closeable {
+
+  private static final Logger logger = LoggerFactory.getLogger(BulkWriter.class);
+
+  public static final int DEFAULT_BATCH_SIZE = 1000;
+  public static final int DEFAULT_COMMIT_INTERVAL = 10000;
+
+  public enum Operation {
+    INSERT, UPDATE, UPSERT
+  }
+
+  private final DBTable table;
+  private final List<ColumnInfo> columns;
+  private final Operation operation;
+  private final Connection connection;
+  private final DatabaseDialect dialect;
+
+  private int batchSize;
+  private int commitInterval;
+  private boolean pipelined;
+  private boolean multiRowInserts;
+
+  private String sql;
+  private int[] paramColumnIndexes;
+  private PreparedStatement statement;
+  private int rowsPerStatement;
+  private PreparedStatement multiRowStatement;
+  private boolean autoCommit;
+
+  private Object[][] buffer;
+  private int bufferCount;
+  private long bufferLength;
+  private long maxBufferLength;
+  private ExecutorService executor;
+  private Future<?> pendingBatch;
+
+  private volatile long rowCount;
+  private volatile long batchCount;
+  private long rowsSinceCommit;
+  private long startNanos;
+  private long endNanos;
+  private boolean closed;
+  private volatile boolean failed;
+
+  // constructors ----------------------------------------------------------------------------------------------------
+
+  public BulkWriter(DBTable table, List<ColumnInfo> columns, Connection connection, DatabaseDialect dialect) {
+    this(table, columns, Operation.INSERT, connection, dialect);
+  }
+
+  public BulkWriter(DBTable table, List<ColumnInfo> columns, Operation operation,
+                    Connection connection, DatabaseDialect dialect) {
+    this.table = table;
+    this.columns = columns;
+    this.operation = operation;
+    this.connection = connection;
+    this.dialect = dialect;
+    this.batchSize = DEFAULT_BATCH_SIZE;
+    this.commitInterval = DEFAULT_COMMIT_INTERVAL;
+    this.pipelined = false;
+    this.multiRowInserts = true;
+    this.rowCount = 0;
+    this.batchCount = 0;
+    this.closed = false;
+  }
+
+  // properties ------------------------------------------------------------------------------------------------------
+
+  public DBTable getTable() {
+    return table;
+  }
+
+  public List<ColumnInfo> getColumns() {
+    return columns;
+  }
+
+  public Operation getOperation() {
+    return operation;
+  }
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  public BulkWriter withBatchSize(int batchSize) {
+    checkNotStarted();
+    if (batchSize <= 0) {
+      throw ExceptionFactory.getInstance().illegalArgument("batchSize must be positive, but was " + batchSize);
+    }
+    this.batchSize = batchSize;
+    return this;
+  }
+
+  public int getCommitInterval() {
+    return commitInterval;
+  }
+
+  /** Sets the number of rows after which a commit is performed. If it is 0, only {@link #flush()} and
+   *  {@link #close()} commit. Commits happen after complete batches, so the effective interval is rounded up
+   *  to a multiple of the batch size. */
+  public BulkWriter withCommitInterval(int commitInterval) {
+    checkNotStarted();
+    if (commitInterval < 0) {
+      throw ExceptionFactory.getInstance().illegalArgument("commitInterval must not be negative: " + commitInterval);
+    }
+    this.commitInterval = commitInterval;
+    return this;
+  }
+
+  public boolean isPipelined() {
+    return pipelined;
+  }
+
+  public BulkWriter withPipelining(boolean pipelined) {
+    checkNotStarted();
+    this.pipelined = pipelined;
+    return this;
+  }
+
+  public boolean isMultiRowInserts() {
+    return multiRowInserts;
+  }
+
+  /** Enables or disables the use of multi-row insert statements, if the database supports them. */
+  public BulkWriter withMultiRowInserts(boolean multiRowInserts) {
+    checkNotStarted();
+    this.multiRowInserts = multiRowInserts;
+    return this;
+  }
+
+  /** @return the number of rows sent with one statement execution */
+  public int getRowsPerStatement() {
+    return rowsPerStatement;
+  }
+
+  public String getSql() {
+    return sql;
+  }
+
+  // metrics ---------------------------------------------------------------------------------------------------------
+
+  /** @return the number of rows sent to the database so far */
+  public long getRowCount() {
+    return rowCount;
+  }
+
+  public long getBatchCount() {
+    return batchCount;
+  }
+
+  /** @return the number of rows written per second since the first call to a write() method */
+  public double getRowsPerSecond() {
+    if (startNanos == 0) {
+      return 0;
+    }
+    long end = (endNanos > 0 ? endNanos : System.nanoTime());
+    long duration = Math.max(1, end - startNanos);
+    return rowCount * 1000000000. / duration;
+  }
+
+  // operational interface -------------------------------------------------------------------------------------------
+
+  public void write(DBRow row) {
+    Object[] values = new Object[columns.size()];
+    for (int i = 0; i < values.length; i++) {
+      values[i] = row.getCellValue(columns.get(i).name);
+    }
+    write(values);
+  }
+
+  /** Writes a row with the values ordered like the {@link #getColumns()}. */
+  public void write(Object[] values) {
+    if (closed) {
+      throw ExceptionFactory.getInstance().illegalOperation("BulkWriter for " + table.getName() + " has been closed");
+    }
+    if (values.length != columns.size()) {
+      throw ExceptionFactory.getInstance().illegalArgument("Expected " + columns.size() + " values for " +
+          table.getName() + ", but found " + values.length);
+    }
+    if (buffer == null) {
+      init();
+    }
+    if (maxBufferLength > 0) {
+      long length = inlinedLength(values);
+      if (bufferCount > 0 && bufferLength + length > maxBufferLength) {
+        submitBuffer();
+      }
+      bufferLength += length;
+    }
+    buffer[bufferCount++] = values;
+    if (bufferCount == batchSize) {
+      submitBuffer();
+    }
+  }
+
+  /** Sends all collected rows to the database and commits them. */
+  public void flush() {
+    if (buffer == null) {
+      return;
+    }
+    if (bufferCount > 0) {
+      submitBuffer();
+    }
+    awaitPendingBatch();
+    commit();
+  }
+
+  /** Sends the remaining rows and releases the statements. After a failed batch, the remaining rows are discarded,
+   *  since the exception which reported the failure has already been thrown. */
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    try {
+      if (!failed) {
+        flush();
+      }
+    } finally {
+      closed = true;
+      endNanos = (startNanos > 0 ? System.nanoTime() : 0);
+      if (executor != null) {
+        executor.shutdownNow();
+      }
+      DBUtil.close(statement);
+      DBUtil.close(multiRowStatement);
+      if (rowCount > 0) {
+        logger.debug("Wrote {} rows to {} in {} batches at {} rows/s",
+            rowCount, table.getName(), batchCount, Math.round(getRowsPerSecond()));
+      }
+    }
+  }
+
+  // private helpers -------------------------------------------------------------------------------------------------
+
+  private void checkNotStarted() {
+    if (buffer != null) {
+      throw ExceptionFactory.getInstance().illegalOperation("BulkWriter cannot be reconfigured after writing started");
+    }
+  }
+
+  private void init() {
+    try {
+      this.paramColumnIndexes = createParamMapping();
+      this.statement = DBUtil.prepareStatement(connection, sql, false);
+      this.rowsPerStatement = 1;
+      int maxSqlLength = sql.length();
+      if (operation == Operation.INSERT && multiRowInserts) {
+        this.rowsPerStatement = Math.min(dialect.getMultiRowInsertLimit(table, columns), batchSize);
+        if (rowsPerStatement > 1) {
+          String multiRowSql = dialect.insertMultiRow(table, columns, rowsPerStatement);
+          this.multiRowStatement = DBUtil.prepareStatement(connection, multiRowSql, false);
+          maxSqlLength = Math.max(maxSqlLength, multiRowSql.length());
+        }
+      }
+      // the values of a batch must fit into one statement, since its rows may be sent with a single one
+      this.maxBufferLength = (dialect.isInliningParameters() ?
+          Math.max(1, dialect.getMaxStatementLength() - maxSqlLength) : 0);
+      this.autoCommit = connection.getAutoCommit();
+    } catch (SQLException e) {
+      throw ExceptionFactory.getInstance().componentInitializationFailed(
+          "Error preparing bulk " + operation + " for table " + table.getName(), e);
+    }
+    if (pipelined) {
+      this.executor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "BulkWriter-" + table.getName());
+        thread.setDaemon(true);
+        return thread;
+      });
+    }
+    this.buffer = new Object[batchSize][];
+    this.bufferCount = 0;
+    this.startNanos = System.nanoTime();
+  }
+
+  /** Renders the SQL and determines for each statement parameter the index of the column which provides its value. */
+  private int[] createParamMapping() {
+    int[] result = new int[columns.size()];
+    if (operation != Operation.UPDATE) {
+      this.sql = (operation == Operation.INSERT ? dialect.insert(table, columns) : dialect.upsert(table, columns));
+      for (int i = 0; i < result.length; i++) {
+        result[i] = i;
+      }
+    } else {
+      String[] pkColumnNames = table.getPKColumnNames();
+      this.sql = dialect.update(table, pkColumnNames, columns);
+      int paramIndex = 0;
+      for (int i = 0; i < columns.size(); i++) {
+        if (!ArrayUtil.contains(columns.get(i).name, pkColumnNames)) {
+          result[paramIndex++] = i;
+        }
+      }
+      for (String pkColumnName : pkColumnNames) {
+        result[paramIndex++] = columnIndex(pkColumnName);
+      }
+    }
+    return result;
+  }
+
+  private long inlinedLength(Object[] values) {
+    long result = 0;
+    for (Object value : values) {
+      result += dialect.estimateInlinedLength(value);
+    }
+    return result;
+  }
+
+  private int columnIndex(String columnName) {
+    for (int i = 0; i < columns.size(); i++) {
+      if (columns.get(i).name.equalsIgnoreCase(columnName)) {
+        return i;
+      }
+    }
+    throw ExceptionFactory.getInstance().illegalArgument(
+        "Primary key column " + columnName + " of table " + table.getName() + " is not among the written columns");
+  }
+
+  private void submitBuffer() {
+    Object[][] rows = buffer;
+    int count = bufferCount;
+    bufferCount = 0; // a failed batch is not submitted again
+    bufferLength = 0;
+    if (pipelined) {
+      awaitPendingBatch(); // at most one batch is in flight
+      pendingBatch = executor.submit(() -> {
+        executeBatch(rows, count);
+        return null;
+      });
+      buffer = new Object[batchSize][];
+    } else {
+      executeBatch(rows, count);
+    }
+  }
+
+  private void awaitPendingBatch() {
+    if (pendingBatch == null) {
+      return;
+    }
+    try {
+      pendingBatch.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw ExceptionFactory.getInstance().operationCancelled("Bulk " + operation + " was interrupted");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw ExceptionFactory.getInstance().mutationFailed("Bulk " + operation + " failed on " + table.getName(), cause);
+    } finally {
+      pendingBatch = null;
+    }
+  }
+
+  private void executeBatch(Object[][] rows, int count) {
+    try {
+      int i = 0;
+      if (multiRowStatement != null && count >= rowsPerStatement) {
+        // send as many rows as possible with multi-row statements...
+        for (; i + rowsPerStatement <= count; i += rowsPerStatement) {
+          for (int j = 0; j < rowsPerStatement; j++) {
+            bindRow(multiRowStatement, rows[i + j], j * paramColumnIndexes.length);
+            rows[i + j] = null;
+          }
+          multiRowStatement.addBatch();
+        }
+        multiRowStatement.executeBatch();
+      }
+      if (i < count) {
+        // ...and the remainder with single-row statements
+        for (; i < count; i++) {
+          bindRow(statement, rows[i], 0);
+          statement.addBatch();
+          rows[i] = null;
+        }
+        statement.executeBatch();
+      }
+      rowCount += count;
+      batchCount++;
+      rowsSinceCommit += count;
+      if (autoCommit) {
+        invalidateQueryCache();
+      } else if (commitInterval > 0 && rowsSinceCommit >= commitInterval) {
+        commit();
+      }
+    } catch (SQLException | RuntimeException e) {
+      failed = true;
+      clearBatch(statement);
+      clearBatch(multiRowStatement);
+      if (e instanceof RuntimeException) {
+        throw (RuntimeException) e;
+      }
+      throw ExceptionFactory.getInstance().mutationFailed("Error executing batch of " + count + " rows: " + sql, e);
+    }
+  }
+
+  private static void clearBatch(PreparedStatement statement) {
+    if (statement != null) {
+      try {
+        statement.clearBatch();
+      } catch (SQLException e) {
+        logger.debug("Error clearing batch", e);
+      }
+    }
+  }
+
+  private void bindRow(PreparedStatement statement, Object[] values, int paramOffset) throws SQLException {
+    for (int i = 0; i < paramColumnIndexes.length; i++) {
+      int columnIndex = paramColumnIndexes[i];
+      ColumnInfo column = columns.get(columnIndex);
+      Object value = values[columnIndex];
+      if (value == null) {
+        statement.setNull(paramOffset + i + 1, column.sqlType);
+      } else {
+        if (column.type != null && !column.type.isInstance(value)) {
+          value = AnyConverter.convert(value, column.type);
+        }
+        statement.setObject(paramOffset + i + 1, value, column.sqlType);
+      }
+    }
+  }
+
+  private synchronized void commit() {
+    if (autoCommit || rowsSinceCommit == 0) {
+      return;
+    }
+    try {
+      connection.commit();
+      rowsSinceCommit = 0;
+      invalidateQueryCache();
+    } catch (SQLException e) {
+      throw ExceptionFactory.getInstance().mutationFailed("Error committing bulk " + operation + " on " + table.getName(), e);
+    }
+  }
+
+  private void invalidateQueryCache() {
+    QueryCache cache = DBUtil.getQueryCache();
+    if (cache != null) {
+      cache.invalidate(sql);
+    }
+  }
+
+  // java.lang.Object overrides --------------------------------------------------------------------------------------
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + '[' + operation + ' ' + table.getName() + ']';
+  }
+
+}
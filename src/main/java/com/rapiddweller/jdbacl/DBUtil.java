@@ -36,7 +36,6 @@
 import com.rapiddweller.common.HeavyweightIterator;
 import com.rapiddweller.common.IOUtil;
 import com.rapiddweller.common.LogCategoriesConstants;
-import com.rapiddweller.common.ReaderLineIterator;
 import com.rapiddweller.common.StringUtil;
 import com.rapiddweller.common.SystemInfo;
 import com.rapiddweller.common.converter.AnyConverter;
@@ -45,6 +44,7 @@
 import com.rapiddweller.common.depend.DependencyModel;
 import com.rapiddweller.common.exception.ExceptionFactory;
 import com.rapiddweller.common.iterator.ConvertingIterator;
+import com.rapiddweller.common.version.VersionNumber;
 import com.rapiddweller.jdbacl.model.DBConstraint;
 import com.rapiddweller.jdbacl.model.DBPrimaryKeyConstraint;
 import com.rapiddweller.jdbacl.model.DBTable;
@@ -54,17 +54,17 @@
 import com.rapiddweller.jdbacl.proxy.LoggingResultSetHandler;
 import com.rapiddweller.jdbacl.proxy.LoggingStatementHandler;
 import com.rapiddweller.jdbacl.proxy.PooledConnectionHandler;
+import com.rapiddweller.jdbacl.sql.SQLScriptReader;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import javax.sql.PooledConnection;
-import java.io.BufferedReader;
 import java.io.File;
 import java.io.IOException;
-import java.io.Reader;
 import java.io.StringReader;
 import java.lang.reflect.Array;
 import java.lang.reflect.Proxy;
+import java.nio.charset.Charset;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.Driver;
@@ -73,8 +73,10 @@
 import java.sql.ResultSetMetaData;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Deque;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -96,6 +98,8 @@ public class DBUtil {
   public static final String ENV_PROPERTIES_SUFFIX = ".env.properties";
   public static final String DATABASE_QUERY_FAILED_COLON = "Database query failed: ";
 
+  private static volatile QueryCache queryCache = null;
+
   private DBUtil() {
     // private constructor for preventing instantiation.
   }
@@ -439,7 +443,43 @@ public static Integer queryInt(String query, Connection connection) {
     return AnyConverter.convert(queryScalar(query, connection), Integer.class);
   }
 
+  // query result cache ----------------------------------------------------------------------------------------------
+
+  /** Returns the cache used by {@link #queryScalar(String, Connection)}, {@link #query(String, Connection)}
+   *  and {@link #queryScalarRowsAsArray(String, Class, Connection)}, or null if caching is disabled. */
+  public static QueryCache getQueryCache() {
+    return queryCache;
+  }
+
+  /** Enables query result caching with the given cache or disables it if the argument is null. */
+  public static void setQueryCache(QueryCache queryCache) {
+    DBUtil.queryCache = queryCache;
+  }
+
+  private static QueryCache.Key cacheKey(String query, Connection connection, Object... params) {
+    QueryCache cache = queryCache;
+    return (cache != null && QueryCache.isCacheable(query) ? cache.createKey(connection, query, params) : null);
+  }
+
+  // queries ---------------------------------------------------------------------------------------------------------
+
   public static Object queryScalar(String query, Connection connection) {
+    QueryCache cache = queryCache;
+    QueryCache.Key key = cacheKey(query, connection, "scalar"); // distinguishes the result from query()
+    if (key != null) {
+      Object cached = cache.get(key);
+      if (cached != null) {
+        return ((Object[]) cached)[0];
+      }
+    }
+    Object value = queryScalarUncached(query, connection);
+    if (key != null) {
+      cache.put(key, new Object[] {value}, 1); // wrapped for distinguishing a cached null value from a cache miss
+    }
+    return value;
+  }
+
+  private static Object queryScalarUncached(String query, Connection connection) {
     Statement statement = null;
     ResultSet resultSet = null;
     try {
@@ -468,8 +508,59 @@ public static DBExecutionResult executeScriptFile(
   public static DBExecutionResult executeScriptFile(
       String scriptUri, String encoding, char separator, Connection connection, boolean ignoreComments,
       ErrorHandler errorHandler) {
-    BufferedReader reader = IOUtil.getReaderForURI(scriptUri, encoding);
-    return runScript(reader, separator, connection, ignoreComments, errorHandler);
+    return executeScriptFile(scriptUri, encoding, separator, connection, ignoreComments, errorHandler, null, null);
+  }
+
+  /** Executes a script file statement by statement with optional progress tracking and checkpointing.
+   *  @param progress   collects progress and throughput metrics, or null
+   *  @param checkpoint records the position of the last committed statement for resuming a failed execution,
+   *                    or null. If it is configured for resuming, execution continues after the saved position. */
+  public static DBExecutionResult executeScriptFile(
+      String scriptUri, String encoding, char separator, Connection connection, boolean ignoreComments,
+      ErrorHandler errorHandler, ScriptProgress progress, ScriptCheckpoint checkpoint) {
+    SQLScriptReader reader = createScriptReader(scriptUri, encoding, separator, connection);
+    return runScript(reader, connection, ignoreComments, errorHandler, null, progress, checkpoint);
+  }
+
+  /** Executes a script file in the transactional, batched mode of the {@link BatchedScriptExecutor}.
+   *  @param batchSize      the maximum number of consecutive DML statements to send in one batch
+   *  @param commitInterval the number of statements after which to commit, or 0 for a single commit at the end */
+  public static DBExecutionResult executeScriptFile(
+      String scriptUri, String encoding, char separator, Connection connection, boolean ignoreComments,
+      int batchSize, int commitInterval, ErrorHandler errorHandler) {
+    return executeScriptFile(scriptUri, encoding, separator, connection, ignoreComments, batchSize, commitInterval,
+        errorHandler, null, null);
+  }
+
+  /** Executes a script file in the transactional, batched mode of the {@link BatchedScriptExecutor}
+   *  with optional progress tracking and checkpointing, see
+   *  {@link #executeScriptFile(String, String, char, Connection, boolean, ErrorHandler, ScriptProgress, ScriptCheckpoint)}. */
+  public static DBExecutionResult executeScriptFile(
+      String scriptUri, String encoding, char separator, Connection connection, boolean ignoreComments,
+      int batchSize, int commitInterval, ErrorHandler errorHandler, ScriptProgress progress, ScriptCheckpoint checkpoint) {
+    SQLScriptReader reader = createScriptReader(scriptUri, encoding, separator, connection);
+    return runScriptBatched(reader, connection, ignoreComments, batchSize, commitInterval, errorHandler,
+        progress, checkpoint);
+  }
+
+  /** Executes a script file on a pool of connections, running independent statements in parallel
+   *  as described in {@link ParallelScriptExecutor}.
+   *  @param parallelism the number of connections to open and execute statements on */
+  public static DBExecutionResult executeScriptFile(
+      String scriptUri, String encoding, char separator, JDBCConnectData connectData, boolean ignoreComments,
+      int parallelism, ErrorHandler errorHandler) {
+    return executeScriptFile(scriptUri, encoding, separator, connectData, ignoreComments, parallelism, errorHandler,
+        null, null);
+  }
+
+  /** Executes a script file with the {@link ParallelScriptExecutor} with optional progress tracking and
+   *  checkpointing, see
+   *  {@link #executeScriptFile(String, String, char, Connection, boolean, ErrorHandler, ScriptProgress, ScriptCheckpoint)}. */
+  public static DBExecutionResult executeScriptFile(
+      String scriptUri, String encoding, char separator, JDBCConnectData connectData, boolean ignoreComments,
+      int parallelism, ErrorHandler errorHandler, ScriptProgress progress, ScriptCheckpoint checkpoint) {
+    return runScriptInParallel(scriptUri, encoding, null, separator, connectData, ignoreComments, parallelism,
+        errorHandler, progress, checkpoint);
   }
 
   public static DBExecutionResult executeScript(String scriptText, Connection connection, boolean ignoreComments,
@@ -479,60 +570,232 @@ public static DBExecutionResult executeScript(String scriptText, Connection conn
 
   public static DBExecutionResult executeScript(String scriptText, char separator, Connection connection,
                                                 boolean ignoreComments, ErrorHandler errorHandler) {
-    StringReader reader = new StringReader(scriptText);
-    return runScript(reader, separator, connection, ignoreComments, errorHandler);
+    SQLScriptReader reader = configureScriptReader(new SQLScriptReader(new StringReader(scriptText)), separator, connection);
+    return runScript(reader, connection, ignoreComments, errorHandler, null, null, null);
+  }
+
+  /** Executes a script in the transactional, batched mode of the {@link BatchedScriptExecutor}.
+   *  @param batchSize      the maximum number of consecutive DML statements to send in one batch
+   *  @param commitInterval the number of statements after which to commit, or 0 for a single commit at the end */
+  public static DBExecutionResult executeScript(String scriptText, char separator, Connection connection,
+                                                boolean ignoreComments, int batchSize, int commitInterval,
+                                                ErrorHandler errorHandler) {
+    SQLScriptReader reader = configureScriptReader(new SQLScriptReader(new StringReader(scriptText)), separator, connection);
+    return runScriptBatched(reader, connection, ignoreComments, batchSize, commitInterval, errorHandler, null, null);
+  }
+
+  /** Executes a script on a pool of connections, running independent statements in parallel
+   *  as described in {@link ParallelScriptExecutor}.
+   *  @param parallelism the number of connections to open and execute statements on */
+  public static DBExecutionResult executeScript(String scriptText, char separator, JDBCConnectData connectData,
+                                                boolean ignoreComments, int parallelism, ErrorHandler errorHandler) {
+    return runScriptInParallel(null, null, scriptText, separator, connectData, ignoreComments, parallelism,
+        errorHandler, null, null);
+  }
+
+  /** Creates a reader for a script which reads local files through a FileChannel and other URIs through a Reader. */
+  private static SQLScriptReader createScriptReader(
+      String scriptUri, String encoding, char separator, Connection connection) {
+    File file = new File(scriptUri);
+    SQLScriptReader reader;
+    if (file.isFile()) {
+      reader = new SQLScriptReader(file, Charset.forName(encoding != null ? encoding : SystemInfo.getFileEncoding()));
+    } else {
+      reader = new SQLScriptReader(IOUtil.getReaderForURI(scriptUri, encoding));
+    }
+    return configureScriptReader(reader, separator, connection);
+  }
+
+  /** Applies the separator and the script syntax of the connected database's dialect. */
+  private static SQLScriptReader configureScriptReader(SQLScriptReader reader, char separator, Connection connection) {
+    reader.withSeparator(separator);
+    try {
+      return getDialect(connection).configureScriptReader(reader);
+    } catch (RuntimeException e) {
+      reader.close();
+      throw e;
+    }
+  }
+
+  /** @return the dialect of the database product and version the connection is connected to */
+  public static DatabaseDialect getDialect(Connection connection) {
+    try {
+      DatabaseMetaData metaData = connection.getMetaData();
+      return DatabaseDialectManager.getDialectForProduct(
+          metaData.getDatabaseProductName(), VersionNumber.valueOf(metaData.getDatabaseProductVersion()));
+    } catch (SQLException e) {
+      throw ExceptionFactory.getInstance().dbQueryFailed("Error reading database meta data", e);
+    }
+  }
+
+  private static DBExecutionResult runScriptBatched(SQLScriptReader reader, Connection connection,
+      boolean ignoreComments, int batchSize, int commitInterval, ErrorHandler errorHandler,
+      ScriptProgress progress, ScriptCheckpoint checkpoint) {
+    try (BatchedScriptExecutor executor = new BatchedScriptExecutor(connection, batchSize, commitInterval, errorHandler)) {
+      return runScript(reader, connection, ignoreComments, errorHandler, executor, progress, checkpoint);
+    }
+  }
+
+  private static DBExecutionResult runScriptInParallel(String scriptUri, String encoding, String scriptText,
+      char separator, JDBCConnectData connectData, boolean ignoreComments, int parallelism, ErrorHandler errorHandler,
+      ScriptProgress progress, ScriptCheckpoint checkpoint) {
+    if (parallelism <= 0) {
+      throw ExceptionFactory.getInstance().illegalArgument("parallelism must be positive, but was " + parallelism);
+    }
+    List<Connection> connections = new ArrayList<>(parallelism);
+    try {
+      for (int i = 0; i < parallelism; i++) {
+        connections.add(connect(connectData, false));
+      }
+      Connection connection = connections.get(0);
+      SQLScriptReader reader = (scriptText != null ?
+          configureScriptReader(new SQLScriptReader(new StringReader(scriptText)), separator, connection) :
+          createScriptReader(scriptUri, encoding, separator, connection));
+      try (ParallelScriptExecutor executor = new ParallelScriptExecutor(connections, errorHandler)) {
+        return runScript(reader, connection, ignoreComments, errorHandler, executor, progress, checkpoint);
+      }
+    } finally {
+      for (Connection connection : connections) {
+        close(connection);
+      }
+    }
   }
 
-  private static DBExecutionResult runScript(
-      Reader reader, char separator, Connection connection, boolean ignoreComments, ErrorHandler errorHandler) {
-    ReaderLineIterator iterator = new ReaderLineIterator(reader);
+  /** Executes the statements of a script, either one by one with a commit after each statement
+   *  or, if an executor is provided, with the executor's strategy.
+   *  @param progress   collects progress and throughput metrics, or null
+   *  @param checkpoint records the position of the last committed statement and provides the position
+   *                    for resuming, or null */
+  private static DBExecutionResult runScript(SQLScriptReader reader, Connection connection,
+      boolean ignoreComments, ErrorHandler errorHandler, ScriptExecutor executor,
+      ScriptProgress progress, ScriptCheckpoint checkpoint) {
     SQLScriptException exception = null;
     Object result = null;
     boolean changedStructure = false;
+    // positions behind executed statements which are not yet committed: {executed count, position, line, index}
+    Deque<long[]> uncommitted = new ArrayDeque<>();
+    long executedCount = 0;
+    boolean completed = false;
     try {
-      StringBuilder cmd = new StringBuilder();
-      while (iterator.hasNext()) {
-        String line = iterator.next().trim();
-        if (line.startsWith("--")) {
+      resumeFromCheckpoint(reader, checkpoint);
+      if (executor != null) {
+        executor.setProgress(progress);
+      }
+      if (progress != null) {
+        progress.start();
+      }
+      String sql;
+      while ((sql = reader.nextStatement()) != null) {
+        if (ignoreComments && StringUtil.startsWithIgnoreCase(sql, "COMMENT")) {
           continue;
         }
-        if (cmd.length() > 0) {
-          cmd.append('\n');
-        }
-        cmd.append(line);
-        boolean lineEndsWithSeparator = (line.length() > 0 && StringUtil.lastChar(line) == separator);
-        if (lineEndsWithSeparator || !iterator.hasNext()) {
-          if (lineEndsWithSeparator) {
-            cmd.delete(cmd.length() - 1, cmd.length()); // delete trailing separators
-          }
-          String sql = cmd.toString().trim();
-          if (sql.length() > 0 && (!ignoreComments || !StringUtil.startsWithIgnoreCase(sql, "COMMENT"))) {
-            try {
-              if (SQLUtil.isQuery(sql)) {
-                result = queryAndSimplify(sql, connection);
-              } else {
-                result = executeUpdate(sql, connection);
-                changedStructure |= SQLUtil.mutatesStructure(sql);
-              }
-            } catch (SQLException e) {
-              if (errorHandler == null) {
-                errorHandler = new ErrorHandler(DBUtil.class);
-              }
-              errorHandler.handleError("Error in executing SQL: " + SystemInfo.getLineSeparator() + cmd, e);
-              // if we arrive here, the ErrorHandler decided not to throw an exception
-              // so we save the exception and line number and continue execution
-              if (exception != null) { // only the first exception is saved
-                exception = new SQLScriptException(e, iterator.lineCount());
-              }
+        int lineNo = reader.getStatementLineNo();
+        if (executor != null) {
+          executor.execute(sql, lineNo);
+        } else {
+          long startNanos = System.nanoTime();
+          try {
+            if (SQLUtil.isQuery(sql)) {
+              result = queryAndSimplify(sql, connection);
+            } else {
+              result = executeUpdate(sql, connection);
+              changedStructure |= SQLUtil.mutatesStructure(sql);
+            }
+          } catch (SQLException e) {
+            if (errorHandler == null) {
+              errorHandler = new ErrorHandler(DBUtil.class);
+            }
+            errorHandler.handleError("Error in executing SQL: " + SystemInfo.getLineSeparator() + sql, e);
+            // if we arrive here, the ErrorHandler decided not to throw an exception
+            // so we save the exception and line number and continue execution
+            if (exception == null) { // only the first exception is saved
+              exception = new SQLScriptException(e, lineNo);
             }
           }
-          cmd.delete(0, cmd.length());
+          if (progress != null) {
+            progress.statementExecuted(sql, lineNo, System.nanoTime() - startNanos);
+          }
+        }
+        executedCount++;
+        if (checkpoint != null) {
+          uncommitted.add(new long[] {executedCount, reader.getPosition(), reader.getLineNo(), reader.getStatementCount()});
+          updateCheckpoint(checkpoint, uncommitted, (executor != null ? executor.getCommittedCount() : executedCount));
         }
+        if (progress != null) {
+          progress.positionReached(reader.getPosition(), reader.getLineNo());
+        }
+      }
+      if (executor != null) {
+        executor.finish();
+        exception = executor.getException();
+        result = executor.getResult();
+        changedStructure = executor.isChangedStructure();
+      }
+      completed = true;
+      if (checkpoint != null) {
+        checkpoint.delete();
+      }
+      if (progress != null) {
+        progress.positionReached(reader.getPosition(), reader.getLineNo());
+        progress.finish();
       }
       Object returnedValue = (exception != null ? exception : result);
       return new DBExecutionResult(returnedValue, changedStructure);
+    } catch (IOException e) {
+      RuntimeException failure = ExceptionFactory.getInstance().operationFailed("Error reading SQL script", e);
+      if (!completed) {
+        saveCheckpoint(checkpoint, uncommitted, (executor != null ? executor.getCommittedCount() : executedCount), failure);
+      }
+      throw failure;
+    } catch (RuntimeException | Error e) {
+      if (!completed) {
+        saveCheckpoint(checkpoint, uncommitted, (executor != null ? executor.getCommittedCount() : executedCount), e);
+      }
+      throw e;
     } finally {
-      IOUtil.close(iterator);
+      reader.close();
+    }
+  }
+
+  /** Saves the checkpoint of a failed script execution. An error in saving is logged and attached to the
+   *  original failure as suppressed exception, so that it does not replace the original failure. */
+  private static void saveCheckpoint(
+      ScriptCheckpoint checkpoint, Deque<long[]> uncommitted, long committedCount, Throwable failure) {
+    if (checkpoint == null) {
+      return;
+    }
+    try {
+      updateCheckpoint(checkpoint, uncommitted, committedCount);
+      checkpoint.save();
+    } catch (RuntimeException e) {
+      logger.error("Error saving script checkpoint", e);
+      failure.addSuppressed(e);
+    }
+  }
+
+  private static void resumeFromCheckpoint(SQLScriptReader reader, ScriptCheckpoint checkpoint) throws IOException {
+    if (checkpoint == null) {
+      return;
+    }
+    if (!reader.isSeekable()) {
+      throw ExceptionFactory.getInstance().illegalArgument(
+          "Checkpoints require a local script file in UTF-8 or a single-byte charset");
+    }
+    checkpoint.setScript(reader.getFile());
+    if (checkpoint.load()) {
+      logger.info("Resuming script after statement {} at line {}", checkpoint.getStatementIndex(), checkpoint.getLineNo());
+      reader.seek(checkpoint.getPosition(), checkpoint.getLineNo(), checkpoint.getStatementIndex());
+    }
+  }
+
+  /** Moves the checkpoint to the position behind the last committed statement */
+  private static void updateCheckpoint(ScriptCheckpoint checkpoint, Deque<long[]> uncommitted, long committedCount) {
+    long[] lastCommitted = null;
+    while (!uncommitted.isEmpty() && uncommitted.peek()[0] <= committedCount) {
+      lastCommitted = uncommitted.poll();
+    }
+    if (lastCommitted != null) {
+      checkpoint.update(lastCommitted[1], (int) lastCommitted[2], lastCommitted[3]);
     }
   }
 
@@ -549,11 +812,32 @@ public static int executeUpdate(String sql, Connection connection) throws SQLExc
     } finally {
       close(statement);
       connection.commit();
+      QueryCache cache = queryCache;
+      if (cache != null) {
+        cache.invalidate(sql);
+      }
     }
     return result;
   }
 
+  @SuppressWarnings("unchecked")
   public static <T> T[] queryScalarRowsAsArray(String query, Class<T> componentType, Connection connection) {
+    QueryCache cache = queryCache;
+    QueryCache.Key key = cacheKey(query, connection, componentType);
+    if (key != null) {
+      T[] cached = (T[]) cache.get(key);
+      if (cached != null) {
+        return cached;
+      }
+    }
+    T[] result = queryScalarRowsAsArrayUncached(query, componentType, connection);
+    if (key != null) {
+      cache.put(key, result, result.length);
+    }
+    return result;
+  }
+
+  private static <T> T[] queryScalarRowsAsArrayUncached(String query, Class<T> componentType, Connection connection) {
     Statement statement = null;
     ResultSet resultSet = null;
     try {
@@ -602,7 +886,24 @@ public static Object queryAndSimplify(String query, Connection connection) throw
     }
   }
 
+  @SuppressWarnings("unchecked")
   public static List<Object[]> query(String query, Connection connection) throws SQLException {
+    QueryCache cache = queryCache;
+    QueryCache.Key key = cacheKey(query, connection, "rows");
+    if (key != null) {
+      List<Object[]> cached = (List<Object[]>) cache.get(key);
+      if (cached != null) {
+        return cached;
+      }
+    }
+    List<Object[]> result = queryUncached(query, connection);
+    if (key != null) {
+      cache.put(key, result, result.size());
+    }
+    return result;
+  }
+
+  private static List<Object[]> queryUncached(String query, Connection connection) throws SQLException {
     ResultSet resultSet = executeQuery(query, connection); // note: exception handling happens in executeQuery()
     try {
       return parseResultSet(resultSet);
@@ -36,21 +36,27 @@
 import com.rapiddweller.jdbacl.model.DBSchema;
 import com.rapiddweller.jdbacl.model.DBSequence;
 import com.rapiddweller.jdbacl.model.DBTable;
+import com.rapiddweller.jdbacl.model.DBUniqueConstraint;
 import com.rapiddweller.jdbacl.sql.Query;
+import com.rapiddweller.jdbacl.sql.SQLScriptReader;
 import org.slf4j.LoggerFactory;
 import org.slf4j.Logger;
 
+import java.io.IOException;
 import java.math.BigInteger;
 import java.sql.Connection;
 import java.sql.DatabaseMetaData;
 import java.sql.SQLException;
 import java.sql.Time;
 import java.sql.Timestamp;
+import java.sql.Types;
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 
@@ -66,25 +72,32 @@
 @SuppressWarnings("checkstyle:CommentsIndentation")
 public abstract class DatabaseDialect {
 
+  /** Name of the system property which enables the data dictionary queries of the Oracle, MySQL and PostgreSQL
+   *  dialects, see {@link #getMetaDataProvider()}. They have not yet been verified against real databases. */
+  public static final String UNTESTED_META_DATA_QUERIES_SYSPROP = "jdbacl.metadata.untestedqueries";
+
   private static final String DEFAULT_TIMESTAMP_PATTERN = "yyyy-MM-dd HH:mm:ss.SSSSSSSSS";
   public final boolean quoteTableNames;
   protected final Logger logger = LoggerFactory.getLogger(getClass());
   protected final boolean sequenceSupported;
   private final String dbType;
-  private final DateFormat dateFormat;
-  private final DateFormat datetimeFormat;
-  private final DateFormat timeFormat;
-  private Set<String> reservedWords;
+  // SimpleDateFormat is not thread-safe, so each thread uses its own instances of a shared dialect
+  private final ThreadLocal<DateFormat> dateFormat;
+  private final ThreadLocal<DateFormat> datetimeFormat;
+  private final ThreadLocal<DateFormat> timeFormat;
+  /** the reserved words of the configuration file, published as immutable set when complete. Dialect instances
+   *  are shared, so the connection-specific keywords of the JDBC driver are not cached here */
+  private volatile Set<String> configuredReservedWords;
 
   protected DatabaseDialect(String dbType, boolean quoteTableNames, boolean sequenceSupported,
                          String datePattern, String timePattern, String datetimePattern) {
     this.dbType = dbType;
     this.quoteTableNames = quoteTableNames;
     this.sequenceSupported = sequenceSupported;
-    this.dateFormat = new SimpleDateFormat(datePattern);
-    this.timeFormat = new SimpleDateFormat(timePattern);
-    this.datetimeFormat = new SimpleDateFormat(datetimePattern);
-    this.reservedWords = null;
+    this.dateFormat = ThreadLocal.withInitial(() -> new SimpleDateFormat(datePattern));
+    this.timeFormat = ThreadLocal.withInitial(() -> new SimpleDateFormat(timePattern));
+    this.datetimeFormat = ThreadLocal.withInitial(() -> new SimpleDateFormat(datetimePattern));
+    this.configuredReservedWords = null;
   }
 
   protected static boolean isNotOne(BigInteger i) {
@@ -100,10 +113,7 @@ public boolean isReservedWord(String word, Connection connection) throws SQLExce
   }
 
   public Set<String> getReservedWords(Connection connection) throws SQLException {
-    if (reservedWords == null) {
-      importReservedWords(connection);
-    }
-    return reservedWords;
+    return importReservedWords(connection);
   }
 
   /**
@@ -116,42 +126,63 @@ public Set<String> getReservedWords(Connection connection) throws SQLException {
    * the chance to automatically handle keywords introduced in a new database version without
    * having loads of different reserved-words-files.
    *
-   * @param connection the connection
+   * The words of the configuration file are cached, the driver's keywords are retrieved on each call.
+   *
+   * @param connection the connection, or null for using the configuration file only
+   * @return an immutable set of the reserved words
    * @throws SQLException the sql exception
    */
-  protected void importReservedWords(Connection connection) throws SQLException {
-    this.reservedWords = new HashSet<>();
-    parseReservedWordsConfigFile();
-    if (connection != null) {
-      importReservedWordsFromDriver(connection);
+  protected Set<String> importReservedWords(Connection connection) throws SQLException {
+    Set<String> configured = getConfiguredReservedWords();
+    if (connection == null) {
+      return configured;
     }
+    Set<String> words = new HashSet<>(configured);
+    importReservedWordsFromDriver(connection, words);
+    return Collections.unmodifiableSet(words);
+  }
+
+  private Set<String> getConfiguredReservedWords() {
+    Set<String> result = configuredReservedWords;
+    if (result == null) {
+      synchronized (this) {
+        result = configuredReservedWords;
+        if (result == null) {
+          Set<String> words = new HashSet<>();
+          parseReservedWordsConfigFile(words);
+          result = Collections.unmodifiableSet(words);
+          configuredReservedWords = result;
+        }
+      }
+    }
+    return result;
   }
 
-  private void importReservedWordsFromDriver(Connection connection) throws SQLException {
+  private void importReservedWordsFromDriver(Connection connection, Set<String> words) throws SQLException {
     DatabaseMetaData metaData = connection.getMetaData();
     String keywordList = metaData.getSQLKeywords();
     logger.debug("Imported keywords: {}", keywordList);
     String[] keywords = StringUtil.splitAndTrim(keywordList, ',');
     for (String keyword : keywords) {
-      this.reservedWords.add(keyword.toUpperCase());
+      words.add(keyword.toUpperCase());
     }
   }
 
-  private void parseReservedWordsConfigFile() {
+  private void parseReservedWordsConfigFile(Set<String> words) {
     String resourceName = "com/rapiddweller/jdbacl/dialect/" + dbType + "-reserved_words.txt";
     if (IOUtil.isURIAvailable(resourceName)) {
-      parseReservedWords(resourceName);
+      parseReservedWords(resourceName, words);
     } else {
       logger.debug("Configuration file not found: {}. Falling back to SQL:2003 keywords", resourceName);
-      parseReservedWords("com/rapiddweller/jdbacl/dialect/SQL2003-reserved_words.txt");
+      parseReservedWords("com/rapiddweller/jdbacl/dialect/SQL2003-reserved_words.txt", words);
     }
   }
 
-  private void parseReservedWords(String resourceName) {
+  private void parseReservedWords(String resourceName, Set<String> words) {
     logger.debug("reading reserved word from config file {}", resourceName);
     try {
       for (String word : IOUtil.readTextLines(resourceName, false)) {
-        reservedWords.add(word.trim());
+        words.add(word.trim());
       }
     } catch (Exception e) {
       throw ExceptionFactory.getInstance().configurationError(
@@ -212,6 +243,35 @@ public String renderCreateSequence(DBSequence sequence) {
     return builder.toString();
   }
 
+  /** @return an ALTER SEQUENCE statement which applies the increment, boundaries and cycle setting of the new
+   *  sequence to the old one, or null if none of them has been changed. The start value is not altered, since the
+   *  sequence has already been started. */
+  public String renderAlterSequence(DBSequence oldSequence, DBSequence newSequence) {
+    if (!sequenceSupported) {
+      throw checkSequenceSupport("alterSequence");
+    }
+    StringBuilder builder = new StringBuilder();
+    BigInteger increment = newSequence.getIncrement();
+    if (increment != null && !increment.equals(oldSequence.getIncrement())) {
+      builder.append(" INCREMENT BY ").append(increment);
+    }
+    if (isSequenceBoundarySupported()) {
+      BigInteger maxValue = newSequence.getMaxValue();
+      if (maxValue != null && !maxValue.equals(oldSequence.getMaxValue())) {
+        builder.append(" MAXVALUE ").append(maxValue);
+      }
+      BigInteger minValue = newSequence.getMinValue();
+      if (minValue != null && !minValue.equals(oldSequence.getMinValue())) {
+        builder.append(" MINVALUE ").append(minValue);
+      }
+    }
+    Boolean cycle = newSequence.isCycle();
+    if (cycle != null && !cycle.equals(oldSequence.isCycle())) {
+      builder.append(cycle ? " CYCLE" : " " + sequenceNoCycle());
+    }
+    return (builder.length() > 0 ? "ALTER SEQUENCE " + newSequence.getName() + builder : null);
+  }
+
   protected String renderSequenceNameAndType(DBSequence sequence) {
     return sequence.getName();
   }
@@ -285,14 +345,13 @@ public String update(DBTable table, String[] pkColumnNames, List<ColumnInfo> col
     }
     StringBuilder builder = new StringBuilder("update ");
     builder.append(createCatSchTabString(table.getCatalog().getName(), table.getSchema().getName(), table.getName(), this)).append(" set");
-    for (int i = 0; i < columnInfos.size(); i++) {
-      if (!ArrayUtil.contains(columnInfos.get(i).name, pkColumnNames)) {
-        builder.append(" ");
-        appendColumnName(columnInfos.get(i).name, builder, this);
+    boolean first = true;
+    for (ColumnInfo columnInfo : columnInfos) {
+      if (!ArrayUtil.contains(columnInfo.name, pkColumnNames)) {
+        builder.append(first ? " " : ", ");
+        appendColumnName(columnInfo.name, builder, this);
         builder.append("=?");
-        if (i < columnInfos.size() - pkColumnNames.length - 1) {
-          builder.append(", ");
-        }
+        first = false;
       }
     }
     builder.append(" where");
@@ -309,18 +368,331 @@ public String update(DBTable table, String[] pkColumnNames, List<ColumnInfo> col
     return sql;
   }
 
+  // multi-row inserts -----------------------------------------------------------------------------------------------
+
+  /** Tells if the database can insert several rows with one statement, see {@link #insertMultiRow(DBTable, List, int)}. */
+  public boolean isMultiRowInsertSupported() {
+    return false;
+  }
+
+  /** @return the maximum number of parameters the database or its driver accepts for one statement */
+  public int getMaxStatementParameters() {
+    return Short.MAX_VALUE;
+  }
+
+  /** @return the maximum number of rows to insert with one multi-row insert statement */
+  public int getMaxMultiRowInsertRows() {
+    return 1000;
+  }
+
+  /** @return the maximum number of values (rows &times; columns) to insert with one multi-row insert statement */
+  public int getMaxMultiRowInsertValues() {
+    return getMaxStatementParameters();
+  }
+
+  /** @return the maximum length of an SQL statement in characters */
+  public int getMaxStatementLength() {
+    return 1000000;
+  }
+
+  /** Tells if the JDBC driver inlines the parameter values into the statement text on the client side,
+   *  so that the length of the values counts against the {@link #getMaxStatementLength()}. */
+  public boolean isInliningParameters() {
+    return false;
+  }
+
+  /** Estimates the number of characters a parameter value occupies in the statement text
+   *  if the driver inlines it, see {@link #isInliningParameters()}. */
+  public int estimateInlinedLength(Object value) {
+    if (value == null) {
+      return 4;
+    } else if (value instanceof CharSequence) {
+      // quotes, and each character may need to be escaped
+      return 2 * ((CharSequence) value).length() + 2;
+    } else if (value instanceof byte[]) {
+      // hex literal
+      return 2 * ((byte[]) value).length + 3;
+    } else {
+      return String.valueOf(value).length() + 2;
+    }
+  }
+
+  /** Renders a parameterized insert statement for several rows. Parameters are ordered row by row,
+   *  each row's parameters in the order of the columns. The default implementation renders
+   *  <code>insert into tab (c1,c2) values (?,?),(?,?),...</code>. */
+  public String insertMultiRow(DBTable table, List<ColumnInfo> columnInfos, int rowCount) {
+    if (rowCount == 1) {
+      return insert(table, columnInfos);
+    }
+    checkMultiRowInsertSupport();
+    StringBuilder builder = new StringBuilder("insert into ");
+    builder.append(createCatSchTabString(table.getCatalog().getName(), table.getSchema().getName(), table.getName(), this));
+    builder.append(" (").append(renderColumnList(columnInfos)).append(") values ");
+    String rowParams = renderRowParams(columnInfos.size());
+    for (int i = 0; i < rowCount; i++) {
+      if (i > 0) {
+        builder.append(',');
+      }
+      builder.append(rowParams);
+    }
+    return builder.toString();
+  }
+
+  /**
+   * Calculates how many rows can be inserted with one statement rendered by
+   * {@link #insertMultiRow(DBTable, List, int)} without exceeding the database limits for
+   * the number of rows, values, parameters and statement length.
+   * @return the number of rows per statement, 1 if multi-row inserts are not supported
+   */
+  public int getMultiRowInsertLimit(DBTable table, List<ColumnInfo> columnInfos) {
+    if (!isMultiRowInsertSupported() || columnInfos.isEmpty()) {
+      return 1;
+    }
+    int limit = Math.min(getMaxMultiRowInsertRows(), Math.min(getMaxStatementParameters(),
+        getMaxMultiRowInsertValues()) / columnInfos.size());
+    int oneRowLength = insertMultiRow(table, columnInfos, 1).length();
+    int rowLength = insertMultiRow(table, columnInfos, 2).length() - oneRowLength;
+    limit = Math.min(limit, (getMaxStatementLength() - oneRowLength) / rowLength + 1);
+    return Math.max(1, limit);
+  }
+
+  protected void checkMultiRowInsertSupport() {
+    if (!isMultiRowInsertSupported()) {
+      throw ExceptionFactory.getInstance().programmerUnsupported(
+          getClass().getSimpleName() + " does not support multi-row inserts");
+    }
+  }
+
+  protected static String renderRowParams(int columnCount) {
+    StringBuilder builder = new StringBuilder("(");
+    for (int i = 0; i < columnCount; i++) {
+      builder.append(i > 0 ? ",?" : "?");
+    }
+    return builder.append(')').toString();
+  }
+
+  // upsert ----------------------------------------------------------------------------------------------------------
+
+  /** Tells if the dialect can render insert-or-update statements, see {@link #upsert(DBTable, List)}. */
+  public boolean isUpsertSupported() {
+    return false;
+  }
+
+  /**
+   * Renders a parameterized statement which inserts a row or updates the existing row with the same key.
+   * The parameters are ordered like the columns, as in {@link #insert(DBTable, List)}, and the key is
+   * determined by {@link #upsertKeyColumns(DBTable, List)}. The default implementation renders an SQL:2003
+   * <code>merge</code> statement.
+   */
+  public String upsert(DBTable table, List<ColumnInfo> columnInfos) {
+    if (!isUpsertSupported()) {
+      throw ExceptionFactory.getInstance().programmerUnsupported(
+          getClass().getSimpleName() + " does not support upserts");
+    }
+    String[] keyColumnNames = upsertKeyColumns(table, columnInfos);
+    String tableName = createCatSchTabString(table.getCatalog().getName(), table.getSchema().getName(), table.getName(), this);
+    StringBuilder builder = new StringBuilder("merge into ").append(tableName).append(" t using ");
+    builder.append(renderMergeSource(table, columnInfos)).append(" on (");
+    for (int i = 0; i < keyColumnNames.length; i++) {
+      if (i > 0) {
+        builder.append(" and ");
+      }
+      appendQualifiedColumnName("t", keyColumnNames[i], builder).append('=');
+      appendQualifiedColumnName("s", keyColumnNames[i], builder);
+    }
+    builder.append(')');
+    boolean first = true;
+    for (ColumnInfo column : columnInfos) {
+      if (!StringUtil.containsIgnoreCase(column.name, keyColumnNames)) {
+        builder.append(first ? " when matched then update set " : ",");
+        appendQualifiedColumnName("t", column.name, builder).append('=');
+        appendQualifiedColumnName("s", column.name, builder);
+        first = false;
+      }
+    }
+    builder.append(" when not matched then insert (").append(renderColumnList(columnInfos)).append(") values (");
+    for (int i = 0; i < columnInfos.size(); i++) {
+      if (i > 0) {
+        builder.append(',');
+      }
+      appendQualifiedColumnName("s", columnInfos.get(i).name, builder);
+    }
+    builder.append(')');
+    String sql = builder.toString();
+    logger.debug("built SQL statement: {}", sql);
+    return sql;
+  }
+
+  /**
+   * Determines the columns which identify the row to update in an upsert: the primary key if all its columns
+   * are written, otherwise the unique constraint with the fewest columns among the written ones.
+   */
+  public String[] upsertKeyColumns(DBTable table, List<ColumnInfo> columnInfos) {
+    String[] pkColumnNames = table.getPKColumnNames();
+    if (pkColumnNames.length > 0 && containsAllColumns(columnInfos, pkColumnNames)) {
+      return pkColumnNames;
+    }
+    String[] result = null;
+    for (DBUniqueConstraint constraint : table.getUniqueConstraints(false)) {
+      String[] columnNames = constraint.getColumnNames();
+      if (containsAllColumns(columnInfos, columnNames) && (result == null || columnNames.length < result.length)) {
+        result = columnNames;
+      }
+    }
+    if (result == null) {
+      throw ExceptionFactory.getInstance().illegalArgument("Table " + table.getName() +
+          " has no primary key or unique constraint which is covered by the columns to upsert");
+    }
+    return result;
+  }
+
+  /** Renders the <code>using</code> clause of a <code>merge</code> statement, which provides one row of
+   *  parameters as table <code>s</code>. */
+  protected String renderMergeSource(DBTable table, List<ColumnInfo> columnInfos) {
+    return "(values " + renderRowParams(columnInfos.size()) + ") s (" + renderColumnList(columnInfos) + ")";
+  }
+
+  protected StringBuilder appendQualifiedColumnName(String alias, String columnName, StringBuilder builder) {
+    builder.append(alias).append('.');
+    appendColumnName(columnName, builder, this);
+    return builder;
+  }
+
+  private static boolean containsAllColumns(List<ColumnInfo> columnInfos, String[] columnNames) {
+    for (String columnName : columnNames) {
+      boolean found = false;
+      for (ColumnInfo column : columnInfos) {
+        if (column.name.equalsIgnoreCase(columnName)) {
+          found = true;
+          break;
+        }
+      }
+      if (!found) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Inserts new rows and updates existing ones in batches of {@link #upsert(DBTable, List)} statements.
+   * The rows are committed.
+   * @return the number of rows written
+   */
+  public long bulkUpsert(DBTable table, List<ColumnInfo> columns, Iterator<Object[]> rows, Connection connection) {
+    return writeAll(new BulkWriter(table, columns, BulkWriter.Operation.UPSERT, connection, this), rows);
+  }
+
+  // scripts ---------------------------------------------------------------------------------------------------------
+
+  /** Configures a script reader for the dialect's script syntax, like block delimiters or special quotes.
+   *  @return the reader */
+  public SQLScriptReader configureScriptReader(SQLScriptReader reader) {
+    return reader;
+  }
+
+  // bulk load -------------------------------------------------------------------------------------------------------
+
+  /**
+   * Loads rows into a table, using the database's native bulk import facility if the dialect provides one
+   * (see {@link #nativeBulkLoad(DBTable, List, Iterator, Connection)}) and falling back to batched inserts
+   * with a {@link BulkWriter} otherwise. The loaded rows are committed.
+   * @param table      the table to load
+   * @param columns    the columns to load, in the order of the row values
+   * @param rows       provides the rows as arrays of column values
+   * @param connection the connection to use
+   * @return the number of rows loaded
+   */
+  public long bulkLoad(DBTable table, List<ColumnInfo> columns, Iterator<Object[]> rows, Connection connection) {
+    long count;
+    try {
+      Long nativeCount = (isNativeBulkLoadApplicable(columns) ? nativeBulkLoad(table, columns, rows, connection) : null);
+      if (nativeCount != null) {
+        if (!connection.getAutoCommit()) {
+          connection.commit();
+        }
+        logger.debug("Bulk loaded {} rows into {} natively", nativeCount, table.getName());
+        count = nativeCount;
+      } else {
+        count = batchInsert(table, columns, rows, connection);
+      }
+    } catch (SQLException | IOException e) {
+      throw ExceptionFactory.getInstance().mutationFailed("Bulk load into table " + table.getName() + " failed", e);
+    }
+    QueryCache cache = DBUtil.getQueryCache();
+    if (cache != null) {
+      cache.invalidateTables(Set.of(table.getName()));
+    }
+    return count;
+  }
+
+  /**
+   * Loads rows with the database's native bulk import facility. Implementations must check the facility's
+   * availability before consuming any row and return null if it is not available.
+   * @return the number of rows loaded or null if the native facility cannot be used
+   */
+  protected Long nativeBulkLoad(DBTable table, List<ColumnInfo> columns, Iterator<Object[]> rows, Connection connection)
+      throws SQLException, IOException {
+    return null;
+  }
+
+  /** Tells if the column values can be represented in the text format of native bulk loads; binary data cannot. */
+  protected boolean isNativeBulkLoadApplicable(List<ColumnInfo> columns) {
+    for (ColumnInfo column : columns) {
+      switch (column.sqlType) {
+        case Types.BINARY:
+        case Types.VARBINARY:
+        case Types.LONGVARBINARY:
+        case Types.BLOB:
+        case Types.ARRAY:
+        case Types.STRUCT:
+        case Types.JAVA_OBJECT:
+          return false;
+        default:
+          // check next column
+      }
+    }
+    return true;
+  }
+
+  protected long batchInsert(DBTable table, List<ColumnInfo> columns, Iterator<Object[]> rows, Connection connection) {
+    return writeAll(new BulkWriter(table, columns, connection, this), rows);
+  }
+
+  private static long writeAll(BulkWriter writer, Iterator<Object[]> rows) {
+    try {
+      while (rows.hasNext()) {
+        writer.write(rows.next());
+      }
+    } finally {
+      writer.close();
+    }
+    return writer.getRowCount();
+  }
+
+  protected String renderColumnList(List<ColumnInfo> columns) {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < columns.size(); i++) {
+      if (i > 0) {
+        builder.append(',');
+      }
+      appendColumnName(columns.get(i).name, builder, this);
+    }
+    return builder.toString();
+  }
+
   public String formatValue(Object value) {
     if (value instanceof CharSequence || value instanceof Character) {
       return "'" + DBUtil.escape(value.toString()) + "'";
     } else if (value instanceof Timestamp) {
       return formatTimestamp((Timestamp) value);
     } else if (value instanceof Time) {
-      return timeFormat.format(value);
+      return timeFormat.get().format(value);
     } else if (value instanceof Date) {
       if (TimeUtil.isMidnight((Date) value)) {
-        return dateFormat.format(value);
+        return dateFormat.get().format(value);
       } else {
-        return datetimeFormat.format(value);
+        return datetimeFormat.get().format(value);
       }
     } else {
       return String.valueOf(value);
@@ -421,6 +793,25 @@ public List<DBPackage> queryPackages(DBSchema schema, Connection connection) {
     return new ArrayList<>();
   }
 
+  /** @return the data dictionary queries for importing the meta data of a complete schema at once,
+   *  or null if the dialect relies on {@link DatabaseMetaData} */
+  public MetaDataProvider getMetaDataProvider() {
+    return null;
+  }
+
+  /** Returns the data dictionary queries of a dialect which have not been verified against a real database
+   *  only if they are enabled with the system property {@value #UNTESTED_META_DATA_QUERIES_SYSPROP}.
+   *  @return the provider or null */
+  protected static MetaDataProvider untested(MetaDataProvider provider) {
+    return (Boolean.getBoolean(UNTESTED_META_DATA_QUERIES_SYSPROP) ? provider : null);
+  }
+
+  /** Tells if the driver's {@link DatabaseMetaData} returns the primary keys, indexes and foreign keys
+   *  of all tables of a schema if the table name is null. */
+  public boolean isMetaDataOfAllTablesSupported(DatabaseMetaData metaData) throws SQLException {
+    return true;
+  }
+
   public abstract void restrictRownums(int rowOffset, int rowCount, Query query);
 
   /** returns a database dialect's special type name for a primitive type. */
@@ -28,7 +28,11 @@
 import com.rapiddweller.common.version.VersionNumber;
 import com.rapiddweller.jdbacl.dialect.UnknownDialect;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Manages {@link DatabaseDialect}s.<br/><br/>
@@ -42,7 +46,11 @@ public class DatabaseDialectManager {
 
   private static final String FILENAME = "com/rapiddweller/jdbacl/databene.db_dialect.properties";
 
-  private static Map<String, String> mappings;
+  /** the dialect mappings in configuration order, parsed once on initialization */
+  private static volatile List<Matcher> matchers;
+
+  /** shared dialect instances by normalized product name and version */
+  private static final Map<String, DatabaseDialect> dialects = new ConcurrentHashMap<>();
 
   static {
     init();
@@ -50,7 +58,13 @@ public class DatabaseDialectManager {
 
   public static void init() {
     try {
-      mappings = IOUtil.readProperties(FILENAME);
+      Map<String, String> mappings = IOUtil.readProperties(FILENAME);
+      List<Matcher> list = new ArrayList<>(mappings.size());
+      for (Map.Entry<String, String> entry : mappings.entrySet()) {
+        list.add(new Matcher(entry.getKey(), entry.getValue()));
+      }
+      matchers = Collections.unmodifiableList(list);
+      dialects.clear();
     } catch (Exception e) {
       throw ExceptionFactory.getInstance().componentInitializationFailed(COMPONENT_NAME, e);
     }
@@ -61,22 +75,42 @@ private DatabaseDialectManager() {
   }
 
   /** Provides the dialect for a product in a certain version.
+   *  Dialect instances are shared between all callers asking for the same product and version.
    *  @param productName the product name
    *  @param version     if no version is specified, the newest one is assumed */
   public static DatabaseDialect getDialectForProduct(String productName, VersionNumber version) {
     String normalizedProductName = productName.toLowerCase().replace(' ', '_');
-    for (Map.Entry<String, String> entry : mappings.entrySet()) {
-      String[] tokens = entry.getKey().split(" ");
-      String p = tokens[0];
-      String v = null;
-      if (tokens.length == 2) {
-        v = tokens[1];
-      }
-      if (normalizedProductName.contains(p) && (v == null || version == null || version.compareTo(VersionNumber.valueOf(v)) >= 0)) {
-        return (DatabaseDialect) BeanUtil.newInstance(entry.getValue());
+    String key = normalizedProductName + '|' + (version != null ? version : "");
+    return dialects.computeIfAbsent(key, k -> createDialect(productName, normalizedProductName, version));
+  }
+
+  private static DatabaseDialect createDialect(String productName, String normalizedProductName, VersionNumber version) {
+    for (Matcher matcher : matchers) {
+      if (matcher.matches(normalizedProductName, version)) {
+        return (DatabaseDialect) BeanUtil.newInstance(matcher.dialectClassName);
       }
     }
     return new UnknownDialect(productName);
   }
 
+  /** Matches a product name and an optional minimum version, as configured in a property key like 'hsql 2'. */
+  private static final class Matcher {
+
+    final String product;
+    final VersionNumber minVersion;
+    final String dialectClassName;
+
+    Matcher(String key, String dialectClassName) {
+      String[] tokens = key.split(" ");
+      this.product = tokens[0];
+      this.minVersion = (tokens.length == 2 ? VersionNumber.valueOf(tokens[1]) : null);
+      this.dialectClassName = dialectClassName;
+    }
+
+    boolean matches(String normalizedProductName, VersionNumber version) {
+      return normalizedProductName.contains(product)
+          && (minVersion == null || version == null || version.compareTo(minVersion) >= 0);
+    }
+  }
+
 }
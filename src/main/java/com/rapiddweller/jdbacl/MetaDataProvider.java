@@ -0,0 +1,74 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Service provider interface for dialect-specific data dictionary queries which fetch the meta data
+ * of all tables of a schema at once, as a faster alternative to {@link DatabaseMetaData}.
+ * Each method returns a result set with the column layout of the related {@link DatabaseMetaData} method,
+ * sorted by table, or null if the dialect does not provide a query for it.
+ * The caller closes the result set with its statement.<br/><br/>
+ * Created: 22.03.2022 08:41:17
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+public interface MetaDataProvider {
+
+  /** @return the columns in the layout of {@link DatabaseMetaData#getColumns(String, String, String, String)} */
+  ResultSet getColumns(Connection connection, String catalogName, String schemaName) throws SQLException;
+
+  /** @return the primary key columns in the layout of {@link DatabaseMetaData#getPrimaryKeys(String, String, String)} */
+  ResultSet getPrimaryKeys(Connection connection, String catalogName, String schemaName) throws SQLException;
+
+  /** @return the index columns in the layout of {@link DatabaseMetaData#getIndexInfo(String, String, String, boolean, boolean)},
+   *  sorted by table, index name and ordinal position */
+  ResultSet getIndexInfo(Connection connection, String catalogName, String schemaName) throws SQLException;
+
+  /** @return the foreign key columns of the schema's tables in the layout of
+   *  {@link DatabaseMetaData#getImportedKeys(String, String, String)}, sorted by foreign key table */
+  ResultSet getImportedKeys(Connection connection, String catalogName, String schemaName) throws SQLException;
+
+  /** @return the foreign key columns which reference the schema's tables in the layout of
+   *  {@link DatabaseMetaData#getExportedKeys(String, String, String)} */
+  ResultSet getExportedKeys(Connection connection, String catalogName, String schemaName) throws SQLException;
+
+  /** @return the names of the schema's tables in the first column and a change marker in the second one,
+   *  which is altered by the database when the table definition changes. A marker may change spuriously,
+   *  but must not stay the same when the table's columns, keys or indexes are modified */
+  ResultSet getTableChangeMarkers(Connection connection, String catalogName, String schemaName) throws SQLException;
+
+  /** @return a single row which is computed by the database from the tables, columns, constraints and indexes
+   *  of the schema. The values of the row together form a fingerprint of the schema, which is subject to the same
+   *  change rules as the table change markers */
+  ResultSet getSchemaFingerprint(Connection connection, String catalogName, String schemaName) throws SQLException;
+
+}
@@ -0,0 +1,417 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl;
+
+import com.rapiddweller.common.ErrorHandler;
+import com.rapiddweller.common.SystemInfo;
+import com.rapiddweller.common.exception.ExceptionFactory;
+import com.rapiddweller.jdbacl.model.DBForeignKeyConstraint;
+import com.rapiddweller.jdbacl.model.DBTable;
+import com.rapiddweller.jdbacl.sql.SQLParserUtil;
+import com.rapiddweller.jdbacl.sql.parser.ANTLRNoCaseStringStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.regex.Pattern;
+
+/**
+ * Executes the statements of an SQL script concurrently on a pool of connections.
+ * For each statement, the tables and views it touches are determined, using {@link SQLParserUtil#parse}
+ * for the DDL the SQL grammar supports and {@link SQLUtil#referencedTables(String)} otherwise.
+ * The statements form a dependency graph in which a statement waits for all preceding statements
+ * that touch one of its tables, so DDL on the same table keeps its script order, and a table is created
+ * before a statement referencing it is executed. Statements with undeterminable dependencies,
+ * like procedure calls or DDL on sequences and other database objects, act as barriers:
+ * They wait for all preceding statements, and all following statements wait for them.
+ * Session statements like <code>SET SCHEMA</code> or <code>ALTER SESSION</code> are barriers as well,
+ * and they are executed on each of the connections, so that all following statements see the setting.
+ * Independent statements, e.g. <code>CREATE INDEX</code> or <code>ALTER TABLE ... ADD CONSTRAINT</code>
+ * on different tables, run in parallel. Each statement is committed after its execution,
+ * since dependent statements may be executed on other connections. Query results are discarded.
+ * Failures are reported to the {@link ErrorHandler} as {@link SQLScriptException}s; if the error handler
+ * does not throw an exception, execution continues, otherwise no further statements are started
+ * and the exception is rethrown by {@link #execute(String, int)} or {@link #finish()}.<br/><br/>
+ * Created: 22.03.2022 10:12:44
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+public class ParallelScriptExecutor implements ScriptExecutor {
+
+  private static final Logger logger = LoggerFactory.getLogger(ParallelScriptExecutor.class);
+
+  /** The maximum number of statements which may be scheduled but unfinished before the script reading blocks */
+  public static final int MAX_PENDING_STATEMENTS = 1000;
+
+  /** DDL statements for which the touched tables can be determined */
+  private static final Pattern TABLE_DDL = Pattern.compile(
+      "(?is)\\s*(create|alter|drop)\\s+((or\\s+replace|unique|bitmap|global|local|temporary|temp|materialized)\\s+)*" +
+          "(table|index|view)\\b.*");
+
+  /** CREATE TABLE statements, whose inline constraints the SQL grammar resolves. For other statements,
+   *  the token-based scan finds all tables and an attempt to parse them would only produce syntax errors. */
+  private static final Pattern CREATE_TABLE = Pattern.compile(
+      "(?is)\\s*create\\s+((global|local|temporary|temp)\\s+)*table\\b.*");
+
+  /** Statements which change the settings of the executing connection's session */
+  private static final Pattern SESSION_STATEMENT = Pattern.compile(
+      "(?is)\\s*(set\\s+(?!table\\b)|alter\\s+session\\b|use\\s).*");
+
+  private final List<Connection> connections;
+  private final BlockingQueue<Connection> idleConnections;
+  private final DatabaseDialect dialect;
+  private final ErrorHandler errorHandler;
+  private final ExecutorService threadPool;
+
+  // scheduling state, guarded by 'this'
+  private final Set<Node> unfinished;
+  private final Map<String, Node> lastNodeByTable;
+  private Node lastBarrier;
+  private int scheduledCount;
+  private int runningCount;
+  private int maxRunningCount;
+  private RuntimeException abortCause;
+
+  private long scheduledStatementCount;
+  private long statementCount;
+  private long committedCount;
+  private final Set<Long> completedAhead;
+  private ScriptProgress progress;
+  private SQLScriptException exception;
+  private boolean changedStructure;
+
+  // constructor -----------------------------------------------------------------------------------------------------
+
+  /**
+   * @param connections  the connections on which to execute the statements. Their number determines the degree
+   *                     of parallelism. They remain open after the execution.
+   * @param errorHandler the error handler to notify of failed statements, or null for a default one
+   */
+  public ParallelScriptExecutor(List<Connection> connections, ErrorHandler errorHandler) {
+    if (connections.isEmpty()) {
+      throw ExceptionFactory.getInstance().illegalArgument("No connections provided for parallel script execution");
+    }
+    this.connections = new ArrayList<>(connections);
+    this.idleConnections = new ArrayBlockingQueue<>(connections.size(), false, connections);
+    this.dialect = DBUtil.getDialect(connections.get(0));
+    this.errorHandler = (errorHandler != null ? errorHandler : new ErrorHandler(DBUtil.class));
+    this.threadPool = Executors.newFixedThreadPool(connections.size());
+    this.unfinished = new HashSet<>();
+    this.lastNodeByTable = new HashMap<>();
+    this.completedAhead = new HashSet<>();
+  }
+
+  // properties ------------------------------------------------------------------------------------------------------
+
+  public int getParallelism() {
+    return connections.size();
+  }
+
+  @Override
+  public synchronized long getStatementCount() {
+    return statementCount;
+  }
+
+  /** @return the length of the longest sequence of statements from the script start which are completed */
+  @Override
+  public synchronized long getCommittedCount() {
+    return committedCount;
+  }
+
+  @Override
+  public void setProgress(ScriptProgress progress) {
+    this.progress = progress;
+  }
+
+  /** @return the maximum number of statements which have been executed concurrently */
+  public synchronized int getMaxRunningCount() {
+    return maxRunningCount;
+  }
+
+  /** @return null, since the order of results is not defined in parallel execution */
+  @Override
+  public Object getResult() {
+    return null;
+  }
+
+  @Override
+  public synchronized SQLScriptException getException() {
+    return exception;
+  }
+
+  @Override
+  public synchronized boolean isChangedStructure() {
+    return changedStructure;
+  }
+
+  // operational interface -------------------------------------------------------------------------------------------
+
+  /** Schedules a statement for execution after all preceding statements it depends on.
+   *  Blocks while {@link #MAX_PENDING_STATEMENTS} statements are unfinished. */
+  @Override
+  public void execute(String sql, int lineNo) {
+    boolean session = isSessionStatement(sql);
+    Set<String> tables = (session ? null : touchedTables(sql));
+    synchronized (this) {
+      while (unfinished.size() >= MAX_PENDING_STATEMENTS && abortCause == null) {
+        await();
+      }
+      if (abortCause != null) {
+        throw abortCause;
+      }
+      Node node = new Node(scheduledStatementCount++, sql, lineNo, tables, session);
+      if (node.tables == null) {
+        for (Node predecessor : unfinished) {
+          link(predecessor, node);
+        }
+        lastNodeByTable.clear();
+        lastBarrier = node;
+      } else {
+        if (lastBarrier != null) {
+          link(lastBarrier, node);
+        }
+        for (String table : node.tables) {
+          Node predecessor = lastNodeByTable.put(table, node);
+          if (predecessor != null) {
+            link(predecessor, node);
+          }
+        }
+      }
+      unfinished.add(node);
+      if (node.predecessorCount == 0) {
+        start(node);
+      }
+    }
+  }
+
+  /** Waits until all scheduled statements have been executed. */
+  @Override
+  public synchronized void finish() {
+    while (!unfinished.isEmpty() && (abortCause == null || scheduledCount > 0)) {
+      await();
+    }
+    if (abortCause != null) {
+      throw abortCause;
+    }
+    logger.debug("Executed {} script statements with a maximum of {} in parallel", statementCount, maxRunningCount);
+  }
+
+  /** Stops the worker threads, interrupting running statements. The connections are not closed. */
+  @Override
+  public void close() {
+    threadPool.shutdownNow();
+  }
+
+  // dependency analysis ---------------------------------------------------------------------------------------------
+
+  /** Tells if a statement changes the session settings of the connection which executes it */
+  static boolean isSessionStatement(String sql) {
+    return SESSION_STATEMENT.matcher(sql).matches();
+  }
+
+  /** @return the upper case names of the tables and views touched by the statement,
+   *  or null if they cannot be determined */
+  Set<String> touchedTables(String sql) {
+    if (SQLUtil.isDDL(sql) && !TABLE_DDL.matcher(sql).matches()) {
+      return null;
+    }
+    Set<String> tables = SQLUtil.referencedTables(sql);
+    if (CREATE_TABLE.matcher(sql).matches()) {
+      addParsedTables(sql, tables);
+    }
+    return (tables.isEmpty() ? null : tables);
+  }
+
+  /** Adds the tables of a statement, if it is covered by the SQL grammar. */
+  private void addParsedTables(String sql, Set<String> tables) {
+    Object parsed;
+    try {
+      parsed = SQLParserUtil.parse(new ANTLRNoCaseStringStream(sql + ';'), dialect, false);
+    } catch (RuntimeException e) {
+      return; // the grammar supports a subset of DDL only, the token-based scan serves as fallback
+    }
+    for (Object object : (parsed instanceof Object[] ? (Object[]) parsed : new Object[] { parsed })) {
+      if (object instanceof DBTable) {
+        DBTable table = (DBTable) object;
+        tables.add(table.getName().toUpperCase());
+        for (DBForeignKeyConstraint fk : table.getForeignKeyConstraints()) {
+          tables.add(fk.getRefereeTable().getName().toUpperCase());
+        }
+      }
+    }
+  }
+
+  // private helpers -------------------------------------------------------------------------------------------------
+
+  private static void link(Node predecessor, Node successor) {
+    predecessor.successors.add(successor);
+    successor.predecessorCount++;
+  }
+
+  /** Submits a node to the thread pool, to be called while holding the lock */
+  private void start(Node node) {
+    scheduledCount++;
+    threadPool.execute(() -> run(node));
+  }
+
+  private void run(Node node) {
+    SQLException error = null;
+    boolean structural = false;
+    try {
+      // a session statement is a barrier, so all connections are idle and it is applied to each one of them
+      List<Connection> used = new ArrayList<>();
+      for (int i = (node.session ? connections.size() : 1); i > 0; i--) {
+        used.add(idleConnections.take());
+      }
+      updateRunningCount(1);
+      long startNanos = System.nanoTime();
+      try {
+        for (Connection connection : used) {
+          if (SQLUtil.isQuery(node.sql)) {
+            DBUtil.queryAndSimplify(node.sql, connection);
+          } else {
+            DBUtil.executeUpdate(node.sql, connection);
+            structural = SQLUtil.mutatesStructure(node.sql);
+          }
+        }
+      } catch (SQLException e) {
+        error = e;
+      } finally {
+        updateRunningCount(-1);
+        idleConnections.addAll(used);
+      }
+      if (progress != null) {
+        progress.statementExecuted(node.sql, node.lineNo, System.nanoTime() - startNanos);
+      }
+      complete(node, structural, error);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      abort(node, ExceptionFactory.getInstance().operationCancelled("Script execution was interrupted"));
+    } catch (RuntimeException e) {
+      abort(node, e);
+    }
+  }
+
+  private synchronized void complete(Node node, boolean structural, SQLException error) {
+    statementCount++;
+    advanceCommittedCount(node.index);
+    changedStructure |= structural;
+    if (error != null) {
+      SQLScriptException scriptException = new SQLScriptException(error, node.lineNo);
+      if (exception == null) { // only the first exception is saved
+        exception = scriptException;
+      }
+      // the error handler may throw an exception which aborts the execution
+      errorHandler.handleError("Error in executing SQL of line " + node.lineNo + ": " +
+          SystemInfo.getLineSeparator() + node.sql, scriptException);
+    }
+    scheduledCount--;
+    unfinished.remove(node);
+    if (node.tables != null) {
+      for (String table : node.tables) {
+        lastNodeByTable.remove(table, node);
+      }
+    } else if (lastBarrier == node) {
+      lastBarrier = null;
+    }
+    for (Node successor : node.successors) {
+      if (--successor.predecessorCount == 0 && abortCause == null) {
+        start(successor);
+      }
+    }
+    notifyAll();
+  }
+
+  /** Since statements complete out of order, the committed count only advances over a gap-free sequence */
+  private void advanceCommittedCount(long index) {
+    if (index == committedCount) {
+      committedCount++;
+      while (completedAhead.remove(committedCount)) {
+        committedCount++;
+      }
+    } else {
+      completedAhead.add(index);
+    }
+  }
+
+  private synchronized void updateRunningCount(int delta) {
+    runningCount += delta;
+    maxRunningCount = Math.max(maxRunningCount, runningCount);
+  }
+
+  private synchronized void abort(Node node, RuntimeException cause) {
+    if (abortCause == null) {
+      abortCause = cause;
+    }
+    scheduledCount--;
+    unfinished.remove(node);
+    notifyAll();
+  }
+
+  private void await() {
+    try {
+      wait();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw ExceptionFactory.getInstance().operationCancelled("Script execution was interrupted");
+    }
+  }
+
+  // helper class ----------------------------------------------------------------------------------------------------
+
+  private static final class Node {
+
+    final long index;
+    final String sql;
+    final int lineNo;
+    final Set<String> tables;
+    final boolean session;
+    final List<Node> successors;
+    int predecessorCount;
+
+    Node(long index, String sql, int lineNo, Set<String> tables, boolean session) {
+      this.index = index;
+      this.sql = sql;
+      this.lineNo = lineNo;
+      this.tables = tables;
+      this.session = session;
+      this.successors = new ArrayList<>(2);
+    }
+  }
+
+}
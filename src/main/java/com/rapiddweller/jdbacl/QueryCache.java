@@ -0,0 +1,391 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl;
+
+import com.rapiddweller.common.exception.ExceptionFactory;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.Ref;
+import java.sql.SQLException;
+import java.sql.SQLXML;
+import java.sql.Struct;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Caches the results of read-only queries, keyed by database, SQL and parameters.
+ * Each entry is tagged with the tables it reads, so that a write to one of these tables
+ * (see {@link #invalidate(String)}) evicts it. Entries expire after a time to live,
+ * and the least recently used entries are evicted when the maximum size is exceeded.
+ * Queries which use sequences, random values or the system time are never cached.
+ * Since entries are shared by all callers, results are copied when they are cached and when they are returned,
+ * so that no caller can change what others get. Results with LOB or other connection-bound values are not cached.
+ * <br/><br/>
+ * Created: 11.03.2022 09:14:27
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+public class QueryCache {
+
+  private static final Pattern VOLATILE_SQL = Pattern.compile(
+      "(?i).*\\b(nextval|currval|next\\s+value\\s+for|sysdate|systimestamp|current_timestamp|current_date|" +
+          "current_time|localtimestamp|localtime|now|rand|random|uuid|newid|sys_guid)\\b.*", Pattern.DOTALL);
+
+  private final int maxEntries;
+  private final int maxRowsPerEntry;
+  private final long timeToLive;
+
+  private final LinkedHashMap<Key, Entry> entries;
+  private final Map<String, Set<Key>> keysByTable;
+  private final Map<Connection, String> scopes;
+
+  /** incremented on each invalidation for detecting results which were queried before a concurrent write */
+  private long invalidationEpoch;
+
+  private long hitCount;
+  private long missCount;
+  private long evictionCount;
+  private long invalidationCount;
+
+  // constructor -----------------------------------------------------------------------------------------------------
+
+  /**
+   * @param maxEntries      the maximum number of cached query results
+   * @param maxRowsPerEntry results with more rows are not cached
+   * @param timeToLive      the number of milliseconds for which a result is considered valid
+   */
+  public QueryCache(int maxEntries, int maxRowsPerEntry, long timeToLive) {
+    if (maxEntries <= 0 || maxRowsPerEntry <= 0 || timeToLive <= 0) {
+      throw ExceptionFactory.getInstance().illegalArgument("QueryCache settings must be positive, but were: " +
+          "maxEntries=" + maxEntries + ", maxRowsPerEntry=" + maxRowsPerEntry + ", timeToLive=" + timeToLive);
+    }
+    this.maxEntries = maxEntries;
+    this.maxRowsPerEntry = maxRowsPerEntry;
+    this.timeToLive = timeToLive;
+    this.entries = new LinkedHashMap<>(16, 0.75f, true);
+    this.keysByTable = new HashMap<>();
+    this.scopes = new WeakHashMap<>();
+    this.invalidationEpoch = 0;
+  }
+
+  // properties ------------------------------------------------------------------------------------------------------
+
+  public int getMaxEntries() {
+    return maxEntries;
+  }
+
+  public int getMaxRowsPerEntry() {
+    return maxRowsPerEntry;
+  }
+
+  public long getTimeToLive() {
+    return timeToLive;
+  }
+
+  // cache operations ------------------------------------------------------------------------------------------------
+
+  public static boolean isCacheable(String sql) {
+    return SQLUtil.isQuery(sql) && !VOLATILE_SQL.matcher(sql).matches();
+  }
+
+  /** Creates a lookup key for a query.
+   *  @param connection the connection on which the query is executed
+   *  @param sql the SQL query
+   *  @param params the query parameters and any further setting which influences the result representation
+   *  @return a key for {@link #get(Key)} and {@link #put(Key, Object, int)} */
+  public Key createKey(Connection connection, String sql, Object... params) {
+    return new Key(scopeOf(connection), sql, params.clone());
+  }
+
+  /** @return the cached result for the key or null if there is no valid entry */
+  public synchronized Object get(Key key) {
+    Entry entry = entries.get(key);
+    if (entry != null && entry.expiry < System.currentTimeMillis()) {
+      remove(key);
+      entry = null;
+    }
+    if (entry != null) {
+      hitCount++;
+      return copy(entry.result);
+    } else {
+      missCount++;
+      key.epoch = invalidationEpoch;
+      return null;
+    }
+  }
+
+  /** Caches a query result unless it is too large or a write happened since the preceding {@link #get(Key)} */
+  public synchronized void put(Key key, Object result, int rowCount) {
+    if (rowCount > maxRowsPerEntry || key.epoch != invalidationEpoch || !isCacheableValue(result)) {
+      return;
+    }
+    Set<String> tables = SQLUtil.referencedTables(key.sql);
+    remove(key);
+    entries.put(key, new Entry(copy(result), tables, System.currentTimeMillis() + timeToLive));
+    for (String table : tables) {
+      keysByTable.computeIfAbsent(table, k -> new HashSet<>()).add(key);
+    }
+    Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+    while (entries.size() > maxEntries && iterator.hasNext()) {
+      Map.Entry<Key, Entry> eldest = iterator.next();
+      iterator.remove();
+      untag(eldest.getKey(), eldest.getValue());
+      evictionCount++;
+    }
+  }
+
+  /** Evicts all results which read a table that is written by the given SQL statement.
+   *  If the written tables cannot be determined, the complete cache is cleared. */
+  public void invalidate(String sql) {
+    Set<String> tables = SQLUtil.referencedTables(sql);
+    if (tables.isEmpty()) {
+      clear();
+    } else {
+      invalidateTables(tables);
+    }
+  }
+
+  public synchronized void invalidateTables(Set<String> tableNames) {
+    invalidationEpoch++;
+    for (String tableName : tableNames) {
+      Set<Key> keys = keysByTable.remove(tableName.toUpperCase());
+      if (keys != null) {
+        for (Key key : keys) {
+          if (remove(key)) {
+            invalidationCount++;
+          }
+        }
+      }
+    }
+  }
+
+  public synchronized void clear() {
+    invalidationEpoch++;
+    invalidationCount += entries.size();
+    entries.clear();
+    keysByTable.clear();
+  }
+
+  // metrics ---------------------------------------------------------------------------------------------------------
+
+  public synchronized int size() {
+    return entries.size();
+  }
+
+  public synchronized long getHitCount() {
+    return hitCount;
+  }
+
+  public synchronized long getMissCount() {
+    return missCount;
+  }
+
+  public synchronized long getEvictionCount() {
+    return evictionCount;
+  }
+
+  public synchronized long getInvalidationCount() {
+    return invalidationCount;
+  }
+
+  /** @return the ratio of lookups which were answered from the cache, or 0 if there was no lookup yet */
+  public synchronized double hitRatio() {
+    long requests = hitCount + missCount;
+    return (requests > 0 ? (double) hitCount / requests : 0.);
+  }
+
+  public synchronized void resetMetrics() {
+    hitCount = 0;
+    missCount = 0;
+    evictionCount = 0;
+    invalidationCount = 0;
+  }
+
+  // java.lang.Object overrides --------------------------------------------------------------------------------------
+
+  @Override
+  public synchronized String toString() {
+    return getClass().getSimpleName() + "[size=" + entries.size() + ", hits=" + hitCount + ", misses=" + missCount +
+        ", evictions=" + evictionCount + ", invalidations=" + invalidationCount + "]";
+  }
+
+  // private helpers -------------------------------------------------------------------------------------------------
+
+  /** @return false if the value is or contains a value which is bound to its connection, like a LOB */
+  private static boolean isCacheableValue(Object value) {
+    if (value instanceof Object[]) {
+      for (Object element : (Object[]) value) {
+        if (!isCacheableValue(element)) {
+          return false;
+        }
+      }
+      return true;
+    } else if (value instanceof List) {
+      for (Object element : (List<?>) value) {
+        if (!isCacheableValue(element)) {
+          return false;
+        }
+      }
+      return true;
+    } else {
+      return !(value instanceof Blob || value instanceof Clob || value instanceof Array || value instanceof Ref
+          || value instanceof SQLXML || value instanceof Struct || value instanceof InputStream
+          || value instanceof Reader);
+    }
+  }
+
+  /** @return a deep copy of arrays, lists and mutable values like dates, the value itself if it is immutable */
+  private static Object copy(Object value) {
+    if (value instanceof Object[]) {
+      Object[] result = ((Object[]) value).clone();
+      for (int i = 0; i < result.length; i++) {
+        result[i] = copy(result[i]);
+      }
+      return result;
+    } else if (value instanceof List) {
+      List<Object> result = new ArrayList<>(((List<?>) value).size());
+      for (Object element : (List<?>) value) {
+        result.add(copy(element));
+      }
+      return result;
+    } else if (value instanceof Date) {
+      return ((Date) value).clone();
+    } else if (value instanceof byte[]) {
+      return ((byte[]) value).clone();
+    } else if (value instanceof char[]) {
+      return ((char[]) value).clone();
+    } else {
+      return value;
+    }
+  }
+
+  private boolean remove(Key key) {
+    Entry entry = entries.remove(key);
+    if (entry == null) {
+      return false;
+    }
+    untag(key, entry);
+    return true;
+  }
+
+  private void untag(Key key, Entry entry) {
+    for (String table : entry.tables) {
+      Set<Key> keys = keysByTable.get(table);
+      if (keys != null) {
+        keys.remove(key);
+        if (keys.isEmpty()) {
+          keysByTable.remove(table);
+        }
+      }
+    }
+  }
+
+  /** Maps a connection to its database URL and user, so that connections to the same database share entries. */
+  private String scopeOf(Connection connection) {
+    synchronized (scopes) {
+      return scopes.computeIfAbsent(connection, c -> {
+        try {
+          DatabaseMetaData metaData = c.getMetaData();
+          return metaData.getURL() + '|' + metaData.getUserName();
+        } catch (SQLException e) {
+          throw ExceptionFactory.getInstance().dbQueryFailed("Error retrieving connection meta data", e);
+        }
+      });
+    }
+  }
+
+  // helper classes --------------------------------------------------------------------------------------------------
+
+  public static final class Key {
+
+    final String scope;
+    final String sql;
+    final Object[] params;
+    final int hash;
+    long epoch;
+
+    Key(String scope, String sql, Object[] params) {
+      this.scope = scope;
+      this.sql = sql;
+      this.params = params;
+      this.hash = Objects.hash(scope, sql) * 31 + Arrays.hashCode(params);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key that = (Key) o;
+      return this.sql.equals(that.sql) && this.scope.equals(that.scope) && Arrays.equals(this.params, that.params);
+    }
+
+    @Override
+    public int hashCode() {
+      return hash;
+    }
+
+    @Override
+    public String toString() {
+      return sql + (params.length > 0 ? " " + Arrays.toString(params) : "");
+    }
+  }
+
+  private static final class Entry {
+
+    final Object result;
+    final Set<String> tables;
+    final long expiry;
+
+    Entry(Object result, Set<String> tables, long expiry) {
+      this.result = result;
+      this.tables = tables;
+      this.expiry = expiry;
+    }
+  }
+
+}
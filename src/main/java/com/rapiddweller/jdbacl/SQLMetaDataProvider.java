@@ -0,0 +1,161 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * {@link MetaDataProvider} which executes one SQL query per kind of meta data.
+ * Each query parameter is set to the owner of the tables, which is the schema name,
+ * or the catalog name for databases like MySQL which represent databases as catalogs.
+ * The number of parameters is declared with each {@link Query}, since question marks
+ * may also appear in literals or as operators, for example in PostgreSQL.<br/><br/>
+ * Created: 22.03.2022 08:57:03
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+public class SQLMetaDataProvider implements MetaDataProvider {
+
+  private final boolean catalogIsOwner;
+  private final Query columnsQuery;
+  private final Query primaryKeysQuery;
+  private final Query indexesQuery;
+  private final Query importedKeysQuery;
+  private final Query exportedKeysQuery;
+  private final Query tableChangeMarkersQuery;
+  private final Query schemaFingerprintQuery;
+
+  public SQLMetaDataProvider(boolean catalogIsOwner, Query columnsQuery, Query primaryKeysQuery,
+                             Query indexesQuery, Query importedKeysQuery, Query exportedKeysQuery) {
+    this(catalogIsOwner, columnsQuery, primaryKeysQuery, indexesQuery, importedKeysQuery, exportedKeysQuery, null);
+  }
+
+  public SQLMetaDataProvider(boolean catalogIsOwner, Query columnsQuery, Query primaryKeysQuery,
+                             Query indexesQuery, Query importedKeysQuery, Query exportedKeysQuery,
+                             Query tableChangeMarkersQuery) {
+    this(catalogIsOwner, columnsQuery, primaryKeysQuery, indexesQuery, importedKeysQuery, exportedKeysQuery,
+        tableChangeMarkersQuery, null);
+  }
+
+  public SQLMetaDataProvider(boolean catalogIsOwner, Query columnsQuery, Query primaryKeysQuery,
+                             Query indexesQuery, Query importedKeysQuery, Query exportedKeysQuery,
+                             Query tableChangeMarkersQuery, Query schemaFingerprintQuery) {
+    this.catalogIsOwner = catalogIsOwner;
+    this.columnsQuery = columnsQuery;
+    this.primaryKeysQuery = primaryKeysQuery;
+    this.indexesQuery = indexesQuery;
+    this.importedKeysQuery = importedKeysQuery;
+    this.exportedKeysQuery = exportedKeysQuery;
+    this.tableChangeMarkersQuery = tableChangeMarkersQuery;
+    this.schemaFingerprintQuery = schemaFingerprintQuery;
+  }
+
+  /** @return a query of the given SQL, each of its parameterCount parameters is set to the owner of the tables */
+  public static Query query(String sql, int parameterCount) {
+    return new Query(sql, parameterCount);
+  }
+
+  // MetaDataProvider interface implementation -----------------------------------------------------------------------
+
+  @Override
+  public ResultSet getColumns(Connection connection, String catalogName, String schemaName) throws SQLException {
+    return query(columnsQuery, connection, catalogName, schemaName);
+  }
+
+  @Override
+  public ResultSet getPrimaryKeys(Connection connection, String catalogName, String schemaName) throws SQLException {
+    return query(primaryKeysQuery, connection, catalogName, schemaName);
+  }
+
+  @Override
+  public ResultSet getIndexInfo(Connection connection, String catalogName, String schemaName) throws SQLException {
+    return query(indexesQuery, connection, catalogName, schemaName);
+  }
+
+  @Override
+  public ResultSet getImportedKeys(Connection connection, String catalogName, String schemaName) throws SQLException {
+    return query(importedKeysQuery, connection, catalogName, schemaName);
+  }
+
+  @Override
+  public ResultSet getExportedKeys(Connection connection, String catalogName, String schemaName) throws SQLException {
+    return query(exportedKeysQuery, connection, catalogName, schemaName);
+  }
+
+  @Override
+  public ResultSet getTableChangeMarkers(Connection connection, String catalogName, String schemaName)
+      throws SQLException {
+    return query(tableChangeMarkersQuery, connection, catalogName, schemaName);
+  }
+
+  @Override
+  public ResultSet getSchemaFingerprint(Connection connection, String catalogName, String schemaName)
+      throws SQLException {
+    return query(schemaFingerprintQuery, connection, catalogName, schemaName);
+  }
+
+  // private helpers -------------------------------------------------------------------------------------------------
+
+  private ResultSet query(Query query, Connection connection, String catalogName, String schemaName)
+      throws SQLException {
+    String owner = (catalogIsOwner && catalogName != null ? catalogName : schemaName);
+    if (query == null || owner == null) {
+      return null;
+    }
+    PreparedStatement statement = connection.prepareStatement(query.sql);
+    try {
+      for (int i = 1; i <= query.parameterCount; i++) {
+        statement.setString(i, owner);
+      }
+      return statement.executeQuery();
+    } catch (SQLException e) {
+      DBUtil.close(statement);
+      throw e;
+    }
+  }
+
+  /** SQL query with the number of its parameters. */
+  public static final class Query {
+
+    private final String sql;
+    private final int parameterCount;
+
+    private Query(String sql, int parameterCount) {
+      this.sql = sql;
+      this.parameterCount = parameterCount;
+    }
+
+    @Override
+    public String toString() {
+      return sql;
+    }
+  }
+
+}
@@ -24,6 +24,7 @@
 import com.rapiddweller.common.ArrayFormat;
 import com.rapiddweller.common.Assert;
 import com.rapiddweller.common.CollectionUtil;
+import com.rapiddweller.common.NameUtil;
 import com.rapiddweller.common.StringUtil;
 import com.rapiddweller.common.SystemInfo;
 import com.rapiddweller.common.exception.ExceptionFactory;
@@ -44,6 +45,8 @@
 import java.io.PrintWriter;
 import java.io.StreamTokenizer;
 import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
@@ -80,6 +83,12 @@ private SQLUtil() {
   private static final Set<String> PROCEDURE_CALLS = CollectionUtil.toSet(
       "execute", "exec", "call");
 
+  private static final Set<String> TABLE_SCAN_KEYWORDS = CollectionUtil.toSet(
+      "SELECT", "WHERE", "GROUP", "ORDER", "HAVING", "UNION", "INTERSECT", "EXCEPT", "MINUS",
+      "LEFT", "RIGHT", "INNER", "OUTER", "FULL", "CROSS", "NATURAL", "JOIN", "ON", "USING",
+      "SET", "VALUES", "LIMIT", "OFFSET", "FETCH", "FOR", "WITH", "AS", "IF", "EXISTS", "NOT",
+      "ONLY", "CONNECT", "START", "WINDOW", "DEFAULT");
+
   public static Object[] parseColumnTypeAndSize(String spec) {
     int lparen = spec.indexOf('(');
     if (lparen < 0) {
@@ -101,9 +110,16 @@ public static Object[] parseColumnTypeAndSize(String spec) {
 
   public static void renderCreateTable(DBTable table,
                                        boolean includeForeignKeys, NameSpec nameSpec, PrintWriter out) {
+    renderCreateTable(table, includeForeignKeys, nameSpec, null, out);
+  }
+
+  /** Renders a CREATE TABLE statement. If a dialect is provided, the table name is qualified with catalog
+   *  and schema name and all names are quoted as the dialect requires. */
+  public static void renderCreateTable(DBTable table, boolean includeForeignKeys, NameSpec nameSpec,
+                                       DatabaseDialect dialect, PrintWriter out) {
     // create table <name> (
     out.print("create table ");
-    out.print(table.getName());
+    out.print(renderTableName(table, dialect));
     out.print(" (");
     // columns
     List<DBColumn> columns = table.getColumns();
@@ -113,21 +129,21 @@ public static void renderCreateTable(DBTable table,
       }
       out.println();
       out.print('\t');
-      out.print(renderColumn(columns.get(i)));
+      out.print(renderColumn(columns.get(i), dialect));
     }
     // primary key
     DBPrimaryKeyConstraint pk = table.getPrimaryKeyConstraint();
     if (pk != null) {
       out.println(",");
       out.print('\t');
-      out.print(pkSpec(pk, nameSpec));
+      out.print(pkSpec(pk, nameSpec, dialect));
     }
     // unique keys
     Set<DBUniqueConstraint> uks = table.getUniqueConstraints(false);
     for (DBUniqueConstraint uk : uks) {
       out.println(",");
       out.print('\t');
-      out.print(ukSpec(uk, nameSpec));
+      out.print(ukSpec(uk, nameSpec, dialect));
     }
     // unique keys
     if (includeForeignKeys) {
@@ -135,7 +151,7 @@ public static void renderCreateTable(DBTable table,
       for (DBForeignKeyConstraint fk : fks) {
         out.println(",");
         out.print('\t');
-        out.print(fkSpec(fk, nameSpec));
+        out.print(fkSpec(fk, nameSpec, dialect));
       }
     }
     // checks
@@ -143,25 +159,53 @@ public static void renderCreateTable(DBTable table,
     for (DBCheckConstraint check : checks) {
       out.println(",");
       out.print('\t');
-      out.print(checkSpec(check, nameSpec));
+      out.print(checkSpec(check, nameSpec, dialect));
     }
     out.println();
     out.print(")");
   }
 
   public static void renderAddForeignKey(DBForeignKeyConstraint fk, NameSpec nameSpec, PrintWriter printer) {
-    printer.println("ALTER TABLE " + fk.getTable().getName() + " ADD ");
+    renderAddForeignKey(fk, nameSpec, null, printer);
+  }
+
+  /** Renders an ALTER TABLE statement which adds the foreign key. If a dialect is provided, the table names
+   *  are qualified with catalog and schema name and all names are quoted as the dialect requires. */
+  public static void renderAddForeignKey(DBForeignKeyConstraint fk, NameSpec nameSpec, DatabaseDialect dialect,
+                                         PrintWriter printer) {
+    printer.println("ALTER TABLE " + renderTableName(fk.getTable(), dialect) + " ADD ");
     printer.print('\t');
-    printer.print(SQLUtil.fkSpec(fk, nameSpec));
+    printer.print(SQLUtil.fkSpec(fk, nameSpec, dialect));
+  }
+
+  /** @return the name of the table, qualified with catalog and schema name and quoted as the dialect requires,
+   *  or the simple name if the dialect is null */
+  public static String renderTableName(DBTable table, DatabaseDialect dialect) {
+    if (dialect == null) {
+      return table.getName();
+    }
+    String schemaName = (table.getSchema() != null ? table.getSchema().getName() : null);
+    String catalogName = (table.getSchema() != null ? NameUtil.nameOrNull(table.getCatalog()) : null);
+    return createCatSchTabString(catalogName, schemaName, table.getName(), dialect);
+  }
+
+  /** @return the name quoted as the dialect requires, or the unchanged name if the dialect is null */
+  public static String renderName(String name, DatabaseDialect dialect) {
+    if (dialect == null) {
+      return name;
+    }
+    return (dialect.quoteTableNames ? quoteIfNecessary(name, true) : quoteNameIfNullOrSpaces(name));
   }
 
   public static String[] prependAlias(String tableAlias, String[] columnNames) {
-    if (tableAlias != null) {
-      for (int i = 0; i < columnNames.length; i++) {
-        columnNames[i] = tableAlias + '.' + columnNames[i];
-      }
+    if (tableAlias == null) {
+      return columnNames;
+    }
+    String[] result = new String[columnNames.length];
+    for (int i = 0; i < columnNames.length; i++) {
+      result[i] = tableAlias + '.' + columnNames[i];
     }
-    return columnNames;
+    return result;
   }
 
   public static String renderColumnNames(DBColumn[] columns) {
@@ -184,11 +228,29 @@ public static String renderColumnNames(String[] columnNames) {
     return '(' + ArrayFormat.format(columnNames) + ')';
   }
 
+  public static String renderColumnNames(String[] columnNames, DatabaseDialect dialect) {
+    if (dialect == null) {
+      return renderColumnNames(columnNames);
+    }
+    StringBuilder builder = new StringBuilder("(");
+    for (int i = 0; i < columnNames.length; i++) {
+      if (i > 0) {
+        builder.append(", ");
+      }
+      builder.append(renderName(columnNames[i], dialect));
+    }
+    return builder.append(')').toString();
+  }
+
   public static String renderColumn(DBColumn column) {
+    return renderColumn(column, null);
+  }
+
+  public static String renderColumn(DBColumn column, DatabaseDialect dialect) {
     StringBuilder builder = new StringBuilder();
 
     // column name
-    builder.append(column.getName());
+    builder.append(renderName(column.getName(), dialect));
 
     // column type & size
     builder.append(' ');
@@ -346,6 +408,139 @@ public static boolean isQuery(String sql) {
     return true;
   }
 
+  /**
+   * Determines the names of the tables read or written by an SQL statement,
+   * e.g. for tagging cached query results or invalidating them on writes.
+   * The scan is token based and errs on the side of reporting too many names:
+   * Schema and catalog prefixes are stripped and all names are returned in upper case.
+   * @param sql the SQL statement to scan
+   * @return the upper case names of the tables referenced by the statement
+   */
+  public static Set<String> referencedTables(String sql) {
+    List<String> tokens = tableScanTokens(sql);
+    Set<String> result = new HashSet<>();
+    boolean indexStatement = false;
+    for (int i = 0; i < tokens.size(); i++) {
+      String token = tokens.get(i);
+      if (i > 0 && "ON".equals(tokens.get(i - 1)) && ("DELETE".equals(token) || "UPDATE".equals(token))) {
+        continue; // a referential action like 'ON DELETE CASCADE'
+      }
+      switch (token) {
+        case "FROM":
+        case "JOIN":
+          i = scanTableList(tokens, i + 1, true, result);
+          break;
+        case "INTO":
+        case "UPDATE":
+        case "TABLE":
+        case "VIEW":
+        case "USING":
+        case "REFERENCES":
+          i = scanTableList(tokens, i + 1, false, result);
+          break;
+        case "DELETE":
+          if (i + 1 < tokens.size() && !"FROM".equals(tokens.get(i + 1))) {
+            i = scanTableList(tokens, i + 1, false, result);
+          }
+          break;
+        case "INDEX":
+          indexStatement = true;
+          break;
+        case "ON":
+          if (indexStatement) {
+            i = scanTableList(tokens, i + 1, false, result);
+          }
+          break;
+        default:
+          // nothing to do
+      }
+    }
+    return result;
+  }
+
+  private static int scanTableList(List<String> tokens, int index, boolean list, Set<String> result) {
+    // skip 'IF [NOT] EXISTS'
+    while (index < tokens.size() && ("IF".equals(tokens.get(index)) || "NOT".equals(tokens.get(index))
+        || "EXISTS".equals(tokens.get(index)))) {
+      index++;
+    }
+    while (index < tokens.size()) {
+      String name = null;
+      while (index < tokens.size() && isTableNameToken(tokens.get(index))) {
+        name = tokens.get(index++); // the last of 'cat.sch.tab' is the table name
+        if (index < tokens.size() && ".".equals(tokens.get(index))) {
+          index++;
+        } else {
+          break;
+        }
+      }
+      if (name == null) {
+        return index - 1;
+      }
+      result.add(name.charAt(0) == '"' ? name.substring(1).toUpperCase() : name);
+      if (!list) {
+        return index - 1;
+      }
+      // skip an alias
+      if (index < tokens.size() && "AS".equals(tokens.get(index))) {
+        index++;
+      }
+      if (index < tokens.size() && isTableNameToken(tokens.get(index))) {
+        index++;
+      }
+      if (index < tokens.size() && ",".equals(tokens.get(index))) {
+        index++;
+      } else {
+        return index - 1;
+      }
+    }
+    return index;
+  }
+
+  private static boolean isTableNameToken(String token) {
+    char c = token.charAt(0);
+    return (c == '"' || Character.isLetter(c) || c == '_') && !TABLE_SCAN_KEYWORDS.contains(token);
+  }
+
+  /** Splits an SQL statement into upper case words, quoted identifiers (prefixed with '"')
+   *  and punctuation characters, ignoring string literals and comments. */
+  private static List<String> tableScanTokens(String sql) {
+    StreamTokenizer tokenizer = new StreamTokenizer(new StringReader(sql.replace("--", "//")));
+    tokenizer.resetSyntax();
+    tokenizer.wordChars('A', 'Z');
+    tokenizer.wordChars('a', 'z');
+    tokenizer.wordChars('0', '9');
+    tokenizer.wordChars('_', '_');
+    tokenizer.wordChars('$', '$');
+    tokenizer.whitespaceChars(0, ' ');
+    tokenizer.quoteChar('\'');
+    tokenizer.quoteChar('"');
+    tokenizer.quoteChar('`');
+    tokenizer.slashStarComments(true);
+    tokenizer.slashSlashComments(true);
+    List<String> tokens = new ArrayList<>();
+    try {
+      while (tokenizer.nextToken() != StreamTokenizer.TT_EOF) {
+        switch (tokenizer.ttype) {
+          case StreamTokenizer.TT_WORD:
+            tokens.add(tokenizer.sval.toUpperCase());
+            break;
+          case '\'':
+            break; // string literals are irrelevant
+          case '"':
+          case '`':
+            tokens.add('"' + tokenizer.sval);
+            break;
+          default:
+            tokens.add(String.valueOf((char) tokenizer.ttype));
+        }
+      }
+    } catch (IOException e) {
+      throw ExceptionFactory.getInstance().internalError("Error scanning " + sql, e);
+    }
+    return tokens;
+  }
+
   private static String normalizeSQL(String sql) {
     sql = StringUtil.normalizeSpace(sql.trim().toLowerCase());
     while (sql.contains("/*")) {
@@ -355,57 +550,89 @@ private static String normalizeSQL(String sql) {
   }
 
   public static String constraintSpec(DBConstraint constraint, NameSpec nameSpec) {
+    return constraintSpec(constraint, nameSpec, null);
+  }
+
+  /** Renders the specification of a constraint, quoting its names as the dialect requires if one is provided */
+  public static String constraintSpec(DBConstraint constraint, NameSpec nameSpec, DatabaseDialect dialect) {
     if (constraint instanceof DBPrimaryKeyConstraint) {
-      return pkSpec((DBPrimaryKeyConstraint) constraint, nameSpec);
+      return pkSpec((DBPrimaryKeyConstraint) constraint, nameSpec, dialect);
     } else if (constraint instanceof DBUniqueConstraint) {
-      return ukSpec((DBUniqueConstraint) constraint, nameSpec);
+      return ukSpec((DBUniqueConstraint) constraint, nameSpec, dialect);
     } else if (constraint instanceof DBForeignKeyConstraint) {
-      return fkSpec((DBForeignKeyConstraint) constraint, nameSpec);
+      return fkSpec((DBForeignKeyConstraint) constraint, nameSpec, dialect);
     } else if (constraint instanceof DBNotNullConstraint) {
-      return notNullSpec((DBNotNullConstraint) constraint);
+      return notNullSpec((DBNotNullConstraint) constraint, dialect);
     } else if (constraint instanceof DBCheckConstraint) {
-      return checkSpec((DBCheckConstraint) constraint, nameSpec);
+      return checkSpec((DBCheckConstraint) constraint, nameSpec, dialect);
     } else {
       throw ExceptionFactory.getInstance().programmerUnsupported(
           "Unknown constraint type: " + constraint.getClass());
     }
   }
 
-  private static String checkSpec(DBCheckConstraint check, NameSpec nameSpec) {
-    StringBuilder builder = createConstraintSpecBuilder(check, nameSpec);
+  private static String checkSpec(DBCheckConstraint check, NameSpec nameSpec, DatabaseDialect dialect) {
+    StringBuilder builder = createConstraintSpecBuilder(check, nameSpec, dialect);
     builder.append("CHECK ").append(check.getConditionText());
     return builder.toString();
   }
 
-  private static String notNullSpec(DBNotNullConstraint constraint) {
-    return constraint.getColumnNames()[0] + " NOT NULL";
+  private static String notNullSpec(DBNotNullConstraint constraint, DatabaseDialect dialect) {
+    return renderName(constraint.getColumnNames()[0], dialect) + " NOT NULL";
   }
 
   public static String pkSpec(DBPrimaryKeyConstraint pk, NameSpec nameSpec) {
-    StringBuilder builder = createConstraintSpecBuilder(pk, nameSpec);
-    builder.append("PRIMARY KEY ").append(renderColumnNames(pk.getColumnNames()));
+    return pkSpec(pk, nameSpec, null);
+  }
+
+  public static String pkSpec(DBPrimaryKeyConstraint pk, NameSpec nameSpec, DatabaseDialect dialect) {
+    StringBuilder builder = createConstraintSpecBuilder(pk, nameSpec, dialect);
+    builder.append("PRIMARY KEY ").append(renderColumnNames(pk.getColumnNames(), dialect));
     return builder.toString();
   }
 
   public static String ukSpec(DBUniqueConstraint uk, NameSpec nameSpec) {
-    StringBuilder builder = createConstraintSpecBuilder(uk, nameSpec);
-    builder.append("UNIQUE ").append(renderColumnNames(uk.getColumnNames()));
+    return ukSpec(uk, nameSpec, null);
+  }
+
+  public static String ukSpec(DBUniqueConstraint uk, NameSpec nameSpec, DatabaseDialect dialect) {
+    StringBuilder builder = createConstraintSpecBuilder(uk, nameSpec, dialect);
+    builder.append("UNIQUE ").append(renderColumnNames(uk.getColumnNames(), dialect));
     return builder.toString();
   }
 
   public static String fkSpec(DBForeignKeyConstraint fk, NameSpec nameSpec) {
-    StringBuilder builder = createConstraintSpecBuilder(fk, nameSpec);
-    builder.append("FOREIGN KEY ").append(renderColumnNames(fk.getColumnNames()));
-    builder.append(" REFERENCES ")
-        .append(fk.getRefereeTable().getSchema().getName())
-        .append('.')
-        .append(fk.getRefereeTable()).append(renderColumnNames(fk.getRefereeColumnNames()));
+    return fkSpec(fk, nameSpec, null);
+  }
+
+  public static String fkSpec(DBForeignKeyConstraint fk, NameSpec nameSpec, DatabaseDialect dialect) {
+    StringBuilder builder = createConstraintSpecBuilder(fk, nameSpec, dialect);
+    builder.append("FOREIGN KEY ").append(renderColumnNames(fk.getColumnNames(), dialect));
+    builder.append(" REFERENCES ");
+    if (dialect != null) {
+      builder.append(renderTableName(fk.getRefereeTable(), dialect));
+    } else {
+      builder.append(fk.getRefereeTable().getSchema().getName()).append('.').append(fk.getRefereeTable());
+    }
+    builder.append(renderColumnNames(fk.getRefereeColumnNames(), dialect));
     return builder.toString();
   }
 
   protected static StringBuilder createConstraintSpecBuilder(DBConstraint constraint, NameSpec nameSpec) {
+    return createConstraintSpecBuilder(constraint, nameSpec, null);
+  }
+
+  private static StringBuilder createConstraintSpecBuilder(DBConstraint constraint, NameSpec nameSpec,
+                                                           DatabaseDialect dialect) {
     StringBuilder builder = new StringBuilder();
-    return appendConstraintName(constraint, builder, nameSpec);
+    if (dialect == null) {
+      return appendConstraintName(constraint, builder, nameSpec);
+    }
+    if (constraint.getName() != null &&
+        (nameSpec == NameSpec.ALWAYS || (nameSpec == NameSpec.IF_REPRODUCIBLE && constraint.isNameDeterministic()))) {
+      builder.append(CONSTRAINT_).append(renderName(constraint.getName(), dialect)).append(' ');
+    }
+    return builder;
   }
 
   public static String insert(String catalog, String schema, String table, DatabaseDialect dialect, Object... values) {
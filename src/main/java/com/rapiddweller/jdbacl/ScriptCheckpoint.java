@@ -0,0 +1,277 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl;
+
+import com.rapiddweller.common.IOUtil;
+import com.rapiddweller.common.exception.ExceptionFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Records the position behind the last committed statement of an SQL script in a sidecar file,
+ * so that a failed execution can be resumed from there instead of starting over.
+ * The file is a properties file with the byte offset, line number and statement index.
+ * If the script file is known (see {@link #setScript(File)}), the file also records the script's path and
+ * a SHA-256 hash of the script content before the saved position. A checkpoint is only resumed for the same
+ * script with an unchanged executed part, so that the statements after the failure may be fixed,
+ * but no other or edited script skips statements which it has never executed.
+ * It is written at most once per save interval while the script is running, when execution fails,
+ * and it is deleted when the script has been completed.<br/><br/>
+ * Created: 23.03.2022 10:02:19
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+public class ScriptCheckpoint {
+
+  private static final Logger logger = LoggerFactory.getLogger(ScriptCheckpoint.class);
+
+  public static final String FILE_SUFFIX = ".checkpoint";
+  public static final long DEFAULT_SAVE_INTERVAL = 1000;
+
+  private static final String POSITION = "position";
+  private static final String LINE_NO = "lineNo";
+  private static final String STATEMENT_INDEX = "statementIndex";
+  private static final String SCRIPT = "script";
+  private static final String SCRIPT_HASH = "scriptHash";
+
+  private final File file;
+  private final boolean resume;
+  private final long saveInterval;
+
+  private File script;
+  private MessageDigest digest;
+  private long hashedPosition;
+
+  private long position;
+  private int lineNo;
+  private long statementIndex;
+  private boolean dirty;
+  private long lastSaveMillis;
+
+  // constructors ----------------------------------------------------------------------------------------------------
+
+  /**
+   * @param file   the sidecar file
+   * @param resume if true, a checkpoint saved by a previous execution is loaded and the script is resumed after it
+   */
+  public ScriptCheckpoint(File file, boolean resume) {
+    this(file, resume, DEFAULT_SAVE_INTERVAL);
+  }
+
+  /**
+   * @param file         the sidecar file
+   * @param resume       if true, a checkpoint saved by a previous execution is loaded and the script is resumed after it
+   * @param saveInterval the minimum number of milliseconds between two writes of the file
+   */
+  public ScriptCheckpoint(File file, boolean resume, long saveInterval) {
+    this.file = file;
+    this.resume = resume;
+    this.saveInterval = saveInterval;
+    this.lineNo = 1;
+  }
+
+  /** Creates a checkpoint in a sidecar file next to a script file, named like the script with suffix {@link #FILE_SUFFIX} */
+  public static ScriptCheckpoint forScript(String scriptUri, boolean resume) {
+    ScriptCheckpoint checkpoint = new ScriptCheckpoint(new File(scriptUri + FILE_SUFFIX), resume);
+    checkpoint.setScript(new File(scriptUri));
+    return checkpoint;
+  }
+
+  // properties ------------------------------------------------------------------------------------------------------
+
+  public File getFile() {
+    return file;
+  }
+
+  public boolean isResume() {
+    return resume;
+  }
+
+  /** @return the script file to which the checkpoint belongs, or null if it is not known */
+  public File getScript() {
+    return script;
+  }
+
+  /** Sets the script file to which the checkpoint belongs, which is verified on {@link #load()} */
+  public void setScript(File script) {
+    this.script = (script != null ? script.getAbsoluteFile() : null);
+    this.digest = null;
+    this.hashedPosition = 0;
+  }
+
+  /** @return the byte offset behind the last committed statement */
+  public long getPosition() {
+    return position;
+  }
+
+  /** @return the script line at {@link #getPosition()} */
+  public int getLineNo() {
+    return lineNo;
+  }
+
+  /** @return the number of statements up to and including the last committed one */
+  public long getStatementIndex() {
+    return statementIndex;
+  }
+
+  // operational interface -------------------------------------------------------------------------------------------
+
+  /** Loads the checkpoint of a previous execution if resuming was requested.
+   *  @return true if a checkpoint was found, otherwise false */
+  public boolean load() {
+    if (!resume || !file.exists()) {
+      return false;
+    }
+    Map<String, String> properties = IOUtil.readProperties(file.getPath());
+    try {
+      this.position = Long.parseLong(properties.get(POSITION));
+      this.lineNo = Integer.parseInt(properties.get(LINE_NO));
+      this.statementIndex = Long.parseLong(properties.get(STATEMENT_INDEX));
+    } catch (NumberFormatException e) {
+      throw ExceptionFactory.getInstance().illegalArgument("Invalid checkpoint file: " + file, e);
+    }
+    if (script != null) {
+      String savedScript = properties.get(SCRIPT);
+      if (savedScript != null && !script.equals(new File(savedScript))) {
+        throw ExceptionFactory.getInstance().illegalArgument("Checkpoint " + file + " belongs to script " +
+            savedScript + ", not to " + script);
+      }
+      String savedHash = properties.get(SCRIPT_HASH);
+      if (savedHash == null || !savedHash.equals(scriptHash())) {
+        throw ExceptionFactory.getInstance().illegalArgument("Checkpoint " + file + " does not match " +
+            "the script " + script + ", which has been changed before the checkpoint position " + position);
+      }
+    }
+    return true;
+  }
+
+  /** Sets the position behind the last committed statement and saves it if the save interval has elapsed. */
+  public void update(long position, int lineNo, long statementIndex) {
+    this.position = position;
+    this.lineNo = lineNo;
+    this.statementIndex = statementIndex;
+    this.dirty = true;
+    if (System.currentTimeMillis() - lastSaveMillis >= saveInterval) {
+      save();
+    }
+  }
+
+  /** Writes the checkpoint if it has changed since it was last saved. */
+  public void save() {
+    if (!dirty) {
+      return;
+    }
+    Map<String, Object> properties = new HashMap<>();
+    properties.put(POSITION, position);
+    properties.put(LINE_NO, lineNo);
+    properties.put(STATEMENT_INDEX, statementIndex);
+    String scriptHash = (script != null ? scriptHash() : null);
+    if (scriptHash != null) {
+      properties.put(SCRIPT, script.getPath());
+      properties.put(SCRIPT_HASH, scriptHash);
+    }
+    // write to a temporary file first, so that a crash does not leave a corrupt checkpoint
+    File tempFile = new File(file.getPath() + ".tmp");
+    IOUtil.writeProperties(properties, tempFile.getPath());
+    try {
+      Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      throw ExceptionFactory.getInstance().operationFailed("Error saving checkpoint " + file, e);
+    }
+    dirty = false;
+    lastSaveMillis = System.currentTimeMillis();
+    logger.debug("Saved checkpoint at statement {}, line {}", statementIndex, lineNo);
+  }
+
+  /** Deletes the sidecar file after the script has been completed. */
+  public void delete() {
+    dirty = false;
+    if (file.exists() && !file.delete()) {
+      logger.warn("Failed to delete checkpoint file {}", file);
+    }
+  }
+
+  // private helpers -------------------------------------------------------------------------------------------------
+
+  /** Calculates the hash of the script content before the {@link #position}. Since the position only grows during
+   *  an execution, the content is hashed incrementally, reading each part of the script only once.
+   *  @return the hash as hex string, or null if the script is shorter than the position */
+  private String scriptHash() {
+    try {
+      if (digest == null || position < hashedPosition) {
+        digest = MessageDigest.getInstance("SHA-256");
+        hashedPosition = 0;
+      }
+      if (position > hashedPosition) {
+        try (FileChannel channel = FileChannel.open(script.toPath(), StandardOpenOption.READ)) {
+          if (channel.size() < position) {
+            return null; // the script has been truncated
+          }
+          ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(65536, position - hashedPosition));
+          while (hashedPosition < position) {
+            buffer.clear();
+            buffer.limit((int) Math.min(buffer.capacity(), position - hashedPosition));
+            int count = channel.read(buffer, hashedPosition);
+            buffer.flip();
+            digest.update(buffer);
+            hashedPosition += count;
+          }
+        }
+      }
+      byte[] hash = ((MessageDigest) digest.clone()).digest();
+      StringBuilder builder = new StringBuilder(hash.length * 2);
+      for (byte b : hash) {
+        builder.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+      }
+      return builder.toString();
+    } catch (IOException e) {
+      throw ExceptionFactory.getInstance().operationFailed("Error reading script " + script, e);
+    } catch (NoSuchAlgorithmException | CloneNotSupportedException e) {
+      throw ExceptionFactory.getInstance().programmerStateError("SHA-256 digest not available", e);
+    }
+  }
+
+  // java.lang.Object overrides --------------------------------------------------------------------------------------
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "[statement " + statementIndex + ", line " + lineNo + ", byte " + position + "]";
+  }
+
+}
@@ -0,0 +1,69 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl;
+
+import java.io.Closeable;
+
+/**
+ * Common interface for strategies which execute the statements of an SQL script.
+ * Statements are passed in script order with {@link #execute(String, int)},
+ * and {@link #finish()} completes all pending work.<br/><br/>
+ * Created: 22.03.2022 09:37:15
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+public interface ScriptExecutor extends Closeable {
+
+  /** Executes a statement or schedules it for execution.
+   *  @param sql    the SQL statement without separator
+   *  @param lineNo the script line on which the statement starts */
+  void execute(String sql, int lineNo);
+
+  /** Completes the execution of all statements passed so far and commits the changes. */
+  void finish();
+
+  /** @return the number of statements executed so far, including failed ones */
+  long getStatementCount();
+
+  /** @return the number of statements, counted in script order, which have been executed and committed */
+  long getCommittedCount();
+
+  /** Sets a collector of execution times, or null for none */
+  void setProgress(ScriptProgress progress);
+
+  /** @return the result of the last query or update, if the executor tracks it, otherwise null */
+  Object getResult();
+
+  /** @return the first error that occurred or null if all statements succeeded */
+  SQLScriptException getException();
+
+  boolean isChangedStructure();
+
+  @Override
+  void close();
+
+}
@@ -0,0 +1,197 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl;
+
+import com.rapiddweller.common.StringUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+
+/**
+ * Collects progress and throughput metrics of an SQL script execution: the number of statements executed,
+ * the bytes and lines of the script processed, the statements per second and the slowest statements.
+ * The progress is logged in intervals while the script is running and when it is finished.
+ * Instances are thread-safe, since the {@link ParallelScriptExecutor} reports from several threads.<br/><br/>
+ * Created: 23.03.2022 09:21:36
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+public class ScriptProgress {
+
+  private static final Logger logger = LoggerFactory.getLogger(ScriptProgress.class);
+
+  public static final int DEFAULT_SLOWEST_COUNT = 10;
+  public static final long DEFAULT_LOG_INTERVAL = 10000;
+
+  private static final int MAX_SQL_LENGTH = 200;
+
+  private final int slowestCount;
+  private final long logInterval;
+  private final PriorityQueue<StatementTiming> slowest;
+
+  private long startNanos;
+  private long endNanos;
+  private long lastLogMillis;
+  private long statementCount;
+  private long bytes;
+  private int lines;
+
+  // constructors ----------------------------------------------------------------------------------------------------
+
+  public ScriptProgress() {
+    this(DEFAULT_SLOWEST_COUNT, DEFAULT_LOG_INTERVAL);
+  }
+
+  /**
+   * @param slowestCount the number of slowest statements to keep
+   * @param logInterval  the number of milliseconds between progress log messages, or 0 for no logging
+   */
+  public ScriptProgress(int slowestCount, long logInterval) {
+    this.slowestCount = slowestCount;
+    this.logInterval = logInterval;
+    this.slowest = new PriorityQueue<>(Comparator.comparingLong(StatementTiming::getDurationNanos));
+  }
+
+  // properties ------------------------------------------------------------------------------------------------------
+
+  public synchronized long getStatementCount() {
+    return statementCount;
+  }
+
+  /** @return the number of bytes of the script processed so far, see {@link com.rapiddweller.jdbacl.sql.SQLScriptReader#getPosition()} */
+  public synchronized long getBytes() {
+    return bytes;
+  }
+
+  public synchronized int getLines() {
+    return lines;
+  }
+
+  public synchronized long getElapsedMillis() {
+    if (startNanos == 0) {
+      return 0;
+    }
+    return ((endNanos != 0 ? endNanos : System.nanoTime()) - startNanos) / 1000000;
+  }
+
+  public synchronized double getStatementsPerSecond() {
+    long elapsed = getElapsedMillis();
+    return (elapsed > 0 ? statementCount * 1000. / elapsed : 0.);
+  }
+
+  /** @return the slowest statements, the slowest one first */
+  public synchronized List<StatementTiming> getSlowestStatements() {
+    List<StatementTiming> result = new ArrayList<>(slowest);
+    result.sort(Comparator.comparingLong(StatementTiming::getDurationNanos).reversed());
+    return result;
+  }
+
+  // notification interface ------------------------------------------------------------------------------------------
+
+  public synchronized void start() {
+    startNanos = System.nanoTime();
+    endNanos = 0;
+    lastLogMillis = System.currentTimeMillis();
+  }
+
+  /** Records the execution of a statement.
+   *  @param durationNanos the execution time of the statement in nanoseconds */
+  public synchronized void statementExecuted(String sql, int lineNo, long durationNanos) {
+    statementCount++;
+    if (slowestCount > 0 && (slowest.size() < slowestCount || durationNanos > slowest.peek().durationNanos)) {
+      slowest.add(new StatementTiming(StringUtil.limitLengthWithEllipsis(sql, MAX_SQL_LENGTH), lineNo, durationNanos));
+      if (slowest.size() > slowestCount) {
+        slowest.poll();
+      }
+    }
+  }
+
+  /** Updates the position in the script and logs the progress if the log interval has elapsed. */
+  public synchronized void positionReached(long bytes, int lines) {
+    this.bytes = bytes;
+    this.lines = lines;
+    if (logInterval > 0 && System.currentTimeMillis() - lastLogMillis >= logInterval) {
+      logger.info("Script progress: {}", this);
+      lastLogMillis = System.currentTimeMillis();
+    }
+  }
+
+  public synchronized void finish() {
+    endNanos = System.nanoTime();
+    if (logInterval > 0) {
+      logger.info("Script finished: {}", this);
+      for (StatementTiming timing : getSlowestStatements()) {
+        logger.info("Slow statement: {}", timing);
+      }
+    }
+  }
+
+  // java.lang.Object overrides --------------------------------------------------------------------------------------
+
+  @Override
+  public synchronized String toString() {
+    return statementCount + " statements, " + bytes + " bytes, " + lines + " lines in " + getElapsedMillis() + " ms (" +
+        String.format("%.1f", getStatementsPerSecond()) + " statements/s)";
+  }
+
+  // helper class ----------------------------------------------------------------------------------------------------
+
+  public static final class StatementTiming {
+
+    private final String sql;
+    private final int lineNo;
+    private final long durationNanos;
+
+    public StatementTiming(String sql, int lineNo, long durationNanos) {
+      this.sql = sql;
+      this.lineNo = lineNo;
+      this.durationNanos = durationNanos;
+    }
+
+    public String getSql() {
+      return sql;
+    }
+
+    public int getLineNo() {
+      return lineNo;
+    }
+
+    public long getDurationNanos() {
+      return durationNanos;
+    }
+
+    @Override
+    public String toString() {
+      return "line " + lineNo + " (" + durationNanos / 1000000 + " ms): " + sql;
+    }
+  }
+
+}
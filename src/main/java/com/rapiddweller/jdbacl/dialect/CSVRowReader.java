@@ -0,0 +1,192 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl.dialect;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.Date;
+import java.util.Iterator;
+
+/**
+ * Renders rows provided by an {@link Iterator} as CSV text on demand, so that they can be
+ * streamed to a database's bulk import facility without materializing the complete data.
+ * Values are quoted with '"', null values are rendered as an unquoted null string.<br/><br/>
+ * Created: 16.03.2022 11:02:38
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+class CSVRowReader extends Reader {
+
+  private final Iterator<Object[]> rows;
+  private final String nullString;
+  private final boolean booleansAsNumbers;
+  private final StringBuilder line;
+  private int linePos;
+  private long rowCount;
+
+  CSVRowReader(Iterator<Object[]> rows, String nullString, boolean booleansAsNumbers) {
+    this.rows = rows;
+    this.nullString = nullString;
+    this.booleansAsNumbers = booleansAsNumbers;
+    this.line = new StringBuilder();
+    this.linePos = 0;
+    this.rowCount = 0;
+  }
+
+  public long getRowCount() {
+    return rowCount;
+  }
+
+  /** Renders the next row including the line separator or returns null if there are no more rows. */
+  String nextLine() {
+    if (!rows.hasNext()) {
+      return null;
+    }
+    Object[] row = rows.next();
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < row.length; i++) {
+      if (i > 0) {
+        builder.append(',');
+      }
+      appendValue(row[i], builder);
+    }
+    rowCount++;
+    return builder.append('\n').toString();
+  }
+
+  /** Writes all rows to a UTF-8 encoded file and returns the number of rows written. */
+  long writeTo(File file) throws IOException {
+    try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8))) {
+      String next;
+      while ((next = nextLine()) != null) {
+        out.write(next);
+      }
+    }
+    return rowCount;
+  }
+
+  @Override
+  public int read(char[] buffer, int offset, int length) {
+    if (length == 0) {
+      return 0;
+    }
+    if (linePos >= line.length()) {
+      String next = nextLine();
+      if (next == null) {
+        return -1;
+      }
+      line.setLength(0);
+      line.append(next);
+      linePos = 0;
+    }
+    int count = Math.min(length, line.length() - linePos);
+    line.getChars(linePos, linePos + count, buffer, offset);
+    linePos += count;
+    return count;
+  }
+
+  /** Provides the rendered rows as UTF-8 encoded byte stream. */
+  InputStream asInputStream() {
+    return new InputStream() {
+      private byte[] bytes = new byte[0];
+      private int pos = 0;
+
+      @Override
+      public int read() {
+        if (!fill()) {
+          return -1;
+        }
+        return bytes[pos++] & 0xff;
+      }
+
+      @Override
+      public int read(byte[] buffer, int offset, int length) {
+        if (length == 0) {
+          return 0;
+        }
+        if (!fill()) {
+          return -1;
+        }
+        int count = Math.min(length, bytes.length - pos);
+        System.arraycopy(bytes, pos, buffer, offset, count);
+        pos += count;
+        return count;
+      }
+
+      private boolean fill() {
+        while (pos >= bytes.length) {
+          String next = nextLine();
+          if (next == null) {
+            return false;
+          }
+          bytes = next.getBytes(StandardCharsets.UTF_8);
+          pos = 0;
+        }
+        return true;
+      }
+    };
+  }
+
+  @Override
+  public void close() throws IOException {
+    // nothing to do, the row iterator is owned by the caller
+  }
+
+  private void appendValue(Object value, StringBuilder builder) {
+    if (value == null) {
+      builder.append(nullString);
+      return;
+    }
+    String text;
+    if (value instanceof Boolean && booleansAsNumbers) {
+      text = ((Boolean) value ? "1" : "0");
+    } else if (value instanceof Date && !(value instanceof java.sql.Date || value instanceof java.sql.Time
+        || value instanceof Timestamp)) {
+      text = new Timestamp(((Date) value).getTime()).toString();
+    } else {
+      text = value.toString();
+    }
+    builder.append('"');
+    for (int i = 0; i < text.length(); i++) {
+      char c = text.charAt(i);
+      if (c == '"') {
+        builder.append('"');
+      }
+      builder.append(c);
+    }
+    builder.append('"');
+  }
+
+}
@@ -340,4 +340,9 @@ public String regexQuery(String expression, boolean not, String regex) {
     return expression + (not ? " NOT" : "") + " REGEX '" + regex + "'";
   }
 
+  @Override
+  public boolean isMultiRowInsertSupported() {
+    return true;
+  }
+
 }
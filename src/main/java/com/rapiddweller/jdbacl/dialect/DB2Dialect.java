@@ -27,9 +27,15 @@
 package com.rapiddweller.jdbacl.dialect;
 
 import com.rapiddweller.common.exception.ExceptionFactory;
+import com.rapiddweller.jdbacl.ColumnInfo;
 import com.rapiddweller.jdbacl.DatabaseDialect;
+import com.rapiddweller.jdbacl.SQLUtil;
+import com.rapiddweller.jdbacl.model.DBColumn;
+import com.rapiddweller.jdbacl.model.DBTable;
 import com.rapiddweller.jdbacl.sql.Query;
 
+import java.sql.Types;
+import java.util.List;
 import java.util.regex.Pattern;
 
 /**
@@ -108,4 +114,58 @@ public void restrictRownums(int firstRowIndex, int rowCount, Query query) {
         "DB2Dialect.applyRownumRestriction() is not implemented");
   }
 
+  @Override
+  public boolean isMultiRowInsertSupported() {
+    return true;
+  }
+
+  @Override
+  public boolean isUpsertSupported() {
+    return true;
+  }
+
+  /** Renders the parameters as <code>CAST(? AS &lt;type&gt;)</code>, since DB2 rejects untyped parameter markers
+   *  in a <code>values</code> clause (SQL0418N). The type is taken from the column model of the table, if available,
+   *  otherwise it is derived from the JDBC type of the column info. */
+  @Override
+  protected String renderMergeSource(DBTable table, List<ColumnInfo> columnInfos) {
+    StringBuilder builder = new StringBuilder("(values (");
+    for (int i = 0; i < columnInfos.size(); i++) {
+      if (i > 0) {
+        builder.append(',');
+      }
+      builder.append("CAST(? AS ").append(castType(table, columnInfos.get(i))).append(')');
+    }
+    return builder.append(")) s (").append(renderColumnList(columnInfos)).append(')').toString();
+  }
+
+  private static String castType(DBTable table, ColumnInfo columnInfo) {
+    for (DBColumn column : table.getColumns()) {
+      if (column.getName().equalsIgnoreCase(columnInfo.name) && column.getType() != null) {
+        return SQLUtil.renderColumnTypeWithSize(column);
+      }
+    }
+    switch (columnInfo.sqlType) {
+      case Types.BOOLEAN:
+      case Types.BIT: return "BOOLEAN";
+      case Types.TINYINT:
+      case Types.SMALLINT: return "SMALLINT";
+      case Types.INTEGER: return "INTEGER";
+      case Types.BIGINT: return "BIGINT";
+      case Types.REAL: return "REAL";
+      case Types.FLOAT:
+      case Types.DOUBLE: return "DOUBLE";
+      case Types.NUMERIC:
+      case Types.DECIMAL: return "DECFLOAT(34)";
+      case Types.DATE: return "DATE";
+      case Types.TIME: return "TIME";
+      case Types.TIMESTAMP: return "TIMESTAMP";
+      case Types.CLOB: return "CLOB";
+      case Types.BLOB: return "BLOB";
+      case Types.BINARY:
+      case Types.VARBINARY: return "VARBINARY(32672)";
+      default: return "VARCHAR(32672)";
+    }
+  }
+
 }
@@ -116,4 +116,9 @@ public void restrictRownums(int firstRowIndex, int rowCount, Query query) {
         "DerbyDialect.applyRownumRestriction() is not implemented");
   }
 
+  @Override
+  public boolean isMultiRowInsertSupported() {
+    return true;
+  }
+
 }
@@ -22,17 +22,30 @@
 package com.rapiddweller.jdbacl.dialect;
 
 import com.rapiddweller.common.ArrayBuilder;
+import com.rapiddweller.common.FileUtil;
+import com.rapiddweller.jdbacl.ColumnInfo;
 import com.rapiddweller.jdbacl.DBUtil;
 import com.rapiddweller.jdbacl.DatabaseDialect;
+import com.rapiddweller.jdbacl.MetaDataProvider;
+import com.rapiddweller.jdbacl.SQLMetaDataProvider;
+import com.rapiddweller.jdbacl.SQLUtil;
 import com.rapiddweller.jdbacl.model.DBSequence;
+import com.rapiddweller.jdbacl.model.DBTable;
 import com.rapiddweller.jdbacl.sql.Query;
 
+import java.io.File;
+import java.io.IOException;
 import java.math.BigInteger;
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.List;
 import java.util.regex.Pattern;
 
+import static com.rapiddweller.jdbacl.SQLMetaDataProvider.query;
+
 /**
  * {@link DatabaseDialect} implementation for the H2 database.
  * See <a href="http://www.h2database.com/html/grammar.html">H2 SQL grammar</a><br/><br/>
@@ -47,6 +60,50 @@ public class H2Dialect extends DatabaseDialect {
   private static final String TIME_PATTERN = "''HH:mm:ss''";
   private static final String DATETIME_PATTERN = "''yyyy-MM-dd HH:mm:ss''";
 
+  // hash sums of the structure of the tables, columns, constraints and index columns of a table or schema
+  private static final String TABLE_HASH = "ORA_HASH(T.TABLE_TYPE || '/' || coalesce(T.REMARKS, ''))";
+  private static final String COLUMN_HASH = "count(*) || '/' || coalesce(sum(ORA_HASH(TABLE_NAME || '/' || " +
+      "COLUMN_NAME || '/' || ORDINAL_POSITION || '/' || TYPE_NAME || '/' || coalesce(CHARACTER_MAXIMUM_LENGTH, -1) || " +
+      "'/' || coalesce(NUMERIC_SCALE, -1) || '/' || IS_NULLABLE || '/' || coalesce(COLUMN_DEFAULT, '') || '/' || " +
+      "coalesce(REMARKS, ''))), 0)";
+  private static final String CONSTRAINT_HASH = "count(*) || '/' || coalesce(sum(ORA_HASH(TABLE_NAME || '/' || " +
+      "CONSTRAINT_NAME || '/' || CONSTRAINT_TYPE || '/' || coalesce(COLUMN_LIST, '') || '/' || coalesce(SQL, ''))), 0)";
+  private static final String INDEX_HASH = "count(*) || '/' || coalesce(sum(ORA_HASH(TABLE_NAME || '/' || " +
+      "INDEX_NAME || '/' || NON_UNIQUE || '/' || ORDINAL_POSITION || '/' || COLUMN_NAME)), 0)";
+
+  private static final MetaDataProvider META_DATA_PROVIDER = new SQLMetaDataProvider(false,
+      query("select TABLE_CATALOG, TABLE_SCHEMA, TABLE_NAME, COLUMN_NAME, DATA_TYPE, TYPE_NAME, CHARACTER_MAXIMUM_LENGTH, " +
+          "CHARACTER_MAXIMUM_LENGTH, NUMERIC_SCALE, NUMERIC_PRECISION_RADIX, NULLABLE, REMARKS, COLUMN_DEFAULT " +
+          "from INFORMATION_SCHEMA.COLUMNS where TABLE_SCHEMA = ? order by TABLE_NAME, ORDINAL_POSITION", 1),
+      query("select TABLE_CATALOG, TABLE_SCHEMA, TABLE_NAME, COLUMN_NAME, ORDINAL_POSITION, " +
+          "ifnull(CONSTRAINT_NAME, INDEX_NAME) from INFORMATION_SCHEMA.INDEXES " +
+          "where TABLE_SCHEMA = ? and PRIMARY_KEY = true order by TABLE_NAME, ORDINAL_POSITION", 1),
+      query("select TABLE_CATALOG, TABLE_SCHEMA, TABLE_NAME, NON_UNIQUE, TABLE_CATALOG, INDEX_NAME, INDEX_TYPE, " +
+          "ORDINAL_POSITION, COLUMN_NAME, ASC_OR_DESC, CARDINALITY, PAGES, FILTER_CONDITION " +
+          "from INFORMATION_SCHEMA.INDEXES where TABLE_SCHEMA = ? order by TABLE_NAME, INDEX_NAME, ORDINAL_POSITION", 1),
+      query("select PKTABLE_CATALOG, PKTABLE_SCHEMA, PKTABLE_NAME, PKCOLUMN_NAME, FKTABLE_CATALOG, FKTABLE_SCHEMA, " +
+          "FKTABLE_NAME, FKCOLUMN_NAME, ORDINAL_POSITION, UPDATE_RULE, DELETE_RULE, FK_NAME, PK_NAME, DEFERRABILITY " +
+          "from INFORMATION_SCHEMA.CROSS_REFERENCES where FKTABLE_SCHEMA = ? order by FKTABLE_NAME, FK_NAME, ORDINAL_POSITION", 1),
+      query("select PKTABLE_CATALOG, PKTABLE_SCHEMA, PKTABLE_NAME, PKCOLUMN_NAME, FKTABLE_CATALOG, FKTABLE_SCHEMA, " +
+          "FKTABLE_NAME, FKCOLUMN_NAME, ORDINAL_POSITION, UPDATE_RULE, DELETE_RULE, FK_NAME, PK_NAME, DEFERRABILITY " +
+          "from INFORMATION_SCHEMA.CROSS_REFERENCES where PKTABLE_SCHEMA = ? order by PKTABLE_NAME, FK_NAME, ORDINAL_POSITION", 1),
+      // LAST_MODIFICATION of INFORMATION_SCHEMA.TABLES counts data modifications and misses renamed columns
+      // and comments, so the change marker of a table consists of the hash sums of its structure
+      query("select T.TABLE_NAME, " + TABLE_HASH + " || '/' || " +
+          "(select " + COLUMN_HASH + " from INFORMATION_SCHEMA.COLUMNS " +
+          "where TABLE_SCHEMA = T.TABLE_SCHEMA and TABLE_NAME = T.TABLE_NAME) || '/' || " +
+          "(select " + CONSTRAINT_HASH + " from INFORMATION_SCHEMA.CONSTRAINTS " +
+          "where CONSTRAINT_SCHEMA = T.TABLE_SCHEMA and TABLE_NAME = T.TABLE_NAME) || '/' || " +
+          "(select " + INDEX_HASH + " from INFORMATION_SCHEMA.INDEXES " +
+          "where TABLE_SCHEMA = T.TABLE_SCHEMA and TABLE_NAME = T.TABLE_NAME) " +
+          "from INFORMATION_SCHEMA.TABLES T where T.TABLE_TYPE in ('TABLE', 'VIEW') and T.TABLE_SCHEMA = ?", 1),
+      // the fingerprint consists of the same hash sums over the whole schema
+      query("select (select count(*) || '/' || coalesce(sum(ORA_HASH(TABLE_NAME || '/' || " + TABLE_HASH + ")), 0) " +
+          "from INFORMATION_SCHEMA.TABLES T where TABLE_TYPE in ('TABLE', 'VIEW') and TABLE_SCHEMA = ?), " +
+          "(select " + COLUMN_HASH + " from INFORMATION_SCHEMA.COLUMNS where TABLE_SCHEMA = ?), " +
+          "(select " + CONSTRAINT_HASH + " from INFORMATION_SCHEMA.CONSTRAINTS where CONSTRAINT_SCHEMA = ?), " +
+          "(select " + INDEX_HASH + " from INFORMATION_SCHEMA.INDEXES where TABLE_SCHEMA = ?)", 4));
+
   /**
    * The Random pk name pattern.
    */
@@ -104,6 +161,17 @@ public DBSequence[] querySequences(Connection connection) throws SQLException {
     return builder.toArray();
   }
 
+  @Override
+  public MetaDataProvider getMetaDataProvider() {
+    return META_DATA_PROVIDER;
+  }
+
+  /** H2 1.x returns empty results instead of the data of all tables if the table name is null. */
+  @Override
+  public boolean isMetaDataOfAllTablesSupported(DatabaseMetaData metaData) throws SQLException {
+    return (metaData.getDriverMajorVersion() >= 2);
+  }
+
   @Override
   public String renderFetchSequenceValue(String sequenceName) {
     return "select next value for " + sequenceName;
@@ -176,6 +244,32 @@ public void restrictRownums(int rowOffset, int rowCount, Query query) {
     }
   }
 
+  /** Writes the rows to a temporary CSV file and imports it with CSVREAD. Since CSVREAD reads the file
+   *  on the database server, this is only used for embedded databases. */
+  @Override
+  protected Long nativeBulkLoad(DBTable table, List<ColumnInfo> columns, Iterator<Object[]> rows, Connection connection)
+      throws SQLException, IOException {
+    String url = connection.getMetaData().getURL();
+    if (url.startsWith("jdbc:h2:tcp:") || url.startsWith("jdbc:h2:ssl:")) {
+      return null;
+    }
+    File file = File.createTempFile("jdbacl-bulk-", ".csv");
+    try {
+      new CSVRowReader(rows, "", false).writeTo(file);
+      StringBuilder csvColumns = new StringBuilder();
+      for (ColumnInfo column : columns) {
+        csvColumns.append(csvColumns.length() > 0 ? "," : "").append(column.name);
+      }
+      String sql = "insert into " + SQLUtil.createCatSchTabString(table.getCatalog().getName(),
+          table.getSchema().getName(), table.getName(), this) + " (" + renderColumnList(columns) + ") direct " +
+          "select * from csvread('" + file.getAbsolutePath().replace("'", "''") + "', '" + csvColumns +
+          "', 'charset=UTF-8')";
+      return (long) DBUtil.executeUpdate(sql, connection);
+    } finally {
+      FileUtil.deleteIfExists(file);
+    }
+  }
+
   @Override
   public String getSpecialType(String type) {
     if ("long".equals(type)) {
@@ -184,4 +278,31 @@ public String getSpecialType(String type) {
       return super.getSpecialType(type);
     }
   }
+
+  @Override
+  public boolean isMultiRowInsertSupported() {
+    return true;
+  }
+
+  @Override
+  public boolean isUpsertSupported() {
+    return true;
+  }
+
+  /** Renders H2's <code>merge into tab (cols) key (keys) values (...)</code> statement,
+   *  since H2 does not support column aliases for the source table of a standard merge. */
+  @Override
+  public String upsert(DBTable table, List<ColumnInfo> columnInfos) {
+    String[] keyColumnNames = upsertKeyColumns(table, columnInfos);
+    StringBuilder builder = new StringBuilder("merge into ");
+    builder.append(SQLUtil.createCatSchTabString(table.getCatalog().getName(), table.getSchema().getName(), table.getName(), this));
+    builder.append(" (").append(renderColumnList(columnInfos)).append(") key (");
+    for (int i = 0; i < keyColumnNames.length; i++) {
+      if (i > 0) {
+        builder.append(',');
+      }
+      SQLUtil.appendColumnName(keyColumnNames[i], builder, this);
+    }
+    return builder.append(") values ").append(renderRowParams(columnInfos.size())).toString();
+  }
 }
@@ -42,4 +42,14 @@ public String regexQuery(String expression, boolean not, String regex) {
     return (not ? "NOT " : "") + "REGEXP_MATCHES(" + expression + ", '" + regex + "')";
   }
 
+  @Override
+  public boolean isMultiRowInsertSupported() {
+    return true;
+  }
+
+  @Override
+  public boolean isUpsertSupported() {
+    return true;
+  }
+
 }
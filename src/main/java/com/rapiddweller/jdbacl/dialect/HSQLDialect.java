@@ -27,15 +27,24 @@
 package com.rapiddweller.jdbacl.dialect;
 
 import com.rapiddweller.common.ArrayBuilder;
+import com.rapiddweller.common.FileUtil;
+import com.rapiddweller.common.StringUtil;
+import com.rapiddweller.jdbacl.ColumnInfo;
 import com.rapiddweller.jdbacl.DBUtil;
 import com.rapiddweller.jdbacl.DatabaseDialect;
+import com.rapiddweller.jdbacl.SQLUtil;
 import com.rapiddweller.jdbacl.model.DBSequence;
+import com.rapiddweller.jdbacl.model.DBTable;
 import com.rapiddweller.jdbacl.sql.Query;
 
+import java.io.File;
+import java.io.IOException;
 import java.math.BigInteger;
 import java.sql.Connection;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.List;
 import java.util.regex.Pattern;
 
 /**
@@ -189,6 +198,54 @@ public void restrictRownums(int rowOffset, int rowCount, Query query) {
     }
   }
 
+  /** Writes the rows to a CSV file in the database folder and imports it using a temporary text table.
+   *  Text tables are only supported by file based databases, so others use the batch insert fallback. */
+  @Override
+  protected Long nativeBulkLoad(DBTable table, List<ColumnInfo> columns, Iterator<Object[]> rows, Connection connection)
+      throws SQLException, IOException {
+    File dbFolder = fileDatabaseFolder(connection.getMetaData().getURL());
+    if (dbFolder == null) {
+      return null;
+    }
+    String textTable = "JDBACL_BULK_" + Long.toHexString(System.nanoTime()).toUpperCase();
+    StringBuilder columnSpecs = new StringBuilder();
+    for (int i = 0; i < columns.size(); i++) {
+      columnSpecs.append(i > 0 ? ", " : "").append('C').append(i).append(" varchar");
+    }
+    try {
+      DBUtil.executeUpdate("create text table " + textTable + " (" + columnSpecs + ")", connection);
+    } catch (SQLException e) {
+      logger.debug("Text tables not available, falling back to batch insert: {}", e.getMessage());
+      return null;
+    }
+    File file = new File(dbFolder, textTable.toLowerCase() + ".csv");
+    try {
+      new CSVRowReader(rows, "", false).writeTo(file);
+      DBUtil.executeUpdate("set table " + textTable + " source \"" + file.getName() + ";fs=,;encoding=UTF-8\"",
+          connection);
+      return (long) DBUtil.executeUpdate("insert into " + SQLUtil.createCatSchTabString(table.getCatalog().getName(),
+          table.getSchema().getName(), table.getName(), this) + " (" + renderColumnList(columns) + ") " +
+          "select * from " + textTable, connection);
+    } finally {
+      try {
+        DBUtil.executeUpdate("drop table " + textTable, connection);
+      } catch (SQLException e) {
+        logger.warn("Failed to drop temporary text table {}", textTable, e);
+      }
+      FileUtil.deleteIfExists(file);
+    }
+  }
+
+  /** Returns the folder of a file based database or null if the URL refers to another type of database. */
+  static File fileDatabaseFolder(String url) {
+    String prefix = "jdbc:hsqldb:file:";
+    if (!url.startsWith(prefix)) {
+      return null;
+    }
+    String path = StringUtil.splitOnFirstSeparator(url.substring(prefix.length()), ';')[0];
+    return new File(path).getAbsoluteFile().getParentFile();
+  }
+
   @Override
   public String getSpecialType(String type) {
     if ("long".equals(type)) {
@@ -21,9 +21,23 @@
 
 package com.rapiddweller.jdbacl.dialect;
 
+import com.rapiddweller.common.StringUtil;
 import com.rapiddweller.common.exception.ExceptionFactory;
+import com.rapiddweller.jdbacl.ColumnInfo;
 import com.rapiddweller.jdbacl.DatabaseDialect;
+import com.rapiddweller.jdbacl.MetaDataProvider;
+import com.rapiddweller.jdbacl.SQLMetaDataProvider;
+import com.rapiddweller.jdbacl.SQLUtil;
+import com.rapiddweller.jdbacl.model.DBTable;
 import com.rapiddweller.jdbacl.sql.Query;
+import com.rapiddweller.jdbacl.sql.SQLScriptReader;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.List;
+
+import static com.rapiddweller.jdbacl.SQLMetaDataProvider.query;
 
 /**
  * {@link DatabaseDialect} implementation for the MySQL database.<br/><br/>
@@ -38,6 +52,53 @@ public class MySQLDialect extends DatabaseDialect {
   private static final String TIME_PATTERN = "''HH:mm:ss''";
   private static final String DATETIME_PATTERN = "''yyyy-MM-dd HH:mm:ss''";
 
+  // codes of java.sql.DatabaseMetaData.importedKeyCascade, importedKeyRestrict, ...
+  private static final String MYSQL_RULE_CODE =
+      "case RULE when 'CASCADE' then 0 when 'RESTRICT' then 1 when 'SET NULL' then 2 when 'SET DEFAULT' then 4 else 3 end";
+  private static final MetaDataProvider META_DATA_PROVIDER = new SQLMetaDataProvider(true,
+      query("select TABLE_SCHEMA, null, TABLE_NAME, COLUMN_NAME, case DATA_TYPE " +
+          "when 'bit' then -7 when 'tinyint' then -6 when 'smallint' then 5 when 'mediumint' then 4 when 'int' then 4 " +
+          "when 'integer' then 4 when 'bigint' then -5 when 'decimal' then 3 when 'float' then 7 when 'double' then 8 " +
+          "when 'char' then 1 when 'varchar' then 12 when 'tinytext' then 12 when 'text' then -1 when 'mediumtext' then -1 " +
+          "when 'longtext' then -1 when 'json' then -1 when 'enum' then 1 when 'set' then 1 when 'binary' then -2 " +
+          "when 'varbinary' then -3 when 'tinyblob' then -3 when 'blob' then -4 when 'mediumblob' then -4 " +
+          "when 'longblob' then -4 when 'date' then 91 when 'year' then 91 when 'time' then 92 when 'datetime' then 93 " +
+          "when 'timestamp' then 93 else 1111 end, " +
+          "concat(upper(DATA_TYPE), case when COLUMN_TYPE like '%unsigned%' then ' UNSIGNED' else '' end), " +
+          "coalesce(CHARACTER_MAXIMUM_LENGTH, NUMERIC_PRECISION, DATETIME_PRECISION), null, NUMERIC_SCALE, 10, " +
+          "case IS_NULLABLE when 'YES' then 1 else 0 end, COLUMN_COMMENT, COLUMN_DEFAULT " +
+          "from INFORMATION_SCHEMA.COLUMNS where TABLE_SCHEMA = ? order by TABLE_NAME, ORDINAL_POSITION", 1),
+      query("select TABLE_SCHEMA, null, TABLE_NAME, COLUMN_NAME, ORDINAL_POSITION, CONSTRAINT_NAME " +
+          "from INFORMATION_SCHEMA.KEY_COLUMN_USAGE where TABLE_SCHEMA = ? and CONSTRAINT_NAME = 'PRIMARY' " +
+          "order by TABLE_NAME, ORDINAL_POSITION", 1),
+      query("select TABLE_SCHEMA, null, TABLE_NAME, NON_UNIQUE, INDEX_SCHEMA, INDEX_NAME, 3, SEQ_IN_INDEX, COLUMN_NAME, " +
+          "COLLATION, CARDINALITY, 0, null from INFORMATION_SCHEMA.STATISTICS where TABLE_SCHEMA = ? " +
+          "order by TABLE_NAME, INDEX_NAME, SEQ_IN_INDEX", 1),
+      query("select k.REFERENCED_TABLE_SCHEMA, null, k.REFERENCED_TABLE_NAME, k.REFERENCED_COLUMN_NAME, k.TABLE_SCHEMA, " +
+          "null, k.TABLE_NAME, k.COLUMN_NAME, k.ORDINAL_POSITION, " + MYSQL_RULE_CODE.replace("RULE", "r.UPDATE_RULE") +
+          ", " + MYSQL_RULE_CODE.replace("RULE", "r.DELETE_RULE") + ", k.CONSTRAINT_NAME, r.UNIQUE_CONSTRAINT_NAME, 7 " +
+          "from INFORMATION_SCHEMA.KEY_COLUMN_USAGE k join INFORMATION_SCHEMA.REFERENTIAL_CONSTRAINTS r " +
+          "on k.CONSTRAINT_SCHEMA = r.CONSTRAINT_SCHEMA and k.TABLE_NAME = r.TABLE_NAME and k.CONSTRAINT_NAME = r.CONSTRAINT_NAME " +
+          "where k.TABLE_SCHEMA = ? order by k.TABLE_NAME, k.CONSTRAINT_NAME, k.ORDINAL_POSITION", 1),
+      query("select k.REFERENCED_TABLE_SCHEMA, null, k.REFERENCED_TABLE_NAME, k.REFERENCED_COLUMN_NAME, k.TABLE_SCHEMA, " +
+          "null, k.TABLE_NAME, k.COLUMN_NAME, k.ORDINAL_POSITION, " + MYSQL_RULE_CODE.replace("RULE", "r.UPDATE_RULE") +
+          ", " + MYSQL_RULE_CODE.replace("RULE", "r.DELETE_RULE") + ", k.CONSTRAINT_NAME, r.UNIQUE_CONSTRAINT_NAME, 7 " +
+          "from INFORMATION_SCHEMA.KEY_COLUMN_USAGE k join INFORMATION_SCHEMA.REFERENTIAL_CONSTRAINTS r " +
+          "on k.CONSTRAINT_SCHEMA = r.CONSTRAINT_SCHEMA and k.TABLE_NAME = r.TABLE_NAME and k.CONSTRAINT_NAME = r.CONSTRAINT_NAME " +
+          "where k.REFERENCED_TABLE_SCHEMA = ? order by k.REFERENCED_TABLE_NAME, k.CONSTRAINT_NAME, k.ORDINAL_POSITION", 1),
+      // no table change markers: CREATE_TIME is not updated by in-place and instant ALTER TABLE operations
+      null,
+      // the fingerprint consists of a count and a hash sum of the tables, columns, key columns and index columns
+      query("select (select concat(count(*), '/', coalesce(sum(crc32(concat_ws('/', TABLE_NAME, CREATE_TIME))), 0)) " +
+          "from INFORMATION_SCHEMA.TABLES where TABLE_TYPE in ('BASE TABLE', 'VIEW') and TABLE_SCHEMA = ?), " +
+          "(select concat(count(*), '/', coalesce(sum(crc32(concat_ws('/', TABLE_NAME, COLUMN_NAME, ORDINAL_POSITION, " +
+          "COLUMN_TYPE, IS_NULLABLE, COLUMN_DEFAULT))), 0)) from INFORMATION_SCHEMA.COLUMNS where TABLE_SCHEMA = ?), " +
+          "(select concat(count(*), '/', coalesce(sum(crc32(concat_ws('/', TABLE_NAME, CONSTRAINT_NAME, COLUMN_NAME, " +
+          "ORDINAL_POSITION, REFERENCED_TABLE_SCHEMA, REFERENCED_TABLE_NAME, REFERENCED_COLUMN_NAME))), 0)) " +
+          "from INFORMATION_SCHEMA.KEY_COLUMN_USAGE where TABLE_SCHEMA = ?), " +
+          "(select concat(count(*), '/', coalesce(sum(crc32(concat_ws('/', TABLE_NAME, INDEX_NAME, NON_UNIQUE, " +
+          "SEQ_IN_INDEX, COLUMN_NAME))), 0)) from INFORMATION_SCHEMA.STATISTICS where TABLE_SCHEMA = ?)", 4));
+
   /**
    * Instantiates a new My sql dialect.
    */
@@ -56,6 +117,12 @@ public boolean isDefaultSchema(String schema, String user) {
     return false; // MySQL does not make use of schemas at all
   }
 
+  /** @return the data dictionary queries if enabled by {@link #UNTESTED_META_DATA_QUERIES_SYSPROP} */
+  @Override
+  public MetaDataProvider getMetaDataProvider() {
+    return untested(META_DATA_PROVIDER);
+  }
+
   @Override
   public boolean isDeterministicPKName(String pkName) {
     return true; // MySQL always creates deterministic names
@@ -95,6 +162,20 @@ public void restrictRownums(int firstRowIndex, int rowCount, Query query) {
         "MySQLDialect.applyRownumRestriction() is not implemented");
   }
 
+  /** Streams the rows with 'LOAD DATA LOCAL INFILE', which requires the connection setting 'allowLoadLocalInfile'. */
+  @Override
+  protected Long nativeBulkLoad(DBTable table, List<ColumnInfo> columns, Iterator<Object[]> rows, Connection connection)
+      throws SQLException {
+    if (!MySQLLoadData.isAvailable(connection)) {
+      return null;
+    }
+    String sql = "LOAD DATA LOCAL INFILE 'jdbacl.csv' INTO TABLE " + SQLUtil.createCatSchTabString(
+        table.getCatalog().getName(), null, table.getName(), this) + " CHARACTER SET utf8mb4 " +
+        "FIELDS TERMINATED BY ',' OPTIONALLY ENCLOSED BY '\"' ESCAPED BY '' LINES TERMINATED BY '\\n' " +
+        "(" + renderColumnList(columns) + ")";
+    return MySQLLoadData.load(connection, sql, new CSVRowReader(rows, "NULL", true).asInputStream());
+  }
+
   @Override
   public String getSpecialType(String type) {
     if ("long".equals(type)) {
@@ -102,4 +183,66 @@ public String getSpecialType(String type) {
     }
     return super.getSpecialType(type);
   }
+
+  @Override
+  public boolean isMultiRowInsertSupported() {
+    return true;
+  }
+
+  @Override
+  public int getMaxStatementParameters() {
+    return 65535;
+  }
+
+  /** Limits the statement length to 4 MB, which is the default max_allowed_packet setting of MySQL 5.7
+   *  (MySQL 8.0 defaults to 64 MB). Servers configured with a smaller value (the minimum is 1 KB)
+   *  need a dialect which overrides this method. */
+  @Override
+  public int getMaxStatementLength() {
+    return 4 * 1024 * 1024;
+  }
+
+  /** Connector/J uses client-side prepared statements by default, which send the values inlined in the
+   *  statement text, so the values need to fit into the max_allowed_packet as well. */
+  @Override
+  public boolean isInliningParameters() {
+    return true;
+  }
+
+  @Override
+  public boolean isUpsertSupported() {
+    return true;
+  }
+
+  /** Renders <code>insert ... on duplicate key update</code>, which applies to any unique key of the table. */
+  @Override
+  public String upsert(DBTable table, List<ColumnInfo> columnInfos) {
+    String[] keyColumnNames = upsertKeyColumns(table, columnInfos);
+    StringBuilder builder = new StringBuilder(insert(table, columnInfos)).append(" on duplicate key update ");
+    boolean first = true;
+    for (ColumnInfo column : columnInfos) {
+      if (!StringUtil.containsIgnoreCase(column.name, keyColumnNames)) {
+        if (!first) {
+          builder.append(',');
+        }
+        SQLUtil.appendColumnName(column.name, builder, this);
+        builder.append("=values(");
+        SQLUtil.appendColumnName(column.name, builder, this);
+        builder.append(')');
+        first = false;
+      }
+    }
+    if (first) {
+      // all columns belong to the key, so there is nothing to update
+      SQLUtil.appendColumnName(keyColumnNames[0], builder, this);
+      builder.append('=');
+      SQLUtil.appendColumnName(keyColumnNames[0], builder, this);
+    }
+    return builder.toString();
+  }
+
+  @Override
+  public SQLScriptReader configureScriptReader(SQLScriptReader reader) {
+    return reader.withBackslashEscapes(true).withHashComments(true);
+  }
 }
@@ -0,0 +1,76 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl.dialect;
+
+import com.mysql.cj.conf.PropertyKey;
+import com.mysql.cj.jdbc.JdbcConnection;
+import com.mysql.cj.jdbc.JdbcStatement;
+import com.rapiddweller.jdbacl.DBUtil;
+
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Encapsulates the use of MySQL's 'LOAD DATA LOCAL INFILE' with an in-memory stream,
+ * so that the driver classes are only loaded on use.<br/><br/>
+ * Created: 16.03.2022 14:41:57
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+final class MySQLLoadData {
+
+  private MySQLLoadData() {
+    // private constructor to prevent instantiation of this utility class
+  }
+
+  /** Tells if the connection was opened with the driver's 'allowLoadLocalInfile' setting enabled. */
+  static boolean isAvailable(Connection connection) throws SQLException {
+    try {
+      if (!connection.isWrapperFor(JdbcConnection.class)) {
+        return false;
+      }
+      Boolean allowed = connection.unwrap(JdbcConnection.class).getPropertySet()
+          .getBooleanProperty(PropertyKey.allowLoadLocalInfile).getValue();
+      return Boolean.TRUE.equals(allowed);
+    } catch (NoClassDefFoundError e) {
+      return false;
+    }
+  }
+
+  static long load(Connection connection, String sql, InputStream in) throws SQLException {
+    Statement statement = connection.createStatement();
+    try {
+      statement.unwrap(JdbcStatement.class).setLocalInfileInputStream(in);
+      return statement.executeUpdate(sql);
+    } finally {
+      DBUtil.close(statement);
+    }
+  }
+
+}
@@ -34,15 +34,21 @@
 import com.rapiddweller.common.StringUtil;
 import com.rapiddweller.common.converter.TimestampFormatter;
 import com.rapiddweller.common.exception.ExceptionFactory;
+import com.rapiddweller.jdbacl.ColumnInfo;
 import com.rapiddweller.jdbacl.DBUtil;
 import com.rapiddweller.jdbacl.DatabaseDialect;
+import com.rapiddweller.jdbacl.MetaDataProvider;
+import com.rapiddweller.jdbacl.SQLMetaDataProvider;
+import com.rapiddweller.jdbacl.SQLUtil;
 import com.rapiddweller.jdbacl.model.DBCheckConstraint;
 import com.rapiddweller.jdbacl.model.DBPackage;
 import com.rapiddweller.jdbacl.model.DBProcedure;
 import com.rapiddweller.jdbacl.model.DBSchema;
 import com.rapiddweller.jdbacl.model.DBSequence;
+import com.rapiddweller.jdbacl.model.DBTable;
 import com.rapiddweller.jdbacl.model.DBTrigger;
 import com.rapiddweller.jdbacl.sql.Query;
+import com.rapiddweller.jdbacl.sql.SQLScriptReader;
 
 import java.math.BigInteger;
 import java.sql.Connection;
@@ -55,6 +61,8 @@
 import java.util.List;
 import java.util.regex.Pattern;
 
+import static com.rapiddweller.jdbacl.SQLMetaDataProvider.query;
+
 /**
  * Implements generic database concepts for Oracle.<br/><br/>
  * Created: 26.01.2008 07:05:28
@@ -68,7 +76,71 @@ public class OracleDialect extends DatabaseDialect {
   private static final String DATETIME_PATTERN = "'to_date('''yyyy-MM-dd HH:mm:ss''', ''yyyy-mm-dd HH24:mi:ss'')'";
   private static final String TIMESTAMP_MESSAGE = "to_timestamp(''{0}'', ''yyyy-mm-dd HH24:mi:ss.FF'')";
   private static final String TIMESTAMP_PATTERN = "yyyy-MM-dd HH:mm:ss.SSSSSSSSS";
+
+  // the rule and type codes are the ones reported by Oracle's DatabaseMetaData implementation
+  private static final MetaDataProvider META_DATA_PROVIDER = new SQLMetaDataProvider(false,
+      query("select null, t.owner, t.table_name, t.column_name, " +
+          "decode(substr(t.data_type, 1, 9), 'TIMESTAMP', decode(instr(t.data_type, 'LOCAL'), 0, " +
+          "decode(instr(t.data_type, 'TIME ZONE'), 0, 93, -101), -102), " +
+          "'INTERVAL ', decode(substr(t.data_type, 10, 3), 'DAY', -104, -103), " +
+          "decode(t.data_type, 'BINARY_DOUBLE', 101, 'BINARY_FLOAT', 100, 'BFILE', -13, 'BLOB', 2004, 'CHAR', 1, " +
+          "'CLOB', 2005, 'DATE', 93, 'FLOAT', 6, 'LONG', -1, 'LONG RAW', -4, 'NCHAR', -15, 'NCLOB', 2011, " +
+          "'NUMBER', 3, 'NVARCHAR2', -9, 'RAW', -3, 'ROWID', -8, 'UROWID', -8, 'VARCHAR2', 12, 'XMLTYPE', 2009, 1111)), " +
+          "t.data_type, decode(t.data_precision, null, decode(t.data_type, 'NUMBER', decode(t.data_scale, null, 0, 38), " +
+          "'CHAR', t.char_length, 'VARCHAR2', t.char_length, 'NCHAR', t.char_length, 'NVARCHAR2', t.char_length, " +
+          "t.data_length), t.data_precision), 0, decode(t.data_type, 'NUMBER', decode(t.data_precision, null, " +
+          "decode(t.data_scale, null, -127, t.data_scale), t.data_scale), t.data_scale), 10, " +
+          "decode(t.nullable, 'N', 0, 1), c.comments, t.data_default from all_tab_columns t " +
+          "left join all_col_comments c " +
+          "on t.owner = c.owner and t.table_name = c.table_name and t.column_name = c.column_name " +
+          "where t.owner = ? order by t.table_name, t.column_id", 1),
+      query("select null, c.owner, c.table_name, cc.column_name, cc.position, c.constraint_name from all_constraints c " +
+          "join all_cons_columns cc on c.owner = cc.owner and c.constraint_name = cc.constraint_name " +
+          "where c.constraint_type = 'P' and c.owner = ? order by c.table_name, cc.position", 1),
+      query("select null, i.table_owner, i.table_name, decode(i.uniqueness, 'UNIQUE', 0, 1), null, i.index_name, 3, " +
+          "ic.column_position, ic.column_name, decode(ic.descend, 'DESC', 'D', 'A'), i.distinct_keys, i.leaf_blocks, " +
+          "null from all_indexes i " +
+          "join all_ind_columns ic on i.owner = ic.index_owner and i.index_name = ic.index_name " +
+          "where i.table_owner = ? order by i.table_name, i.index_name, ic.column_position", 1),
+      query("select null, p.owner, p.table_name, pc.column_name, null, f.owner, f.table_name, fc.column_name, " +
+          "fc.position, null, decode(f.delete_rule, 'CASCADE', 0, 'SET NULL', 2, 1), f.constraint_name, " +
+          "p.constraint_name, decode(f.deferrable, 'DEFERRABLE', decode(f.deferred, 'DEFERRED', 5, 6), 7) " +
+          "from all_constraints f " +
+          "join all_cons_columns fc on f.owner = fc.owner and f.constraint_name = fc.constraint_name " +
+          "join all_constraints p on f.r_owner = p.owner and f.r_constraint_name = p.constraint_name " +
+          "join all_cons_columns pc on p.owner = pc.owner and p.constraint_name = pc.constraint_name " +
+          "and pc.position = fc.position where f.constraint_type = 'R' and " +
+          "f.owner = ? order by f.table_name, f.constraint_name, fc.position", 1),
+      query("select null, p.owner, p.table_name, pc.column_name, null, f.owner, f.table_name, fc.column_name, " +
+          "fc.position, null, decode(f.delete_rule, 'CASCADE', 0, 'SET NULL', 2, 1), f.constraint_name, " +
+          "p.constraint_name, decode(f.deferrable, 'DEFERRABLE', decode(f.deferred, 'DEFERRED', 5, 6), 7) " +
+          "from all_constraints f " +
+          "join all_cons_columns fc on f.owner = fc.owner and f.constraint_name = fc.constraint_name " +
+          "join all_constraints p on f.r_owner = p.owner and f.r_constraint_name = p.constraint_name " +
+          "join all_cons_columns pc on p.owner = pc.owner and p.constraint_name = pc.constraint_name " +
+          "and pc.position = fc.position where f.constraint_type = 'R' and " +
+          "p.owner = ? order by p.table_name, f.constraint_name, fc.position", 1),
+      query("select object_name, to_char(last_ddl_time, 'YYYYMMDDHH24MISS') from all_objects " +
+          "where owner = ? and object_type in ('TABLE', 'VIEW')", 1),
+      // the fingerprint consists of a count and a hash sum of the tables, columns, constraint columns and index columns
+      query("select (select count(*) || '/' || coalesce(sum(ora_hash(object_name || '/' || " +
+          "to_char(last_ddl_time, 'YYYYMMDDHH24MISS'))), 0) from all_objects " +
+          "where owner = ? and object_type in ('TABLE', 'VIEW')), " +
+          "(select count(*) || '/' || coalesce(sum(ora_hash(table_name || '/' || column_name || '/' || column_id || '/' || " +
+          "data_type || '/' || data_length || '/' || data_precision || '/' || data_scale || '/' || nullable)), 0) " +
+          "from all_tab_columns where owner = ?), " +
+          "(select count(*) || '/' || coalesce(sum(ora_hash(c.table_name || '/' || c.constraint_name || '/' || " +
+          "c.constraint_type || '/' || cc.column_name || '/' || cc.position || '/' || c.r_owner || '/' || " +
+          "c.r_constraint_name || '/' || c.delete_rule || '/' || c.status)), 0) from all_constraints c " +
+          "left join all_cons_columns cc on cc.owner = c.owner and cc.constraint_name = c.constraint_name " +
+          "where c.owner = ?), " +
+          "(select count(*) || '/' || coalesce(sum(ora_hash(i.table_name || '/' || i.index_name || '/' || i.uniqueness || " +
+          "'/' || ic.column_name || '/' || ic.column_position || '/' || ic.descend)), 0) from all_indexes i " +
+          "join all_ind_columns ic on ic.index_owner = i.owner and ic.index_name = i.index_name " +
+          "where i.owner = ?) from dual", 4));
   private static final Pattern SIMPLE_NOT_NULL_CHECK = Pattern.compile("\"[A-Z0-9_]+\" IS NOT NULL");
+  private static final Pattern PLSQL_BLOCK_START = Pattern.compile("(?i)(declare|begin|create\\s+(or\\s+replace\\s+)?" +
+      "((editionable|noneditionable)\\s+)?(function|procedure|package|trigger|type\\s+body))\\b");
 
   final Pattern randomNamePattern = Pattern.compile("SYS_C\\d{8}");
 
@@ -154,6 +226,12 @@ public DBSequence[] querySequences(Connection connection) throws SQLException {
     }
   }
 
+  /** @return the data dictionary queries if enabled by {@link #UNTESTED_META_DATA_QUERIES_SYSPROP} */
+  @Override
+  public MetaDataProvider getMetaDataProvider() {
+    return untested(META_DATA_PROVIDER);
+  }
+
   public DBCheckConstraint[] queryCheckConstraints(Connection connection, String schemaName) throws SQLException {
     Statement statement = connection.createStatement();
     statement.setFetchSize(300);
@@ -382,4 +460,59 @@ public String getSpecialType(String type) {
       return super.getSpecialType(type);
     }
   }
+
+  @Override
+  public boolean isMultiRowInsertSupported() {
+    return true;
+  }
+
+  @Override
+  public int getMaxStatementParameters() {
+    return 65535;
+  }
+
+  /** An INSERT ALL statement must not insert more than 999 values, the rows &times; columns of its INTO clauses. */
+  @Override
+  public int getMaxMultiRowInsertValues() {
+    return 999;
+  }
+
+  /** Renders an <code>INSERT ALL INTO tab (c1,c2) VALUES (?,?) INTO ... SELECT 1 FROM DUAL</code> statement. */
+  @Override
+  public String insertMultiRow(DBTable table, List<ColumnInfo> columnInfos, int rowCount) {
+    if (rowCount == 1) {
+      return insert(table, columnInfos);
+    }
+    String into = "INTO " + SQLUtil.createCatSchTabString(table.getCatalog().getName(), table.getSchema().getName(),
+        table.getName(), this) + " (" + renderColumnList(columnInfos) + ") VALUES " + renderRowParams(columnInfos.size());
+    StringBuilder builder = new StringBuilder("INSERT ALL");
+    for (int i = 0; i < rowCount; i++) {
+      builder.append(' ').append(into);
+    }
+    return builder.append(" SELECT 1 FROM DUAL").toString();
+  }
+
+  @Override
+  public boolean isUpsertSupported() {
+    return true;
+  }
+
+  @Override
+  protected String renderMergeSource(DBTable table, List<ColumnInfo> columnInfos) {
+    StringBuilder builder = new StringBuilder("(select ");
+    for (int i = 0; i < columnInfos.size(); i++) {
+      if (i > 0) {
+        builder.append(", ");
+      }
+      builder.append("? ");
+      SQLUtil.appendColumnName(columnInfos.get(i).name, builder, this);
+    }
+    return builder.append(" from dual) s").toString();
+  }
+
+  /** Supports SQL*Plus style scripts, in which PL/SQL blocks are terminated by a line containing only '/'. */
+  @Override
+  public SQLScriptReader configureScriptReader(SQLScriptReader reader) {
+    return reader.withBlockDelimiter("/", PLSQL_BLOCK_START);
+  }
 }
\ No newline at end of file
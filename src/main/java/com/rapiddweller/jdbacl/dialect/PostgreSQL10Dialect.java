@@ -27,8 +27,12 @@
 package com.rapiddweller.jdbacl.dialect;
 
 import com.rapiddweller.common.ArrayBuilder;
+import com.rapiddweller.common.StringUtil;
+import com.rapiddweller.jdbacl.ColumnInfo;
 import com.rapiddweller.jdbacl.DBUtil;
+import com.rapiddweller.jdbacl.SQLUtil;
 import com.rapiddweller.jdbacl.model.DBSequence;
+import com.rapiddweller.jdbacl.model.DBTable;
 
 import java.math.BigInteger;
 import java.sql.Connection;
@@ -71,4 +75,37 @@ public DBSequence[] querySequences(Connection connection) throws SQLException {
     }
     return builder.toArray();
   }
+
+  @Override
+  public boolean isUpsertSupported() {
+    return true;
+  }
+
+  /** Renders <code>insert ... on conflict (keys) do update</code>. */
+  @Override
+  public String upsert(DBTable table, List<ColumnInfo> columnInfos) {
+    String[] keyColumnNames = upsertKeyColumns(table, columnInfos);
+    StringBuilder builder = new StringBuilder(insert(table, columnInfos)).append(" on conflict (");
+    for (int i = 0; i < keyColumnNames.length; i++) {
+      if (i > 0) {
+        builder.append(',');
+      }
+      SQLUtil.appendColumnName(keyColumnNames[i], builder, this);
+    }
+    builder.append(')');
+    boolean first = true;
+    for (ColumnInfo column : columnInfos) {
+      if (!StringUtil.containsIgnoreCase(column.name, keyColumnNames)) {
+        builder.append(first ? " do update set " : ",");
+        SQLUtil.appendColumnName(column.name, builder, this);
+        builder.append("=excluded.");
+        SQLUtil.appendColumnName(column.name, builder, this);
+        first = false;
+      }
+    }
+    if (first) {
+      builder.append(" do nothing");
+    }
+    return builder.toString();
+  }
 }
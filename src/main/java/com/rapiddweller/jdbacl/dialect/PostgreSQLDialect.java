@@ -28,17 +28,27 @@
 
 import com.rapiddweller.common.ArrayBuilder;
 import com.rapiddweller.common.exception.ExceptionFactory;
+import com.rapiddweller.jdbacl.ColumnInfo;
 import com.rapiddweller.jdbacl.DBUtil;
 import com.rapiddweller.jdbacl.DatabaseDialect;
+import com.rapiddweller.jdbacl.MetaDataProvider;
+import com.rapiddweller.jdbacl.SQLMetaDataProvider;
+import com.rapiddweller.jdbacl.SQLUtil;
 import com.rapiddweller.jdbacl.model.DBSequence;
+import com.rapiddweller.jdbacl.model.DBTable;
 import com.rapiddweller.jdbacl.sql.Query;
+import com.rapiddweller.jdbacl.sql.SQLScriptReader;
 
+import java.io.IOException;
 import java.math.BigInteger;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.util.Iterator;
 import java.util.List;
 
+import static com.rapiddweller.jdbacl.SQLMetaDataProvider.query;
+
 /**
  * Implements generic database concepts for PostgreSQL.<br/><br/>
  * Created: 26.01.2008 07:11:06
@@ -51,6 +61,99 @@ public class PostgreSQLDialect extends DatabaseDialect {
   private static final String TIME_PATTERN = "'time '''HH:mm:ss''";
   private static final String DATETIME_PATTERN = "'timestamp '''yyyy-MM-dd HH:mm:ss''";
 
+  // codes of java.sql.DatabaseMetaData.importedKeyCascade, importedKeyRestrict, ...
+  private static final String PG_RULE_CODE =
+      "case RULE when 'c' then 0 when 'r' then 1 when 'n' then 2 when 'd' then 4 else 3 end";
+  private static final MetaDataProvider META_DATA_PROVIDER = new SQLMetaDataProvider(false,
+      query("select current_database(), n.nspname, c.relname, a.attname, case t.typname " +
+          "when 'bool' then -7 when 'int2' then 5 when 'int4' then 4 when 'int8' then -5 when 'oid' then -5 " +
+          "when 'numeric' then 2 when 'float4' then 7 when 'float8' then 8 when 'bpchar' then 1 when 'varchar' then 12 " +
+          "when 'text' then 12 when 'name' then 12 when 'bytea' then -2 when 'date' then 91 when 'time' then 92 " +
+          "when 'timetz' then 92 when 'timestamp' then 93 when 'timestamptz' then 93 else 1111 end, " +
+          "t.typname, case when t.typname in ('bpchar', 'varchar') and a.atttypmod > 0 then a.atttypmod - 4 " +
+          "when t.typname = 'numeric' and a.atttypmod > 0 then ((a.atttypmod - 4) >> 16) & 65535 " +
+          "when t.typname = 'int2' then 5 when t.typname = 'int4' then 10 when t.typname = 'int8' then 19 " +
+          "when t.typname = 'float4' then 8 when t.typname = 'float8' then 17 when t.typname = 'bool' then 1 " +
+          "else 0 end, null, case when t.typname = 'numeric' and a.atttypmod > 0 then (a.atttypmod - 4) & 65535 " +
+          "when t.typname = 'float4' then 8 when t.typname = 'float8' then 17 else 0 end, 10, " +
+          "case when a.attnotnull then 0 else 1 end, col_description(c.oid, a.attnum), pg_get_expr(d.adbin, d.adrelid) " +
+          "from pg_catalog.pg_attribute a join pg_catalog.pg_class c on a.attrelid = c.oid " +
+          "join pg_catalog.pg_namespace n on c.relnamespace = n.oid join pg_catalog.pg_type t on a.atttypid = t.oid " +
+          "left join pg_catalog.pg_attrdef d on d.adrelid = c.oid and d.adnum = a.attnum " +
+          "where n.nspname = ? and c.relkind in ('r', 'v', 'p', 'm', 'f') and a.attnum > 0 and not a.attisdropped " +
+          "order by c.relname, a.attnum", 1),
+      query("select current_database(), n.nspname, c.relname, a.attname, k.ord, con.conname " +
+          "from pg_catalog.pg_constraint con " +
+          "join pg_catalog.pg_class c on con.conrelid = c.oid join pg_catalog.pg_namespace n on c.relnamespace = n.oid " +
+          "cross join lateral unnest(con.conkey) with ordinality as k(attnum, ord) " +
+          "join pg_catalog.pg_attribute a on a.attrelid = c.oid and a.attnum = k.attnum " +
+          "where con.contype = 'p' and n.nspname = ? order by c.relname, k.ord", 1),
+      // expression columns have attnum 0 and are reported with their expression, like the JDBC driver does.
+      // INCLUDE columns (PostgreSQL 11+) follow the indnkeyatts key columns and are not reported,
+      // indnkeyatts is read from the row's JSON, since the column does not exist in older versions
+      query("select current_database(), n.nspname, c.relname, not i.indisunique, null, ci.relname, 3, k.ord, " +
+          "coalesce(a.attname, pg_catalog.pg_get_indexdef(i.indexrelid, cast(k.ord as int), true)), " +
+          "case when i.indoption[k.ord - 1] & 1 = 1 then 'D' else 'A' end, cast(ci.reltuples as bigint), ci.relpages, " +
+          "pg_get_expr(i.indpred, i.indrelid) from pg_catalog.pg_index i " +
+          "join pg_catalog.pg_class c on i.indrelid = c.oid join pg_catalog.pg_namespace n on c.relnamespace = n.oid " +
+          "join pg_catalog.pg_class ci on i.indexrelid = ci.oid " +
+          "cross join lateral unnest(i.indkey::int2[]) with ordinality as k(attnum, ord) " +
+          "left join pg_catalog.pg_attribute a on a.attrelid = c.oid and a.attnum = k.attnum " +
+          "where n.nspname = ? and k.ord <= coalesce(cast(to_jsonb(i) ->> 'indnkeyatts' as int), i.indnatts) " +
+          "order by c.relname, ci.relname, k.ord", 1),
+      query("select current_database(), pn.nspname, pc.relname, pa.attname, current_database(), n.nspname, c.relname, " +
+          "a.attname, k.ord, " + PG_RULE_CODE.replace("RULE", "con.confupdtype") + ", " +
+          PG_RULE_CODE.replace("RULE", "con.confdeltype") + ", con.conname, pi.relname, " +
+          "case when not con.condeferrable then 7 when con.condeferred then 5 else 6 end " +
+          "from pg_catalog.pg_constraint con " +
+          "join pg_catalog.pg_class c on con.conrelid = c.oid join pg_catalog.pg_namespace n on c.relnamespace = n.oid " +
+          "join pg_catalog.pg_class pc on con.confrelid = pc.oid " +
+          "join pg_catalog.pg_namespace pn on pc.relnamespace = pn.oid " +
+          "left join pg_catalog.pg_class pi on con.conindid = pi.oid " +
+          "cross join lateral unnest(con.conkey, con.confkey) with ordinality as k(attnum, refattnum, ord) " +
+          "join pg_catalog.pg_attribute a on a.attrelid = c.oid and a.attnum = k.attnum " +
+          "join pg_catalog.pg_attribute pa on pa.attrelid = pc.oid and pa.attnum = k.refattnum " +
+          "where con.contype = 'f' and " +
+          "n.nspname = ? order by c.relname, con.conname, k.ord", 1),
+      query("select current_database(), pn.nspname, pc.relname, pa.attname, current_database(), n.nspname, c.relname, " +
+          "a.attname, k.ord, " + PG_RULE_CODE.replace("RULE", "con.confupdtype") + ", " +
+          PG_RULE_CODE.replace("RULE", "con.confdeltype") + ", con.conname, pi.relname, " +
+          "case when not con.condeferrable then 7 when con.condeferred then 5 else 6 end " +
+          "from pg_catalog.pg_constraint con " +
+          "join pg_catalog.pg_class c on con.conrelid = c.oid join pg_catalog.pg_namespace n on c.relnamespace = n.oid " +
+          "join pg_catalog.pg_class pc on con.confrelid = pc.oid " +
+          "join pg_catalog.pg_namespace pn on pc.relnamespace = pn.oid " +
+          "left join pg_catalog.pg_class pi on con.conindid = pi.oid " +
+          "cross join lateral unnest(con.conkey, con.confkey) with ordinality as k(attnum, refattnum, ord) " +
+          "join pg_catalog.pg_attribute a on a.attrelid = c.oid and a.attnum = k.attnum " +
+          "join pg_catalog.pg_attribute pa on pa.attrelid = pc.oid and pa.attnum = k.refattnum " +
+          "where con.contype = 'f' and " +
+          "pn.nspname = ? order by pc.relname, con.conname, k.ord", 1),
+      // no table change markers: the pg_class row of a table is not updated by all DDL on it,
+      // for example by column renames, NOT NULL changes, new indexes or new foreign keys
+      null,
+      // the fingerprint consists of a count and a hash of the tables, columns, constraints and indexes
+      query("select (select count(*) || '/' || coalesce(md5(string_agg(c.relname || '/' || c.xmin::text, ',' " +
+          "order by c.relname)), '') from pg_catalog.pg_class c " +
+          "join pg_catalog.pg_namespace n on n.oid = c.relnamespace " +
+          "where c.relkind in ('r', 'p', 'v', 'm', 'f') and n.nspname = ?), " +
+          "(select count(*) || '/' || coalesce(md5(string_agg(c.relname || '/' || a.attname || '/' || a.attnum || '/' || " +
+          "pg_catalog.format_type(a.atttypid, a.atttypmod) || '/' || a.attnotnull || '/' || " +
+          "coalesce(pg_get_expr(d.adbin, d.adrelid), ''), ',' order by c.relname, a.attnum)), '') " +
+          "from pg_catalog.pg_attribute a join pg_catalog.pg_class c on a.attrelid = c.oid " +
+          "join pg_catalog.pg_namespace n on n.oid = c.relnamespace " +
+          "left join pg_catalog.pg_attrdef d on d.adrelid = c.oid and d.adnum = a.attnum " +
+          "where c.relkind in ('r', 'p', 'v', 'm', 'f') and n.nspname = ? and a.attnum > 0 and not a.attisdropped), " +
+          "(select count(*) || '/' || coalesce(md5(string_agg(c.relname || '/' || con.conname || '/' || " +
+          "pg_catalog.pg_get_constraintdef(con.oid), ',' order by c.relname, con.conname)), '') " +
+          "from pg_catalog.pg_constraint con join pg_catalog.pg_class c on con.conrelid = c.oid " +
+          "join pg_catalog.pg_namespace n on n.oid = c.relnamespace where n.nspname = ?), " +
+          "(select count(*) || '/' || coalesce(md5(string_agg(c.relname || '/' || ci.relname || '/' || " +
+          "pg_catalog.pg_get_indexdef(i.indexrelid), ',' order by c.relname, ci.relname)), '') " +
+          "from pg_catalog.pg_index i join pg_catalog.pg_class c on i.indrelid = c.oid " +
+          "join pg_catalog.pg_class ci on i.indexrelid = ci.oid " +
+          "join pg_catalog.pg_namespace n on n.oid = c.relnamespace where n.nspname = ?)", 4));
+
   public PostgreSQLDialect() {
     super("postgres", true, true, DATE_PATTERN, TIME_PATTERN, DATETIME_PATTERN);
   }
@@ -102,6 +205,12 @@ public DBSequence[] querySequences(Connection connection) throws SQLException {
     return builder.toArray();
   }
 
+  /** @return the data dictionary queries if enabled by {@link #UNTESTED_META_DATA_QUERIES_SYSPROP} */
+  @Override
+  public MetaDataProvider getMetaDataProvider() {
+    return untested(META_DATA_PROVIDER);
+  }
+
   @Override
   public boolean isDefaultCatalog(String catalog, String user) {
     return "".equals(catalog) || user.equalsIgnoreCase(catalog);
@@ -161,6 +270,18 @@ public void restrictRownums(int firstRowIndex, int rowCount, Query query) {
         "PostgreSQLDialect.applyRownumRestriction() is not implemented");
   }
 
+  /** Streams the rows in CSV format with 'COPY ... FROM STDIN' using the driver's CopyManager. */
+  @Override
+  protected Long nativeBulkLoad(DBTable table, List<ColumnInfo> columns, Iterator<Object[]> rows, Connection connection)
+      throws SQLException, IOException {
+    if (!PostgreSQLCopy.isAvailable(connection)) {
+      return null;
+    }
+    String sql = "COPY " + SQLUtil.createCatSchTabString(table.getCatalog().getName(), table.getSchema().getName(),
+        table.getName(), this) + " (" + renderColumnList(columns) + ") FROM STDIN WITH CSV";
+    return PostgreSQLCopy.copyIn(connection, sql, new CSVRowReader(rows, "", false));
+  }
+
   @Override
   public String getSpecialType(String type) {
     if ("long".equals(type)) {
@@ -171,4 +292,14 @@ public String getSpecialType(String type) {
       return super.getSpecialType(type);
     }
   }
+
+  @Override
+  public boolean isMultiRowInsertSupported() {
+    return true;
+  }
+
+  @Override
+  public SQLScriptReader configureScriptReader(SQLScriptReader reader) {
+    return reader.withDollarQuotes(true);
+  }
 }
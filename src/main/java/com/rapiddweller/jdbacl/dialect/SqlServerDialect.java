@@ -23,9 +23,13 @@
 
 import com.rapiddweller.common.StringUtil;
 import com.rapiddweller.common.exception.ExceptionFactory;
+import com.rapiddweller.jdbacl.ColumnInfo;
 import com.rapiddweller.jdbacl.DatabaseDialect;
+import com.rapiddweller.jdbacl.model.DBTable;
 import com.rapiddweller.jdbacl.sql.Query;
+import com.rapiddweller.jdbacl.sql.SQLScriptReader;
 
+import java.util.List;
 import java.util.regex.Pattern;
 
 /**
@@ -40,6 +44,8 @@ public class SqlServerDialect extends DatabaseDialect {
   private static final String DATE_PATTERN = "''yyyy-MM-dd''";
   private static final String TIME_PATTERN = "''HH:mm:ss''";
   private static final String DATETIME_PATTERN = "''yyyy-MM-dd'T'HH:mm:ss''";
+  private static final Pattern TSQL_BLOCK_START = Pattern.compile(
+      "(?i)create\\s+(or\\s+alter\\s+)?(proc|procedure|function|trigger)\\b");
 
   /**
    * The Random name pattern.
@@ -109,4 +115,38 @@ public void restrictRownums(int firstRowIndex, int rowCount,
         "SqlServerDialect.applyRownumRestriction() is not implemented");
   }
 
+  @Override
+  public boolean isMultiRowInsertSupported() {
+    return true;
+  }
+
+  /** SQL Server accepts 2100 parameters per request, but the driver reserves two of them. */
+  @Override
+  public int getMaxStatementParameters() {
+    return 2098;
+  }
+
+  /** SQL Server accepts at most 1000 row value expressions in a VALUES clause. */
+  @Override
+  public int getMaxMultiRowInsertRows() {
+    return 1000;
+  }
+
+  @Override
+  public boolean isUpsertSupported() {
+    return true;
+  }
+
+  /** Terminates the merge statement with a semicolon, which is mandatory in SQL Server. */
+  @Override
+  public String upsert(DBTable table, List<ColumnInfo> columnInfos) {
+    return super.upsert(table, columnInfos) + ";";
+  }
+
+  /** Supports batches terminated by GO lines, which are mandatory around procedure, function and trigger definitions. */
+  @Override
+  public SQLScriptReader configureScriptReader(SQLScriptReader reader) {
+    return reader.withBlockDelimiter("GO", TSQL_BLOCK_START).withBracketQuotes(true);
+  }
+
 }
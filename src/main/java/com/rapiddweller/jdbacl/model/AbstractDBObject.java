@@ -75,6 +75,12 @@ public void setDoc(String doc) {
     this.doc = doc;
   }
 
+  /** Replaces the strings of the object by their instances in the given pool. */
+  void compact(NamePool pool) {
+    this.name = pool.name(name);
+    this.doc = pool.name(doc);
+  }
+
   @Override
   public CompositeDBObject<?> getOwner() {
     return owner;
@@ -0,0 +1,167 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl.model;
+
+import com.rapiddweller.common.Named;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Immutable, array-backed map of {@link Named} objects which looks up names ignoring case.
+ * Small maps are searched linearly, larger ones use a hash index which is built on the first lookup.
+ * Changes create a new instance, so the map can be published to other threads without locking.
+ * A map created by appending an element shares the array and the index of its predecessor if they have
+ * room for it, so building a map element by element takes amortized constant time per element.
+ * Concurrent calls to {@link #with(Named)} must be serialized by the caller.<br/><br/>
+ * Created: 21.03.2022 09:52:06
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+final class ArrayNameMap<E extends Named> {
+
+  /** maps up to this size are searched linearly, without building a hash index */
+  static final int LINEAR_SEARCH_LIMIT = 8;
+
+  private static final ArrayNameMap<?> EMPTY = new ArrayNameMap<>(new Named[0], 0, null);
+
+  /** the elements, shared with the maps derived by appending. Slots from size on belong to those maps */
+  private final Named[] elements;
+  private final int size;
+  /** maps lower case names to positions in the elements array and is shared like it, so positions
+   *  from size on belong to derived maps */
+  private volatile Map<String, Integer> index;
+
+  private ArrayNameMap(Named[] elements, int size, Map<String, Integer> index) {
+    this.elements = elements;
+    this.size = size;
+    this.index = index;
+  }
+
+  @SuppressWarnings("unchecked")
+  static <T extends Named> ArrayNameMap<T> empty() {
+    return (ArrayNameMap<T>) EMPTY;
+  }
+
+  static <T extends Named> ArrayNameMap<T> of(Collection<T> elements) {
+    return (elements.isEmpty() ? empty() : new ArrayNameMap<>(elements.toArray(new Named[0]), elements.size(), null));
+  }
+
+  // interface -------------------------------------------------------------------------------------------------------
+
+  int size() {
+    return size;
+  }
+
+  @SuppressWarnings("unchecked")
+  E get(String name) {
+    int position = positionOf(name);
+    return (position >= 0 ? (E) elements[position] : null);
+  }
+
+  /** @return a new list with the elements in insertion order */
+  @SuppressWarnings("unchecked")
+  List<E> values() {
+    List<E> result = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      result.add((E) elements[i]);
+    }
+    return result;
+  }
+
+  String[] names() {
+    String[] result = new String[size];
+    for (int i = 0; i < size; i++) {
+      result[i] = elements[i].getName();
+    }
+    return result;
+  }
+
+  /** @return a map which contains the given element instead of an element of the same name,
+   *  or additionally at the end if there is none */
+  ArrayNameMap<E> with(E element) {
+    String name = element.getName();
+    int position = positionOf(name);
+    if (position >= 0) {
+      Named[] copy = Arrays.copyOf(elements, size);
+      copy[position] = element;
+      return new ArrayNameMap<>(copy, size, null);
+    }
+    if (size < elements.length && elements[size] == null) {
+      // the next slot is still free, so the array and index can be shared
+      elements[size] = element;
+      Map<String, Integer> sharedIndex = this.index;
+      if (sharedIndex != null) {
+        sharedIndex.put(name.toLowerCase(), size);
+      }
+      return new ArrayNameMap<>(elements, size + 1, sharedIndex);
+    }
+    Named[] copy = Arrays.copyOf(elements, Math.max(4, size + (size >> 1) + 1));
+    copy[size] = element;
+    return new ArrayNameMap<>(copy, size + 1, null);
+  }
+
+  /** @return a map with the same elements which does not reserve room for appending */
+  ArrayNameMap<E> trimmed() {
+    return (size == elements.length ? this : new ArrayNameMap<>(Arrays.copyOf(elements, size), size, null));
+  }
+
+  // private helpers -------------------------------------------------------------------------------------------------
+
+  private int positionOf(String name) {
+    if (size <= LINEAR_SEARCH_LIMIT) {
+      for (int i = 0; i < size; i++) {
+        if (elements[i].getName().equalsIgnoreCase(name)) {
+          return i;
+        }
+      }
+      return -1;
+    }
+    if (name == null) {
+      return -1;
+    }
+    Integer position = index().get(name.toLowerCase());
+    return (position != null && position < size ? position : -1);
+  }
+
+  private Map<String, Integer> index() {
+    Map<String, Integer> result = this.index;
+    if (result == null) {
+      result = new ConcurrentHashMap<>(size * 4 / 3 + 1);
+      for (int i = 0; i < size; i++) {
+        result.putIfAbsent(elements[i].getName().toLowerCase(), i);
+      }
+      this.index = result;
+    }
+    return result;
+  }
+
+}
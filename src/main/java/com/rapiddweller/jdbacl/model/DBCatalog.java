@@ -31,7 +31,10 @@
 import com.rapiddweller.common.exception.ExceptionFactory;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Represents a JDBC catalog.<br/><br/>
@@ -42,6 +45,10 @@ public class DBCatalog extends AbstractCompositeDBObject<DBSchema> implements Na
 
   final OrderedNameMap<DBSchema> schemas;
 
+  /** the tables of all schemas and their name index, created on demand and discarded on structural changes */
+  private final Object tableLock = new Object();
+  private volatile TableCache tableCache;
+
   // constructors ----------------------------------------------------------------------------------------------------
 
   public DBCatalog() {
@@ -110,33 +117,39 @@ public DBSchema getSchema(String schemaName) {
   public void addSchema(DBSchema schema) {
     schemas.put(schema.getName(), schema);
     schema.setOwner(this);
+    tablesChanged();
+    Database database = getDatabase();
+    if (database != null) {
+      database.schemaAdded(schema);
+    }
   }
 
   public void removeSchema(DBSchema schema) {
     schemas.remove(schema.getName());
+    tablesChanged();
+    Database database = getDatabase();
+    if (database != null) {
+      database.invalidateIndex();
+    }
   }
 
   // table operations ------------------------------------------------------------------------------------------------
 
+  /** @return an unmodifiable list of the tables of all schemas */
   public List<DBTable> getTables() {
-    List<DBTable> tables = new ArrayList<>();
-    for (DBSchema schema : getSchemas()) {
-      tables.addAll(schema.getTables());
-    }
-    return tables;
+    return getTableCache().tables;
   }
 
   public DBTable getTable(String name) {
     return getTable(name, true);
   }
 
+  /** @param name the exact simple name of the table. If several schemas contain a table of the name,
+   *  the one of the first schema is returned */
   public DBTable getTable(String name, boolean required) {
-    for (DBSchema schema : getSchemas()) {
-      for (DBTable table : schema.getTables()) {
-        if (table.getName().equals(name)) {
-          return table;
-        }
-      }
+    DBTable table = (name != null ? getTableCache().tablesByName.get(name) : null);
+    if (table != null) {
+      return table;
     }
     if (required) {
       throw ExceptionFactory.getInstance().objectNotFound("Table '" + name + "'");
@@ -150,6 +163,27 @@ public void removeTable(String tableName) {
     table.getSchema().removeTable(table);
   }
 
+  /** Called when a schema or table has been added or removed */
+  void tablesChanged() {
+    synchronized (tableLock) {
+      this.tableCache = null;
+    }
+  }
+
+  private TableCache getTableCache() {
+    TableCache result = this.tableCache;
+    if (result == null) {
+      synchronized (tableLock) {
+        result = this.tableCache;
+        if (result == null) {
+          result = new TableCache(getSchemas());
+          this.tableCache = result;
+        }
+      }
+    }
+    return result;
+  }
+
   public List<DBSequence> getSequences() {
     List<DBSequence> sequences = new ArrayList<>();
     for (DBSchema schema : getSchemas()) {
@@ -158,4 +192,22 @@ public List<DBSequence> getSequences() {
     return sequences;
   }
 
+  private static final class TableCache {
+
+    final List<DBTable> tables;
+    final Map<String, DBTable> tablesByName;
+
+    TableCache(List<DBSchema> schemas) {
+      List<DBTable> list = new ArrayList<>();
+      this.tablesByName = new HashMap<>();
+      for (DBSchema schema : schemas) {
+        for (DBTable table : schema.getTables()) {
+          list.add(table);
+          tablesByName.putIfAbsent(table.getName(), table);
+        }
+      }
+      this.tables = Collections.unmodifiableList(list);
+    }
+  }
+
 }
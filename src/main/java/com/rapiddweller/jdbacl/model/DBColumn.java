@@ -126,6 +126,12 @@ public void setDefaultValue(String defaultValue) {
     this.defaultValue = defaultValue;
   }
 
+  @Override
+  void compact(NamePool pool) {
+    super.compact(pool);
+    this.defaultValue = pool.name(defaultValue);
+  }
+
   public boolean isUnique() {
     getTable().getUniqueConstraints(true); // make sure lazy data is fetched before
     for (DBUniqueConstraint constraint : ukConstraints) {
@@ -148,12 +148,12 @@ private DBDataType(int sqlType, String name) {
 
   // constructors ----------------------------------------------------------------------------------------------------
 
-  public static DBDataType getInstance(String name) {
+  public static synchronized DBDataType getInstance(String name) {
     final String key = name.toUpperCase();
     return INSTANCES_BY_NAME.computeIfAbsent(key, k -> new DBDataType(jdbcTypeFor(key), key));
   }
 
-  public static DBDataType getInstance(int jdbcType, String name) {
+  public static synchronized DBDataType getInstance(int jdbcType, String name) {
     TypeDescriptor descriptor = new TypeDescriptor(jdbcType, name.toUpperCase());
     DBDataType result = INSTANCES_BY_TYPE_AND_NAME.get(descriptor);
     if (result == null) {
@@ -43,10 +43,10 @@
  */
 public class DBForeignKeyConstraint extends DBConstraint implements MultiColumnObject {
 
-  private final String[] fkColumnNames;
+  private String[] fkColumnNames;
 
   private final DBTable refereeTable;
-  private final String[] refereeColumnNames;
+  private String[] refereeColumnNames;
   private FKChangeRule updateRule;
   private FKChangeRule deleteRule;
 
@@ -71,7 +71,7 @@ public DBForeignKeyConstraint(String name, boolean nameDeterministic, DBTable ow
   }
 
   public String[] getForeignKeyColumnNames() {
-    return fkColumnNames;
+    return fkColumnNames.clone();
   }
 
   public String columnReferencedBy(String fkColumnName) {
@@ -100,7 +100,7 @@ public String[] getColumnNames() {
   }
 
   public String[] getRefereeColumnNames() {
-    return refereeColumnNames;
+    return refereeColumnNames.clone();
   }
 
   @Override
@@ -134,6 +134,13 @@ public void setDeleteRule(FKChangeRule deleteRule) {
     this.deleteRule = deleteRule;
   }
 
+  @Override
+  void compact(NamePool pool) {
+    super.compact(pool);
+    this.fkColumnNames = pool.names(fkColumnNames);
+    this.refereeColumnNames = pool.names(refereeColumnNames);
+  }
+
 
   // java.lang.Object overrides --------------------------------------------------------------------------------------
 
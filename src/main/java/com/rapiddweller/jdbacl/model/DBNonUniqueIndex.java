@@ -63,7 +63,7 @@ public boolean isUnique() {
 
   @Override
   public String[] getColumnNames() {
-    return columnNames;
+    return columnNames.clone();
   }
 
   @Override
@@ -71,6 +71,12 @@ public void addColumnName(String columnName) {
     this.columnNames = ArrayUtil.append(columnName, columnNames);
   }
 
+  @Override
+  void compact(NamePool pool) {
+    super.compact(pool);
+    this.columnNames = pool.names(columnNames);
+  }
+
   @Override
   public boolean isIdentical(DBObject other) {
     if (this == other) {
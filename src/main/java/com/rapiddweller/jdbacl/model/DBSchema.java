@@ -30,6 +30,7 @@
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Represents a JDBC database schema.<br/><br/>
@@ -52,14 +53,14 @@ public DBSchema(String name) {
 
   public DBSchema(String name, DBCatalog catalog) {
     super(name, "schema");
-    if (catalog != null) {
-      catalog.addSchema(this);
-    }
     this.components = new ArrayList<>();
     this.tables = OrderedNameMap.createCaseIgnorantMap();
     this.sequences = OrderedNameMap.createCaseIgnorantMap();
     this.triggers = OrderedNameMap.createCaseIgnorantMap();
     this.packages = OrderedNameMap.createCaseIgnorantMap();
+    if (catalog != null) {
+      catalog.addSchema(this);
+    }
   }
 
   // properties ------------------------------------------------------------------------------------------------------
@@ -73,6 +74,12 @@ public Database getDatabase() {
     return getCatalog().getDatabase();
   }
 
+  /** @return the structural fingerprint of the schema's tables and sequences, see {@link ModelFingerprint}.
+   *  It is computed on each call and imports the table details if necessary */
+  public long getFingerprint() {
+    return ModelFingerprint.of(this);
+  }
+
   // catalog operations ----------------------------------------------------------------------------------------------
 
   public DBCatalog getCatalog() {
@@ -114,11 +121,31 @@ public DBTable getTable(String tableName) {
   public void addTable(DBTable table) {
     tables.put(table.getName(), table);
     components.add(table);
+    DBCatalog catalog = getCatalog();
+    if (catalog != null) {
+      catalog.tablesChanged();
+    }
+    Database database = getDatabaseIfKnown();
+    if (database != null) {
+      database.tableAdded(table);
+    }
   }
 
   public void removeTable(DBTable table) {
-    tables.remove(table.getName());
+    // the case-ignorant map only removes entries by their normalized key
+    Map.Entry<String, DBTable> entry = tables.getEntry(table.getName());
+    if (entry != null) {
+      tables.remove(entry.getKey());
+    }
     components.remove(table);
+    DBCatalog catalog = getCatalog();
+    if (catalog != null) {
+      catalog.tablesChanged();
+    }
+    Database database = getDatabaseIfKnown();
+    if (database != null) {
+      database.tableRemoved(table);
+    }
   }
 
   // sequence operations ---------------------------------------------------------------------------------------------
@@ -137,6 +164,15 @@ public void addSequence(DBSequence sequence) {
   public void receiveSequence(DBSequence sequence) {
     this.sequences.put(sequence.getName(), sequence);
     components.add(sequence);
+    Database database = getDatabaseIfKnown();
+    if (database != null) {
+      database.sequenceAdded(sequence, this);
+    }
+  }
+
+  private Database getDatabaseIfKnown() {
+    DBCatalog catalog = getCatalog();
+    return (catalog != null ? catalog.getDatabase() : null);
   }
 
   // trigger operations ----------------------------------------------------------------------------------------------
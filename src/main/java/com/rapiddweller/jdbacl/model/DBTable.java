@@ -28,9 +28,7 @@
 
 import com.rapiddweller.common.ArrayFormat;
 import com.rapiddweller.common.Assert;
-import com.rapiddweller.common.CollectionUtil;
 import com.rapiddweller.common.HeavyweightIterator;
-import com.rapiddweller.common.NameUtil;
 import com.rapiddweller.common.NullSafeComparator;
 import com.rapiddweller.common.OrderedSet;
 import com.rapiddweller.common.StringUtil;
@@ -72,13 +70,39 @@ public class DBTable extends AbstractCompositeDBObject<DBTableComponent>
   private final TableType tableType;
   private final JDBCDBImporter importer;
 
-  private OrderedNameMap<DBColumn> columns;
-  private boolean pkImported;
-  private DBPrimaryKeyConstraint pk;
+  // Each lazily imported aspect of the table is guarded by a lock of its own. It is imported into a 'pending'
+  // structure, which is only visible to the importing thread, and published by a volatile write when complete.
+  // Locks are nested only in the order details, referrers, foreign keys, indexes, primary key, columns.
+
+  private final Object detailLock = new Object();
+  private volatile DBTableDetailLoader detailLoader;
+  private boolean loadingDetails;
+
+  private final Object columnLock = new Object();
+  /** immutable columns for lock-free reading, replaced on each change */
+  private volatile ArrayNameMap<DBColumn> columns;
+  private OrderedNameMap<DBColumn> pendingColumns;
+
+  private final Object pkLock = new Object();
+  private volatile boolean pkImported;
+  private volatile DBPrimaryKeyConstraint pk;
+  private boolean importingPK;
+
+  private final Object indexLock = new Object();
   private OrderedSet<DBUniqueConstraint> uniqueConstraints;
-  private OrderedSet<DBForeignKeyConstraint> foreignKeyConstraints;
-  private OrderedNameMap<DBIndex> indexes;
-  private Set<DBTable> referrers;
+  private volatile OrderedNameMap<DBIndex> indexes;
+  private OrderedSet<DBUniqueConstraint> pendingUniqueConstraints;
+  private OrderedNameMap<DBIndex> pendingIndexes;
+
+  private final Object fkLock = new Object();
+  private volatile OrderedSet<DBForeignKeyConstraint> foreignKeyConstraints;
+  private volatile OrderedSet<DBForeignKeyConstraint> pendingForeignKeyConstraints;
+
+  private final Object referrerLock = new Object();
+  private volatile Set<DBTable> referrers;
+  private Set<DBTable> pendingReferrers;
+
+  private final Object checkLock = new Object();
   private List<DBCheckConstraint> checkConstraints;
 
   public DBTable(String name) {
@@ -102,20 +126,99 @@ public DBTable(String name, TableType type, String doc, DBSchema schema, JDBCDBI
   }
 
 
+  /** Imports all lazily loaded details of the table with the given importer, which may be another one
+   *  than the table's own importer, for example a worker of a
+   *  {@link com.rapiddweller.jdbacl.model.jdbc.ParallelJDBCDBImporter}.
+   *  Details which have already been imported are left unchanged. */
+  public void importDetails(JDBCDBImporter detailImporter) {
+    haveColumnsImported(detailImporter);
+    havePKImported(detailImporter);
+    haveFKsImported(detailImporter);
+    haveIndexesImported(detailImporter);
+    haveReferrersImported(detailImporter);
+  }
+
+  /** Imports the foreign keys of the table with the given importer, as well as the columns and the primary key
+   *  they depend on, see {@link #importDetails(JDBCDBImporter)}. */
+  public void importForeignKeys(JDBCDBImporter detailImporter) {
+    haveFKsImported(detailImporter);
+  }
+
+  /** Discards the columns, primary key, unique constraints, foreign keys, indexes and referrers of the table,
+   *  so that they are imported again when they are accessed, for example after the table has been altered. */
+  public void discardDetails() {
+    synchronized (detailLock) {
+      this.detailLoader = null;
+    }
+    synchronized (referrerLock) {
+      this.referrers = null;
+    }
+    synchronized (fkLock) {
+      this.foreignKeyConstraints = null;
+    }
+    synchronized (indexLock) {
+      this.uniqueConstraints = null;
+      this.indexes = null;
+    }
+    synchronized (pkLock) {
+      this.pk = null;
+      this.pkImported = false;
+    }
+    synchronized (columnLock) {
+      this.columns = null;
+    }
+    if (importer != null) {
+      // the schema's bulk data may have been fetched before the table was altered
+      importer.discardBulkData(getSchema());
+    }
+    invalidateReferrerIndex();
+  }
+
+  /** Defers the loading of the table details to the given loader, which is called on the first access
+   *  to any of the details. Details which the loader does not provide are imported by the table's importer. */
+  public void setDetailLoader(DBTableDetailLoader detailLoader) {
+    synchronized (detailLock) {
+      this.detailLoader = detailLoader;
+    }
+  }
+
+  /** Calls the detail loader once. Other threads wait until it has finished,
+   *  while calls from the loader itself return immediately. */
+  private void haveDetailsLoaded() {
+    if (this.detailLoader != null) {
+      synchronized (detailLock) {
+        DBTableDetailLoader loader = this.detailLoader;
+        if (loader != null && !loadingDetails) {
+          loadingDetails = true;
+          try {
+            loader.loadDetails(this);
+          } finally {
+            loadingDetails = false;
+            this.detailLoader = null;
+          }
+        }
+      }
+    }
+  }
+
   // CompositeDBObject interface -------------------------------------------------------------------------------------
 
   @Override
   public List<DBTableComponent> getComponents() {
     List<DBTableComponent> result = new ArrayList<>(getColumns());
-    havePKImported();
+    DBPrimaryKeyConstraint pk = getPrimaryKeyConstraint();
     if (pk != null) {
       result.add(pk);
     }
     haveIndexesImported();
-    result.addAll(uniqueConstraints);
-    result.addAll(indexes.values());
+    synchronized (indexLock) {
+      result.addAll(uniqueConstraintSet());
+      result.addAll(indexMap().values());
+    }
     haveFKsImported();
-    result.addAll(foreignKeyConstraints);
+    synchronized (fkLock) {
+      result.addAll(fkSet());
+    }
     return result;
   }
 
@@ -138,37 +241,37 @@ public TableType getTableType() {
     return tableType;
   }
 
+  /** @return the structural fingerprint of the table, see {@link ModelFingerprint}.
+   *  It is computed on each call and imports the table details if necessary */
+  public long getFingerprint() {
+    return ModelFingerprint.of(this);
+  }
+
 
   // column methods --------------------------------------------------------------------------------------------------
 
   @Override
   public String[] getColumnNames() {
-    haveColumnsImported();
-    return CollectionUtil.toArray(NameUtil.getNames(columns.values()), String.class);
+    return columnMap().names();
   }
 
   public List<DBColumn> getColumns() {
-    haveColumnsImported();
-    return columns.values();
+    return columnMap().values();
   }
 
+  /** @return the columns of the given names in the given order
+   *  @throws com.rapiddweller.common.ObjectNotFoundException if the table does not have one of the columns */
   public DBColumn[] getColumns(String[] columnNames) {
-    haveColumnsImported();
-    List<DBColumn> list = new ArrayList<>(columnNames.length);
-    for (String columnName : columnNames) {
-      DBColumn column = getColumn(columnName);
-      if (column == null) {
-        throw ExceptionFactory.getInstance().illegalArgument("Table '" + name + "' does not have a column '" + columnName + "'");
-      }
-      list.add(column);
+    DBColumn[] result = new DBColumn[columnNames.length];
+    for (int i = 0; i < columnNames.length; i++) {
+      result[i] = getColumn(columnNames[i]);
     }
-    DBColumn[] array = new DBColumn[columnNames.length];
-    return list.toArray(array);
+    return result;
   }
 
+  /** @throws com.rapiddweller.common.ObjectNotFoundException if the table does not have such a column */
   public DBColumn getColumn(String columnName) {
-    haveColumnsImported();
-    DBColumn column = columns.get(columnName);
+    DBColumn column = columnMap().get(columnName);
     if (column == null) {
       throw ExceptionFactory.getInstance().objectNotFound("Column '" + columnName +
           "' not found in table '" + this.getName() + "'");
@@ -182,32 +285,71 @@ public void addColumn(DBColumn column) {
   }
 
   public void receiveColumn(DBColumn column) {
-    if (columns == null) {
-      columns = OrderedNameMap.createCaseIgnorantMap();
-    }
     column.setTable(this);
-    columns.put(column.getName(), column);
+    synchronized (columnLock) {
+      if (pendingColumns != null) {
+        pendingColumns.put(column.getName(), column);
+      } else {
+        this.columns = (columns != null ? columns : ArrayNameMap.<DBColumn>empty()).with(column);
+      }
+    }
   }
 
   public boolean areColumnsImported() {
+    haveDetailsLoaded();
     return (columns != null);
   }
 
   public void setColumnsImported(boolean columnsImported) {
-    if (columnsImported) {
-      this.columns = OrderedNameMap.<DBColumn>createCaseIgnorantMap();
-    } else {
-      this.columns = null;
+    haveDetailsLoaded();
+    synchronized (columnLock) {
+      this.columns = (columnsImported ? ArrayNameMap.empty() : null);
     }
   }
 
   public void haveColumnsImported() {
+    haveColumnsImported(importer);
+  }
+
+  private void haveColumnsImported(JDBCDBImporter importer) {
+    haveDetailsLoaded();
     if (columns == null) {
-      columns = OrderedNameMap.createCaseIgnorantMap();
-      if (importer != null) {
-        importer.importColumnsOfTable(this, new ColReceiver());
+      synchronized (columnLock) {
+        if (columns == null && pendingColumns == null) {
+          OrderedNameMap<DBColumn> imported = OrderedNameMap.createCaseIgnorantMap();
+          if (importer != null) {
+            pendingColumns = imported;
+            try {
+              importer.importColumnsOfTable(this, new ColReceiver());
+            } finally {
+              pendingColumns = null;
+            }
+          }
+          this.columns = ArrayNameMap.of(imported.values());
+        }
+      }
+    }
+  }
+
+  /** @return the immutable map of the columns. Only the thread which is importing the columns
+   *  gets a copy of the incomplete map under construction. */
+  private ArrayNameMap<DBColumn> columnMap() {
+    haveDetailsLoaded(); // a detail loader may be publishing columns concurrently
+    ArrayNameMap<DBColumn> result = this.columns;
+    if (result == null) {
+      haveColumnsImported();
+      synchronized (columnLock) {
+        if (pendingColumns != null) {
+          return ArrayNameMap.of(pendingColumns.values());
+        }
+        result = this.columns;
+        if (result == null) {
+          // the columns have been discarded concurrently
+          return ArrayNameMap.empty();
+        }
       }
     }
+    return result;
   }
 
   class ColReceiver implements JDBCDBImporter.ColumnReceiver {
@@ -216,8 +358,7 @@ public void receiveColumn(String columnName, DBDataType dataType,
                               Integer columnSize, Integer fractionDigits, boolean nullable,
                               String defaultValue, String comment, DBTable table) {
       DBColumn column = new DBColumn(columnName, table, dataType, columnSize, fractionDigits);
-      column.setTable(DBTable.this);
-      columns.put(column.getName(), column);
+      DBTable.this.receiveColumn(column);
       column.setDoc(comment);
       column.setNullable(nullable);
       column.setDefaultValue(defaultValue);
@@ -229,7 +370,9 @@ public void receiveColumn(String columnName, DBDataType dataType,
 
   public void setPrimaryKey(DBPrimaryKeyConstraint constraint) {
     havePKImported();
-    this.pk = constraint;
+    synchronized (pkLock) {
+      this.pk = constraint;
+    }
   }
 
   public DBPrimaryKeyConstraint getPrimaryKeyConstraint() {
@@ -243,20 +386,37 @@ public String[] getPKColumnNames() {
   }
 
   public boolean isPKImported() {
+    haveDetailsLoaded();
     return pkImported;
   }
 
   public void setPKImported(boolean pkImported) {
-    this.pkImported = pkImported;
+    haveDetailsLoaded();
+    synchronized (pkLock) {
+      this.pkImported = pkImported;
+    }
   }
 
   public void havePKImported() {
+    havePKImported(importer);
+  }
+
+  private void havePKImported(JDBCDBImporter importer) {
     if (!isPKImported()) {
-      haveColumnsImported();
-      if (importer != null) {
-        importer.importPrimaryKeyOfTable(this, new PKRec());
+      haveColumnsImported(importer);
+      synchronized (pkLock) {
+        if (!pkImported && !importingPK) {
+          if (importer != null) {
+            importingPK = true;
+            try {
+              importer.importPrimaryKeyOfTable(this, new PKRec());
+            } finally {
+              importingPK = false;
+            }
+          }
+          pkImported = true;
+        }
       }
-      pkImported = true;
     }
   }
 
@@ -280,7 +440,11 @@ public void receivePK(String pkName, boolean deterministicName, String[] columnN
 
   public Set<DBUniqueConstraint> getUniqueConstraints(boolean includePK) {
     haveIndexesImported();
-    Set<DBUniqueConstraint> result = new HashSet<>(uniqueConstraints);
+    Set<DBUniqueConstraint> result;
+    synchronized (indexLock) {
+      result = new HashSet<>(uniqueConstraintSet());
+    }
+    DBPrimaryKeyConstraint pk = this.pk;
     if (includePK && pk != null) {
       result.add(pk);
     }
@@ -289,12 +453,15 @@ public Set<DBUniqueConstraint> getUniqueConstraints(boolean includePK) {
 
   public DBUniqueConstraint getUniqueConstraint(String[] columnNames) {
     haveIndexesImported();
+    DBPrimaryKeyConstraint pk = this.pk;
     if (pk != null && StringUtil.equalsIgnoreCase(columnNames, pk.getColumnNames())) {
       return pk;
     }
-    for (DBUniqueConstraint constraint : uniqueConstraints) {
-      if (StringUtil.equalsIgnoreCase(columnNames, constraint.getColumnNames())) {
-        return constraint;
+    synchronized (indexLock) {
+      for (DBUniqueConstraint constraint : uniqueConstraintSet()) {
+        if (StringUtil.equalsIgnoreCase(columnNames, constraint.getColumnNames())) {
+          return constraint;
+        }
       }
     }
     return null;
@@ -302,12 +469,15 @@ public DBUniqueConstraint getUniqueConstraint(String[] columnNames) {
 
   public DBUniqueConstraint getUniqueConstraint(String name) {
     haveIndexesImported();
+    DBPrimaryKeyConstraint pk = this.pk;
     if (name.equalsIgnoreCase(pk.getName())) {
       return pk;
     }
-    for (DBUniqueConstraint constraint : uniqueConstraints) {
-      if (name.equals(constraint.getName())) {
-        return constraint;
+    synchronized (indexLock) {
+      for (DBUniqueConstraint constraint : uniqueConstraintSet()) {
+        if (name.equals(constraint.getName())) {
+          return constraint;
+        }
       }
     }
     return null;
@@ -319,12 +489,16 @@ public void addUniqueConstraint(DBUniqueConstraint uk) {
     if (uk instanceof DBPrimaryKeyConstraint) {
       setPrimaryKey((DBPrimaryKeyConstraint) uk);
     }
-    uniqueConstraints.add(uk);
+    synchronized (indexLock) {
+      uniqueConstraintSet().add(uk);
+    }
   }
 
   public void removeUniqueConstraint(DBUniqueConstraint constraint) {
     haveIndexesImported();
-    uniqueConstraints.remove(constraint.getName());
+    synchronized (indexLock) {
+      uniqueConstraintSet().remove(constraint.getName());
+    }
   }
 
 
@@ -332,48 +506,88 @@ public void removeUniqueConstraint(DBUniqueConstraint constraint) {
 
   public List<DBIndex> getIndexes() {
     haveIndexesImported();
-    return new ArrayList<>(indexes.values());
+    synchronized (indexLock) {
+      return new ArrayList<>(indexMap().values());
+    }
   }
 
   public DBIndex getIndex(String indexName) {
     haveIndexesImported();
-    return indexes.get(indexName);
+    synchronized (indexLock) {
+      return indexMap().get(indexName);
+    }
   }
 
   public void addIndex(DBIndex index) {
     haveIndexesImported();
     index.setTable(this);
-    indexes.put(index.getName(), index);
+    synchronized (indexLock) {
+      indexMap().put(index.getName(), index);
+    }
   }
 
   public void removeIndex(DBIndex index) {
     haveIndexesImported();
-    indexes.remove(index.getName());
+    synchronized (indexLock) {
+      indexMap().remove(index.getName());
+    }
   }
 
   private void haveIndexesImported() {
+    haveIndexesImported(importer);
+  }
+
+  private void haveIndexesImported(JDBCDBImporter importer) {
     if (!areIndexesImported()) {
-      haveColumnsImported();
-      this.uniqueConstraints = new OrderedSet<>();
-      this.indexes = OrderedNameMap.createCaseIgnorantMap();
-      JDBCDBImporter.IndexReceiver receiver = new IdxReceiver();
-      if (importer != null) {
-        importer.importIndexesOfTable(this, false, receiver);
+      haveColumnsImported(importer);
+      // the primary key is imported in advance, since the index import refers to it
+      havePKImported(importer);
+      synchronized (indexLock) {
+        if (indexes == null && pendingIndexes == null) {
+          OrderedSet<DBUniqueConstraint> importedUniqueConstraints = new OrderedSet<>();
+          OrderedNameMap<DBIndex> importedIndexes = OrderedNameMap.createCaseIgnorantMap();
+          if (importer != null) {
+            pendingUniqueConstraints = importedUniqueConstraints;
+            pendingIndexes = importedIndexes;
+            try {
+              importer.importIndexesOfTable(this, false, new IdxReceiver());
+            } finally {
+              pendingUniqueConstraints = null;
+              pendingIndexes = null;
+            }
+          }
+          this.uniqueConstraints = importedUniqueConstraints;
+          this.indexes = importedIndexes;
+        }
       }
     }
   }
 
+  /** @return the unique constraints, requires the index lock */
+  private OrderedSet<DBUniqueConstraint> uniqueConstraintSet() {
+    return (pendingUniqueConstraints != null ? pendingUniqueConstraints : uniqueConstraints);
+  }
+
+  /** @return the indexes, requires the index lock */
+  private OrderedNameMap<DBIndex> indexMap() {
+    return (pendingIndexes != null ? pendingIndexes : indexes);
+  }
+
   public boolean areIndexesImported() {
+    haveDetailsLoaded();
     return (this.indexes != null);
   }
 
   public void setIndexesImported(boolean indexesImported) {
-    if (indexesImported) {
-      this.uniqueConstraints = new OrderedSet<>();
-      this.indexes = OrderedNameMap.createCaseIgnorantMap();
-    } else {
-      this.uniqueConstraints = null;
-      this.indexes = null;
+    haveDetailsLoaded();
+    synchronized (indexLock) {
+      if (indexesImported) {
+        this.uniqueConstraints = new OrderedSet<>();
+        this.indexes = OrderedNameMap.createCaseIgnorantMap();
+      } else {
+        this.uniqueConstraints = null;
+        this.indexes = null;
+      }
     }
   }
 
@@ -403,14 +617,18 @@ public void receiveIndex(DBIndexInfo indexInfo, boolean deterministicName, DBTab
 
   public Set<DBForeignKeyConstraint> getForeignKeyConstraints() {
     haveFKsImported();
-    return new HashSet<>(foreignKeyConstraints);
+    synchronized (fkLock) {
+      return new HashSet<>(fkSet());
+    }
   }
 
   public DBForeignKeyConstraint getForeignKeyConstraint(String... columnNames) {
     haveFKsImported();
-    for (DBForeignKeyConstraint fk : foreignKeyConstraints) {
-      if (StringUtil.equalsIgnoreCase(fk.getColumnNames(), columnNames)) {
-        return fk;
+    synchronized (fkLock) {
+      for (DBForeignKeyConstraint fk : fkSet()) {
+        if (StringUtil.equalsIgnoreCase(fk.getColumnNames(), columnNames)) {
+          return fk;
+        }
       }
     }
     throw ExceptionFactory.getInstance().objectNotFound("Table '" + name + "' has no foreign key " +
@@ -420,38 +638,112 @@ public DBForeignKeyConstraint getForeignKeyConstraint(String... columnNames) {
   public void addForeignKey(DBForeignKeyConstraint constraint) {
     haveFKsImported();
     constraint.setTable(this);
-    foreignKeyConstraints.add(constraint);
+    synchronized (fkLock) {
+      fkSet().add(constraint);
+    }
+    Database database = getDatabase();
+    if (database != null) {
+      database.foreignKeyAdded(constraint);
+    }
+    // while the foreign keys are imported, the referee's lock must not be acquired (lock order),
+    // but then its referrers have either been queried including this table or are not known yet
+    if (!Thread.holdsLock(fkLock)) {
+      constraint.getRefereeTable().referrerAdded(this);
+    }
   }
 
   public void removeForeignKeyConstraint(DBForeignKeyConstraint constraint) {
     haveFKsImported();
-    foreignKeyConstraints.remove(constraint);
+    if (constraint == null) {
+      return;
+    }
+    DBTable referee = constraint.getRefereeTable();
+    boolean stillReferring = false;
+    synchronized (fkLock) {
+      fkSet().remove(constraint);
+      for (DBForeignKeyConstraint fk : fkSet()) {
+        if (fk.getRefereeTable() == referee) {
+          stillReferring = true;
+        }
+      }
+    }
+    Database database = getDatabase();
+    if (database != null) {
+      database.foreignKeyRemoved(constraint);
+    }
+    if (!stillReferring && !Thread.holdsLock(fkLock)) {
+      referee.referrerRemoved(this);
+    }
   }
 
   private void haveFKsImported() {
+    haveFKsImported(importer);
+  }
+
+  private void haveFKsImported(JDBCDBImporter importer) {
     if (!areFKsImported()) {
-      haveColumnsImported();
-      havePKImported();
-      foreignKeyConstraints = new OrderedSet<>();
-      if (importer != null) {
-        importer.importImportedKeys(this, new FKRec());
+      haveColumnsImported(importer);
+      havePKImported(importer);
+      synchronized (fkLock) {
+        if (foreignKeyConstraints == null && pendingForeignKeyConstraints == null) {
+          OrderedSet<DBForeignKeyConstraint> imported = new OrderedSet<>();
+          if (importer != null) {
+            pendingForeignKeyConstraints = imported;
+            try {
+              importer.importImportedKeys(this, new FKRec());
+            } finally {
+              pendingForeignKeyConstraints = null;
+            }
+          }
+          this.foreignKeyConstraints = imported;
+        }
       }
     }
   }
 
+  /** @return the foreign key constraints, requires the foreign key lock */
+  private OrderedSet<DBForeignKeyConstraint> fkSet() {
+    return (pendingForeignKeyConstraints != null ? pendingForeignKeyConstraints : foreignKeyConstraints);
+  }
+
   public boolean areFKsImported() {
+    haveDetailsLoaded();
     return (foreignKeyConstraints != null);
   }
 
   public void setFKsImported(boolean fksImported) {
-    this.foreignKeyConstraints = (fksImported ? new OrderedSet<>() : null);
+    haveDetailsLoaded();
+    synchronized (fkLock) {
+      this.foreignKeyConstraints = (fksImported ? new OrderedSet<>() : null);
+    }
+    invalidateReferrerIndex();
+  }
+
+  /** @return a copy of the foreign keys if they have been imported completely, otherwise null.
+   *  Unlike the other accessors, this does not trigger any import. */
+  Set<DBForeignKeyConstraint> knownForeignKeys() {
+    if (!areFKsKnown()) {
+      return null;
+    }
+    synchronized (fkLock) {
+      return (foreignKeyConstraints != null && pendingForeignKeyConstraints == null ?
+          new OrderedSet<>(foreignKeyConstraints) : null);
+    }
+  }
+
+  /** @return true if the foreign keys have been imported completely. Unlike {@link #areFKsImported()},
+   *  this neither waits for a detail loader nor acquires a lock. */
+  boolean areFKsKnown() {
+    return (detailLoader == null && foreignKeyConstraints != null && pendingForeignKeyConstraints == null);
   }
 
   class FKRec implements JDBCDBImporter.FKReceiver {
 
     @Override
     public void receiveFK(DBForeignKeyConstraint fk, DBTable table) {
-      foreignKeyConstraints.add(fk);
+      synchronized (fkLock) {
+        fkSet().add(fk);
+      }
       fk.setTable(table);
     }
 
@@ -461,10 +753,12 @@ public void receiveFK(DBForeignKeyConstraint fk, DBTable table) {
 
   public List<DBCheckConstraint> getCheckConstraints() {
     haveChecksImported();
-    if (checkConstraints != null) {
-      return new ArrayList<>(checkConstraints);
-    } else {
-      return new ArrayList<>();
+    synchronized (checkLock) {
+      if (checkConstraints != null) {
+        return new ArrayList<>(checkConstraints);
+      } else {
+        return new ArrayList<>();
+      }
     }
   }
 
@@ -475,6 +769,7 @@ public void addCheckConstraint(DBCheckConstraint checkConstraint) {
   }
 
   private void haveChecksImported() {
+    haveDetailsLoaded();
     if (!areChecksImported()) {
       getCatalog().getDatabase().haveChecksImported();
     }
@@ -485,20 +780,25 @@ public boolean areChecksImported() {
   }
 
   public void setChecksImported(boolean checksImported) {
-    if (checksImported) {
-      if (checkConstraints == null) {
-        this.checkConstraints = new ArrayList<>();
+    haveDetailsLoaded();
+    synchronized (checkLock) {
+      if (checksImported) {
+        if (checkConstraints == null) {
+          this.checkConstraints = new ArrayList<>();
+        }
+      } else {
+        this.checkConstraints = null;
       }
-    } else {
-      this.checkConstraints = null;
     }
   }
 
   public void receiveCheckConstraint(DBCheckConstraint check) {
-    if (this.checkConstraints == null) {
-      this.checkConstraints = new ArrayList<>();
+    synchronized (checkLock) {
+      if (this.checkConstraints == null) {
+        this.checkConstraints = new ArrayList<>();
+      }
+      this.checkConstraints.add(check);
     }
-    this.checkConstraints.add(check);
   }
 
 
@@ -506,7 +806,9 @@ public void receiveCheckConstraint(DBCheckConstraint check) {
 
   public Collection<DBTable> getReferrers() {
     haveReferrersImported();
-    return new HashSet<>(referrers);
+    synchronized (referrerLock) {
+      return new HashSet<>(referrerSet());
+    }
   }
 
   public void addReferrer(DBTable referrer) {
@@ -515,33 +817,99 @@ public void addReferrer(DBTable referrer) {
   }
 
   public void receiveReferrer(DBTable referrer) {
-    if (referrers == null) {
-      referrers = new OrderedSet<>();
+    synchronized (referrerLock) {
+      Set<DBTable> target = referrerSet();
+      if (target == null) {
+        target = new OrderedSet<>();
+        this.referrers = target;
+      }
+      target.add(referrer);
     }
-    referrers.add(referrer);
   }
 
   private void haveReferrersImported() {
+    haveReferrersImported(importer);
+  }
+
+  private void haveReferrersImported(JDBCDBImporter importer) {
     if (areReferrersImported()) {
-      haveFKsImported();
-      referrers = new OrderedSet<>();
-      if (importer != null) {
-        importer.importRefererTables(this, new RefReceiver());
+      haveFKsImported(importer);
+      // when the foreign keys of all tables are known, the referrers are derived from them, otherwise they are
+      // queried. A thread which is importing referrers already holds locks an import of foreign keys may need.
+      Database database = getDatabase();
+      ReferrerIndex index = (database != null && !Thread.holdsLock(referrerLock) ? database.getReferrerIndex() : null);
+      synchronized (referrerLock) {
+        if (referrers == null && pendingReferrers == null) {
+          Set<DBTable> imported = new OrderedSet<>();
+          if (index != null) {
+            imported.addAll(index.getReferrers(this));
+          } else if (importer != null) {
+            pendingReferrers = imported;
+            try {
+              importer.importRefererTables(this, new RefReceiver());
+            } finally {
+              pendingReferrers = null;
+            }
+          }
+          this.referrers = imported;
+        }
+      }
+    }
+  }
+
+  /** Adds a referrer to the referrers if they have been imported already */
+  private void referrerAdded(DBTable referrer) {
+    synchronized (referrerLock) {
+      Set<DBTable> target = referrerSet();
+      if (target != null) {
+        target.add(referrer);
+      }
+    }
+  }
+
+  /** Removes a referrer from the referrers if they have been imported already */
+  private void referrerRemoved(DBTable referrer) {
+    synchronized (referrerLock) {
+      Set<DBTable> target = referrerSet();
+      if (target != null) {
+        target.remove(referrer);
       }
     }
   }
 
+  private Database getDatabase() {
+    DBSchema schema = getSchema();
+    DBCatalog catalog = (schema != null ? schema.getCatalog() : null);
+    return (catalog != null ? catalog.getDatabase() : null);
+  }
+
+  private void invalidateReferrerIndex() {
+    Database database = getDatabase();
+    if (database != null) {
+      database.invalidateReferrerIndex();
+    }
+  }
+
+  /** @return the referrers, requires the referrer lock */
+  private Set<DBTable> referrerSet() {
+    return (pendingReferrers != null ? pendingReferrers : referrers);
+  }
+
   public boolean areReferrersImported() {
+    haveDetailsLoaded();
     return (referrers == null);
   }
 
   public void setReferrersImported(boolean referrersImported) {
-    if (referrersImported) {
-      if (referrers == null) {
-        referrers = new OrderedSet<>();
+    haveDetailsLoaded();
+    synchronized (referrerLock) {
+      if (referrersImported) {
+        if (referrers == null) {
+          referrers = new OrderedSet<>();
+        }
+      } else {
+        referrers = null;
       }
-    } else {
-      referrers = null;
     }
   }
 
@@ -563,12 +931,19 @@ public int countProviders() {
 
   @Override
   public DBTable getProvider(int index) {
-    return foreignKeyConstraints.get(index).getRefereeTable();
+    haveFKsImported();
+    synchronized (fkLock) {
+      return fkSet().get(index).getRefereeTable();
+    }
   }
 
   @Override
   public boolean requiresProvider(int index) {
-    String firstFkColumnName = foreignKeyConstraints.get(index).getForeignKeyColumnNames()[0];
+    haveFKsImported();
+    String firstFkColumnName;
+    synchronized (fkLock) {
+      firstFkColumnName = fkSet().get(index).getForeignKeyColumnNames()[0];
+    }
     return !getColumn(firstFkColumnName).isNullable();
   }
 
@@ -615,6 +990,47 @@ public HeavyweightIterator<Object> queryPKValues(Connection connection) {
     return new ConvertingIterator<>(rawIterator, converter);
   }
 
+  // memory footprint ------------------------------------------------------------------------------------------------
+
+  /** Replaces the names of the table and of its loaded details by their pooled instances.
+   *  Details which have not been imported yet are not imported by this call. */
+  @Override
+  void compact(NamePool pool) {
+    super.compact(pool);
+    synchronized (fkLock) {
+      if (foreignKeyConstraints != null) {
+        for (DBForeignKeyConstraint fk : foreignKeyConstraints) {
+          fk.compact(pool);
+        }
+      }
+    }
+    synchronized (indexLock) {
+      if (uniqueConstraints != null) {
+        for (DBUniqueConstraint uk : uniqueConstraints) {
+          uk.compact(pool);
+        }
+      }
+      if (indexes != null) {
+        for (DBIndex index : indexes.values()) {
+          index.compact(pool);
+        }
+      }
+    }
+    synchronized (pkLock) {
+      if (pk != null) {
+        pk.compact(pool);
+      }
+    }
+    synchronized (columnLock) {
+      if (columns != null) {
+        for (DBColumn column : columns.values()) {
+          column.compact(pool);
+        }
+        this.columns = columns.trimmed();
+      }
+    }
+  }
+
   // java.lang.Object overrides --------------------------------------------------------------------------------------
 
   @Override
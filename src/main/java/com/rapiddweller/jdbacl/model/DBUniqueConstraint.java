@@ -78,6 +78,12 @@ public void addColumnName(String columnName) {
     }
   }
 
+  @Override
+  void compact(NamePool pool) {
+    super.compact(pool);
+    this.columnNames = pool.names(columnNames);
+  }
+
   @Override
   public boolean isIdentical(DBObject other) {
     if (this == other) {
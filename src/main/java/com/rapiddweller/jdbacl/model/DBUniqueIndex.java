@@ -78,6 +78,14 @@ public void addColumnName(String columnName) {
     }
   }
 
+  @Override
+  void compact(NamePool pool) {
+    super.compact(pool);
+    if (constraint != null) {
+      constraint.compact(pool);
+    }
+  }
+
   @Override
   public boolean isIdentical(DBObject other) {
     if (this == other) {
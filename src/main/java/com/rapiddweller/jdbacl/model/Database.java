@@ -27,7 +27,6 @@
 package com.rapiddweller.jdbacl.model;
 
 import com.rapiddweller.common.exception.ExceptionFactory;
-import com.rapiddweller.common.StringUtil;
 import com.rapiddweller.common.collection.OrderedNameMap;
 import com.rapiddweller.common.version.VersionNumber;
 import com.rapiddweller.jdbacl.DatabaseDialect;
@@ -37,6 +36,7 @@
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Set;
@@ -54,6 +54,7 @@ public class Database extends AbstractCompositeDBObject<DBCatalog> implements Ta
   private String user;
   private String tableInclusionPattern;
   private String tableExclusionPattern;
+  private String schemaFingerprint;
 
   private Set<String> reservedWords;
 
@@ -63,7 +64,23 @@ public class Database extends AbstractCompositeDBObject<DBCatalog> implements Ta
   private boolean sequencesImported;
   private boolean triggersImported;
   private boolean packagesImported;
-  private boolean checksImported;
+  private volatile boolean checksImported;
+
+  /** lookup index of the schemas, tables and sequences, created on demand and updated on structural changes */
+  private final Object indexLock = new Object();
+  private volatile DatabaseIndex index;
+  /** unmodifiable list of the tables of all catalogs, created on demand and discarded on structural changes */
+  private volatile List<DBTable> tables;
+
+  /** inverse of the foreign key graph, created on demand when all foreign keys are known */
+  private final Object referrerIndexLock = new Object();
+  private ReferrerIndex referrerIndex;
+  private int foreignKeyVersion;
+  /** the tables of the last unsuccessful attempt to build the referrer index and the number of leading tables
+   *  found with imported foreign keys. Both are reset when tables are added or removed or foreign keys discarded */
+  private List<DBTable> referrerScanTables;
+  private int referrerScanPosition;
+  private int referrerIndexInvalidations;
 
 
   // constructors ----------------------------------------------------------------------------------------------------
@@ -148,6 +165,16 @@ public void setTableExclusionPattern(String tableExclusionPattern) {
     this.tableExclusionPattern = tableExclusionPattern;
   }
 
+  /** @return the fingerprint which the database reported for the imported schema when the model was imported,
+   *  see {@link JDBCDBImporter#querySchemaFingerprint()}, or null if it is unknown */
+  public String getSchemaFingerprint() {
+    return schemaFingerprint;
+  }
+
+  public void setSchemaFingerprint(String schemaFingerprint) {
+    this.schemaFingerprint = schemaFingerprint;
+  }
+
   public boolean isReservedWord(String word) {
     return getReservedWords().contains(word);
   }
@@ -189,23 +216,25 @@ public DBCatalog getCatalog(String catalogName) {
   public void addCatalog(DBCatalog catalog) {
     catalog.setDatabase(this);
     catalogs.put(catalog.getName(), catalog);
+    invalidateIndex();
   }
 
   public void removeCatalog(DBCatalog catalog) {
     catalogs.remove(catalog.getName());
     catalog.setOwner(null);
+    invalidateIndex();
   }
 
   // schema operations -----------------------------------------------------------------------------------------------
 
+  /** @param schemaName the simple name of the schema or its name qualified with the catalog name,
+   *  in any case */
   public DBSchema getSchema(String schemaName) {
-    for (DBCatalog catalog : getCatalogs()) {
-      DBSchema schema = catalog.getSchema(schemaName);
-      if (schema != null) {
-        return schema;
-      }
+    DBSchema schema = getIndex().getSchema(schemaName);
+    if (schema == null) {
+      throw ExceptionFactory.getInstance().objectNotFound("Schema '" + schemaName + "'");
     }
-    throw ExceptionFactory.getInstance().objectNotFound("Schema '" + schemaName + "'");
+    return schema;
   }
 
   // table operations ------------------------------------------------------------------------------------------------
@@ -215,16 +244,27 @@ public List<DBTable> getTables() {
     return getTables(true);
   }
 
+  /** @return an unmodifiable list of the tables of all catalogs and schemas */
   @Override
   public List<DBTable> getTables(boolean recursive) {
     if (!recursive) {
       return new ArrayList<>();
     }
-    List<DBTable> tables = new ArrayList<>();
-    for (DBCatalog catalog : getCatalogs()) {
-      tables.addAll(catalog.getTables());
+    List<DBTable> result = this.tables;
+    if (result == null) {
+      synchronized (indexLock) {
+        result = this.tables;
+        if (result == null) {
+          List<DBTable> list = new ArrayList<>();
+          for (DBCatalog catalog : getCatalogs()) {
+            list.addAll(catalog.getTables());
+          }
+          result = Collections.unmodifiableList(list);
+          this.tables = result;
+        }
+      }
     }
-    return tables;
+    return result;
   }
 
   @Override
@@ -232,13 +272,12 @@ public DBTable getTable(String name) {
     return getTable(name, true);
   }
 
+  /** @param name the simple name of the table or its name qualified with schema and optionally catalog name,
+   *  in any case */
   public DBTable getTable(String name, boolean required) {
-    for (DBCatalog catalog : getCatalogs()) {
-      for (DBTable table : catalog.getTables()) {
-        if (StringUtil.equalsIgnoreCase(table.getName(), name)) {
-          return table;
-        }
-      }
+    DBTable table = getIndex().getTable(name);
+    if (table != null) {
+      return table;
     }
     if (required) {
       throw ExceptionFactory.getInstance().objectNotFound("Table '" + name + "'");
@@ -252,6 +291,152 @@ public void removeTable(String tableName) {
     table.getSchema().removeTable(table);
   }
 
+  // lookup index ----------------------------------------------------------------------------------------------------
+
+  private DatabaseIndex getIndex() {
+    DatabaseIndex result = this.index;
+    if (result == null) {
+      synchronized (indexLock) {
+        result = this.index;
+        if (result == null) {
+          result = new DatabaseIndex(this);
+          this.index = result;
+        }
+      }
+    }
+    return result;
+  }
+
+  /** Called when a schema has been added to one of the catalogs */
+  void schemaAdded(DBSchema schema) {
+    synchronized (indexLock) {
+      this.tables = null;
+      if (index != null) {
+        index.addSchema(schema);
+      }
+    }
+    invalidateReferrerIndex();
+  }
+
+  /** Called when a table has been added to one of the schemas */
+  void tableAdded(DBTable table) {
+    synchronized (indexLock) {
+      this.tables = null;
+      if (index != null) {
+        index.addTable(table);
+      }
+    }
+    invalidateReferrerIndex();
+  }
+
+  /** Called when a table has been removed from its schema */
+  void tableRemoved(DBTable table) {
+    synchronized (indexLock) {
+      this.tables = null;
+      if (index != null) {
+        index.removeTable(table);
+      }
+    }
+    invalidateReferrerIndex();
+  }
+
+  /** Called when a sequence has been added to one of the schemas */
+  void sequenceAdded(DBSequence sequence, DBSchema schema) {
+    DatabaseIndex result = this.index;
+    if (result != null) {
+      result.addSequence(sequence, schema);
+    }
+  }
+
+  /** Called when a catalog or schema has been removed or a catalog has been added */
+  void invalidateIndex() {
+    synchronized (indexLock) {
+      this.index = null;
+      this.tables = null;
+    }
+    invalidateReferrerIndex();
+  }
+
+
+  // referrer index --------------------------------------------------------------------------------------------------
+
+  /** @return the inverse of the foreign key graph of all tables, which is built on the first call after
+   *  the foreign keys of all tables have been imported, or null as long as some are missing */
+  ReferrerIndex getReferrerIndex() {
+    List<DBTable> tables;
+    int invalidations;
+    synchronized (referrerIndexLock) {
+      if (referrerIndex != null) {
+        return referrerIndex;
+      }
+      tables = referrerScanTables;
+      invalidations = referrerIndexInvalidations;
+    }
+    // tables and foreign keys are read without holding the lock, since reading them may wait for an import,
+    // which in turn may add tables or foreign keys
+    if (tables == null) {
+      tables = getTables();
+    }
+    int version;
+    synchronized (referrerIndexLock) {
+      if (invalidations != referrerIndexInvalidations) {
+        return null; // tables have changed in the meantime
+      }
+      // tables which have been found with imported foreign keys are not checked again,
+      // so asking each table for its referrers during an import does not take quadratic time
+      referrerScanTables = tables;
+      while (referrerScanPosition < tables.size() && tables.get(referrerScanPosition).areFKsKnown()) {
+        referrerScanPosition++;
+      }
+      if (referrerScanPosition < tables.size()) {
+        return null;
+      }
+      version = foreignKeyVersion;
+    }
+    ReferrerIndex result = ReferrerIndex.build(tables);
+    synchronized (referrerIndexLock) {
+      if (version != foreignKeyVersion) {
+        return null; // foreign keys have changed during the build
+      }
+      if (result == null) {
+        referrerScanPosition = 0; // the foreign keys of a table have been reset concurrently
+      } else {
+        referrerScanTables = null;
+      }
+      this.referrerIndex = result;
+      return result;
+    }
+  }
+
+  void foreignKeyAdded(DBForeignKeyConstraint fk) {
+    synchronized (referrerIndexLock) {
+      foreignKeyVersion++;
+      if (referrerIndex != null) {
+        referrerIndex.add(fk);
+      }
+    }
+  }
+
+  void foreignKeyRemoved(DBForeignKeyConstraint fk) {
+    synchronized (referrerIndexLock) {
+      foreignKeyVersion++;
+      if (referrerIndex != null) {
+        referrerIndex.remove(fk);
+      }
+    }
+  }
+
+  /** Called when the foreign keys of a table have been discarded or reset */
+  void invalidateReferrerIndex() {
+    synchronized (referrerIndexLock) {
+      foreignKeyVersion++;
+      referrerIndexInvalidations++;
+      this.referrerIndex = null;
+      this.referrerScanTables = null;
+      this.referrerScanPosition = 0;
+    }
+  }
+
 
   // sequences -------------------------------------------------------------------------------------------------------
 
@@ -273,6 +458,14 @@ public List<DBSequence> getSequences(boolean recursive) {
     return sequences;
   }
 
+  /** @param name the simple name of the sequence or its name qualified with schema and optionally catalog name,
+   *  in any case
+   *  @return the sequence or null if none was found */
+  public DBSequence getSequence(String name) {
+    haveSequencesImported();
+    return getIndex().getSequence(name);
+  }
+
   public synchronized void haveSequencesImported() {
     if (!sequencesImported) {
       if (importer != null) {
@@ -379,4 +572,21 @@ public synchronized void haveChecksImported() {
     }
   }
 
+  // memory footprint ------------------------------------------------------------------------------------------------
+
+  /** Reduces the memory footprint of the model by replacing the names of catalogs, schemas, tables
+   *  and of the table details loaded so far by shared instances from the given pool.
+   *  @see NamePool */
+  public void compact(NamePool pool) {
+    for (DBCatalog catalog : getCatalogs()) {
+      catalog.compact(pool);
+      for (DBSchema schema : catalog.getSchemas()) {
+        schema.compact(pool);
+        for (DBTable table : schema.getTables()) {
+          table.compact(pool);
+        }
+      }
+    }
+  }
+
 }
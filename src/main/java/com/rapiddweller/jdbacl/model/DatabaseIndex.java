@@ -0,0 +1,194 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl.model;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of the schemas, tables and sequences of a {@link Database}, hashed by their lower case
+ * simple names and their names qualified with schema and catalog. When simple names are ambiguous, the first
+ * object in catalog and schema order wins. The {@link Database} creates the index on the first lookup
+ * and updates it when a schema, table or sequence is added or removed. Lookups do not block,
+ * updates are serialized by the {@link Database}.
+ * Since sequences are imported separately, their index is only created on the first sequence lookup.<br/><br/>
+ * Created: 20.10.2022 14:07:31
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+final class DatabaseIndex {
+
+  private final Database database;
+  private final Map<String, DBTable> tablesByName;
+  private final Map<String, DBSchema> schemasByName;
+  private volatile Map<String, DBSequence> sequencesByName;
+
+  DatabaseIndex(Database database) {
+    this.database = database;
+    this.tablesByName = new ConcurrentHashMap<>();
+    this.schemasByName = new ConcurrentHashMap<>();
+    for (DBCatalog catalog : database.getCatalogs()) {
+      for (DBSchema schema : catalog.getSchemas()) {
+        addSchema(schema);
+      }
+    }
+  }
+
+  // lookup ----------------------------------------------------------------------------------------------------------
+
+  DBTable getTable(String name) {
+    return (name != null ? tablesByName.get(normalize(name)) : null);
+  }
+
+  DBSchema getSchema(String name) {
+    return (name != null ? schemasByName.get(normalize(name)) : null);
+  }
+
+  DBSequence getSequence(String name) {
+    Map<String, DBSequence> sequences = this.sequencesByName;
+    if (sequences == null) {
+      synchronized (this) {
+        sequences = this.sequencesByName;
+        if (sequences == null) {
+          sequences = new ConcurrentHashMap<>();
+          for (DBCatalog catalog : database.getCatalogs()) {
+            for (DBSchema schema : catalog.getSchemas()) {
+              for (DBSequence sequence : schema.getSequences(true)) {
+                addSequence(sequence, schema, sequences);
+              }
+            }
+          }
+          this.sequencesByName = sequences;
+        }
+      }
+    }
+    return (name != null ? sequences.get(normalize(name)) : null);
+  }
+
+  // updates ---------------------------------------------------------------------------------------------------------
+
+  void addSchema(DBSchema schema) {
+    for (String name : qualifiedNames(schema.getCatalog(), null, schema.getName())) {
+      register(name, schema, schemasByName);
+    }
+    for (DBTable table : schema.getTables()) {
+      addTable(table);
+    }
+  }
+
+  void addTable(DBTable table) {
+    DBSchema schema = table.getSchema();
+    for (String name : qualifiedNames(schema.getCatalog(), schema.getName(), table.getName())) {
+      register(name, table, tablesByName);
+    }
+  }
+
+  /** Removes the entries of a table after it has been removed from its schema,
+   *  making another table with the same simple name visible under it */
+  void removeTable(DBTable table) {
+    DBSchema schema = table.getSchema();
+    for (String name : qualifiedNames(schema.getCatalog(), schema.getName(), table.getName())) {
+      tablesByName.remove(normalize(name), table);
+    }
+    String key = normalize(table.getName());
+    if (!tablesByName.containsKey(key)) {
+      for (DBCatalog catalog : database.getCatalogs()) {
+        for (DBSchema candidateSchema : catalog.getSchemas()) {
+          DBTable candidate = candidateSchema.getTable(table.getName());
+          if (candidate != null && candidate != table) {
+            tablesByName.putIfAbsent(key, candidate);
+            return;
+          }
+        }
+      }
+    }
+  }
+
+  synchronized void addSequence(DBSequence sequence, DBSchema schema) {
+    Map<String, DBSequence> sequences = this.sequencesByName;
+    if (sequences != null) {
+      addSequence(sequence, schema, sequences);
+    }
+  }
+
+  // helpers ---------------------------------------------------------------------------------------------------------
+
+  private static void addSequence(DBSequence sequence, DBSchema schema, Map<String, DBSequence> sequences) {
+    for (String name : qualifiedNames(schema.getCatalog(), schema.getName(), sequence.getName())) {
+      if (name != null) {
+        sequences.putIfAbsent(normalize(name), sequence);
+      }
+    }
+  }
+
+  /** @return the simple name and the names qualified with schema and catalog name, as far as they are known */
+  private static List<String> qualifiedNames(DBCatalog catalog, String schemaName, String name) {
+    if (name == null) {
+      return List.of();
+    }
+    String catalogName = (catalog != null ? catalog.getName() : null);
+    if (schemaName == null) {
+      return (catalogName != null ? List.of(name, catalogName + '.' + name) : List.of(name));
+    }
+    String schemaQualifiedName = schemaName + '.' + name;
+    return (catalogName != null ? List.of(name, schemaQualifiedName, catalogName + '.' + schemaQualifiedName)
+        : List.of(name, schemaQualifiedName));
+  }
+
+  static String normalize(String name) {
+    return name.toLowerCase(Locale.ROOT);
+  }
+
+  /** Registers an object under a name, replacing an object of the same name which comes later
+   *  in catalog and schema order */
+  private <T extends DBObject> void register(String name, T object, Map<String, T> map) {
+    map.merge(normalize(name), object, (existing, added) -> (precedes(added, existing) ? added : existing));
+  }
+
+  private boolean precedes(DBObject object1, DBObject object2) {
+    DBSchema schema1 = schemaOf(object1);
+    DBSchema schema2 = schemaOf(object2);
+    if (schema1 == schema2) {
+      return false;
+    }
+    DBCatalog catalog1 = schema1.getCatalog();
+    DBCatalog catalog2 = schema2.getCatalog();
+    if (catalog1 != catalog2) {
+      List<DBCatalog> catalogs = database.getCatalogs();
+      return (catalogs.indexOf(catalog1) < catalogs.indexOf(catalog2));
+    }
+    List<DBSchema> schemas = catalog1.getSchemas();
+    return (schemas.indexOf(schema1) < schemas.indexOf(schema2));
+  }
+
+  private static DBSchema schemaOf(DBObject object) {
+    return (object instanceof DBSchema ? (DBSchema) object : ((DBTable) object).getSchema());
+  }
+
+}
@@ -0,0 +1,207 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl.model;
+
+import java.util.Collection;
+import java.util.Locale;
+
+/**
+ * Computes 64-bit structural fingerprints of meta data model objects. Objects of equal structure have
+ * equal fingerprints, independent of the model instance they belong to, so fingerprints of different
+ * models can be compared for quickly recognizing unchanged objects. Identifiers are compared ignoring case,
+ * constraint and index names only if they are deterministic, and unordered components like constraints
+ * and indexes independently of their order. The fingerprint of a table imports all details of the table.<br/><br/>
+ * Created: 24.03.2022 09:31:16
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+public final class ModelFingerprint {
+
+  private static final long OFFSET_BASIS = 0xcbf29ce484222325L;
+  private static final long PRIME = 0x100000001b3L;
+  private static final long NULL_HASH = 0x9e3779b97f4a7c15L;
+
+  private ModelFingerprint() {
+    // private constructor to prevent instantiation of this utility class
+  }
+
+  // model objects ---------------------------------------------------------------------------------------------------
+
+  public static long of(DBSchema schema) {
+    long h = identifier(OFFSET_BASIS, schema.getName());
+    h = mix(h, unordered(schema.getTables()));
+    h = mix(h, unordered(schema.getSequences(false)));
+    return fmix(h);
+  }
+
+  public static long of(DBTable table) {
+    long h = identifier(OFFSET_BASIS, table.getName());
+    for (DBColumn column : table.getColumns()) {
+      h = mix(h, of(column));
+    }
+    DBPrimaryKeyConstraint pk = table.getPrimaryKeyConstraint();
+    h = mix(h, pk != null ? of(pk) : NULL_HASH);
+    h = mix(h, unordered(table.getUniqueConstraints(false)));
+    h = mix(h, unordered(table.getForeignKeyConstraints()));
+    h = mix(h, unordered(table.getIndexes()));
+    h = mix(h, unordered(table.getCheckConstraints()));
+    return fmix(h);
+  }
+
+  public static long of(DBColumn column) {
+    long h = identifier(OFFSET_BASIS, column.getName());
+    DBDataType type = column.getType();
+    h = identifier(h, type != null ? type.getName() : null);
+    h = mix(h, type != null ? type.getJdbcType() : 0);
+    h = mix(h, column.getSize() != null ? column.getSize() : -1);
+    h = mix(h, column.getFractionDigits() != null ? column.getFractionDigits() : -1);
+    h = mix(h, column.isNullable() ? 1 : 0);
+    h = text(h, column.getDefaultValue());
+    return fmix(h);
+  }
+
+  public static long of(DBConstraint constraint) {
+    long h = text(OFFSET_BASIS, constraint.getClass().getSimpleName());
+    h = identifier(h, constraint.isNameDeterministic() ? constraint.getName() : null);
+    if (constraint instanceof DBCheckConstraint) {
+      h = text(h, normalizeSpace(((DBCheckConstraint) constraint).getConditionText()));
+    } else {
+      h = identifiers(h, constraint.getColumnNames());
+    }
+    if (constraint instanceof DBForeignKeyConstraint) {
+      DBForeignKeyConstraint fk = (DBForeignKeyConstraint) constraint;
+      DBTable referee = fk.getRefereeTable();
+      // the referee schema is only named if it differs from the owner's schema,
+      // so schemas of different names compare equal if their tables reference each other equally
+      DBSchema refereeSchema = referee.getSchema();
+      DBTable owner = fk.getTable();
+      if (owner != null && refereeSchema == owner.getSchema()) {
+        h = mix(h, 1);
+      } else {
+        h = identifier(h, refereeSchema != null ? refereeSchema.getName() : null);
+      }
+      h = identifier(h, referee.getName());
+      h = identifiers(h, fk.getRefereeColumnNames());
+      h = text(h, String.valueOf(fk.getUpdateRule()));
+      h = text(h, String.valueOf(fk.getDeleteRule()));
+    }
+    return fmix(h);
+  }
+
+  public static long of(DBIndex index) {
+    long h = mix(OFFSET_BASIS, index.isUnique() ? 1 : 0);
+    h = identifier(h, index.isNameDeterministic() ? index.getName() : null);
+    h = identifiers(h, index.getColumnNames());
+    return fmix(h);
+  }
+
+  /** The last number of the sequence is not part of the fingerprint, since it changes with each use. */
+  public static long of(DBSequence sequence) {
+    long h = identifier(OFFSET_BASIS, sequence.getName());
+    h = text(h, String.valueOf(sequence.getStart()));
+    h = text(h, String.valueOf(sequence.getIncrement()));
+    h = text(h, String.valueOf(sequence.getMinValue()));
+    h = text(h, String.valueOf(sequence.getMaxValue()));
+    h = text(h, String.valueOf(sequence.isCycle()));
+    h = text(h, String.valueOf(sequence.getCache()));
+    h = text(h, String.valueOf(sequence.isOrder()));
+    return fmix(h);
+  }
+
+  /** @return the fingerprint of a model object of one of the types supported by this class */
+  public static long of(DBObject object) {
+    if (object instanceof DBSchema) {
+      return of((DBSchema) object);
+    } else if (object instanceof DBTable) {
+      return of((DBTable) object);
+    } else if (object instanceof DBColumn) {
+      return of((DBColumn) object);
+    } else if (object instanceof DBConstraint) {
+      return of((DBConstraint) object);
+    } else if (object instanceof DBIndex) {
+      return of((DBIndex) object);
+    } else if (object instanceof DBSequence) {
+      return of((DBSequence) object);
+    } else {
+      return fmix(text(identifier(OFFSET_BASIS, object.getName()), object.getObjectType()));
+    }
+  }
+
+  // hashing helpers -------------------------------------------------------------------------------------------------
+
+  /** @return a combination of the fingerprints of the objects which does not depend on their order */
+  static long unordered(Collection<? extends DBObject> objects) {
+    long sum = objects.size();
+    for (DBObject object : objects) {
+      sum += of(object);
+    }
+    return fmix(sum);
+  }
+
+  static long mix(long h, long value) {
+    return (h ^ fmix(value)) * PRIME;
+  }
+
+  static long text(long h, String text) {
+    if (text == null) {
+      return mix(h, NULL_HASH);
+    }
+    for (int i = 0; i < text.length(); i++) {
+      h = (h ^ text.charAt(i)) * PRIME;
+    }
+    return mix(h, text.length());
+  }
+
+  private static long identifier(long h, String name) {
+    return text(h, name != null ? name.toUpperCase(Locale.ROOT) : null);
+  }
+
+  private static long identifiers(long h, String[] names) {
+    if (names == null) {
+      return mix(h, NULL_HASH);
+    }
+    for (String name : names) {
+      h = identifier(h, name);
+    }
+    return mix(h, names.length);
+  }
+
+  private static String normalizeSpace(String text) {
+    return (text != null ? text.trim().replaceAll("\\s+", " ") : null);
+  }
+
+  /** finalization step of MurmurHash3, which spreads each input bit over the whole result */
+  private static long fmix(long k) {
+    k ^= k >>> 33;
+    k *= 0xff51afd7ed558ccdL;
+    k ^= k >>> 33;
+    k *= 0xc4ceb34e1b873a3bL;
+    k ^= k >>> 33;
+    return k;
+  }
+
+}
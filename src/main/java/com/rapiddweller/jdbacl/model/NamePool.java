@@ -0,0 +1,126 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl.model;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Deduplicates the names of a meta data model: Equal strings and equal name arrays are mapped to one shared
+ * instance, so that the names of catalogs, schemas, tables, columns, types and constraints which recur all over
+ * a large schema are held in memory only once. Pooled arrays are shared between model objects and must not be
+ * modified. The pool is thread-safe.<br/><br/>
+ * Created: 21.03.2022 09:14:37
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+public final class NamePool {
+
+  private static final String[] EMPTY_ARRAY = new String[0];
+
+  private final Map<String, String> names;
+  private final Map<NameArray, String[]> arrays;
+
+  public NamePool() {
+    this.names = new ConcurrentHashMap<>();
+    this.arrays = new ConcurrentHashMap<>();
+  }
+
+  /** @return the pooled instance of the given name, or null if the name is null */
+  public String name(String name) {
+    if (name == null) {
+      return null;
+    }
+    String pooled = names.putIfAbsent(name, name);
+    return (pooled != null ? pooled : name);
+  }
+
+  /** @return a pooled array which contains the pooled instances of the given names */
+  public String[] names(String... names) {
+    if (names == null) {
+      return null;
+    }
+    if (names.length == 0) {
+      return EMPTY_ARRAY;
+    }
+    NameArray key = new NameArray(names);
+    String[] pooled = arrays.get(key);
+    if (pooled == null) {
+      String[] copy = new String[names.length];
+      for (int i = 0; i < names.length; i++) {
+        copy[i] = name(names[i]);
+      }
+      pooled = arrays.putIfAbsent(new NameArray(copy), copy);
+      if (pooled == null) {
+        pooled = copy;
+      }
+    }
+    return pooled;
+  }
+
+  public int getNameCount() {
+    return names.size();
+  }
+
+  public int getArrayCount() {
+    return arrays.size();
+  }
+
+  public void clear() {
+    names.clear();
+    arrays.clear();
+  }
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "[" + names.size() + " names, " + arrays.size() + " arrays]";
+  }
+
+  /** Wraps a name array for lookup by content. */
+  private static final class NameArray {
+
+    private final String[] names;
+    private final int hashCode;
+
+    NameArray(String[] names) {
+      this.names = names;
+      this.hashCode = Arrays.hashCode(names);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      return (this == o || (o instanceof NameArray && Arrays.equals(names, ((NameArray) o).names)));
+    }
+
+    @Override
+    public int hashCode() {
+      return hashCode;
+    }
+  }
+
+}
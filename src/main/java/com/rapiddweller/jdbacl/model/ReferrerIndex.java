@@ -0,0 +1,117 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl.model;
+
+import com.rapiddweller.common.OrderedSet;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Inverse of the foreign key graph of a {@link Database}: It maps each table to the foreign keys
+ * which reference it. The index is built in one pass over the foreign keys of all tables, but only when
+ * the foreign keys of every table are known, and is maintained by the tables when foreign keys are added
+ * or removed. Tables derive their referrers from it instead of querying the database for each table.<br/><br/>
+ * Created: 23.03.2022 10:18:54
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+final class ReferrerIndex {
+
+  /** foreign keys by referenced table, compared by identity, since unnamed foreign keys may be equal */
+  private final Map<DBTable, List<DBForeignKeyConstraint>> fksByReferee;
+
+  private ReferrerIndex() {
+    this.fksByReferee = new IdentityHashMap<>();
+  }
+
+  /** @return the index of the foreign keys of the given tables, or null if the foreign keys
+   *  of one of the tables have not been imported yet */
+  static ReferrerIndex build(List<DBTable> tables) {
+    for (DBTable table : tables) {
+      if (!table.areFKsKnown()) {
+        return null; // checked before copying any foreign keys
+      }
+    }
+    ReferrerIndex index = new ReferrerIndex();
+    for (DBTable table : tables) {
+      Set<DBForeignKeyConstraint> fks = table.knownForeignKeys();
+      if (fks == null) {
+        return null;
+      }
+      for (DBForeignKeyConstraint fk : fks) {
+        index.add(fk);
+      }
+    }
+    return index;
+  }
+
+  synchronized void add(DBForeignKeyConstraint fk) {
+    List<DBForeignKeyConstraint> fks = fksByReferee.computeIfAbsent(fk.getRefereeTable(), k -> new ArrayList<>(2));
+    if (indexOf(fk, fks) < 0) {
+      fks.add(fk);
+    }
+  }
+
+  synchronized void remove(DBForeignKeyConstraint fk) {
+    List<DBForeignKeyConstraint> fks = fksByReferee.get(fk.getRefereeTable());
+    if (fks != null) {
+      int index = indexOf(fk, fks);
+      if (index >= 0) {
+        fks.remove(index);
+        if (fks.isEmpty()) {
+          fksByReferee.remove(fk.getRefereeTable());
+        }
+      }
+    }
+  }
+
+  /** @return the tables which have a foreign key to the given table, in the order of the foreign keys */
+  synchronized Set<DBTable> getReferrers(DBTable referee) {
+    Set<DBTable> result = new OrderedSet<>();
+    List<DBForeignKeyConstraint> fks = fksByReferee.get(referee);
+    if (fks != null) {
+      for (DBForeignKeyConstraint fk : fks) {
+        result.add(fk.getTable());
+      }
+    }
+    return result;
+  }
+
+  private static int indexOf(DBForeignKeyConstraint fk, List<DBForeignKeyConstraint> fks) {
+    for (int i = 0; i < fks.size(); i++) {
+      if (fks.get(i) == fk) {
+        return i;
+      }
+    }
+    return -1;
+  }
+
+}
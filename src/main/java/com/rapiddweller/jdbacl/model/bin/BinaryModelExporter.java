@@ -0,0 +1,390 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl.model.bin;
+
+import com.rapiddweller.common.StringUtil;
+import com.rapiddweller.common.exception.ExceptionFactory;
+import com.rapiddweller.jdbacl.SQLUtil;
+import com.rapiddweller.jdbacl.model.DBCatalog;
+import com.rapiddweller.jdbacl.model.DBCheckConstraint;
+import com.rapiddweller.jdbacl.model.DBColumn;
+import com.rapiddweller.jdbacl.model.DBForeignKeyConstraint;
+import com.rapiddweller.jdbacl.model.DBIndex;
+import com.rapiddweller.jdbacl.model.DBMetaDataExporter;
+import com.rapiddweller.jdbacl.model.DBPackage;
+import com.rapiddweller.jdbacl.model.DBPrimaryKeyConstraint;
+import com.rapiddweller.jdbacl.model.DBProcedure;
+import com.rapiddweller.jdbacl.model.DBSchema;
+import com.rapiddweller.jdbacl.model.DBSequence;
+import com.rapiddweller.jdbacl.model.DBTable;
+import com.rapiddweller.jdbacl.model.DBTrigger;
+import com.rapiddweller.jdbacl.model.DBUniqueConstraint;
+import com.rapiddweller.jdbacl.model.Database;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import static com.rapiddweller.jdbacl.model.bin.BinaryModelFormat.CHECKS_IMPORTED;
+import static com.rapiddweller.jdbacl.model.bin.BinaryModelFormat.COLUMNS_IMPORTED;
+import static com.rapiddweller.jdbacl.model.bin.BinaryModelFormat.DB_CHECKS_IMPORTED;
+import static com.rapiddweller.jdbacl.model.bin.BinaryModelFormat.FKS_IMPORTED;
+import static com.rapiddweller.jdbacl.model.bin.BinaryModelFormat.INDEXES_IMPORTED;
+import static com.rapiddweller.jdbacl.model.bin.BinaryModelFormat.PACKAGES_IMPORTED;
+import static com.rapiddweller.jdbacl.model.bin.BinaryModelFormat.PK_IMPORTED;
+import static com.rapiddweller.jdbacl.model.bin.BinaryModelFormat.REFERRERS_IMPORTED;
+import static com.rapiddweller.jdbacl.model.bin.BinaryModelFormat.SEQUENCES_IMPORTED;
+import static com.rapiddweller.jdbacl.model.bin.BinaryModelFormat.TRIGGERS_IMPORTED;
+
+/**
+ * Saves a database meta data model in the compact {@link BinaryModelFormat}.
+ * Like the {@link com.rapiddweller.jdbacl.model.xml.XMLModelExporter}, it exports only
+ * the table details which have already been imported, unless it is used in eager mode.<br/><br/>
+ * Created: 19.10.2022 11:03:52
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+public class BinaryModelExporter implements DBMetaDataExporter {
+
+  private final File file;
+  private final boolean lazy;
+
+  // constructors ----------------------------------------------------------------------------------------------------
+
+  public BinaryModelExporter(File file) {
+    this(file, true);
+  }
+
+  public BinaryModelExporter(File file, boolean lazy) {
+    this.file = file;
+    this.lazy = lazy;
+  }
+
+  // interface -------------------------------------------------------------------------------------------------------
+
+  @Override
+  public void export(Database database) throws IOException {
+    if (!lazy) {
+      database.haveChecksImported();
+    }
+    Map<String, Integer> stringIds = new LinkedHashMap<>();
+    // structure
+    BinaryModelOutput structure = new BinaryModelOutput(stringIds);
+    List<DBTable> tables = new ArrayList<>();
+    exportDatabase(database, structure, tables);
+    // table records
+    Map<DBTable, Integer> tableIndices = new IdentityHashMap<>();
+    for (int i = 0; i < tables.size(); i++) {
+      tableIndices.put(tables.get(i), i);
+    }
+    Map<DBTable, List<DBTable>> referrers = collectReferrers(tables);
+    BinaryModelOutput details = new BinaryModelOutput(stringIds);
+    BinaryModelOutput index = new BinaryModelOutput(stringIds);
+    index.writeVarInt(tables.size());
+    for (DBTable table : tables) {
+      index.writeFixedInt(details.size());
+      exportTable(table, tableIndices, referrers, details);
+    }
+    // header and string table, which is complete only now
+    BinaryModelOutput header = new BinaryModelOutput(stringIds);
+    header.writeBytes(BinaryModelFormat.MAGIC);
+    header.writeFixedInt(BinaryModelFormat.VERSION);
+    header.writeUTF8(StringUtil.nullToEmpty(database.getSchemaFingerprint()));
+    header.writeVarInt(stringIds.size());
+    for (String string : stringIds.keySet()) {
+      header.writeUTF8(string);
+    }
+    // the file is written under a temporary name and then replaced, so that a reader never sees a partial file
+    File tempFile = new File(file.getPath() + ".tmp");
+    try (OutputStream out = new BufferedOutputStream(new FileOutputStream(tempFile))) {
+      header.writeTo(out);
+      structure.writeTo(out);
+      index.writeTo(out);
+      details.writeTo(out);
+    }
+    Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  // structure -------------------------------------------------------------------------------------------------------
+
+  private static void exportDatabase(Database database, BinaryModelOutput out, List<DBTable> tables) {
+    out.writeString(database.getName());
+    out.writeString(database.getUser());
+    out.writeString(database.getTableInclusionPattern());
+    out.writeString(database.getTableExclusionPattern());
+    int flags = 0;
+    flags |= (database.isSequencesImported() ? SEQUENCES_IMPORTED : 0);
+    flags |= (database.isTriggersImported() ? TRIGGERS_IMPORTED : 0);
+    flags |= (database.isPackagesImported() ? PACKAGES_IMPORTED : 0);
+    flags |= (database.isChecksImported() ? DB_CHECKS_IMPORTED : 0);
+    out.writeVarInt(flags);
+    out.writeVarLong(database.getImportDate() != null ? database.getImportDate().getTime() + 1 : 0);
+    List<DBCatalog> catalogs = database.getCatalogs();
+    out.writeVarInt(catalogs.size());
+    for (DBCatalog catalog : catalogs) {
+      out.writeString(catalog.getName());
+      List<DBSchema> schemas = catalog.getSchemas();
+      out.writeVarInt(schemas.size());
+      for (DBSchema schema : schemas) {
+        exportSchema(schema, out, tables);
+      }
+    }
+  }
+
+  private static void exportSchema(DBSchema schema, BinaryModelOutput out, List<DBTable> tables) {
+    Database db = schema.getDatabase();
+    out.writeString(schema.getName());
+    List<DBTable> schemaTables = schema.getTables();
+    out.writeVarInt(schemaTables.size());
+    for (DBTable table : schemaTables) {
+      out.writeString(table.getName());
+      out.writeString(table.getTableType().name());
+      tables.add(table);
+    }
+    List<DBSequence> sequences = (db.isSequencesImported() ? schema.getSequences(true) : List.of());
+    out.writeVarInt(sequences.size());
+    for (DBSequence sequence : sequences) {
+      exportSequence(sequence, out);
+    }
+    List<DBTrigger> triggers = (db.isTriggersImported() ? schema.getTriggers() : List.of());
+    out.writeVarInt(triggers.size());
+    for (DBTrigger trigger : triggers) {
+      exportTrigger(trigger, out);
+    }
+    List<DBPackage> packages = (db.isPackagesImported() ? schema.getPackages() : List.of());
+    out.writeVarInt(packages.size());
+    for (DBPackage pkg : packages) {
+      exportPackage(pkg, out);
+    }
+  }
+
+  private static void exportSequence(DBSequence sequence, BinaryModelOutput out) {
+    out.writeString(sequence.getName());
+    out.writeString(Objects.toString(sequence.getStartIfNotDefault(), null));
+    out.writeString(Objects.toString(sequence.getIncrementIfNotDefault(), null));
+    out.writeString(Objects.toString(sequence.getMaxValueIfNotDefault(), null));
+    out.writeString(Objects.toString(sequence.getMinValueIfNotDefault(), null));
+    out.writeString(Objects.toString(sequence.isCycle(), null));
+    out.writeString(Objects.toString(sequence.getCache(), null));
+    out.writeString(Objects.toString(sequence.isOrder(), null));
+  }
+
+  private static void exportTrigger(DBTrigger trigger, BinaryModelOutput out) {
+    out.writeString(trigger.getName());
+    out.writeString(trigger.getTriggerType());
+    out.writeString(trigger.getTriggeringEvent());
+    out.writeString(trigger.getTableOwner());
+    out.writeString(trigger.getBaseObjectType());
+    out.writeString(trigger.getTableName());
+    out.writeString(trigger.getColumnName());
+    out.writeString(trigger.getReferencingNames());
+    out.writeString(trigger.getWhenClause());
+    out.writeString(trigger.getStatus());
+    out.writeString(trigger.getDescription());
+    out.writeString(trigger.getActionType());
+    out.writeString(trigger.getTriggerBody());
+  }
+
+  private static void exportPackage(DBPackage pkg, BinaryModelOutput out) {
+    out.writeString(pkg.getName());
+    out.writeString(pkg.getSubObjectName());
+    out.writeString(pkg.getObjectId());
+    out.writeString(pkg.getDataObjectId());
+    out.writeString(pkg.getObjectType());
+    out.writeString(pkg.getStatus());
+    List<DBProcedure> procedures = pkg.getProcedures();
+    out.writeVarInt(procedures.size());
+    for (DBProcedure procedure : procedures) {
+      out.writeString(procedure.getName());
+      out.writeString(procedure.getObjectId());
+      out.writeString(procedure.getSubProgramId());
+      out.writeString(procedure.getOverload());
+    }
+  }
+
+  // table records ---------------------------------------------------------------------------------------------------
+
+  /** Determines the referrers of each table from the foreign keys,
+   *  or returns null if the foreign keys of some table have not been imported */
+  private Map<DBTable, List<DBTable>> collectReferrers(List<DBTable> tables) {
+    Map<DBTable, List<DBTable>> result = new IdentityHashMap<>();
+    for (DBTable table : tables) {
+      if (!lazy) {
+        table.getForeignKeyConstraints();
+      }
+      if (!table.areFKsImported()) {
+        return null;
+      }
+      for (DBForeignKeyConstraint fk : table.getForeignKeyConstraints()) {
+        result.computeIfAbsent(fk.getRefereeTable(), k -> new ArrayList<>()).add(table);
+      }
+    }
+    return result;
+  }
+
+  private void exportTable(DBTable table, Map<DBTable, Integer> tableIndices,
+                           Map<DBTable, List<DBTable>> referrers, BinaryModelOutput out) {
+    if (!lazy) {
+      table.havePKImported();
+    }
+    int flags = 0;
+    flags |= (!lazy || table.areColumnsImported() ? COLUMNS_IMPORTED : 0);
+    flags |= (table.isPKImported() ? PK_IMPORTED : 0);
+    flags |= (!lazy || table.areFKsImported() ? FKS_IMPORTED : 0);
+    flags |= (!lazy || table.areIndexesImported() ? INDEXES_IMPORTED : 0);
+    flags |= (!lazy || table.areChecksImported() ? CHECKS_IMPORTED : 0);
+    Collection<DBTable> tableReferrers = null;
+    if (referrers != null) {
+      tableReferrers = referrers.getOrDefault(table, List.of());
+    } else if (!table.areReferrersImported()) { // areReferrersImported() returns true if they still need to be imported
+      tableReferrers = table.getReferrers();
+    }
+    flags |= (tableReferrers != null ? REFERRERS_IMPORTED : 0);
+    out.writeVarInt(flags);
+    if ((flags & COLUMNS_IMPORTED) != 0) {
+      exportColumns(table.getColumns(), out);
+    }
+    if ((flags & PK_IMPORTED) != 0) {
+      exportPK(table.getPrimaryKeyConstraint(), out);
+    }
+    if ((flags & FKS_IMPORTED) != 0) {
+      exportFKs(table.getForeignKeyConstraints(), tableIndices, out);
+    }
+    if ((flags & INDEXES_IMPORTED) != 0) {
+      exportUKs(table.getUniqueConstraints(false), out);
+      exportIndexes(table.getIndexes(), out);
+    }
+    if ((flags & CHECKS_IMPORTED) != 0) {
+      exportChecks(table.getCheckConstraints(), out);
+    }
+    if (tableReferrers != null) {
+      exportReferrers(tableReferrers, tableIndices, out);
+    }
+  }
+
+  private static void exportColumns(List<DBColumn> columns, BinaryModelOutput out) {
+    out.writeVarInt(columns.size());
+    for (DBColumn column : columns) {
+      out.writeString(column.getName());
+      out.writeZigZag(column.getType().getJdbcType());
+      out.writeString(SQLUtil.renderColumnTypeWithSize(column));
+      out.writeString(column.getDefaultValue());
+      out.writeBoolean(column.isNullable());
+    }
+  }
+
+  private static void exportPK(DBPrimaryKeyConstraint pk, BinaryModelOutput out) {
+    out.writeBoolean(pk != null);
+    if (pk != null) {
+      out.writeString(pk.getName());
+      out.writeBoolean(pk.isNameDeterministic());
+      out.writeStrings(pk.getColumnNames());
+    }
+  }
+
+  private static void exportFKs(Set<DBForeignKeyConstraint> fks, Map<DBTable, Integer> tableIndices,
+                                BinaryModelOutput out) {
+    out.writeVarInt(fks.size());
+    for (DBForeignKeyConstraint fk : fks) {
+      Integer refereeIndex = tableIndices.get(fk.getRefereeTable());
+      if (refereeIndex == null) {
+        throw ExceptionFactory.getInstance().illegalArgument(
+            "Foreign key " + fk.getName() + " references a table which is not part of the model: " +
+                fk.getRefereeTable().getName());
+      }
+      out.writeString(fk.getName());
+      out.writeBoolean(fk.isNameDeterministic());
+      out.writeVarInt(refereeIndex);
+      out.writeStrings(fk.getColumnNames());
+      out.writeStrings(fk.getRefereeColumnNames());
+      out.writeString(fk.getUpdateRule().name());
+      out.writeString(fk.getDeleteRule().name());
+    }
+  }
+
+  private static void exportUKs(Set<DBUniqueConstraint> uks, BinaryModelOutput out) {
+    List<DBUniqueConstraint> nonPKs = new ArrayList<>(uks.size());
+    for (DBUniqueConstraint uk : uks) {
+      if (!(uk instanceof DBPrimaryKeyConstraint)) {
+        nonPKs.add(uk);
+      }
+    }
+    out.writeVarInt(nonPKs.size());
+    for (DBUniqueConstraint uk : nonPKs) {
+      out.writeString(uk.getName());
+      out.writeBoolean(uk.isNameDeterministic());
+      out.writeStrings(uk.getColumnNames());
+    }
+  }
+
+  private static void exportIndexes(List<DBIndex> indexes, BinaryModelOutput out) {
+    out.writeVarInt(indexes.size());
+    for (DBIndex index : indexes) {
+      out.writeString(index.getName());
+      out.writeBoolean(index.isUnique());
+      out.writeBoolean(index.isNameDeterministic());
+      out.writeStrings(index.getColumnNames());
+    }
+  }
+
+  private static void exportReferrers(Collection<DBTable> referrers, Map<DBTable, Integer> tableIndices,
+                                      BinaryModelOutput out) {
+    List<Integer> indices = new ArrayList<>(referrers.size());
+    for (DBTable referrer : referrers) {
+      Integer referrerIndex = tableIndices.get(referrer);
+      if (referrerIndex != null) {
+        indices.add(referrerIndex);
+      }
+    }
+    out.writeVarInt(indices.size());
+    for (int referrerIndex : indices) {
+      out.writeVarInt(referrerIndex);
+    }
+  }
+
+  private static void exportChecks(List<DBCheckConstraint> checks, BinaryModelOutput out) {
+    out.writeVarInt(checks.size());
+    for (DBCheckConstraint check : checks) {
+      out.writeString(check.getName());
+      out.writeBoolean(check.isNameDeterministic());
+      out.writeString(check.getConditionText());
+    }
+  }
+
+}
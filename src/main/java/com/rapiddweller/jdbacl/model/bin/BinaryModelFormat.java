@@ -0,0 +1,92 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl.model.bin;
+
+import com.rapiddweller.common.exception.ExceptionFactory;
+
+/**
+ * Constants of the binary meta data model format which is written by the {@link BinaryModelExporter}
+ * and read by the {@link BinaryModelImporter}. A file has the following layout:
+ * <ol>
+ *   <li>the magic bytes 'JDBM' and the format version as 4-byte integer</li>
+ *   <li>the schema fingerprint as UTF-8 encoded length and bytes, empty if unknown,
+ *       which can be checked without reading the rest of the file</li>
+ *   <li>the string table: the number of strings followed by their UTF-8 encoded length and bytes.
+ *       All names and texts in the following sections are references into this table,
+ *       with 0 representing null</li>
+ *   <li>the structure: database properties, catalogs, schemas, table names, sequences, triggers and packages</li>
+ *   <li>the table index: the number of tables followed by the 4-byte offset of each table record,
+ *       relative to the start of the table section</li>
+ *   <li>the table section: one record per table with its columns, constraints and referrers</li>
+ * </ol>
+ * The table index allows the {@link BinaryModelImporter} to parse a table record on its first access.
+ * All counts and string references are variable-length encoded, negative numbers in zigzag encoding.
+ * Tables are numbered in the order of their appearance in the structure section,
+ * foreign keys refer to their referee table by that number.<br/><br/>
+ * Created: 19.10.2022 10:12:41
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+public class BinaryModelFormat {
+
+  public static final String FILE_SUFFIX = ".meta.bin";
+
+  static final byte[] MAGIC = {'J', 'D', 'B', 'M'};
+  static final int VERSION = 3;
+
+  // table detail flags
+  static final int COLUMNS_IMPORTED = 1;
+  static final int PK_IMPORTED = 2;
+  static final int FKS_IMPORTED = 4;
+  static final int INDEXES_IMPORTED = 8;
+  static final int CHECKS_IMPORTED = 16;
+  static final int REFERRERS_IMPORTED = 32;
+
+  // database flags
+  static final int SEQUENCES_IMPORTED = 1;
+  static final int TRIGGERS_IMPORTED = 2;
+  static final int PACKAGES_IMPORTED = 4;
+  static final int DB_CHECKS_IMPORTED = 8;
+
+  private BinaryModelFormat() {
+    // private constructor for preventing instantiation.
+  }
+
+  static void checkHeader(BinaryModelInput in, String uri) {
+    for (byte b : MAGIC) {
+      if (in.readByte() != b) {
+        throw ExceptionFactory.getInstance().syntaxErrorForUri("Not a binary meta data model", null, uri);
+      }
+    }
+    int version = in.readFixedInt();
+    if (version != VERSION) {
+      throw ExceptionFactory.getInstance().importFailed(
+          "Unsupported binary meta data model version " + version + " in " + uri + ", expected " + VERSION, null);
+    }
+  }
+
+}
@@ -0,0 +1,379 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl.model.bin;
+
+import com.rapiddweller.common.ImportFailedException;
+import com.rapiddweller.common.ParseUtil;
+import com.rapiddweller.common.StringUtil;
+import com.rapiddweller.common.exception.ExceptionFactory;
+import com.rapiddweller.jdbacl.model.DBCatalog;
+import com.rapiddweller.jdbacl.model.DBCheckConstraint;
+import com.rapiddweller.jdbacl.model.DBColumn;
+import com.rapiddweller.jdbacl.model.DBForeignKeyConstraint;
+import com.rapiddweller.jdbacl.model.DBMetaDataImporter;
+import com.rapiddweller.jdbacl.model.DBNonUniqueIndex;
+import com.rapiddweller.jdbacl.model.DBPackage;
+import com.rapiddweller.jdbacl.model.DBPrimaryKeyConstraint;
+import com.rapiddweller.jdbacl.model.DBProcedure;
+import com.rapiddweller.jdbacl.model.DBSchema;
+import com.rapiddweller.jdbacl.model.DBSequence;
+import com.rapiddweller.jdbacl.model.DBTable;
+import com.rapiddweller.jdbacl.model.DBTrigger;
+import com.rapiddweller.jdbacl.model.DBUniqueConstraint;
+import com.rapiddweller.jdbacl.model.DBUniqueIndex;
+import com.rapiddweller.jdbacl.model.Database;
+import com.rapiddweller.jdbacl.model.FKChangeRule;
+import com.rapiddweller.jdbacl.model.TableType;
+import com.rapiddweller.jdbacl.model.jdbc.JDBCDBImporter;
+
+import java.io.BufferedInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigInteger;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+import static com.rapiddweller.jdbacl.model.bin.BinaryModelFormat.CHECKS_IMPORTED;
+import static com.rapiddweller.jdbacl.model.bin.BinaryModelFormat.COLUMNS_IMPORTED;
+import static com.rapiddweller.jdbacl.model.bin.BinaryModelFormat.DB_CHECKS_IMPORTED;
+import static com.rapiddweller.jdbacl.model.bin.BinaryModelFormat.FKS_IMPORTED;
+import static com.rapiddweller.jdbacl.model.bin.BinaryModelFormat.INDEXES_IMPORTED;
+import static com.rapiddweller.jdbacl.model.bin.BinaryModelFormat.PACKAGES_IMPORTED;
+import static com.rapiddweller.jdbacl.model.bin.BinaryModelFormat.PK_IMPORTED;
+import static com.rapiddweller.jdbacl.model.bin.BinaryModelFormat.REFERRERS_IMPORTED;
+import static com.rapiddweller.jdbacl.model.bin.BinaryModelFormat.SEQUENCES_IMPORTED;
+import static com.rapiddweller.jdbacl.model.bin.BinaryModelFormat.TRIGGERS_IMPORTED;
+
+/**
+ * Imports a meta data model from a file in the {@link BinaryModelFormat}.
+ * In lazy mode, which is the default, only the table names, sequences, triggers and packages are imported
+ * up front. The details of a table are parsed from the file content on the first access to one of them.
+ * The file content is read into memory completely, not mapped, so that the file can be replaced
+ * or deleted while the model is in use. Details which were not contained in the file are imported
+ * lazily by the real importer, if one is provided.<br/><br/>
+ * Created: 19.10.2022 11:47:20
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+public class BinaryModelImporter implements DBMetaDataImporter {
+
+  private final File file;
+  private final JDBCDBImporter realImporter;
+  private final boolean lazy;
+
+  public BinaryModelImporter(File file, JDBCDBImporter realImporter) {
+    this(file, realImporter, true);
+  }
+
+  public BinaryModelImporter(File file, JDBCDBImporter realImporter, boolean lazy) {
+    this.file = file;
+    this.realImporter = realImporter;
+    this.lazy = lazy;
+  }
+
+  @Override
+  public Database importDatabase() throws ImportFailedException {
+    try {
+      ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+      return readDatabase(new BinaryModelInput(buffer));
+    } catch (Exception e) {
+      throw ExceptionFactory.getInstance().importFailed("Metadata import failed", e);
+    }
+  }
+
+  /** Reads the schema fingerprint from the header of a model file without reading the rest of the file.
+   *  @return the fingerprint, or null if the file does not contain one */
+  public static String readSchemaFingerprint(File file) {
+    try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+      // magic bytes, version and the length of the fingerprint, which takes at most 5 bytes
+      byte[] head = in.readNBytes(BinaryModelFormat.MAGIC.length + 4 + 5);
+      BinaryModelInput headIn = new BinaryModelInput(ByteBuffer.wrap(head));
+      BinaryModelFormat.checkHeader(headIn, file.getPath());
+      byte[] fingerprint = new byte[headIn.readVarInt()];
+      int buffered = Math.min(fingerprint.length, head.length - headIn.position());
+      System.arraycopy(head, headIn.position(), fingerprint, 0, buffered);
+      if (in.readNBytes(fingerprint, buffered, fingerprint.length - buffered) < fingerprint.length - buffered) {
+        throw new EOFException("Unexpected end of file " + file);
+      }
+      return StringUtil.emptyToNull(new String(fingerprint, StandardCharsets.UTF_8));
+    } catch (IOException | BufferUnderflowException e) {
+      throw ExceptionFactory.getInstance().importFailed("Error reading schema fingerprint from " + file, e);
+    }
+  }
+
+  @Override
+  public void close() {
+    // nothing special to do
+  }
+
+  // structure -------------------------------------------------------------------------------------------------------
+
+  private Database readDatabase(BinaryModelInput in) {
+    BinaryModelFormat.checkHeader(in, file.getPath());
+    String schemaFingerprint = in.readUTF8();
+    in.readStringTable();
+    Database db = new Database(null, realImporter, false);
+    db.setSchemaFingerprint(StringUtil.emptyToNull(schemaFingerprint));
+    db.setName(in.readString());
+    db.setUser(in.readString());
+    db.setTableInclusionPattern(in.readString());
+    db.setTableExclusionPattern(in.readString());
+    int flags = in.readVarInt();
+    db.setSequencesImported((flags & SEQUENCES_IMPORTED) != 0);
+    db.setTriggersImported((flags & TRIGGERS_IMPORTED) != 0);
+    db.setPackagesImported((flags & PACKAGES_IMPORTED) != 0);
+    db.setChecksImported((flags & DB_CHECKS_IMPORTED) != 0);
+    long importDate = in.readVarLong();
+    if (importDate != 0) {
+      db.setImportDate(new Date(importDate - 1));
+    }
+    // First create the tables without details in order to have all referenced tables available after
+    List<DBTable> tables = new ArrayList<>();
+    int catalogCount = in.readVarInt();
+    for (int i = 0; i < catalogCount; i++) {
+      DBCatalog catalog = new DBCatalog(in.readString(), db);
+      int schemaCount = in.readVarInt();
+      for (int j = 0; j < schemaCount; j++) {
+        readSchema(in, catalog, tables);
+      }
+    }
+    // then read the details of each table or prepare them for being read on demand, using the table index
+    int tableCount = in.readVarInt();
+    int[] offsets = new int[tableCount];
+    for (int i = 0; i < tableCount; i++) {
+      offsets[i] = in.readFixedInt();
+    }
+    int tableSectionStart = in.position();
+    for (int i = 0; i < tableCount; i++) {
+      int position = tableSectionStart + offsets[i];
+      if (lazy) {
+        tables.get(i).setDetailLoader(table -> loadTableDetails(in.duplicate(position), table, tables));
+      } else {
+        in.position(position);
+        readTableDetails(in, tables.get(i), tables);
+      }
+    }
+    return db;
+  }
+
+  private static void readSchema(BinaryModelInput in, DBCatalog catalog, List<DBTable> tables) {
+    DBSchema schema = new DBSchema(in.readString(), catalog);
+    int tableCount = in.readVarInt();
+    for (int i = 0; i < tableCount; i++) {
+      String name = in.readString();
+      TableType type = TableType.valueOf(in.readString());
+      tables.add(new DBTable(name, type, null, schema, schema.getDatabase().getImporter()));
+    }
+    int sequenceCount = in.readVarInt();
+    for (int i = 0; i < sequenceCount; i++) {
+      readSequence(in, schema);
+    }
+    int triggerCount = in.readVarInt();
+    for (int i = 0; i < triggerCount; i++) {
+      readTrigger(in, schema);
+    }
+    int packageCount = in.readVarInt();
+    for (int i = 0; i < packageCount; i++) {
+      readPackage(in, schema);
+    }
+  }
+
+  private static void readSequence(BinaryModelInput in, DBSchema schema) {
+    DBSequence sequence = new DBSequence(in.readString(), schema);
+    String start = in.readString();
+    if (start != null) {
+      sequence.setStart(new BigInteger(start));
+    }
+    String increment = in.readString();
+    if (increment != null) {
+      sequence.setIncrement(new BigInteger(increment));
+    }
+    String maxValue = in.readString();
+    if (maxValue != null) {
+      sequence.setMaxValue(new BigInteger(maxValue));
+    }
+    String minValue = in.readString();
+    if (minValue != null) {
+      sequence.setMinValue(new BigInteger(minValue));
+    }
+    String cycle = in.readString();
+    if (cycle != null) {
+      sequence.setCycle(ParseUtil.parseBoolean(cycle));
+    }
+    String cache = in.readString();
+    if (cache != null) {
+      sequence.setCache(Long.parseLong(cache));
+    }
+    String order = in.readString();
+    if (order != null) {
+      sequence.setOrder(ParseUtil.parseBoolean(order));
+    }
+  }
+
+  private static void readTrigger(BinaryModelInput in, DBSchema schema) {
+    DBTrigger trigger = new DBTrigger(in.readString(), null);
+    schema.receiveTrigger(trigger);
+    trigger.setOwner(schema);
+    trigger.setTriggerType(in.readString());
+    trigger.setTriggeringEvent(in.readString());
+    trigger.setTableOwner(in.readString());
+    trigger.setBaseObjectType(in.readString());
+    trigger.setTableName(in.readString());
+    trigger.setColumnName(in.readString());
+    trigger.setReferencingNames(in.readString());
+    trigger.setWhenClause(in.readString());
+    trigger.setStatus(in.readString());
+    trigger.setDescription(in.readString());
+    trigger.setActionType(in.readString());
+    trigger.setTriggerBody(in.readString());
+  }
+
+  private static void readPackage(BinaryModelInput in, DBSchema schema) {
+    DBPackage pkg = new DBPackage(in.readString(), null);
+    pkg.setSchema(schema);
+    schema.receivePackage(pkg);
+    pkg.setSubObjectName(in.readString());
+    pkg.setObjectId(in.readString());
+    pkg.setDataObjectId(in.readString());
+    pkg.setObjectType(in.readString());
+    pkg.setStatus(in.readString());
+    int procedureCount = in.readVarInt();
+    for (int i = 0; i < procedureCount; i++) {
+      DBProcedure procedure = new DBProcedure(in.readString(), pkg);
+      procedure.setObjectId(in.readString());
+      procedure.setSubProgramId(in.readString());
+      procedure.setOverload(in.readString());
+    }
+  }
+
+  // table records ---------------------------------------------------------------------------------------------------
+
+  private void loadTableDetails(BinaryModelInput in, DBTable table, List<DBTable> tables) {
+    try {
+      readTableDetails(in, table, tables);
+    } catch (RuntimeException e) {
+      throw ExceptionFactory.getInstance().importFailed(
+          "Error loading the details of table " + table.getName() + " from " + file, e);
+    }
+  }
+
+  private static void readTableDetails(BinaryModelInput in, DBTable table, List<DBTable> tables) {
+    int flags = in.readVarInt();
+    table.setColumnsImported((flags & COLUMNS_IMPORTED) != 0);
+    table.setPKImported((flags & PK_IMPORTED) != 0);
+    table.setFKsImported((flags & FKS_IMPORTED) != 0);
+    table.setIndexesImported((flags & INDEXES_IMPORTED) != 0);
+    table.setChecksImported((flags & CHECKS_IMPORTED) != 0);
+    if ((flags & COLUMNS_IMPORTED) != 0) {
+      readColumns(in, table);
+    }
+    if ((flags & PK_IMPORTED) != 0 && in.readBoolean()) {
+      new DBPrimaryKeyConstraint(table, in.readString(), in.readBoolean(), in.readStrings());
+    }
+    if ((flags & FKS_IMPORTED) != 0) {
+      readFKs(in, table, tables);
+    }
+    if ((flags & INDEXES_IMPORTED) != 0) {
+      readUKsAndIndexes(in, table);
+    }
+    if ((flags & CHECKS_IMPORTED) != 0) {
+      readChecks(in, table);
+    }
+    // otherwise the referrers are imported by the real importer on demand
+    table.setReferrersImported((flags & REFERRERS_IMPORTED) != 0);
+    if ((flags & REFERRERS_IMPORTED) != 0) {
+      int referrerCount = in.readVarInt();
+      for (int i = 0; i < referrerCount; i++) {
+        table.receiveReferrer(tables.get(in.readVarInt()));
+      }
+    }
+  }
+
+  private static void readColumns(BinaryModelInput in, DBTable table) {
+    int columnCount = in.readVarInt();
+    for (int i = 0; i < columnCount; i++) {
+      String name = in.readString();
+      int jdbcType = in.readZigZag();
+      DBColumn column = new DBColumn(name, table, jdbcType, in.readString());
+      String defaultValue = in.readString();
+      if (defaultValue != null) {
+        column.setDefaultValue(defaultValue);
+      }
+      column.setNullable(in.readBoolean());
+    }
+  }
+
+  private static void readFKs(BinaryModelInput in, DBTable table, List<DBTable> tables) {
+    int fkCount = in.readVarInt();
+    for (int i = 0; i < fkCount; i++) {
+      String name = in.readString();
+      boolean nameDeterministic = in.readBoolean();
+      DBTable refereeTable = tables.get(in.readVarInt());
+      String[] columnNames = in.readStrings();
+      String[] refereeColumnNames = in.readStrings();
+      DBForeignKeyConstraint fk = new DBForeignKeyConstraint(
+          name, nameDeterministic, table, columnNames, refereeTable, refereeColumnNames);
+      fk.setUpdateRule(FKChangeRule.valueOf(in.readString()));
+      fk.setDeleteRule(FKChangeRule.valueOf(in.readString()));
+    }
+  }
+
+  private static void readUKsAndIndexes(BinaryModelInput in, DBTable table) {
+    int ukCount = in.readVarInt();
+    for (int i = 0; i < ukCount; i++) {
+      new DBUniqueConstraint(table, in.readString(), in.readBoolean(), in.readStrings());
+    }
+    int indexCount = in.readVarInt();
+    for (int i = 0; i < indexCount; i++) {
+      String name = in.readString();
+      boolean unique = in.readBoolean();
+      boolean nameDeterministic = in.readBoolean();
+      String[] columnNames = in.readStrings();
+      if (unique) {
+        new DBUniqueIndex(name, nameDeterministic, table.getUniqueConstraint(columnNames));
+      } else {
+        new DBNonUniqueIndex(name, nameDeterministic, table, columnNames);
+      }
+    }
+  }
+
+  private static void readChecks(BinaryModelInput in, DBTable table) {
+    int checkCount = in.readVarInt();
+    for (int i = 0; i < checkCount; i++) {
+      new DBCheckConstraint(in.readString(), in.readBoolean(), table, in.readString());
+    }
+  }
+
+}
@@ -0,0 +1,139 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl.model.bin;
+
+import com.rapiddweller.common.exception.ExceptionFactory;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Reads the data written by a {@link BinaryModelOutput} from a {@link ByteBuffer}.<br/><br/>
+ * Created: 19.10.2022 10:41:17
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+final class BinaryModelInput {
+
+  private final ByteBuffer buffer;
+  private String[] strings;
+
+  BinaryModelInput(ByteBuffer buffer) {
+    this(buffer, new String[] {null});
+  }
+
+  private BinaryModelInput(ByteBuffer buffer, String[] strings) {
+    this.buffer = buffer;
+    this.strings = strings;
+  }
+
+  /** Creates an independent reader of the same data and string table, starting at the given position */
+  BinaryModelInput duplicate(int position) {
+    ByteBuffer copy = buffer.duplicate();
+    copy.position(position);
+    return new BinaryModelInput(copy, strings);
+  }
+
+  int position() {
+    return buffer.position();
+  }
+
+  void position(int position) {
+    buffer.position(position);
+  }
+
+  byte readByte() {
+    return buffer.get();
+  }
+
+  int readFixedInt() {
+    return buffer.getInt();
+  }
+
+  int readVarInt() {
+    int result = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      byte b = buffer.get();
+      result |= (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return result;
+      }
+    }
+    throw ExceptionFactory.getInstance().importFailed(
+        "Malformed variable-length integer at position " + (buffer.position() - 1), null);
+  }
+
+  int readZigZag() {
+    int value = readVarInt();
+    return (value >>> 1) ^ -(value & 1);
+  }
+
+  long readVarLong() {
+    long result = 0;
+    for (int shift = 0; shift < 64; shift += 7) {
+      byte b = buffer.get();
+      result |= (long) (b & 0x7F) << shift;
+      if ((b & 0x80) == 0) {
+        return result;
+      }
+    }
+    throw ExceptionFactory.getInstance().importFailed(
+        "Malformed variable-length long at position " + (buffer.position() - 1), null);
+  }
+
+  boolean readBoolean() {
+    return (buffer.get() != 0);
+  }
+
+  String readString() {
+    return strings[readVarInt()];
+  }
+
+  String[] readStrings() {
+    String[] result = new String[readVarInt()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = readString();
+    }
+    return result;
+  }
+
+  /** Reads the string table. Each string is instantiated once and shared by all model objects which use it */
+  void readStringTable() {
+    int count = readVarInt();
+    strings = new String[count + 1];
+    for (int i = 1; i <= count; i++) {
+      strings[i] = readUTF8();
+    }
+  }
+
+  String readUTF8() {
+    byte[] bytes = new byte[readVarInt()];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+}
@@ -0,0 +1,129 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl.model.bin;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Growable byte buffer for writing a section of the binary model format.
+ * Strings are interned in a string table which may be shared by several sections.<br/><br/>
+ * Created: 19.10.2022 10:26:03
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+final class BinaryModelOutput {
+
+  private final Map<String, Integer> stringIds;
+  private byte[] buffer;
+  private int size;
+
+  BinaryModelOutput(Map<String, Integer> stringIds) {
+    this.stringIds = stringIds;
+    this.buffer = new byte[4096];
+    this.size = 0;
+  }
+
+  int size() {
+    return size;
+  }
+
+  void writeByte(int b) {
+    ensureCapacity(1);
+    buffer[size++] = (byte) b;
+  }
+
+  void writeBytes(byte[] bytes) {
+    ensureCapacity(bytes.length);
+    System.arraycopy(bytes, 0, buffer, size, bytes.length);
+    size += bytes.length;
+  }
+
+  void writeFixedInt(int value) {
+    writeByte(value >>> 24);
+    writeByte(value >>> 16);
+    writeByte(value >>> 8);
+    writeByte(value);
+  }
+
+  void writeVarInt(int value) {
+    while ((value & ~0x7F) != 0) {
+      writeByte((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    writeByte(value);
+  }
+
+  void writeZigZag(int value) {
+    writeVarInt((value << 1) ^ (value >> 31));
+  }
+
+  void writeVarLong(long value) {
+    while ((value & ~0x7FL) != 0) {
+      writeByte((int) (value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    writeByte((int) value);
+  }
+
+  void writeBoolean(boolean value) {
+    writeByte(value ? 1 : 0);
+  }
+
+  /** Writes a reference to the string table entry of a string, adding the string if necessary */
+  void writeString(String value) {
+    writeVarInt(value == null ? 0 : stringIds.computeIfAbsent(value, k -> stringIds.size() + 1));
+  }
+
+  void writeStrings(String[] values) {
+    writeVarInt(values.length);
+    for (String value : values) {
+      writeString(value);
+    }
+  }
+
+  /** Writes a string itself, not a reference to it */
+  void writeUTF8(String value) {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    writeVarInt(bytes.length);
+    writeBytes(bytes);
+  }
+
+  void writeTo(OutputStream out) throws IOException {
+    out.write(buffer, 0, size);
+  }
+
+  private void ensureCapacity(int count) {
+    if (size + count > buffer.length) {
+      buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, size + count));
+    }
+  }
+
+}
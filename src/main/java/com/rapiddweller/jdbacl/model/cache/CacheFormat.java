@@ -0,0 +1,111 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl.model.cache;
+
+import com.rapiddweller.jdbacl.model.DBMetaDataExporter;
+import com.rapiddweller.jdbacl.model.DBMetaDataImporter;
+import com.rapiddweller.jdbacl.model.bin.BinaryModelExporter;
+import com.rapiddweller.jdbacl.model.bin.BinaryModelFormat;
+import com.rapiddweller.jdbacl.model.bin.BinaryModelImporter;
+import com.rapiddweller.jdbacl.model.jdbc.JDBCDBImporter;
+import com.rapiddweller.jdbacl.model.xml.XMLModelExporter;
+import com.rapiddweller.jdbacl.model.xml.XMLModelImporter;
+
+import java.io.File;
+
+/**
+ * Enumerates the file formats in which the {@link CachingDBImporter} can store the meta data model.
+ * XML is human-readable, the binary format is faster to load and smaller for large schemas.<br/><br/>
+ * Created: 19.10.2022 13:21:08
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+public enum CacheFormat {
+
+  XML(".meta.xml") {
+    @Override
+    public DBMetaDataExporter createExporter(File file) {
+      return new XMLModelExporter(file);
+    }
+
+    @Override
+    public DBMetaDataImporter createImporter(File file, JDBCDBImporter realImporter) {
+      return new XMLModelImporter(file, realImporter);
+    }
+
+    @Override
+    public String readSchemaFingerprint(File file) {
+      return XMLModelImporter.readSchemaFingerprint(file);
+    }
+  },
+
+  BINARY(BinaryModelFormat.FILE_SUFFIX) {
+    @Override
+    public DBMetaDataExporter createExporter(File file) {
+      return new BinaryModelExporter(file);
+    }
+
+    @Override
+    public DBMetaDataImporter createImporter(File file, JDBCDBImporter realImporter) {
+      return new BinaryModelImporter(file, realImporter);
+    }
+
+    @Override
+    public String readSchemaFingerprint(File file) {
+      return BinaryModelImporter.readSchemaFingerprint(file);
+    }
+  };
+
+  private final String fileSuffix;
+
+  CacheFormat(String fileSuffix) {
+    this.fileSuffix = fileSuffix;
+  }
+
+  public String getFileSuffix() {
+    return fileSuffix;
+  }
+
+  public abstract DBMetaDataExporter createExporter(File file);
+
+  public abstract DBMetaDataImporter createImporter(File file, JDBCDBImporter realImporter);
+
+  /** @return the schema fingerprint stored in the header of a cache file, or null if it has none */
+  public abstract String readSchemaFingerprint(File file);
+
+  /** @return the format of a cache file, determined by its suffix, XML if the suffix is unknown */
+  public static CacheFormat forFile(File file) {
+    String name = file.getName().toLowerCase();
+    for (CacheFormat format : values()) {
+      if (name.endsWith(format.fileSuffix)) {
+        return format;
+      }
+    }
+    return XML;
+  }
+
+}
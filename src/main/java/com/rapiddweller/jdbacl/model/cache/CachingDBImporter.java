@@ -24,26 +24,51 @@
 import com.rapiddweller.common.Assert;
 import com.rapiddweller.common.ConfigUtil;
 import com.rapiddweller.common.exception.ConnectFailedException;
+import com.rapiddweller.common.exception.ExceptionFactory;
 import com.rapiddweller.common.FileUtil;
+import com.rapiddweller.common.IOUtil;
 import com.rapiddweller.common.ImportFailedException;
+import com.rapiddweller.common.NameUtil;
 import com.rapiddweller.common.Period;
 import com.rapiddweller.common.StringUtil;
+import com.rapiddweller.jdbacl.model.DBCatalog;
+import com.rapiddweller.jdbacl.model.DBForeignKeyConstraint;
 import com.rapiddweller.jdbacl.model.DBMetaDataImporter;
+import com.rapiddweller.jdbacl.model.DBSchema;
+import com.rapiddweller.jdbacl.model.DBTable;
 import com.rapiddweller.jdbacl.model.Database;
 import com.rapiddweller.jdbacl.model.jdbc.JDBCDBImporter;
-import com.rapiddweller.jdbacl.model.xml.XMLModelExporter;
-import com.rapiddweller.jdbacl.model.xml.XMLModelImporter;
 import org.slf4j.LoggerFactory;
 import org.slf4j.Logger;
 
 import java.io.Closeable;
 import java.io.File;
 import java.io.IOException;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
 
 /**
  * {@link DBMetaDataImporter} that acts as a proxy to another DBMetaDataImporter,
  * adding the feature of caching its output. The data file is named '&lt;environment&gt;.meta.xml'
- * and expires after 12 hrs.<br/><br/>
+ * and expires after 12 hrs. Alternatively, the model can be cached in the faster {@link CacheFormat#BINARY}
+ * format as '&lt;environment&gt;.meta.bin', see {@link #setFormat(CacheFormat)} and {@link #FORMAT_SYSPROP}.
+ * If the database dialect provides table change markers, they are stored in a '.markers' file next to
+ * the data file. When the cached model is loaded, the markers are then queried once per schema, and only
+ * the tables which have been changed, added or dropped since are re-imported or removed. If the database dialect
+ * provides schema fingerprints, the ones of all schemas of the model are stored in the header of the data file
+ * and compared with the current ones before the file is read: If they match, the cached model is used without
+ * further checks, otherwise it is refreshed or re-imported. In any case, the model is re-imported completely
+ * when the time to live has passed since the last complete import.<br/><br/>
  * Created: 10.01.2011 14:48:00
  * @author Volker Bergmann
  * @since 0.6.5
@@ -54,32 +79,47 @@ public class CachingDBImporter implements DBMetaDataImporter, Closeable {
 
   public static final String TIME_TO_LIVE_SYSPROP = "jdbacl.cache.timetolive";
   public static final long DEFAULT_TIME_TO_LIVE = Period.HOUR.getMillis() * 12;
+  public static final String FORMAT_SYSPROP = "jdbacl.cache.format";
 
-  private static final String CACHE_FILE_SUFFIX = ".meta.xml";
+  private static final String MARKER_FILE_SUFFIX = ".markers";
 
   /** URL of the connected database. Most data is stored in the {@link #realImporter},
    *  but since if that has been initialized with a connection, its URL is null. */
   protected final String url;
   protected final JDBCDBImporter realImporter;
+  private CacheFormat format;
 
   public CachingDBImporter(String url, JDBCDBImporter realImporter) {
     this.url = url;
     this.realImporter = realImporter;
+    this.format = getDefaultFormat();
   }
 
   public JDBCDBImporter getRealImporter() {
     return realImporter;
   }
 
+  public CacheFormat getFormat() {
+    return format;
+  }
+
+  public void setFormat(CacheFormat format) {
+    this.format = format;
+  }
+
   public void invalidate() {
     deleteCacheFile(getCacheFile());
   }
 
+  /** Deletes the cache files of all formats */
   public static void deleteCacheFile(String url, String user, String catalog, String schema) {
-    deleteCacheFile(getCacheFile(url, user, catalog, schema));
+    for (CacheFormat format : CacheFormat.values()) {
+      deleteCacheFile(getCacheFile(url, user, catalog, schema, format));
+    }
   }
 
   private static void deleteCacheFile(File file) {
+    FileUtil.deleteIfExists(markerFile(file));
     FileUtil.deleteIfExists(file);
     if (file.exists()) {
       if (!file.delete()) {
@@ -93,13 +133,99 @@ private static void deleteCacheFile(File file) {
   @Override
   public Database importDatabase() throws ConnectFailedException, ImportFailedException {
     File file = getCacheFile();
-    long now = System.currentTimeMillis();
-    long timeToLive = getTimeToLive();
-    if (file.exists() && (timeToLive < 0 || now - file.lastModified() < timeToLive)) {
-      return readCachedData(file);
-    } else {
+    // the time to live is a backstop for change detection which misses a change
+    if (!file.exists() || isExpired(file)) {
       return importFreshData(file);
     }
+    String cachedFingerprint = readSchemaFingerprint(file);
+    if (cachedFingerprint != null
+        && cachedFingerprint.equals(querySchemaFingerprint(fingerprintedSchemas(cachedFingerprint), null, null))) {
+      logger.debug("Schema fingerprint matches the cache file {}", file);
+      return readCachedData(file);
+    }
+    Map<String, String> cachedMarkers = readChangeMarkers(file);
+    if (cachedMarkers != null) {
+      Database database = readCachedData(file);
+      return (refreshChangedTables(file, database, cachedMarkers) ? database : importFreshData(file));
+    }
+    return (cachedFingerprint != null ? importFreshData(file) : readCachedData(file));
+  }
+
+  /** Queries the fingerprints of the given schemas, see {@link JDBCDBImporter#querySchemaFingerprint(String)}.
+   *  @param knownSchema the name of a schema whose fingerprint has already been queried, or null
+   *  @param knownFingerprint the fingerprint of the knownSchema
+   *  @return the fingerprints as 'schema=fingerprint' entries, ordered by schema name and separated by ';',
+   *  or null if there is no schema or the database does not provide a fingerprint for one of them */
+  private String querySchemaFingerprint(Collection<String> schemaNames, String knownSchema, String knownFingerprint) {
+    if (schemaNames.isEmpty()) {
+      return null;
+    }
+    StringBuilder builder = new StringBuilder();
+    for (String schemaName : new TreeSet<>(schemaNames)) {
+      String fingerprint = (schemaName.equals(knownSchema) ? knownFingerprint :
+          realImporter.querySchemaFingerprint(StringUtil.emptyToNull(schemaName)));
+      if (fingerprint == null) {
+        return null;
+      }
+      if (builder.length() > 0) {
+        builder.append(';');
+      }
+      builder.append(schemaName).append('=').append(fingerprint);
+    }
+    return builder.toString();
+  }
+
+  /** @return the names of the schemas of the model */
+  private static Set<String> fingerprintedSchemas(Database database) {
+    Set<String> result = new HashSet<>();
+    for (DBCatalog catalog : database.getCatalogs()) {
+      for (DBSchema schema : catalog.getSchemas()) {
+        result.add(StringUtil.nullToEmpty(schema.getName()));
+      }
+    }
+    return result;
+  }
+
+  /** @return the names of the schemas whose fingerprints are contained in the given fingerprint,
+   *  or an empty set if it has not been created by {@link #querySchemaFingerprint(Collection, String, String)} */
+  private static Set<String> fingerprintedSchemas(String fingerprint) {
+    Set<String> result = new HashSet<>();
+    for (String entry : fingerprint.split(";")) {
+      int separator = entry.lastIndexOf('=');
+      if (separator < 0) {
+        return Collections.emptySet();
+      }
+      result.add(entry.substring(0, separator));
+    }
+    return result;
+  }
+
+  /** @return the schema fingerprint stored in the cache file, or null if it has none or cannot be read */
+  private static String readSchemaFingerprint(File file) {
+    try {
+      return CacheFormat.forFile(file).readSchemaFingerprint(file);
+    } catch (RuntimeException e) {
+      logger.debug("Error reading schema fingerprint of cache file {}", file, e);
+      return null;
+    }
+  }
+
+  private static boolean isExpired(File file) {
+    long timeToLive = getTimeToLive();
+    return (timeToLive >= 0 && System.currentTimeMillis() - file.lastModified() >= timeToLive);
+  }
+
+  private static CacheFormat getDefaultFormat() {
+    String sysProp = System.getProperty(FORMAT_SYSPROP);
+    if (StringUtil.isEmpty(sysProp)) {
+      return CacheFormat.XML;
+    }
+    try {
+      return CacheFormat.valueOf(sysProp.trim().toUpperCase());
+    } catch (IllegalArgumentException e) {
+      logger.warn("Unknown cache format '{}' in system property {}, using {}", sysProp, FORMAT_SYSPROP, CacheFormat.XML);
+      return CacheFormat.XML;
+    }
   }
 
   private static long getTimeToLive() {
@@ -128,7 +254,7 @@ public void close() throws IOException {
   protected Database readCachedData(File cacheFile) throws ConnectFailedException, ImportFailedException {
     try {
       logger.info("Importing database meta data from cache file {}", cacheFile.getPath());
-      Database database = new XMLModelImporter(cacheFile, realImporter).importDatabase();
+      Database database = CacheFormat.forFile(cacheFile).createImporter(cacheFile, realImporter).importDatabase();
       logger.info("Database meta data import completed");
       return database;
     } catch (Exception e) {
@@ -138,15 +264,195 @@ protected Database readCachedData(File cacheFile) throws ConnectFailedException,
   }
 
   protected Database importFreshData(File file) throws ConnectFailedException, ImportFailedException {
+    // the fingerprint of the importer's schema is queried first, so that concurrent schema changes show up
+    // as mismatch on the next import. The other schemas of the model are only known after the import
+    String schemaName = realImporter.getSchemaName();
+    String fingerprint = realImporter.querySchemaFingerprint();
     Database database = realImporter.importDatabase();
-    return writeCacheFile(file, database);
+    database.setSchemaFingerprint(querySchemaFingerprint(fingerprintedSchemas(database), schemaName, fingerprint));
+    writeCacheFile(file, database);
+    writeChangeMarkers(file, queryChangeMarkers(database));
+    return database;
+  }
+
+  // incremental refresh ---------------------------------------------------------------------------------------------
+
+  /** Compares the cached table change markers with the current ones of the database and re-imports the
+   *  tables which have been changed or added since, and removes the ones which have been dropped.
+   *  The cache file is rewritten if the model has changed.
+   *  @return false if the database did not provide change markers or if the schema fingerprint has changed
+   *      without a changed marker, so that the cached model cannot be brought up to date, otherwise true */
+  protected boolean refreshChangedTables(File cacheFile, Database database, Map<String, String> cachedMarkers) {
+    // the fingerprint is queried first, so that concurrent schema changes show up as mismatch on the next import
+    String fingerprint = querySchemaFingerprint(fingerprintedSchemas(database), null, null);
+    Map<String, String> currentMarkers = queryChangeMarkers(database);
+    if (currentMarkers == null) {
+      return false;
+    }
+    boolean modified = false;
+    for (DBCatalog catalog : database.getCatalogs()) {
+      for (DBSchema schema : catalog.getSchemas()) {
+        modified |= refreshChangedTables(schema, cachedMarkers, currentMarkers);
+      }
+    }
+    if (!Objects.equals(fingerprint, database.getSchemaFingerprint())) {
+      if (!modified) {
+        // the markers missed the change, so storing the new fingerprint would make the stale model look valid
+        logger.debug("Schema fingerprint changed without a changed table");
+        return false;
+      }
+      database.setSchemaFingerprint(fingerprint);
+    }
+    if (modified) {
+      // the time to live counts from the last complete import
+      long importTime = cacheFile.lastModified();
+      writeCacheFile(cacheFile, database);
+      if (!cacheFile.setLastModified(importTime)) {
+        logger.debug("Failed to restore the modification time of {}", cacheFile);
+      }
+      writeChangeMarkers(cacheFile, currentMarkers);
+    }
+    return true;
+  }
+
+  private boolean refreshChangedTables(DBSchema schema, Map<String, String> cachedMarkers,
+                                       Map<String, String> currentMarkers) {
+    List<DBTable> changedTables = new ArrayList<>();
+    List<DBTable> droppedTables = new ArrayList<>();
+    for (DBTable table : schema.getTables()) {
+      String key = markerKey(schema, table.getName());
+      if (!currentMarkers.containsKey(key)) {
+        droppedTables.add(table);
+      } else if (!Objects.equals(cachedMarkers.get(key), currentMarkers.get(key))) {
+        changedTables.add(table);
+      }
+    }
+    Set<String> addedTableNames = new HashSet<>();
+    String keyPrefix = markerKey(schema, "");
+    for (String key : currentMarkers.keySet()) {
+      if (key.startsWith(keyPrefix)) {
+        String tableName = key.substring(keyPrefix.length());
+        if (schema.getTable(tableName) == null) {
+          addedTableNames.add(tableName);
+        }
+      }
+    }
+    if (changedTables.isEmpty() && droppedTables.isEmpty() && addedTableNames.isEmpty()) {
+      return false;
+    }
+    logger.info("Refreshing meta data of schema {}: {} changed, {} added and {} dropped tables",
+        schema.getName(), changedTables.size(), addedTableNames.size(), droppedTables.size());
+    // tables which reference a dropped table must have lost their foreign key
+    for (DBTable table : schema.getTables()) {
+      if (!droppedTables.contains(table) && !changedTables.contains(table)
+          && referencesAny(table, droppedTables)) {
+        changedTables.add(table);
+      }
+    }
+    // the referrers of the tables which are referenced by the old or new foreign keys need to be updated
+    Set<DBTable> referees = new LinkedHashSet<>();
+    for (DBTable table : droppedTables) {
+      collectReferees(table, referees);
+      schema.removeTable(table);
+    }
+    for (DBTable table : changedTables) {
+      collectReferees(table, referees);
+      table.discardDetails();
+    }
+    if (!addedTableNames.isEmpty()) {
+      importAddedTables(schema, addedTableNames, changedTables);
+    }
+    for (DBTable table : changedTables) {
+      table.importDetails(realImporter);
+      collectReferees(table, referees);
+    }
+    for (DBTable referee : referees) {
+      if (!changedTables.contains(referee)) {
+        referee.setReferrersImported(false);
+      }
+    }
+    return true;
+  }
+
+  private void importAddedTables(DBSchema schema, Set<String> tableNames, List<DBTable> changedTables) {
+    try {
+      realImporter.importTables(schema, tableNames);
+    } catch (SQLException e) {
+      throw ExceptionFactory.getInstance().dbQueryFailed("Error importing new tables of schema " + schema, e);
+    }
+    for (String tableName : tableNames) {
+      DBTable table = schema.getTable(tableName);
+      if (table != null) {
+        changedTables.add(table);
+      }
+    }
+  }
+
+  /** Checks the foreign keys of a table if they have been imported, without importing them */
+  private static boolean referencesAny(DBTable table, List<DBTable> referees) {
+    if (!table.areFKsImported()) {
+      return false;
+    }
+    for (DBForeignKeyConstraint fk : table.getForeignKeyConstraints()) {
+      if (referees.contains(fk.getRefereeTable())) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static void collectReferees(DBTable table, Set<DBTable> referees) {
+    if (table.areFKsImported()) {
+      for (DBForeignKeyConstraint fk : table.getForeignKeyConstraints()) {
+        referees.add(fk.getRefereeTable());
+      }
+    }
+  }
+
+  private Map<String, String> queryChangeMarkers(Database database) {
+    Map<String, String> markers = new HashMap<>();
+    for (DBCatalog catalog : database.getCatalogs()) {
+      for (DBSchema schema : catalog.getSchemas()) {
+        Map<String, String> schemaMarkers = realImporter.queryTableChangeMarkers(schema);
+        if (schemaMarkers == null) {
+          return null;
+        }
+        for (Map.Entry<String, String> entry : schemaMarkers.entrySet()) {
+          markers.put(markerKey(schema, entry.getKey()), StringUtil.nullToEmpty(entry.getValue()));
+        }
+      }
+    }
+    return markers;
+  }
+
+  private static String markerKey(DBSchema schema, String tableName) {
+    return StringUtil.nullToEmpty(NameUtil.nameOrNull(schema.getCatalog())) + '/'
+        + StringUtil.nullToEmpty(schema.getName()) + '/' + tableName;
+  }
+
+  private static Map<String, String> readChangeMarkers(File cacheFile) {
+    File markerFile = markerFile(cacheFile);
+    return (markerFile.exists() ? IOUtil.readProperties(markerFile.getPath()) : null);
+  }
+
+  private static void writeChangeMarkers(File cacheFile, Map<String, String> markers) {
+    File markerFile = markerFile(cacheFile);
+    if (markers != null) {
+      IOUtil.writeProperties(markers, markerFile.getPath());
+    } else {
+      FileUtil.deleteIfExists(markerFile);
+    }
+  }
+
+  private static File markerFile(File cacheFile) {
+    return new File(cacheFile.getPath() + MARKER_FILE_SUFFIX);
   }
 
   public static Database writeCacheFile(File file, Database database) {
     logger.info("Exporting Database meta data of {} to cache file", database.getName());
     try {
       FileUtil.ensureDirectoryExists(file.getParentFile());
-      new XMLModelExporter(file).export(database);
+      CacheFormat.forFile(file).createExporter(file).export(database);
       logger.debug("Database meta data export completed");
     } catch (Exception e) {
       logger.error("Error writing database meta data file " + ": " + e.getMessage(), e);
@@ -155,11 +461,17 @@ public static Database writeCacheFile(File file, Database database) {
   }
 
   public static File getCacheFile(String url, String user, String catalog, String schema) {
-    return new File(getMetaCacheFolder(), getCacheFileName(url, user, catalog, schema));
+    return getCacheFile(url, user, catalog, schema, CacheFormat.XML);
+  }
+
+  public static File getCacheFile(String url, String user, String catalog, String schema, CacheFormat format) {
+    return new File(getMetaCacheFolder(), getCacheFileName(url, user, catalog, schema, format));
   }
 
   protected File getCacheFile() {
-    File cacheFile = new File(getMetaCacheFolder(), getCacheFileName(url, getRealImporter()));
+    JDBCDBImporter imp = getRealImporter();
+    File cacheFile = new File(getMetaCacheFolder(),
+        getCacheFileName(url, imp.getUser(), imp.getCatalogName(), imp.getSchemaName(), format));
     return FileUtil.getFileIgnoreCase(cacheFile, false);
   }
 
@@ -167,11 +479,11 @@ private static File getMetaCacheFolder() {
     return new File(ConfigUtil.commonCacheFolder(), "db-meta-data");
   }
 
-  private String getCacheFileName(String url, JDBCDBImporter imp) {
-    return getCacheFileName(url, imp.getUser(), imp.getCatalogName(), imp.getSchemaName());
+  static String getCacheFileName(String url, String user, String catalog, String schema) {
+    return getCacheFileName(url, user, catalog, schema, CacheFormat.XML);
   }
 
-  static String getCacheFileName(String url, String user, String catalog, String schema) {
+  static String getCacheFileName(String url, String user, String catalog, String schema, CacheFormat format) {
     Assert.notNull(url, "url");
     String result = normalize(url);
     if (!StringUtil.isEmpty(user)) {
@@ -183,7 +495,7 @@ static String getCacheFileName(String url, String user, String catalog, String s
     if (!StringUtil.isEmpty(schema)) {
       result += "-sch_" + schema;
     }
-    result += CACHE_FILE_SUFFIX;
+    result += format.getFileSuffix();
     return result.toLowerCase();
   }
 
@@ -0,0 +1,393 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl.model.cache;
+
+import com.rapiddweller.common.exception.ExceptionFactory;
+import com.rapiddweller.jdbacl.model.DBMetaDataImporter;
+import com.rapiddweller.jdbacl.model.Database;
+import com.rapiddweller.jdbacl.model.jdbc.JDBCDBImporter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Process-wide registry of imported {@link Database} models, keyed by URL, user, catalog and schema,
+ * so that all components which work on the same schema share one model instead of importing it each.
+ * Concurrent requests for a model which is not yet available wait for a single import.
+ * Models are softly referenced, so the garbage collector may reclaim them under memory pressure,
+ * and the least recently used ones are dropped when the maximum number of entries is exceeded.
+ * The models handed out are shared and must be treated as read-only by their users.
+ * Each model obtained from the registry is held until its user calls {@link #release(Database)}.
+ * Since models load their details lazily, the importer of a model is kept open while the model is
+ * in the registry or held by a user. The importer of an evicted or invalidated model is closed
+ * when its last holder releases it.<br/><br/>
+ * Created: 14.03.2022 10:42:18
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+public class DatabaseModelRegistry {
+
+  private static final Logger logger = LoggerFactory.getLogger(DatabaseModelRegistry.class);
+
+  public static final String MAX_ENTRIES_SYSPROP = "jdbacl.registry.maxentries";
+  public static final int DEFAULT_MAX_ENTRIES = 32;
+
+  private static volatile DatabaseModelRegistry defaultInstance;
+
+  private final int maxEntries;
+  private final LinkedHashMap<Key, Entry> entries;
+  /** the entries of the models which are held by users, guarded by the monitor of {@link #entries} */
+  private final Map<Database, Entry> holders;
+
+  private final AtomicLong hitCount = new AtomicLong();
+  private final AtomicLong missCount = new AtomicLong();
+  private final AtomicLong evictionCount = new AtomicLong();
+  private final AtomicLong collectionCount = new AtomicLong();
+  private final AtomicLong invalidationCount = new AtomicLong();
+
+  // constructor -----------------------------------------------------------------------------------------------------
+
+  /** @param maxEntries the maximum number of models to retain */
+  public DatabaseModelRegistry(int maxEntries) {
+    if (maxEntries <= 0) {
+      throw ExceptionFactory.getInstance().illegalArgument("maxEntries must be positive, but was " + maxEntries);
+    }
+    this.maxEntries = maxEntries;
+    this.holders = new IdentityHashMap<>();
+    this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+        boolean evict = (size() > DatabaseModelRegistry.this.maxEntries);
+        if (evict) {
+          evictionCount.incrementAndGet();
+          eldest.getValue().discard();
+        }
+        return evict;
+      }
+    };
+  }
+
+  /** @return the process-wide registry, whose size is configured by the system property {@value #MAX_ENTRIES_SYSPROP} */
+  public static DatabaseModelRegistry getDefault() {
+    DatabaseModelRegistry result = defaultInstance;
+    if (result == null) {
+      synchronized (DatabaseModelRegistry.class) {
+        result = defaultInstance;
+        if (result == null) {
+          result = new DatabaseModelRegistry(getDefaultMaxEntries());
+          defaultInstance = result;
+        }
+      }
+    }
+    return result;
+  }
+
+  // properties ------------------------------------------------------------------------------------------------------
+
+  public int getMaxEntries() {
+    return maxEntries;
+  }
+
+  // registry operations ---------------------------------------------------------------------------------------------
+
+  /** Provides the model of a database schema, importing it with a {@link CachingDBImporter} if necessary. */
+  public Database getDatabase(String url, String driver, String user, String password, String catalog, String schema) {
+    return getDatabase(new Key(url, user, catalog, schema),
+        () -> new CachingDBImporter(url, new JDBCDBImporter(url, driver, user, password, catalog, schema)));
+  }
+
+  /** Provides the model for a key. If it is not available, it is imported by an importer from the factory,
+   *  which is kept open for loading the model details lazily. Concurrent callers for the same key wait for that import instead of
+   *  starting their own. The caller holds the model until it calls {@link #release(Database)}.
+   *  @param key the identity of the database schema
+   *  @param importerFactory creates the importer, it is only called when the model needs to be imported
+   *  @return the shared model */
+  public Database getDatabase(Key key, Supplier<? extends DBMetaDataImporter> importerFactory) {
+    Entry entry;
+    synchronized (entries) {
+      entry = entries.computeIfAbsent(key, Entry::new);
+    }
+    synchronized (entry) {
+      Database database = entry.get();
+      if (database != null) {
+        hitCount.incrementAndGet();
+        return hold(database, entry);
+      }
+      if (entry.loaded) {
+        collectionCount.incrementAndGet();
+      }
+      missCount.incrementAndGet();
+      logger.debug("Importing shared model for {}", key);
+      DBMetaDataImporter importer = importerFactory.get();
+      try {
+        database = importer.importDatabase();
+      } catch (RuntimeException | Error e) {
+        closeImporter(importer, key);
+        throw e;
+      }
+      entry.set(database, importer);
+      return hold(database, entry);
+    }
+  }
+
+  /** @return the model for the key if it is available, otherwise null. If a model is returned,
+   *  the caller holds it until it calls {@link #release(Database)} */
+  public Database getIfPresent(Key key) {
+    Entry entry;
+    synchronized (entries) {
+      entry = entries.get(key);
+    }
+    Database database = (entry != null ? entry.get() : null);
+    if (database != null) {
+      hitCount.incrementAndGet();
+      hold(database, entry);
+    }
+    return database;
+  }
+
+  /** Tells the registry that the caller does not use a model anymore, which it has obtained from the registry.
+   *  If the model has been evicted or invalidated and this was its last holder, its importer is closed. */
+  public void release(Database database) {
+    synchronized (entries) {
+      Entry entry = holders.get(database);
+      if (entry == null) {
+        throw ExceptionFactory.getInstance().illegalArgument("Model is not held: " + database);
+      }
+      if (entry.release()) {
+        holders.remove(database);
+      }
+    }
+  }
+
+  /** Drops the model for the key, so that the next request imports it anew. Its importer is closed
+   *  when the model is not held anymore. Callers which are waiting for a concurrent import of the model still receive that. */
+  public void invalidate(Key key) {
+    synchronized (entries) {
+      Entry entry = entries.remove(key);
+      if (entry != null) {
+        invalidationCount.incrementAndGet();
+        entry.discard();
+      }
+    }
+  }
+
+  public void invalidate(String url, String user, String catalog, String schema) {
+    invalidate(new Key(url, user, catalog, schema));
+  }
+
+  public void invalidateAll() {
+    synchronized (entries) {
+      List<Entry> removed = new ArrayList<>(entries.values());
+      entries.clear();
+      invalidationCount.addAndGet(removed.size());
+      for (Entry entry : removed) {
+        entry.discard();
+      }
+    }
+  }
+
+  // metrics ---------------------------------------------------------------------------------------------------------
+
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  public long getEvictionCount() {
+    return evictionCount.get();
+  }
+
+  /** @return the number of models which had been reclaimed by the garbage collector when they were requested again */
+  public long getCollectionCount() {
+    return collectionCount.get();
+  }
+
+  public long getInvalidationCount() {
+    return invalidationCount.get();
+  }
+
+  /** @return the ratio of hits to requests or 0 if there has not been a request yet */
+  public double hitRatio() {
+    long hits = hitCount.get();
+    long requests = hits + missCount.get();
+    return (requests > 0 ? (double) hits / requests : 0.);
+  }
+
+  public void resetMetrics() {
+    hitCount.set(0);
+    missCount.set(0);
+    evictionCount.set(0);
+    collectionCount.set(0);
+    invalidationCount.set(0);
+  }
+
+  // java.lang.Object overrides --------------------------------------------------------------------------------------
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "[size=" + size() + ", hits=" + hitCount + ", misses=" + missCount +
+        ", evictions=" + evictionCount + ", collections=" + collectionCount + ", invalidations=" + invalidationCount + "]";
+  }
+
+  // private helpers -------------------------------------------------------------------------------------------------
+
+  private Database hold(Database database, Entry entry) {
+    synchronized (entries) {
+      holders.put(database, entry);
+      entry.holderCount++;
+    }
+    return database;
+  }
+
+  static void closeImporter(DBMetaDataImporter importer, Key key) {
+    if (importer != null) {
+      try {
+        importer.close();
+      } catch (IOException e) {
+        logger.error("Error closing meta data importer for {}", key, e);
+      }
+    }
+  }
+
+  private static int getDefaultMaxEntries() {
+    String setting = System.getProperty(MAX_ENTRIES_SYSPROP);
+    return (setting != null ? Integer.parseInt(setting.trim()) : DEFAULT_MAX_ENTRIES);
+  }
+
+  // helper classes --------------------------------------------------------------------------------------------------
+
+  /** Identifies a database schema by URL, user, catalog and schema. */
+  public static final class Key {
+
+    final String url;
+    final String user;
+    final String catalog;
+    final String schema;
+
+    public Key(String url, String user, String catalog, String schema) {
+      this.url = url;
+      this.user = user;
+      this.catalog = catalog;
+      this.schema = schema;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key that = (Key) o;
+      return Objects.equals(this.url, that.url) && Objects.equals(this.user, that.user)
+          && Objects.equals(this.catalog, that.catalog) && Objects.equals(this.schema, that.schema);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(url, user, catalog, schema);
+    }
+
+    @Override
+    public String toString() {
+      return user + '@' + url + (catalog != null ? " " + catalog : "") + (schema != null ? "." + schema : "");
+    }
+  }
+
+  /** Holds a softly referenced model and the importer which loads its details.
+   *  Its monitor serializes the imports for one key. The holder count and the discarded flag
+   *  are guarded by the monitor of the registry's entries. A model cannot be reclaimed while it is held,
+   *  so the count always refers to the current model. */
+  private static final class Entry {
+
+    private final Key key;
+    private volatile SoftReference<Database> ref;
+    private final AtomicReference<DBMetaDataImporter> importer;
+    private boolean discarded;
+    int holderCount;
+    boolean loaded;
+
+    Entry(Key key) {
+      this.key = key;
+      this.importer = new AtomicReference<>();
+    }
+
+    Database get() {
+      return (ref != null ? ref.get() : null);
+    }
+
+    void set(Database database, DBMetaDataImporter importer) {
+      this.ref = new SoftReference<>(database);
+      this.loaded = true;
+      // the importer of a reclaimed model is not needed anymore
+      closeImporter(this.importer.getAndSet(importer), key);
+    }
+
+    /** Called when the entry has been removed from the registry. The importer is closed
+     *  if the model is not held, otherwise when its last holder releases it. The importer of a running import
+     *  is closed when the caller which is waiting for it releases the model. */
+    void discard() {
+      this.discarded = true;
+      if (holderCount == 0) {
+        closeImporter(importer.getAndSet(null), key);
+      }
+    }
+
+    /** @return true if the model is not held anymore */
+    boolean release() {
+      if (--holderCount > 0) {
+        return false;
+      }
+      if (discarded) {
+        closeImporter(importer.getAndSet(null), key);
+      }
+      return true;
+    }
+  }
+
+}
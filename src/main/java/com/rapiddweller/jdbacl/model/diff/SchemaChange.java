@@ -0,0 +1,95 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl.model.diff;
+
+import com.rapiddweller.jdbacl.model.DBObject;
+import com.rapiddweller.jdbacl.model.DBTable;
+
+/**
+ * Describes a single difference between two database models. For added objects, only the new object is set,
+ * for dropped objects only the old one, for altered objects both.<br/><br/>
+ * Created: 24.03.2022 10:05:52
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+public class SchemaChange {
+
+  private final ChangeType type;
+  private final ObjectKind kind;
+  private final DBTable table;
+  private final DBObject oldObject;
+  private final DBObject newObject;
+
+  public SchemaChange(ChangeType type, ObjectKind kind, DBTable table, DBObject oldObject, DBObject newObject) {
+    this.type = type;
+    this.kind = kind;
+    this.table = table;
+    this.oldObject = oldObject;
+    this.newObject = newObject;
+  }
+
+  public ChangeType getType() {
+    return type;
+  }
+
+  public ObjectKind getKind() {
+    return kind;
+  }
+
+  /** @return the table of the new model which owns the changed component, or the table of the old model if it was dropped.
+   *  For tables and sequences the result is null */
+  public DBTable getTable() {
+    return table;
+  }
+
+  public String getTableName() {
+    return (table != null ? table.getName() : null);
+  }
+
+  public DBObject getOldObject() {
+    return oldObject;
+  }
+
+  public DBObject getNewObject() {
+    return newObject;
+  }
+
+  /** @return the new object if it exists, otherwise the old one */
+  public DBObject getObject() {
+    return (newObject != null ? newObject : oldObject);
+  }
+
+  @Override
+  public String toString() {
+    StringBuilder builder = new StringBuilder().append(type).append(' ').append(kind).append(' ');
+    if (table != null) {
+      builder.append(table.getName()).append('.');
+    }
+    return builder.append(getObject().getName()).toString();
+  }
+
+}
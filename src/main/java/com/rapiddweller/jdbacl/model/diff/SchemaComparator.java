@@ -0,0 +1,392 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl.model.diff;
+
+import com.rapiddweller.common.exception.ExceptionFactory;
+import com.rapiddweller.jdbacl.model.DBCatalog;
+import com.rapiddweller.jdbacl.model.DBObject;
+import com.rapiddweller.jdbacl.model.DBPrimaryKeyConstraint;
+import com.rapiddweller.jdbacl.model.DBSchema;
+import com.rapiddweller.jdbacl.model.DBSequence;
+import com.rapiddweller.jdbacl.model.DBTable;
+import com.rapiddweller.jdbacl.model.Database;
+import com.rapiddweller.jdbacl.model.ModelFingerprint;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares two database models and reports their differences as {@link SchemaDiff}.
+ * Schemas, tables, columns and sequences are matched by name, ignoring case.
+ * Tables of equal {@link ModelFingerprint} are skipped without inspecting their components,
+ * constraints and indexes are matched by fingerprint first and by name only if their structure differs.
+ * The tables of large schemas are compared in parallel, the result order does not depend on the thread count.<br/><br/>
+ * Created: 24.03.2022 10:14:09
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+public class SchemaComparator {
+
+  private static final int MIN_TABLES_PER_TASK = 16;
+
+  private static final AtomicInteger threadCounter = new AtomicInteger();
+
+  private final int threadCount;
+
+  public SchemaComparator() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  public SchemaComparator(int threadCount) {
+    if (threadCount < 1) {
+      throw ExceptionFactory.getInstance().illegalArgument("Thread count must be positive, but was " + threadCount);
+    }
+    this.threadCount = threadCount;
+  }
+
+  public int getThreadCount() {
+    return threadCount;
+  }
+
+  // interface -------------------------------------------------------------------------------------------------------
+
+  public SchemaDiff compare(Database oldDatabase, Database newDatabase) {
+    List<DBSchema> oldSchemas = schemas(oldDatabase);
+    List<DBSchema> newSchemas = schemas(newDatabase);
+    Map<DBSchema, DBSchema> matches = matchSchemas(oldSchemas, newSchemas);
+    List<SchemaChange> changes = new ArrayList<>();
+    List<DBTable[]> tablePairs = new ArrayList<>();
+    for (DBSchema oldSchema : oldSchemas) {
+      DBSchema newSchema = matches.get(oldSchema);
+      if (newSchema != null) {
+        compareSchemas(oldSchema, newSchema, changes, tablePairs);
+      } else {
+        addAll(ChangeType.DROPPED, oldSchema, changes);
+      }
+    }
+    for (DBSchema newSchema : newSchemas) {
+      if (!matches.containsValue(newSchema)) {
+        addAll(ChangeType.ADDED, newSchema, changes);
+      }
+    }
+    changes.addAll(compareTables(tablePairs));
+    return new SchemaDiff(changes);
+  }
+
+  public SchemaDiff compare(DBSchema oldSchema, DBSchema newSchema) {
+    List<SchemaChange> changes = new ArrayList<>();
+    List<DBTable[]> tablePairs = new ArrayList<>();
+    compareSchemas(oldSchema, newSchema, changes, tablePairs);
+    changes.addAll(compareTables(tablePairs));
+    return new SchemaDiff(changes);
+  }
+
+  public List<SchemaChange> compare(DBTable oldTable, DBTable newTable) {
+    List<SchemaChange> changes = new ArrayList<>();
+    compareTables(oldTable, newTable, changes);
+    return changes;
+  }
+
+  // schema comparison -----------------------------------------------------------------------------------------------
+
+  private static List<DBSchema> schemas(Database database) {
+    List<DBSchema> result = new ArrayList<>();
+    for (DBCatalog catalog : database.getCatalogs()) {
+      result.addAll(catalog.getSchemas());
+    }
+    return result;
+  }
+
+  /** Matches schemas of equal catalog and schema name. Of the remaining ones, schemas are matched by their name
+   *  if it is unique on both sides, since the catalog name may be the name of the database.
+   *  @return the matching new schema of each matched old schema, compared by identity */
+  private static Map<DBSchema, DBSchema> matchSchemas(List<DBSchema> oldSchemas, List<DBSchema> newSchemas) {
+    Map<String, DBSchema> newByQualifiedName = new HashMap<>();
+    for (DBSchema newSchema : newSchemas) {
+      newByQualifiedName.putIfAbsent(qualifiedKey(newSchema), newSchema);
+    }
+    Map<DBSchema, DBSchema> result = new IdentityHashMap<>();
+    List<DBSchema> unmatchedOld = new ArrayList<>();
+    for (DBSchema oldSchema : oldSchemas) {
+      DBSchema newSchema = newByQualifiedName.remove(qualifiedKey(oldSchema));
+      if (newSchema != null) {
+        result.put(oldSchema, newSchema);
+      } else {
+        unmatchedOld.add(oldSchema);
+      }
+    }
+    Map<String, List<DBSchema>> unmatchedNewByName = new HashMap<>();
+    for (DBSchema newSchema : newByQualifiedName.values()) {
+      unmatchedNewByName.computeIfAbsent(key(newSchema.getName()), k -> new ArrayList<>()).add(newSchema);
+    }
+    Map<String, List<DBSchema>> unmatchedOldByName = new HashMap<>();
+    for (DBSchema oldSchema : unmatchedOld) {
+      unmatchedOldByName.computeIfAbsent(key(oldSchema.getName()), k -> new ArrayList<>()).add(oldSchema);
+    }
+    for (Map.Entry<String, List<DBSchema>> entry : unmatchedOldByName.entrySet()) {
+      List<DBSchema> candidates = unmatchedNewByName.get(entry.getKey());
+      if (entry.getValue().size() == 1 && candidates != null && candidates.size() == 1) {
+        result.put(entry.getValue().get(0), candidates.get(0));
+      }
+    }
+    return result;
+  }
+
+  private static void compareSchemas(DBSchema oldSchema, DBSchema newSchema,
+                                     List<SchemaChange> changes, List<DBTable[]> tablePairs) {
+    // tables
+    List<DBTable> newTables = newSchema.getTables();
+    Map<String, DBTable> newTablesByName = byName(newTables);
+    Map<String, DBTable> oldTablesByName = new HashMap<>();
+    for (DBTable oldTable : oldSchema.getTables()) {
+      oldTablesByName.put(key(oldTable.getName()), oldTable);
+      DBTable newTable = newTablesByName.get(key(oldTable.getName()));
+      if (newTable != null) {
+        tablePairs.add(new DBTable[] {oldTable, newTable});
+      } else {
+        changes.add(new SchemaChange(ChangeType.DROPPED, ObjectKind.TABLE, null, oldTable, null));
+      }
+    }
+    for (DBTable newTable : newTables) {
+      if (!oldTablesByName.containsKey(key(newTable.getName()))) {
+        changes.add(new SchemaChange(ChangeType.ADDED, ObjectKind.TABLE, null, null, newTable));
+      }
+    }
+    // sequences
+    List<DBSequence> newSequences = newSchema.getSequences(false);
+    Map<String, DBSequence> newSequencesByName = byName(newSequences);
+    Map<String, DBSequence> oldSequencesByName = new HashMap<>();
+    for (DBSequence oldSequence : oldSchema.getSequences(false)) {
+      oldSequencesByName.put(key(oldSequence.getName()), oldSequence);
+      DBSequence newSequence = newSequencesByName.get(key(oldSequence.getName()));
+      if (newSequence == null) {
+        changes.add(new SchemaChange(ChangeType.DROPPED, ObjectKind.SEQUENCE, null, oldSequence, null));
+      } else if (ModelFingerprint.of(oldSequence) != ModelFingerprint.of(newSequence)) {
+        changes.add(new SchemaChange(ChangeType.ALTERED, ObjectKind.SEQUENCE, null, oldSequence, newSequence));
+      }
+    }
+    for (DBSequence newSequence : newSequences) {
+      if (!oldSequencesByName.containsKey(key(newSequence.getName()))) {
+        changes.add(new SchemaChange(ChangeType.ADDED, ObjectKind.SEQUENCE, null, null, newSequence));
+      }
+    }
+  }
+
+  private static void addAll(ChangeType type, DBSchema schema, List<SchemaChange> changes) {
+    for (DBTable table : schema.getTables()) {
+      changes.add(change(type, ObjectKind.TABLE, null, table));
+    }
+    for (DBSequence sequence : schema.getSequences(false)) {
+      changes.add(change(type, ObjectKind.SEQUENCE, null, sequence));
+    }
+  }
+
+  // table comparison ------------------------------------------------------------------------------------------------
+
+  private List<SchemaChange> compareTables(List<DBTable[]> tablePairs) {
+    int taskCount = Math.min(threadCount, (tablePairs.size() + MIN_TABLES_PER_TASK - 1) / MIN_TABLES_PER_TASK);
+    if (taskCount <= 1) {
+      return compareTableRange(tablePairs);
+    }
+    List<Callable<List<SchemaChange>>> tasks = new ArrayList<>(taskCount);
+    int chunkSize = (tablePairs.size() + taskCount - 1) / taskCount;
+    for (int start = 0; start < tablePairs.size(); start += chunkSize) {
+      List<DBTable[]> chunk = tablePairs.subList(start, Math.min(start + chunkSize, tablePairs.size()));
+      tasks.add(() -> compareTableRange(chunk));
+    }
+    ExecutorService threadPool = Executors.newFixedThreadPool(tasks.size(), runnable -> {
+      Thread thread = new Thread(runnable, "SchemaComparator-" + threadCounter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    try {
+      List<SchemaChange> result = new ArrayList<>();
+      for (Future<List<SchemaChange>> future : threadPool.invokeAll(tasks)) {
+        result.addAll(awaitTask(future));
+      }
+      return result;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw ExceptionFactory.getInstance().operationCancelled("Schema comparison was interrupted");
+    } finally {
+      threadPool.shutdownNow();
+    }
+  }
+
+  private static List<SchemaChange> compareTableRange(List<DBTable[]> tablePairs) {
+    List<SchemaChange> changes = new ArrayList<>();
+    for (DBTable[] pair : tablePairs) {
+      compareTables(pair[0], pair[1], changes);
+    }
+    return changes;
+  }
+
+  private static void compareTables(DBTable oldTable, DBTable newTable, List<SchemaChange> changes) {
+    if (ModelFingerprint.of(oldTable) == ModelFingerprint.of(newTable)) {
+      return;
+    }
+    compareByName(oldTable.getColumns(), newTable.getColumns(), ObjectKind.COLUMN, oldTable, newTable, changes);
+    comparePrimaryKeys(oldTable, newTable, changes);
+    compareByFingerprint(oldTable.getUniqueConstraints(false), newTable.getUniqueConstraints(false),
+        ObjectKind.UNIQUE_CONSTRAINT, oldTable, newTable, changes);
+    compareByFingerprint(oldTable.getForeignKeyConstraints(), newTable.getForeignKeyConstraints(),
+        ObjectKind.FOREIGN_KEY, oldTable, newTable, changes);
+    compareByFingerprint(oldTable.getIndexes(), newTable.getIndexes(),
+        ObjectKind.INDEX, oldTable, newTable, changes);
+    compareByFingerprint(oldTable.getCheckConstraints(), newTable.getCheckConstraints(),
+        ObjectKind.CHECK_CONSTRAINT, oldTable, newTable, changes);
+  }
+
+  private static void comparePrimaryKeys(DBTable oldTable, DBTable newTable, List<SchemaChange> changes) {
+    DBPrimaryKeyConstraint oldPK = oldTable.getPrimaryKeyConstraint();
+    DBPrimaryKeyConstraint newPK = newTable.getPrimaryKeyConstraint();
+    if (oldPK == null && newPK != null) {
+      changes.add(change(ChangeType.ADDED, ObjectKind.PRIMARY_KEY, newTable, newPK));
+    } else if (oldPK != null && newPK == null) {
+      changes.add(change(ChangeType.DROPPED, ObjectKind.PRIMARY_KEY, oldTable, oldPK));
+    } else if (oldPK != null && ModelFingerprint.of(oldPK) != ModelFingerprint.of(newPK)) {
+      changes.add(new SchemaChange(ChangeType.ALTERED, ObjectKind.PRIMARY_KEY, newTable, oldPK, newPK));
+    }
+  }
+
+  private static void compareByName(Collection<? extends DBObject> oldObjects, Collection<? extends DBObject> newObjects,
+                                    ObjectKind kind, DBTable oldTable, DBTable newTable, List<SchemaChange> changes) {
+    Map<String, ? extends DBObject> oldByName = byName(oldObjects);
+    Map<String, ? extends DBObject> newByName = byName(newObjects);
+    for (DBObject oldObject : oldObjects) {
+      DBObject newObject = newByName.get(key(oldObject.getName()));
+      if (newObject == null) {
+        changes.add(change(ChangeType.DROPPED, kind, oldTable, oldObject));
+      } else if (ModelFingerprint.of(oldObject) != ModelFingerprint.of(newObject)) {
+        changes.add(new SchemaChange(ChangeType.ALTERED, kind, newTable, oldObject, newObject));
+      }
+    }
+    for (DBObject newObject : newObjects) {
+      if (!oldByName.containsKey(key(newObject.getName()))) {
+        changes.add(change(ChangeType.ADDED, kind, newTable, newObject));
+      }
+    }
+  }
+
+  /** Matches objects of equal structure first. Of the remaining ones, objects of equal name are reported as altered,
+   *  the others as added or dropped. */
+  private static void compareByFingerprint(
+      Collection<? extends DBObject> oldObjects, Collection<? extends DBObject> newObjects,
+      ObjectKind kind, DBTable oldTable, DBTable newTable, List<SchemaChange> changes) {
+    Map<Long, Deque<DBObject>> unmatchedOld = new LinkedHashMap<>();
+    for (DBObject oldObject : oldObjects) {
+      unmatchedOld.computeIfAbsent(ModelFingerprint.of(oldObject), k -> new ArrayDeque<>()).add(oldObject);
+    }
+    List<DBObject> unmatchedNew = new ArrayList<>();
+    for (DBObject newObject : newObjects) {
+      Deque<DBObject> candidates = unmatchedOld.get(ModelFingerprint.of(newObject));
+      if (candidates != null && !candidates.isEmpty()) {
+        candidates.poll();
+      } else {
+        unmatchedNew.add(newObject);
+      }
+    }
+    Map<String, DBObject> remainingOldByName = new HashMap<>();
+    List<DBObject> remainingOld = new ArrayList<>();
+    for (Deque<DBObject> candidates : unmatchedOld.values()) {
+      for (DBObject oldObject : candidates) {
+        remainingOld.add(oldObject);
+        if (oldObject.getName() != null) {
+          remainingOldByName.putIfAbsent(key(oldObject.getName()), oldObject);
+        }
+      }
+    }
+    for (DBObject newObject : unmatchedNew) {
+      DBObject oldObject = (newObject.getName() != null ? remainingOldByName.remove(key(newObject.getName())) : null);
+      if (oldObject != null) {
+        remainingOld.remove(oldObject);
+        changes.add(new SchemaChange(ChangeType.ALTERED, kind, newTable, oldObject, newObject));
+      } else {
+        changes.add(change(ChangeType.ADDED, kind, newTable, newObject));
+      }
+    }
+    for (DBObject oldObject : remainingOld) {
+      changes.add(change(ChangeType.DROPPED, kind, oldTable, oldObject));
+    }
+  }
+
+  // private helpers -------------------------------------------------------------------------------------------------
+
+  private static SchemaChange change(ChangeType type, ObjectKind kind, DBTable table, DBObject object) {
+    if (type == ChangeType.ADDED) {
+      return new SchemaChange(type, kind, table, null, object);
+    } else {
+      return new SchemaChange(type, kind, table, object, null);
+    }
+  }
+
+  private static <T extends DBObject> Map<String, T> byName(Collection<T> objects) {
+    Map<String, T> result = new HashMap<>(objects.size() * 2);
+    for (T object : objects) {
+      result.putIfAbsent(key(object.getName()), object);
+    }
+    return result;
+  }
+
+  private static String qualifiedKey(DBSchema schema) {
+    DBCatalog catalog = schema.getCatalog();
+    return key(catalog != null ? catalog.getName() : null) + '.' + key(schema.getName());
+  }
+
+  private static String key(String name) {
+    return (name != null ? name.toLowerCase(Locale.ROOT) : "");
+  }
+
+  private static List<SchemaChange> awaitTask(Future<List<SchemaChange>> future) throws InterruptedException {
+    try {
+      return future.get();
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw ExceptionFactory.getInstance().operationFailed("Schema comparison failed", cause);
+    }
+  }
+
+}
@@ -0,0 +1,275 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl.model.diff;
+
+import com.rapiddweller.jdbacl.DatabaseDialect;
+import com.rapiddweller.jdbacl.NameSpec;
+import com.rapiddweller.jdbacl.SQLUtil;
+import com.rapiddweller.jdbacl.model.DBColumn;
+import com.rapiddweller.jdbacl.model.DBConstraint;
+import com.rapiddweller.jdbacl.model.DBForeignKeyConstraint;
+import com.rapiddweller.jdbacl.model.DBIndex;
+import com.rapiddweller.jdbacl.model.DBObject;
+import com.rapiddweller.jdbacl.model.DBPrimaryKeyConstraint;
+import com.rapiddweller.jdbacl.model.DBSequence;
+import com.rapiddweller.jdbacl.model.DBTable;
+
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Result of a {@link SchemaComparator} run: the list of changes which turn the old model into the new one.<br/><br/>
+ * Created: 24.03.2022 10:47:35
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+public class SchemaDiff {
+
+  private final List<SchemaChange> changes;
+
+  public SchemaDiff(List<SchemaChange> changes) {
+    this.changes = Collections.unmodifiableList(changes);
+  }
+
+  public List<SchemaChange> getChanges() {
+    return changes;
+  }
+
+  public List<SchemaChange> getChanges(ChangeType type) {
+    List<SchemaChange> result = new ArrayList<>();
+    for (SchemaChange change : changes) {
+      if (change.getType() == type) {
+        result.add(change);
+      }
+    }
+    return result;
+  }
+
+  public List<SchemaChange> getChanges(ObjectKind kind) {
+    List<SchemaChange> result = new ArrayList<>();
+    for (SchemaChange change : changes) {
+      if (change.getKind() == kind) {
+        result.add(change);
+      }
+    }
+    return result;
+  }
+
+  public boolean isEmpty() {
+    return changes.isEmpty();
+  }
+
+  public int size() {
+    return changes.size();
+  }
+
+  // DDL rendering ---------------------------------------------------------------------------------------------------
+
+  /** Renders DDL statements which migrate the old model to the new one. Objects are dropped before they are
+   *  recreated and foreign keys are added after all tables and keys exist. Column modifications are rendered
+   *  as comments, since there is no portable syntax for them. Sequence modifications are rendered as comment
+   *  followed by an ALTER SEQUENCE statement for the settings which can be altered, so the sequence keeps its value.
+   *  Unique indexes which back a primary key or unique constraint of the diff are not rendered, since the database
+   *  drops and creates them together with their constraint.
+   *  @param dialect the dialect used for quoting and qualifying names and for rendering sequence statements
+   *  @param nameSpec tells if constraint names are rendered
+   *  @param out the writer to which the statements are printed */
+  public void renderDDL(DatabaseDialect dialect, NameSpec nameSpec, PrintWriter out) {
+    // drop foreign keys and indexes first, since they may depend on other objects to be dropped
+    for (SchemaChange change : changes) {
+      if (change.getKind() == ObjectKind.FOREIGN_KEY && change.getOldObject() != null) {
+        renderDropConstraint((DBConstraint) change.getOldObject(), change.getTable(), dialect, out);
+      }
+    }
+    for (SchemaChange change : changes) {
+      if (change.getKind() == ObjectKind.INDEX && change.getOldObject() != null
+          && !backsKeyConstraint((DBIndex) change.getOldObject(), false)) {
+        printStatement("DROP INDEX " + renderIndexName((DBIndex) change.getOldObject(), dialect), out);
+      }
+    }
+    for (SchemaChange change : changes) {
+      if (isConstraintKind(change.getKind()) && change.getKind() != ObjectKind.FOREIGN_KEY
+          && change.getOldObject() != null) {
+        renderDropConstraint((DBConstraint) change.getOldObject(), change.getTable(), dialect, out);
+      }
+    }
+    // columns, tables and sequences
+    for (SchemaChange change : changes) {
+      if (change.getKind() == ObjectKind.COLUMN && change.getType() == ChangeType.DROPPED) {
+        printStatement("ALTER TABLE " + SQLUtil.renderTableName(change.getTable(), dialect) + " DROP COLUMN "
+            + SQLUtil.renderName(change.getOldObject().getName(), dialect), out);
+      }
+    }
+    for (SchemaChange change : changes) {
+      if (change.getKind() == ObjectKind.TABLE && change.getType() == ChangeType.DROPPED) {
+        printStatement("DROP TABLE " + SQLUtil.renderTableName((DBTable) change.getOldObject(), dialect), out);
+      }
+    }
+    for (SchemaChange change : changes) {
+      if (change.getKind() == ObjectKind.TABLE && change.getType() == ChangeType.ADDED) {
+        SQLUtil.renderCreateTable((DBTable) change.getNewObject(), false, nameSpec, dialect, out);
+        out.println(";");
+      }
+    }
+    for (SchemaChange change : changes) {
+      if (change.getKind() == ObjectKind.COLUMN) {
+        renderColumnChange(change, dialect, out);
+      }
+    }
+    for (SchemaChange change : changes) {
+      if (change.getKind() == ObjectKind.SEQUENCE) {
+        renderSequenceChange(change, dialect, out);
+      }
+    }
+    // new keys, checks and indexes
+    for (SchemaChange change : changes) {
+      if (isConstraintKind(change.getKind()) && change.getKind() != ObjectKind.FOREIGN_KEY
+          && change.getNewObject() != null) {
+        printStatement("ALTER TABLE " + SQLUtil.renderTableName(change.getTable(), dialect) + " ADD "
+            + SQLUtil.constraintSpec((DBConstraint) change.getNewObject(), nameSpec, dialect), out);
+      }
+    }
+    for (SchemaChange change : changes) {
+      if (change.getKind() == ObjectKind.INDEX && change.getNewObject() != null
+          && !backsKeyConstraint((DBIndex) change.getNewObject(), true)) {
+        renderCreateIndex((DBIndex) change.getNewObject(), dialect, out);
+      }
+    }
+    // foreign keys of new tables and changed foreign keys
+    for (SchemaChange change : changes) {
+      if (change.getKind() == ObjectKind.TABLE && change.getType() == ChangeType.ADDED) {
+        for (DBForeignKeyConstraint fk : ((DBTable) change.getNewObject()).getForeignKeyConstraints()) {
+          SQLUtil.renderAddForeignKey(fk, nameSpec, dialect, out);
+          out.println(";");
+        }
+      } else if (change.getKind() == ObjectKind.FOREIGN_KEY && change.getNewObject() != null) {
+        SQLUtil.renderAddForeignKey((DBForeignKeyConstraint) change.getNewObject(), nameSpec, dialect, out);
+        out.println(";");
+      }
+    }
+    out.flush();
+  }
+
+  // java.lang.Object overrides --------------------------------------------------------------------------------------
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + changes;
+  }
+
+  // private helpers -------------------------------------------------------------------------------------------------
+
+  private static boolean isConstraintKind(ObjectKind kind) {
+    return (kind == ObjectKind.PRIMARY_KEY || kind == ObjectKind.UNIQUE_CONSTRAINT
+        || kind == ObjectKind.FOREIGN_KEY || kind == ObjectKind.CHECK_CONSTRAINT);
+  }
+
+  /** Tells if the index is a unique index on the columns of a primary key or unique constraint
+   *  which is added (or dropped) in this diff */
+  private boolean backsKeyConstraint(DBIndex index, boolean added) {
+    if (!index.isUnique()) {
+      return false;
+    }
+    for (SchemaChange change : changes) {
+      if (change.getKind() == ObjectKind.PRIMARY_KEY || change.getKind() == ObjectKind.UNIQUE_CONSTRAINT) {
+        DBConstraint constraint = (DBConstraint) (added ? change.getNewObject() : change.getOldObject());
+        if (constraint != null && constraint.getTable().getName().equalsIgnoreCase(index.getTable().getName())
+            && Arrays.equals(constraint.getColumnNames(), index.getColumnNames())) {
+          return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  private static void renderDropConstraint(DBConstraint constraint, DBTable table, DatabaseDialect dialect,
+                                           PrintWriter out) {
+    String tableName = SQLUtil.renderTableName(table, dialect);
+    if (constraint.getName() != null) {
+      printStatement("ALTER TABLE " + tableName + " DROP CONSTRAINT "
+          + SQLUtil.renderName(constraint.getName(), dialect), out);
+    } else if (constraint instanceof DBPrimaryKeyConstraint) {
+      printStatement("ALTER TABLE " + tableName + " DROP PRIMARY KEY", out);
+    } else {
+      out.println("-- unnamed constraint of table " + tableName + " must be dropped manually: "
+          + SQLUtil.constraintSpec(constraint, NameSpec.NEVER, dialect));
+    }
+  }
+
+  private static void renderColumnChange(SchemaChange change, DatabaseDialect dialect, PrintWriter out) {
+    if (change.getType() == ChangeType.ADDED) {
+      printStatement("ALTER TABLE " + SQLUtil.renderTableName(change.getTable(), dialect) + " ADD "
+          + SQLUtil.renderColumn((DBColumn) change.getNewObject(), dialect), out);
+    } else if (change.getType() == ChangeType.ALTERED) {
+      out.println("-- column " + change.getTableName() + "." + change.getNewObject().getName() + " changed from '"
+          + SQLUtil.renderColumn((DBColumn) change.getOldObject()) + "' to '"
+          + SQLUtil.renderColumn((DBColumn) change.getNewObject()) + "'");
+    }
+  }
+
+  private static void renderSequenceChange(SchemaChange change, DatabaseDialect dialect, PrintWriter out) {
+    DBObject oldSequence = change.getOldObject();
+    DBObject newSequence = change.getNewObject();
+    if (change.getType() == ChangeType.ALTERED) {
+      out.println("-- sequence " + newSequence.getName() + " changed from '"
+          + dialect.renderCreateSequence((DBSequence) oldSequence) + "' to '"
+          + dialect.renderCreateSequence((DBSequence) newSequence) + "'");
+      String alteration = dialect.renderAlterSequence((DBSequence) oldSequence, (DBSequence) newSequence);
+      if (alteration != null) {
+        printStatement(alteration, out);
+      }
+    } else if (oldSequence != null) {
+      printStatement(dialect.renderDropSequence(oldSequence.getName()), out);
+    } else {
+      printStatement(dialect.renderCreateSequence((DBSequence) newSequence), out);
+    }
+  }
+
+  private static void renderCreateIndex(DBIndex index, DatabaseDialect dialect, PrintWriter out) {
+    printStatement("CREATE " + (index.isUnique() ? "UNIQUE " : "") + "INDEX "
+        + SQLUtil.renderName(index.getName(), dialect) + " ON " + SQLUtil.renderTableName(index.getTable(), dialect)
+        + " " + SQLUtil.renderColumnNames(index.getColumnNames(), dialect), out);
+  }
+
+  /** An index lives in the schema of its table, so a DROP INDEX statement qualifies it with the schema name */
+  private static String renderIndexName(DBIndex index, DatabaseDialect dialect) {
+    String indexName = SQLUtil.renderName(index.getName(), dialect);
+    if (dialect == null || index.getTable().getSchema() == null) {
+      return indexName;
+    }
+    return SQLUtil.renderName(index.getTable().getSchema().getName(), dialect) + '.' + indexName;
+  }
+
+  private static void printStatement(String statement, PrintWriter out) {
+    out.print(statement);
+    out.println(";");
+  }
+
+}
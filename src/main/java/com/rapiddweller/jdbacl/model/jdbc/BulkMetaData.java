@@ -0,0 +1,108 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl.model.jdbc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+/**
+ * Buffers one kind of meta data (e.g. the columns) of a complete schema, which has been fetched
+ * with a single query, grouped by table. Each table takes its entries when it requests them,
+ * so the data of tables which are never accessed is not turned into model objects.
+ * Only tables which were known when the data was fetched can rely on it; a table which has been
+ * added to the model later is missing in the data without being free of the entries.<br/><br/>
+ * Created: 20.03.2022 10:12:44
+ * @param <R> the receiver type to which the entries are passed
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+final class BulkMetaData<R> {
+
+  private final boolean available;
+  private final Set<String> knownTables;
+  private final Map<String, List<Consumer<R>>> entriesByTable;
+  private final Set<String> deliveredTables;
+
+  /** @param knownTables the names of the tables in the model when the data is fetched */
+  BulkMetaData(Set<String> knownTables) {
+    this(true, knownTables);
+  }
+
+  private BulkMetaData(boolean available, Set<String> knownTables) {
+    this.available = available;
+    this.knownTables = knownTables;
+    this.entriesByTable = new HashMap<>();
+    this.deliveredTables = new HashSet<>();
+  }
+
+  /** @return an instance which signals that the meta data could not be fetched in bulk */
+  static <R> BulkMetaData<R> unavailable() {
+    return new BulkMetaData<>(false, Collections.emptySet());
+  }
+
+  boolean isAvailable() {
+    return available;
+  }
+
+  void add(String tableName, Consumer<R> entry) {
+    entriesByTable.computeIfAbsent(tableName, k -> new ArrayList<>()).add(entry);
+  }
+
+  /** Passes the entries of a table to a receiver.
+   *  @param tableName the name of the table
+   *  @param receiver the receiver of the entries
+   *  @param entriesExpected true if the table must have at least one entry, for example a column
+   *  @return false if the table needs to be imported individually, since bulk data is not available,
+   *      the table was not known when the data was fetched, expected entries are missing
+   *      or the entries have already been delivered before */
+  boolean deliver(String tableName, R receiver, boolean entriesExpected) {
+    List<Consumer<R>> entries;
+    synchronized (this) { // parallel importers share the data
+      if (!available || !knownTables.contains(tableName) || deliveredTables.contains(tableName)) {
+        return false;
+      }
+      entries = entriesByTable.remove(tableName);
+      if (entries == null && entriesExpected) {
+        return false;
+      }
+      deliveredTables.add(tableName);
+    }
+    if (entries != null) {
+      for (Consumer<R> entry : entries) {
+        entry.accept(receiver);
+      }
+    }
+    return true;
+  }
+
+}
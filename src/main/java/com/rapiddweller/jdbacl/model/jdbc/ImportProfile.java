@@ -0,0 +1,355 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl.model.jdbc;
+
+import com.rapiddweller.jdbacl.model.DBTable;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the durations, driver round trips, result set rows and allocated bytes of the phases of a
+ * meta data import, in total per phase and per table. A round trip is a call to {@link java.sql.DatabaseMetaData}
+ * or a data dictionary query. The allocated bytes are measured for the importing thread, if the JVM supports it,
+ * and are an upper estimate of the size of the model built, since they include the driver's allocations.
+ * Phases may be nested, a phase's duration includes the ones of its nested phases.
+ * The duration and allocated bytes of a phase which fetches the data of several tables at once
+ * are apportioned to the tables by their shares of the result set rows, see {@link Phase#row(String)}.
+ * If enabled, each phase is additionally committed as a JFR event.
+ * The profile may be shared by several importing threads.<br/><br/>
+ * Created: 17.03.2022 08:53:12
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+public class ImportProfile {
+
+  private static final ThreadMXBean THREAD_BEAN = initThreadBean();
+
+  private final Map<String, Stats> phases;
+  private final Map<String, Stats> tables;
+  private volatile boolean jfrEvents;
+
+  public ImportProfile() {
+    this.phases = new HashMap<>();
+    this.tables = new HashMap<>();
+    this.jfrEvents = false;
+  }
+
+  // properties ------------------------------------------------------------------------------------------------------
+
+  public boolean isJfrEvents() {
+    return jfrEvents;
+  }
+
+  /** Determines if each phase is committed as a JFR event of type {@value ImportPhaseEvent#NAME} */
+  public void setJfrEvents(boolean jfrEvents) {
+    this.jfrEvents = jfrEvents;
+  }
+
+  // recording -------------------------------------------------------------------------------------------------------
+
+  public Phase start(String phaseName) {
+    return new Phase(this, phaseName, null);
+  }
+
+  public Phase start(String phaseName, DBTable table) {
+    return new Phase(this, phaseName, qualifiedName(table));
+  }
+
+  /** @param tableName the qualified name of the table the phase works on, or null */
+  public Phase start(String phaseName, String tableName) {
+    return new Phase(this, phaseName, tableName);
+  }
+
+  synchronized void record(Phase phase, long nanos, long bytes) {
+    phases.computeIfAbsent(phase.name, Stats::new).add(nanos, phase.roundTrips, phase.rows, bytes);
+    if (phase.tableName != null) {
+      tables.computeIfAbsent(phase.tableName, Stats::new).add(nanos, phase.roundTrips, phase.rows, bytes);
+    } else if (phase.tableRows != null) {
+      for (Map.Entry<String, long[]> entry : phase.tableRows.entrySet()) {
+        long rows = entry.getValue()[0];
+        double share = (double) rows / phase.rows;
+        tables.computeIfAbsent(entry.getKey(), Stats::new).add(
+            Math.round(nanos * share), 0, rows, Math.round(bytes * share));
+      }
+    }
+  }
+
+  public synchronized void reset() {
+    phases.clear();
+    tables.clear();
+  }
+
+  // evaluation ------------------------------------------------------------------------------------------------------
+
+  /** @return snapshots of the statistics of each phase, ordered by descending total duration */
+  public synchronized List<Stats> getPhases() {
+    return sortedCopy(phases);
+  }
+
+  /** @return a snapshot of the statistics of a phase, or null if it did not occur */
+  public synchronized Stats getPhase(String phaseName) {
+    Stats stats = phases.get(phaseName);
+    return (stats != null ? stats.copy() : null);
+  }
+
+  /** @return a snapshot of the statistics of a table, or null if no phase has been recorded for it */
+  public synchronized Stats getTable(String qualifiedTableName) {
+    Stats stats = tables.get(qualifiedTableName);
+    return (stats != null ? stats.copy() : null);
+  }
+
+  /** @return snapshots of the statistics of the n tables with the longest total duration */
+  public synchronized List<Stats> getSlowestTables(int n) {
+    List<Stats> result = sortedCopy(tables);
+    return (result.size() > n ? new ArrayList<>(result.subList(0, n)) : result);
+  }
+
+  public synchronized int getTableCount() {
+    return tables.size();
+  }
+
+  /** Formats a report of all phases and the slowest tables. */
+  public String format(int topN) {
+    StringBuilder builder = new StringBuilder("Import profile\n");
+    builder.append("Phases:\n");
+    for (Stats phase : getPhases()) {
+      builder.append("  ").append(phase).append('\n');
+    }
+    List<Stats> slowest = getSlowestTables(topN);
+    if (!slowest.isEmpty()) {
+      builder.append("Slowest tables:\n");
+      for (Stats table : slowest) {
+        builder.append("  ").append(table).append('\n');
+      }
+    }
+    return builder.toString();
+  }
+
+  // java.lang.Object overrides --------------------------------------------------------------------------------------
+
+  @Override
+  public synchronized String toString() {
+    return getClass().getSimpleName() + "[" + phases.size() + " phases, " + tables.size() + " tables]";
+  }
+
+  // private helpers -------------------------------------------------------------------------------------------------
+
+  static String qualifiedName(DBTable table) {
+    return qualifiedName(table.getSchema() != null ? table.getSchema().getName() : null, table.getName());
+  }
+
+  static String qualifiedName(String schemaName, String tableName) {
+    return (schemaName != null ? schemaName + '.' + tableName : tableName);
+  }
+
+  private static List<Stats> sortedCopy(Map<String, Stats> map) {
+    List<Stats> result = new ArrayList<>(map.size());
+    for (Stats stats : map.values()) {
+      result.add(stats.copy());
+    }
+    result.sort(Comparator.comparingLong(Stats::getNanos).reversed().thenComparing(Stats::getName));
+    return result;
+  }
+
+  private static ThreadMXBean initThreadBean() {
+    try {
+      ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+      if (bean instanceof com.sun.management.ThreadMXBean
+          && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+        return bean;
+      }
+    } catch (RuntimeException | LinkageError e) {
+      // allocation tracking is not available on this JVM
+    }
+    return null;
+  }
+
+  static long allocatedBytes() {
+    if (THREAD_BEAN == null) {
+      return 0;
+    }
+    return ((com.sun.management.ThreadMXBean) THREAD_BEAN).getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  // helper classes --------------------------------------------------------------------------------------------------
+
+  /** A running phase of an import. It is used by one thread and reports to the profile on {@link #end()}. */
+  public static final class Phase {
+
+    private final ImportProfile profile;
+    private final String name;
+    private final String tableName;
+    private final long startNanos;
+    private final long startBytes;
+    private final ImportPhaseEvent event;
+    private int roundTrips;
+    private long rows;
+    private Map<String, long[]> tableRows;
+    private boolean ended;
+
+    Phase(ImportProfile profile, String name, String tableName) {
+      this.profile = profile;
+      this.name = name;
+      this.tableName = tableName;
+      this.startBytes = allocatedBytes();
+      if (profile.jfrEvents) {
+        this.event = new ImportPhaseEvent();
+        this.event.begin();
+      } else {
+        this.event = null;
+      }
+      this.startNanos = System.nanoTime();
+    }
+
+    /** Counts a call to the driver */
+    public void roundTrip() {
+      roundTrips++;
+    }
+
+    /** Counts a result set row */
+    public void row() {
+      rows++;
+    }
+
+    /** Counts a result set row of a phase which fetches the data of several tables, and attributes it to
+     *  one of them
+     *  @param tableName the qualified name of the table the row belongs to */
+    public void row(String tableName) {
+      rows++;
+      if (tableName != null && this.tableName == null) {
+        if (tableRows == null) {
+          tableRows = new HashMap<>();
+        }
+        tableRows.computeIfAbsent(tableName, k -> new long[1])[0]++;
+      }
+    }
+
+    /** Ends the phase and records it in the profile. Further calls have no effect. */
+    public void end() {
+      if (ended) {
+        return;
+      }
+      ended = true;
+      long nanos = System.nanoTime() - startNanos;
+      long bytes = Math.max(0, allocatedBytes() - startBytes);
+      profile.record(this, nanos, bytes);
+      if (event != null) {
+        event.end();
+        if (event.shouldCommit()) {
+          event.phase = name;
+          event.table = tableName;
+          event.roundTrips = roundTrips;
+          event.rows = rows;
+          event.allocatedBytes = bytes;
+          event.commit();
+        }
+      }
+    }
+  }
+
+  /** The accumulated statistics of a phase or table. */
+  public static final class Stats {
+
+    private final String name;
+    private int count;
+    private long nanos;
+    private long maxNanos;
+    private long roundTrips;
+    private long rows;
+    private long allocatedBytes;
+
+    Stats(String name) {
+      this.name = name;
+    }
+
+    void add(long nanos, int roundTrips, long rows, long allocatedBytes) {
+      this.count++;
+      this.nanos += nanos;
+      this.maxNanos = Math.max(this.maxNanos, nanos);
+      this.roundTrips += roundTrips;
+      this.rows += rows;
+      this.allocatedBytes += allocatedBytes;
+    }
+
+    Stats copy() {
+      Stats copy = new Stats(name);
+      copy.count = this.count;
+      copy.nanos = this.nanos;
+      copy.maxNanos = this.maxNanos;
+      copy.roundTrips = this.roundTrips;
+      copy.rows = this.rows;
+      copy.allocatedBytes = this.allocatedBytes;
+      return copy;
+    }
+
+    public String getName() {
+      return name;
+    }
+
+    /** @return the number of recorded phases */
+    public int getCount() {
+      return count;
+    }
+
+    public long getNanos() {
+      return nanos;
+    }
+
+    public long getMillis() {
+      return nanos / 1000000;
+    }
+
+    public long getMaxNanos() {
+      return maxNanos;
+    }
+
+    public long getRoundTrips() {
+      return roundTrips;
+    }
+
+    public long getRows() {
+      return rows;
+    }
+
+    public long getAllocatedBytes() {
+      return allocatedBytes;
+    }
+
+    @Override
+    public String toString() {
+      return name + ": " + getMillis() + " ms, " + count + "x, max " + (maxNanos / 1000000) + " ms, " +
+          roundTrips + " round trips, " + rows + " rows, " + (allocatedBytes / 1024) + " KiB";
+    }
+  }
+
+}
@@ -33,10 +33,10 @@
 import com.rapiddweller.common.exception.ConnectFailedException;
 import com.rapiddweller.common.exception.ExceptionFactory;
 import com.rapiddweller.common.version.VersionNumber;
-import com.rapiddweller.contiperf.StopWatch;
 import com.rapiddweller.jdbacl.DBUtil;
 import com.rapiddweller.jdbacl.DatabaseDialect;
 import com.rapiddweller.jdbacl.DatabaseDialectManager;
+import com.rapiddweller.jdbacl.MetaDataProvider;
 import com.rapiddweller.jdbacl.dialect.OracleDialect;
 import com.rapiddweller.jdbacl.model.DBCatalog;
 import com.rapiddweller.jdbacl.model.DBCheckConstraint;
@@ -49,6 +49,7 @@
 import com.rapiddweller.jdbacl.model.DBTable;
 import com.rapiddweller.jdbacl.model.Database;
 import com.rapiddweller.jdbacl.model.FKChangeRule;
+import com.rapiddweller.jdbacl.model.NamePool;
 import com.rapiddweller.jdbacl.model.TableType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -60,7 +61,11 @@
 import java.sql.SQLException;
 import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
@@ -94,6 +99,16 @@ public class JDBCDBImporter implements DBMetaDataImporter {
   TableNameFilter tableNameFilter;
   DatabaseMetaData metaData;
   private VersionNumber databaseProductVersion;
+  private boolean bulkImport;
+  private boolean dialectQueries = true;
+  private int warmUpThreads;
+  private List<String> warmUpPriority;
+  private MetaDataWarmUp warmUp;
+  private NamePool namePool;
+  ImportProfile profile = new ImportProfile();
+  private boolean worker;
+  private volatile boolean profileLogged;
+  Map<DBSchema, SchemaBulkData> bulkData = createBulkData();
 
   public JDBCDBImporter(String url, String driver, String user, String password, String catalog, String schema) {
     this.url = url;
@@ -184,11 +199,55 @@ public void setFaultTolerant(boolean faultTolerant) {
     this.errorHandler = new ErrorHandler(getClass().getName(), (faultTolerant ? Level.warn : Level.error));
   }
 
+  public boolean isBulkImport() {
+    return bulkImport;
+  }
+
+  /** In bulk import mode, the columns, primary keys, indexes, imported keys and referrers of a schema are
+   *  fetched with one meta data call each when the first table requests them, and buffered until the other
+   *  tables request them. Drivers which fail or return nothing for a schema-wide call are queried per table. */
+  public void setBulkImport(boolean bulkImport) {
+    this.bulkImport = bulkImport;
+    this.bulkData = createBulkData(); // a worker stops sharing the data of its creator
+  }
+
+  public boolean isDialectQueries() {
+    return dialectQueries;
+  }
+
+  /** Determines if bulk import uses the data dictionary queries of the dialect's {@link MetaDataProvider}
+   *  if there is one, or {@link DatabaseMetaData} only. */
+  public void setDialectQueries(boolean dialectQueries) {
+    this.dialectQueries = dialectQueries;
+    this.bulkData = createBulkData();
+  }
+
+  public boolean isCompactModel() {
+    return (namePool != null);
+  }
+
+  /** In compact model mode, the importer maps equal names and name arrays to shared instances of a
+   *  {@link NamePool}, which reduces the memory footprint of models with many tables and columns. */
+  public void setCompactModel(boolean compactModel) {
+    this.namePool = (compactModel ? new NamePool() : null);
+  }
+
+  /** @return the name pool of the compact model mode, or null if the mode is off */
+  public NamePool getNamePool() {
+    return namePool;
+  }
+
+  /** @return the durations, round trips and rows of the import phases of this importer and its workers */
+  public ImportProfile getProfile() {
+    return profile;
+  }
+
   public Connection getConnection() throws ConnectFailedException {
     if (this.connection == null) {
-      StopWatch watch = new StopWatch("connect");
+      ImportProfile.Phase phase = profile.start("connect");
       this.connection = DBUtil.connect(url, driver, user, password, true);
-      watch.stop();
+      phase.roundTrip();
+      phase.end();
     }
     return this.connection;
   }
@@ -216,7 +275,72 @@ private boolean isOracle() {
 
   @Override
   public Database importDatabase() throws ConnectFailedException, ImportFailedException {
-    return new Database(url, this, true);
+    Database database = new Database(url, this, true);
+    if (warmUpThreads > 0) {
+      warmUp = new MetaDataWarmUp(this, warmUpThreads);
+      warmUp.setPriority(warmUpPriority);
+      // the table details are complete only when the warm-up has finished
+      warmUp.start(database).whenComplete((db, e) -> logProfile());
+    }
+    return database;
+  }
+
+  /** Logs the import profile once the table details have been imported, at the latest when the importer
+   *  is closed. Workers leave this to the importer which created them, since they share its profile. */
+  protected void logProfile() {
+    if (!worker && !profileLogged) {
+      profileLogged = true;
+      if (logger.isDebugEnabled()) {
+        logger.debug(profile.format(10));
+      }
+    }
+  }
+
+  public int getWarmUpThreads() {
+    return warmUpThreads;
+  }
+
+  /** If set to a positive number, {@link #importDatabase()} starts a {@link MetaDataWarmUp}
+   *  which prefetches the table details with that number of threads and connections. */
+  public void setWarmUpThreads(int warmUpThreads) {
+    this.warmUpThreads = warmUpThreads;
+  }
+
+  /** @param warmUpPriority the names of the tables to be prefetched first, in this order */
+  public void setWarmUpPriority(List<String> warmUpPriority) {
+    this.warmUpPriority = warmUpPriority;
+  }
+
+  /** @return the warm-up started by the last call to {@link #importDatabase()}, or null if warm-up is disabled */
+  public MetaDataWarmUp getWarmUp() {
+    return warmUp;
+  }
+
+  /** Creates an importer with a connection of its own, which shares this importer's settings and bulk data,
+   *  so that each schema-wide bulk query is performed once for all workers.
+   *  The warm-up settings are not copied, since workers only import table details. */
+  JDBCDBImporter createWorker() throws ConnectFailedException {
+    if (url == null) {
+      throw ExceptionFactory.getInstance().illegalArgument(
+          "Importers which have been created with a connection cannot open further connections");
+    }
+    Connection workerConnection = DBUtil.connect(url, driver, user, password, true);
+    JDBCDBImporter worker = new JDBCDBImporter(workerConnection, user, catalogName, schemaName);
+    worker.connectionOwned = true;
+    worker.worker = true;
+    worker.url = this.url;
+    worker.driver = this.driver;
+    worker.password = this.password;
+    worker.tableInclusionPattern = this.tableInclusionPattern;
+    worker.tableExclusionPattern = this.tableExclusionPattern;
+    worker.tableNameFilter = this.tableNameFilter;
+    worker.errorHandler = this.errorHandler;
+    worker.bulkImport = this.bulkImport;
+    worker.dialectQueries = this.dialectQueries;
+    worker.profile = this.profile;
+    worker.namePool = this.namePool;
+    worker.bulkData = this.bulkData;
+    return worker;
   }
 
 
@@ -225,9 +349,10 @@ public Database importDatabase() throws ConnectFailedException, ImportFailedExce
   protected void init() {
     try {
       tableNameFilter = new TableNameFilter(tableInclusionPattern, tableExclusionPattern);
-      StopWatch watch = new StopWatch("getMetaData");
+      ImportProfile.Phase phase = profile.start("getMetaData");
       metaData = getConnection().getMetaData();
-      watch.stop();
+      phase.roundTrip();
+      phase.end();
       databaseProductName = metaData.getDatabaseProductName();
       databaseProductVersion = VersionNumber.valueOf(metaData.getDatabaseProductVersion());
       logger.debug("Product: {} {}", databaseProductName, databaseProductVersion);
@@ -242,6 +367,10 @@ protected void init() {
 
   @Override
   public void close() {
+    logProfile();
+    if (!worker) { // a worker shares the bulk data of the importer which created it
+      bulkData.clear();
+    }
     if (connectionOwned) {
       DBUtil.close(connection);
     }
@@ -252,10 +381,12 @@ public void close() {
 
   public void importCatalogs(Database database) throws SQLException, ConnectFailedException {
     logger.debug("Importing catalogs from '{}'", url);
-    StopWatch watch = new StopWatch("importCatalogs");
+    ImportProfile.Phase phase = profile.start("importCatalogs");
     ResultSet catalogSet = metaData.getCatalogs();
+    phase.roundTrip();
     int catalogCount = 0;
     while (catalogSet.next()) {
+      phase.row();
       String foundCatalog = catalogSet.getString(1);
       if (logger.isDebugEnabled()) {
         logger.debug("found catalog {}", StringUtil.quoteIfNotNull(foundCatalog));
@@ -266,7 +397,7 @@ public void importCatalogs(Database database) throws SQLException, ConnectFailed
               || foundCatalog.equalsIgnoreCase(getConnection().getCatalog()) // or for the connection
       ))) {
         this.catalogName = foundCatalog;
-        database.addCatalog(new DBCatalog(foundCatalog));
+        database.addCatalog(new DBCatalog(pooled(foundCatalog)));
         catalogCount++;
       }
     }
@@ -274,19 +405,21 @@ public void importCatalogs(Database database) throws SQLException, ConnectFailed
       database.addCatalog(new DBCatalog(this.catalogName));
     }
     catalogSet.close();
-    watch.stop();
+    phase.end();
   }
 
 
   // schema import ---------------------------------------------------------------------------------------------------
 
-  private Set<String> getForeignSchemas(String schemaName) throws SQLException {
+  private Set<String> getForeignSchemas(String schemaName, ImportProfile.Phase phase) throws SQLException {
     Set<String> set = new HashSet<>();
     if (schemaName != null) {
       set.add(schemaName);
       if (this.dialect.getDbType().equals("h2") || this.dialect.getDbType().equals("hsql")) {
         ResultSet resultSet = metaData.getSchemas();
+        phase.roundTrip();
         while (resultSet.next()) {
+          phase.row();
           set.add((String) resultSet.getObject("TABLE_SCHEM"));
         }
       }
@@ -294,7 +427,9 @@ private Set<String> getForeignSchemas(String schemaName) throws SQLException {
       // TODO test with oracle
       else if (!this.dialect.getDbType().equals("sql_server")) {
         ResultSet resultSet = metaData.getImportedKeys(null, schemaName, null);
+        phase.roundTrip();
         while (resultSet.next()) {
+          phase.row();
           set.add((String) resultSet.getObject("PKTABLE_SCHEM"));
         }
       }
@@ -304,11 +439,13 @@ else if (!this.dialect.getDbType().equals("sql_server")) {
 
   public void importSchemas(Database database) throws SQLException {
     logger.debug("Importing schemas from system '{}'", url);
-    StopWatch watch = new StopWatch("importSchemas");
+    ImportProfile.Phase phase = profile.start("importSchemas");
     int schemaCount = 0;
     ResultSet schemaSet = metaData.getSchemas();
-    Set<String> neededSchemas = getForeignSchemas(this.schemaName);
+    phase.roundTrip();
+    Set<String> neededSchemas = getForeignSchemas(this.schemaName, phase);
     while (schemaSet.next()) {
+      phase.row();
       String declaredSchemaName = schemaSet.getString(1);
       int columnCount = schemaSet.getMetaData().getColumnCount();
       String declaredCatalogName = (columnCount >= 2 ? schemaSet.getString(2) : null);
@@ -322,7 +459,7 @@ public void importSchemas(Database database) throws SQLException {
         if (catalogOfSchema == null) {
           throw ExceptionFactory.getInstance().objectNotFound("Catalog of Schema not found: " + declaredSchemaName);
         }
-        new DBSchema(declaredSchemaName, catalogOfSchema);
+        new DBSchema(pooled(declaredSchemaName), catalogOfSchema);
         importAllTables(database, declaredSchemaName);
         schemaCount++;
       } else {
@@ -331,7 +468,7 @@ public void importSchemas(Database database) throws SQLException {
     }
     haveAtLeastOneSchema(database, schemaCount);
     schemaSet.close();
-    watch.stop();
+    phase.end();
   }
 
   private void haveAtLeastOneSchema(Database database, int importedSchemaCount) throws SQLException {
@@ -356,10 +493,11 @@ public void importAllTables(Database database) throws SQLException {
     if (tableInclusionPattern != null && !".*".equals(tableInclusionPattern)) {
       logger.debug("including tables: {}", tableInclusionPattern);
     }
-    StopWatch watch = new StopWatch("importAllTables");
+    ImportProfile.Phase phase = profile.start("importAllTables");
     ResultSet tableSet;
     tableSet = metaData.getTables(this.catalogName, this.schemaName, null, new String[] {"TABLE", "VIEW"});
-    handleTableImport(database, watch, tableSet);
+    phase.roundTrip();
+    handleTableImport(database, phase, tableSet);
   }
 
   public void importAllTables(Database database, String schemaName) throws SQLException {
@@ -370,21 +508,43 @@ public void importAllTables(Database database, String schemaName) throws SQLExce
     if (tableInclusionPattern != null && !".*".equals(tableInclusionPattern)) {
       logger.debug("including tables: {}", tableInclusionPattern);
     }
-    StopWatch watch = new StopWatch("importAllTables");
+    ImportProfile.Phase phase = profile.start("importAllTables");
     ResultSet tableSet;
     tableSet = metaData.getTables(this.catalogName, schemaName, null, new String[] {"TABLE", "VIEW"});
+    phase.roundTrip();
+    handleTableImport(database, phase, tableSet);
+  }
+
 
-    handleTableImport(database, watch, tableSet);
+  /** Imports the tables of the given names into the schema, for example tables which have been created after
+   *  the schema was imported. Their details are imported lazily. */
+  public void importTables(DBSchema schema, Set<String> tableNames) throws SQLException {
+    logger.debug("Importing tables {} of schema '{}'", tableNames, schema.getName());
+    ImportProfile.Phase phase = profile.start("importTables");
+    DBCatalog catalog = schema.getCatalog();
+    ResultSet tableSet = metaData.getTables(NameUtil.nameOrNull(catalog), schemaPattern(catalog, schema.getName()),
+        null, new String[] {"TABLE", "VIEW"});
+    phase.roundTrip();
+    handleTableImport(schema.getDatabase(), phase, tableSet, tableNames);
+    discardBulkData(schema);
   }
 
+  private void handleTableImport(Database database, ImportProfile.Phase phase, ResultSet tableSet) throws SQLException {
+    handleTableImport(database, phase, tableSet, null);
+  }
 
-  private void handleTableImport(Database database, StopWatch watch, ResultSet tableSet) throws SQLException {
+  private void handleTableImport(Database database, ImportProfile.Phase phase, ResultSet tableSet, Set<String> tableNames)
+      throws SQLException {
     while (tableSet.next()) {
+      phase.row();
 
       // parsing ResultSet line
       String tableCatalogName = tableSet.getString(1);
       String tableSchemaName = tableSet.getString(2);
       String tableName = tableSet.getString(3);
+      if (tableNames != null && !tableNames.contains(tableName)) {
+        continue;
+      }
       if (!tableSupported(tableName)) {
         logger.debug("ignoring table: {}, {}, {}", tableCatalogName, tableSchemaName, tableName);
         continue;
@@ -407,14 +567,15 @@ private void handleTableImport(Database database, StopWatch watch, ResultSet tab
         schema = database.getSchema(tableSchemaName);
       }
       if (schema != null) {
-        DBTable table = new DBTable(tableName, tableType, tableRemarks, schema, this);
-        table.setDoc(tableRemarks);
+        String doc = pooled(tableRemarks);
+        DBTable table = new DBTable(pooled(tableName), tableType, doc, schema, this);
+        table.setDoc(doc);
       } else {
         logger.warn("No schema specified. Ignoring table '{}'", tableName);
       }
     }
     tableSet.close();
-    watch.stop();
+    phase.end();
   }
 
   private boolean isOracleInternalTable(String tableName) {
@@ -447,13 +608,25 @@ private TableType tableType(String tableTypeSpec, String tableName) {
 
   // column import ---------------------------------------------------------------------------------------------------
 
-  public void importColumnsOfTable(DBTable table, ColumnReceiver receiver) {
+  public synchronized void importColumnsOfTable(DBTable table, ColumnReceiver receiver) {
+    if (bulkImport) {
+      SchemaBulkData data = bulkDataOf(table.getSchema());
+      synchronized (data) { // the bulk data is shared with the workers
+        if (data.columns == null) {
+          data.columns = fetchColumnsInBulk(table.getSchema());
+        }
+      }
+      if (data.columns.deliver(table.getName(), receiver, true)) {
+        return;
+      }
+    }
     importColumns(table.getCatalog(), table.getSchema().getName(), table.getName(), tableNameFilter, receiver, errorHandler);
   }
 
   protected void importColumns(DBCatalog catalog, String schemaName, String tablePattern,
                                Filter<String> tableFilter, ColumnReceiver receiver, ErrorHandler errorHandler) {
-    StopWatch watch = new StopWatch("importColumns");
+    ImportProfile.Phase phase = profile.start("importColumns", tablePattern != null ?
+        (schemaName != null ? schemaName + '.' + tablePattern : tablePattern) : null);
     String schemaPattern = schemaPattern(catalog, schemaName);
     debug("Importing columns for catalog {}, schemaPattern {}, tablePattern '{}'",
         StringUtil.quoteIfNotNull(catalog.getName()), StringUtil.quoteIfNotNull(schemaName),
@@ -461,11 +634,14 @@ protected void importColumns(DBCatalog catalog, String schemaName, String tableP
     ResultSet columnSet = null;
     try {
       columnSet = metaData.getColumns(catalog.getName(), schemaPattern, tablePattern, null);
+      phase.roundTrip();
       ResultSetMetaData setMetaData = columnSet.getMetaData();
       if (setMetaData.getColumnCount() == 0) {
+        phase.end();
         return;
       }
       while (columnSet.next()) {
+        phase.row();
         importColumn(columnSet, catalog, schemaName, tableFilter, receiver);
       }
     } catch (SQLException e) {
@@ -477,7 +653,34 @@ protected void importColumns(DBCatalog catalog, String schemaName, String tableP
     } finally {
       DBUtil.close(columnSet);
     }
-    watch.stop();
+    phase.end();
+  }
+
+  private BulkMetaData<ColumnReceiver> fetchColumnsInBulk(DBSchema schema) {
+    ImportProfile.Phase phase = profile.start("fetchColumnsInBulk");
+    DBCatalog catalog = schema.getCatalog();
+    BulkMetaData<ColumnReceiver> result = new BulkMetaData<>(tableNames(schema));
+    ResultSet columnSet = null;
+    try {
+      String declaredCatalogName = NameUtil.nameOrNull(catalog);
+      columnSet = queryInBulk("columns", schema,
+          provider -> provider.getColumns(connection, declaredCatalogName, schema.getName()),
+          () -> metaData.getColumns(declaredCatalogName, schemaPattern(catalog, schema.getName()), "%", null), false);
+      phase.roundTrip();
+      while (columnSet.next()) {
+        phase.row(ImportProfile.qualifiedName(schema.getName(), columnSet.getString(3)));
+        importColumn(columnSet, catalog, schema.getName(), tableNameFilter,
+            (columnName, dataType, columnSize, fractionDigits, nullable, defaultValue, comment, table) ->
+                result.add(table.getName(), receiver -> receiver.receiveColumn(columnName, dataType, columnSize,
+                    fractionDigits, nullable, defaultValue, comment, table)));
+      }
+      return result;
+    } catch (SQLException e) {
+      return bulkFetchFailed("columns", schema, e);
+    } finally {
+      DBUtil.closeResultSetAndStatement(columnSet);
+      phase.end();
+    }
   }
 
   private void importColumn(ResultSet columnSet, DBCatalog catalog, String schemaName, Filter<String> tableFilter,
@@ -509,21 +712,18 @@ private void importColumn(ResultSet columnSet, DBCatalog catalog, String schemaN
           columnName, sqlType, columnType, columnSize, decimalDigits,
           nullable, comment, defaultValue);
       // determine table
-      DBTable table = catalog.getTable(tableName, false);
+      DBSchema schema = catalog.getSchema(schemaName);
+      DBTable table = (schema != null ? schema.getTable(tableName) : catalog.getTable(tableName, false));
       if (table == null) {
         logger.debug("Ignoring column {}.{}", tableName, columnName);
         return;
       }
-      DBSchema schema = catalog.getSchema(schemaName);
-      if (schema != null) {
-        table = schema.getTable(tableName);
-      }
       // create column
       Integer fractionDigits = (decimalDigits > 0 ? decimalDigits : null);
       DBDataType dataType = DBDataType.getInstance(sqlType, columnType);
       defaultValue = parseDefaultValue(defaultValue, dataType);
-      receiver.receiveColumn(columnName, dataType, columnSize, fractionDigits, nullable, defaultValue,
-          comment, table);
+      receiver.receiveColumn(pooled(columnName), dataType, columnSize, fractionDigits, nullable,
+          pooled(defaultValue), pooled(comment), table);
       // not used: importVersionColumnInfo(catalogName, table, metaData)
     }
   }
@@ -554,16 +754,29 @@ private String schemaPattern(DBCatalog catalog, String schemaName) {
     return schemaPattern;
   }
 
-  public void importPrimaryKeyOfTable(DBTable table, PKReceiver receiver) {
+  public synchronized void importPrimaryKeyOfTable(DBTable table, PKReceiver receiver) {
+    if (bulkImport) {
+      SchemaBulkData data = bulkDataOf(table.getSchema());
+      synchronized (data) { // the bulk data is shared with the workers
+        if (data.primaryKeys == null) {
+          data.primaryKeys = fetchPrimaryKeysInBulk(table.getSchema());
+        }
+      }
+      if (data.primaryKeys.deliver(table.getName(), receiver, false)) {
+        return;
+      }
+    }
     logger.debug("Importing primary keys for table '{}'", table);
-    StopWatch watch = new StopWatch("importPrimaryKeyOfTable");
+    ImportProfile.Phase phase = profile.start("importPrimaryKeyOfTable", table);
     ResultSet pkset = null;
     try {
       pkset = metaData.getPrimaryKeys(catalogName, table.getSchema().getName(), table.getName());
+      phase.roundTrip();
       TreeMap<Short, String> pkComponents = new TreeMap<>();
       String pkName = null;
       while (pkset.next()) {
         String tableName = pkset.getString(3);
+        phase.row();
         if (!tableName.equals(table.getName())) { // Bug fix for Firebird:
           continue;                            // When querying X, it returns the pks of XY too
         }
@@ -575,22 +788,71 @@ public void importPrimaryKeyOfTable(DBTable table, PKReceiver receiver) {
         logger.debug("found pk column {}, {}, {}", columnName, keySeq, pkName);
       }
       if (pkComponents.size() > 0) {
-        String[] columnNames = pkComponents.values().toArray(new String[0]);
-        receiver.receivePK(pkName, dialect.isDeterministicPKName(pkName), columnNames, table);
+        String[] columnNames = pooled(pkComponents.values().toArray(new String[0]));
+        receiver.receivePK(pooled(pkName), dialect.isDeterministicPKName(pkName), columnNames, table);
       }
     } catch (SQLException e) {
       errorHandler.handleError("Error importing primary key of table " + table.getName());
     } finally {
       DBUtil.close(pkset);
     }
-    watch.stop();
+    phase.end();
+  }
+
+  private BulkMetaData<PKReceiver> fetchPrimaryKeysInBulk(DBSchema schema) {
+    ImportProfile.Phase phase = profile.start("fetchPrimaryKeysInBulk");
+    BulkMetaData<PKReceiver> result = new BulkMetaData<>(tableNames(schema));
+    ResultSet pkset = null;
+    try {
+      String declaredCatalogName = NameUtil.nameOrNull(schema.getCatalog());
+      pkset = queryInBulk("primary keys", schema,
+          provider -> provider.getPrimaryKeys(connection, declaredCatalogName, schema.getName()),
+          () -> metaData.getPrimaryKeys(declaredCatalogName, schema.getName(), null), true);
+      phase.roundTrip();
+      Map<String, TreeMap<Short, String>> pkComponentsByTable = new LinkedHashMap<>();
+      Map<String, String> pkNamesByTable = new HashMap<>();
+      while (pkset.next()) {
+        String tableName = pkset.getString(3);
+        phase.row(ImportProfile.qualifiedName(schema.getName(), tableName));
+        String columnName = pkset.getString(4);
+        short keySeq = pkset.getShort(5);
+        pkComponentsByTable.computeIfAbsent(tableName, k -> new TreeMap<>()).put(keySeq, columnName);
+        pkNamesByTable.put(tableName, pkset.getString(6));
+      }
+      for (Map.Entry<String, TreeMap<Short, String>> entry : pkComponentsByTable.entrySet()) {
+        DBTable table = schema.getTable(entry.getKey());
+        if (table != null) {
+          String pkName = pooled(pkNamesByTable.get(entry.getKey()));
+          String[] columnNames = pooled(entry.getValue().values().toArray(new String[0]));
+          boolean deterministicName = dialect.isDeterministicPKName(pkName);
+          result.add(table.getName(), receiver -> receiver.receivePK(pkName, deterministicName, columnNames, table));
+        }
+      }
+      return result;
+    } catch (SQLException e) {
+      return bulkFetchFailed("primary keys", schema, e);
+    } finally {
+      DBUtil.closeResultSetAndStatement(pkset);
+      phase.end();
+    }
   }
 
 
   // index import ----------------------------------------------------------------------------------------------------
 
-  public void importIndexesOfTable(DBTable table, boolean uniquesOnly, IndexReceiver receiver) {
-    StopWatch watch = new StopWatch("importIndexesOfTable");
+  public synchronized void importIndexesOfTable(DBTable table, boolean uniquesOnly, IndexReceiver receiver) {
+    if (bulkImport && !uniquesOnly) {
+      SchemaBulkData data = bulkDataOf(table.getSchema());
+      synchronized (data) { // the bulk data is shared with the workers
+        if (data.indexes == null) {
+          data.indexes = fetchIndexesInBulk(table.getSchema());
+        }
+      }
+      if (data.indexes.deliver(table.getName(), receiver, false)) {
+        return;
+      }
+    }
+    ImportProfile.Phase phase = profile.start("importIndexesOfTable", table);
     if (table.getTableType() == TableType.TABLE) {
       logger.debug("Importing indexes of table '{}'", table.getName());
     } else {
@@ -599,20 +861,57 @@ public void importIndexesOfTable(DBTable table, boolean uniquesOnly, IndexReceiv
     ResultSet indexSet = null;
     try {
       indexSet = metaData.getIndexInfo(table.getCatalog().getName(), table.getSchema().getName(), table.getName(), uniquesOnly, true);
-      parseIndexSet(indexSet, table.getSchema(), table, receiver);
+      phase.roundTrip();
+      parseIndexSet(indexSet, table.getSchema(), table, receiver, phase);
     } catch (SQLException e) {
       // possibly we try to query a catalog to which we do not have access rights
       errorHandler.handleError("Error parsing index data of table " + table.getName(), e);
     } finally {
       DBUtil.close(indexSet);
     }
-    watch.stop();
+    phase.end();
+  }
+
+  private BulkMetaData<IndexReceiver> fetchIndexesInBulk(DBSchema schema) {
+    ImportProfile.Phase phase = profile.start("fetchIndexesInBulk");
+    BulkMetaData<IndexReceiver> result = new BulkMetaData<>(tableNames(schema));
+    ResultSet indexSet = null;
+    try {
+      String declaredCatalogName = NameUtil.nameOrNull(schema.getCatalog());
+      indexSet = queryInBulk("indexes", schema,
+          provider -> provider.getIndexInfo(connection, declaredCatalogName, schema.getName()),
+          () -> metaData.getIndexInfo(declaredCatalogName, schema.getName(), null, false, true), true);
+      phase.roundTrip();
+      parseIndexSet(indexSet, schema, null, (indexInfo, deterministicName, table, indexSchema) -> {
+        if (table != null) {
+          result.add(table.getName(), receiver -> receiver.receiveIndex(indexInfo, deterministicName, table, indexSchema));
+        }
+      }, phase);
+      return result;
+    } catch (SQLException e) {
+      return bulkFetchFailed("indexes", schema, e);
+    } finally {
+      DBUtil.closeResultSetAndStatement(indexSet);
+      phase.end();
+    }
   }
 
   public void parseIndexSet(ResultSet indexSet, DBSchema schema, DBTable queriedTable, IndexReceiver receiver) throws SQLException {
-    StopWatch watch = new StopWatch("parseIndexSet");
+    ImportProfile.Phase phase = (queriedTable != null ?
+        profile.start("parseIndexSet", queriedTable) : profile.start("parseIndexSet"));
+    parseIndexSet(indexSet, schema, queriedTable, receiver, phase);
+    phase.end();
+  }
+
+  private void parseIndexSet(ResultSet indexSet, DBSchema schema, DBTable queriedTable, IndexReceiver receiver,
+                             ImportProfile.Phase phase) throws SQLException {
     OrderedNameMap<DBIndexInfo> indexes = new OrderedNameMap<>();
     while (indexSet.next()) {
+      if (queriedTable != null) {
+        phase.row();
+      } else {
+        phase.row(ImportProfile.qualifiedName(schema.getName(), indexSet.getString(3)));
+      }
       String indexName = null;
       try {
         String tableName = indexSet.getString(3);
@@ -644,11 +943,13 @@ public void parseIndexSet(ResultSet indexSet, DBSchema schema, DBTable queriedTa
             ordinalPosition, columnName, ascOrDesc, cardinality, pages, filterCondition
         );
 
-        DBIndexInfo index = indexes.get(indexName);
+        // index names are only unique per table in some databases, e.g. 'PRIMARY' in MySQL
+        String indexKey = (queriedTable != null ? indexName : tableName + '.' + indexName);
+        DBIndexInfo index = indexes.get(indexKey);
         if (index == null) {
-          index = new DBIndexInfo(indexName, tableName, indexType, indexCatalogName, unique,
+          index = new DBIndexInfo(pooled(indexName), tableName, indexType, indexCatalogName, unique,
               ordinalPosition, columnName, ascending, cardinality, pages, filterCondition);
-          indexes.put(indexName, index);
+          indexes.put(indexKey, index);
         } else {
           index.addColumn(ordinalPosition, columnName);
         }
@@ -657,13 +958,13 @@ public void parseIndexSet(ResultSet indexSet, DBSchema schema, DBTable queriedTa
       }
     }
     mapIndexes(schema, queriedTable, receiver, indexes);
-    watch.stop();
   }
 
   private void mapIndexes(DBSchema schema, DBTable queriedTable, IndexReceiver receiver, OrderedNameMap<DBIndexInfo> indexes) {
     for (DBIndexInfo indexInfo : indexes.values()) {
       DBTable table = (queriedTable != null ? queriedTable : schema.getTable(indexInfo.tableName));
       boolean deterministicName = dialect.isDeterministicIndexName(indexInfo.name);
+      indexInfo.columnNames = pooled(indexInfo.columnNames);
       receiver.receiveIndex(indexInfo, deterministicName, table, schema);
     }
   }
@@ -671,47 +972,107 @@ private void mapIndexes(DBSchema schema, DBTable queriedTable, IndexReceiver rec
 
   // foreign key import ----------------------------------------------------------------------------------------------
 
-  public void importImportedKeys(DBTable table, FKReceiver receiver) {
+  public synchronized void importImportedKeys(DBTable table, FKReceiver receiver) {
+    if (bulkImport) {
+      SchemaBulkData data = bulkDataOf(table.getSchema());
+      synchronized (data) { // the bulk data is shared with the workers
+        if (data.importedKeys == null) {
+          data.importedKeys = fetchImportedKeysInBulk(table.getSchema());
+        }
+      }
+      if (data.importedKeys.deliver(table.getName(), receiver, false)) {
+        return;
+      }
+    }
     logger.debug("Importing imported keys for table '{}'", table.getName());
-    StopWatch watch = new StopWatch("importImportedKeys");
+    ImportProfile.Phase phase = profile.start("importImportedKeys", table);
     DBCatalog catalog = table.getCatalog();
     DBSchema schema = table.getSchema();
     String tableName = table.getName();
     ResultSet resultSet = null;
     try {
       resultSet = metaData.getImportedKeys(NameUtil.nameOrNull(catalog), NameUtil.nameOrNull(schema), tableName);
-      List<ImportedKey> keyList = new ArrayList<>();
-      Map<String, ImportedKey> keysByName = OrderedNameMap.createCaseIgnorantMap();
-      ImportedKey recent = null;
+      phase.roundTrip();
+      List<ImportedKey> cursors = new ArrayList<>();
       while (resultSet.next()) {
+        phase.row();
         ImportedKey cursor = ImportedKey.parse(resultSet, catalog, schema, table);
-        if (cursor == null) {
-          continue;
-        }
-        if (cursor.key_seq == 1) {
-          if (cursor.fk_name != null) {
-            keysByName.put(cursor.fk_name, cursor);
-          }
-          keyList.add(cursor);
-        } else {
-          // additional column for a composite FK with columns defined before
-          if (cursor.fk_name != null) {
-            keysByName.get(cursor.fk_name).addForeignKeyColumn(cursor.fkcolumn_name, cursor.pkcolumn_name);
-          } else { // some systems may not report an fk constraint name
-            Objects.requireNonNull(recent).addForeignKeyColumn(cursor.fkcolumn_name,
-                cursor.pkcolumn_name);
-          }
+        if (cursor != null) {
+          cursors.add(cursor);
         }
-        recent = cursor;
       }
       // build DBForeignKeyConstraint objects from the gathered information
-      buildFKConstraints(keyList, table, receiver);
+      buildFKConstraints(assembleImportedKeys(cursors), table, receiver);
     } catch (SQLException e) {
       errorHandler.handleError("Error importing foreign key constraints", e);
     } finally {
       DBUtil.close(resultSet);
     }
-    watch.stop();
+    phase.end();
+  }
+
+  private BulkMetaData<FKReceiver> fetchImportedKeysInBulk(DBSchema schema) {
+    ImportProfile.Phase phase = profile.start("fetchImportedKeysInBulk");
+    DBCatalog catalog = schema.getCatalog();
+    BulkMetaData<FKReceiver> result = new BulkMetaData<>(tableNames(schema));
+    ResultSet resultSet = null;
+    try {
+      String declaredCatalogName = NameUtil.nameOrNull(catalog);
+      String declaredSchemaName = NameUtil.nameOrNull(schema);
+      resultSet = queryInBulk("imported keys", schema,
+          provider -> provider.getImportedKeys(connection, declaredCatalogName, declaredSchemaName),
+          () -> metaData.getImportedKeys(declaredCatalogName, declaredSchemaName, null), true);
+      phase.roundTrip();
+      Map<String, List<ImportedKey>> cursorsByTable = new LinkedHashMap<>();
+      while (resultSet.next()) {
+        String tableName = resultSet.getString(7);
+        phase.row(ImportProfile.qualifiedName(schema.getName(), tableName));
+        DBTable table = schema.getTable(tableName);
+        if (table != null) {
+          ImportedKey cursor = ImportedKey.parse(resultSet, catalog, schema, table);
+          if (cursor != null) {
+            cursorsByTable.computeIfAbsent(table.getName(), k -> new ArrayList<>()).add(cursor);
+          }
+        }
+      }
+      // the constraints are created on delivery, since their constructor registers them at the table
+      for (Map.Entry<String, List<ImportedKey>> entry : cursorsByTable.entrySet()) {
+        DBTable table = schema.getTable(entry.getKey());
+        List<ImportedKey> cursors = entry.getValue();
+        result.add(table.getName(), receiver -> buildFKConstraints(assembleImportedKeys(cursors), table, receiver));
+      }
+      return result;
+    } catch (SQLException e) {
+      return bulkFetchFailed("imported keys", schema, e);
+    } finally {
+      DBUtil.closeResultSetAndStatement(resultSet);
+      phase.end();
+    }
+  }
+
+  /** Merges the rows of composite foreign keys, which are reported with a key_seq greater than 1 */
+  private static List<ImportedKey> assembleImportedKeys(List<ImportedKey> cursors) {
+    List<ImportedKey> keyList = new ArrayList<>();
+    Map<String, ImportedKey> keysByName = OrderedNameMap.createCaseIgnorantMap();
+    ImportedKey recent = null;
+    for (ImportedKey cursor : cursors) {
+      if (cursor.key_seq == 1) {
+        if (cursor.fk_name != null) {
+          keysByName.put(cursor.fk_name, cursor);
+        }
+        keyList.add(cursor);
+      } else {
+        // additional column for a composite FK with columns defined before
+        if (cursor.fk_name != null) {
+          keysByName.get(cursor.fk_name).addForeignKeyColumn(cursor.fkcolumn_name, cursor.pkcolumn_name);
+        } else { // some systems may not report an fk constraint name
+          Objects.requireNonNull(recent).addForeignKeyColumn(cursor.fkcolumn_name,
+              cursor.pkcolumn_name);
+        }
+      }
+      recent = cursor;
+    }
+    return keyList;
   }
 
   private void buildFKConstraints(List<ImportedKey> keyList, DBTable table, FKReceiver receiver) {
@@ -735,11 +1096,11 @@ private void buildFKConstraints(List<ImportedKey> keyList, DBTable table, FKRece
         refereeColumnNames[i] = key.getRefereeColumnNames().get(i);
       }
       DBForeignKeyConstraint foreignKeyConstraint = new DBForeignKeyConstraint(
-          key.fk_name, dialect.isDeterministicFKName(key.fk_name),
+          pooled(key.fk_name), dialect.isDeterministicFKName(key.fk_name),
           table,
-          columnNames,
+          pooled(columnNames),
           pkTable,
-          refereeColumnNames);
+          pooled(refereeColumnNames));
       foreignKeyConstraint.setUpdateRule(parseRule(key.update_rule));
       foreignKeyConstraint.setDeleteRule(parseRule(key.delete_rule));
       receiver.receiveFK(foreignKeyConstraint, table);
@@ -750,28 +1111,30 @@ private void buildFKConstraints(List<ImportedKey> keyList, DBTable table, FKRece
 
   // check import ----------------------------------------------------------------------------------------------------
 
-  public final void importAllChecks(Database database) {
+  public final synchronized void importAllChecks(Database database) {
     logger.info("Importing checks from environment '{}'", url);
-    StopWatch watch = new StopWatch("importAllChecks");
+    ImportProfile.Phase phase = profile.start("importAllChecks");
     try {
-      database.setChecksImported(true);
       if (dialect instanceof OracleDialect) {
         for (DBCatalog catalog : database.getCatalogs()) {
           for (DBSchema schema : catalog.getSchemas()) {
-            importChecksOfSchema(schema);
+            importChecksOfSchema(schema, phase);
           }
         }
       }
+      // the flag is set after the import, so that concurrent readers do not see an incomplete set of checks
+      database.setChecksImported(true);
     } catch (Exception e) {
       throw ExceptionFactory.getInstance().componentInitializationFailed(
           "Error importing checks from " + url, e);
     }
-    watch.stop();
+    phase.end();
   }
 
-  private void importChecksOfSchema(DBSchema schema) throws SQLException, ConnectFailedException {
+  private void importChecksOfSchema(DBSchema schema, ImportProfile.Phase phase) throws SQLException, ConnectFailedException {
     OracleDialect oraDialect = (OracleDialect) dialect;
     DBCheckConstraint[] newChecks = oraDialect.queryCheckConstraints(getConnection(), schema.getName());
+    phase.roundTrip();
     for (DBCheckConstraint newCheck : newChecks) {
       if (!tableSupported(newCheck.getTableName())) {
         continue;
@@ -785,8 +1148,19 @@ private void importChecksOfSchema(DBSchema schema) throws SQLException, ConnectF
 
   // referrer table import -------------------------------------------------------------------------------------------
 
-  public void importRefererTables(DBTable table, ReferrerReceiver receiver) {
-    StopWatch watch = new StopWatch("importRefererTables");
+  public synchronized void importRefererTables(DBTable table, ReferrerReceiver receiver) {
+    if (bulkImport) {
+      SchemaBulkData data = bulkDataOf(table.getSchema());
+      synchronized (data) { // the bulk data is shared with the workers
+        if (data.referrers == null) {
+          data.referrers = fetchReferrersInBulk(table.getSchema());
+        }
+      }
+      if (data.referrers.deliver(table.getName(), receiver, false)) {
+        return;
+      }
+    }
+    ImportProfile.Phase phase = profile.start("importRefererTables", table);
     logger.debug("Importing exported keys for table '{}'", table);
     DBCatalog catalog = table.getCatalog();
     DBSchema schema = table.getSchema();
@@ -796,7 +1170,9 @@ public void importRefererTables(DBTable table, ReferrerReceiver receiver) {
     ResultSet resultSet = null;
     try {
       resultSet = metaData.getExportedKeys(declaredCatalogName, declaredSchemaName, tableName);
+      phase.roundTrip();
       while (resultSet.next()) {
+        phase.row();
         // ignoring String fktableCat = resultSet.getString(5)
         // ignoring String fktableSchem = resultSet.getString(6)
         String fktableName = resultSet.getString(7);
@@ -810,14 +1186,43 @@ public void importRefererTables(DBTable table, ReferrerReceiver receiver) {
     } finally {
       DBUtil.close(resultSet);
     }
-    watch.stop();
+    phase.end();
+  }
+
+  private BulkMetaData<ReferrerReceiver> fetchReferrersInBulk(DBSchema schema) {
+    ImportProfile.Phase phase = profile.start("fetchReferrersInBulk");
+    BulkMetaData<ReferrerReceiver> result = new BulkMetaData<>(tableNames(schema));
+    ResultSet resultSet = null;
+    try {
+      String declaredCatalogName = NameUtil.nameOrNull(schema.getCatalog());
+      String declaredSchemaName = NameUtil.nameOrNull(schema);
+      resultSet = queryInBulk("referrers", schema,
+          provider -> provider.getExportedKeys(connection, declaredCatalogName, declaredSchemaName),
+          () -> metaData.getExportedKeys(declaredCatalogName, declaredSchemaName, null), true);
+      phase.roundTrip();
+      while (resultSet.next()) {
+        String tableName = resultSet.getString(3);
+        phase.row(ImportProfile.qualifiedName(schema.getName(), tableName));
+        DBTable table = schema.getTable(tableName);
+        String fktableName = resultSet.getString(7);
+        if (table != null && tableSupported(fktableName)) {
+          result.add(table.getName(), receiver -> receiver.receiveReferrer(fktableName, table));
+        }
+      }
+      return result;
+    } catch (SQLException e) {
+      return bulkFetchFailed("referrers", schema, e);
+    } finally {
+      DBUtil.closeResultSetAndStatement(resultSet);
+      phase.end();
+    }
   }
 
 
   // sequence import -------------------------------------------------------------------------------------------------
   // TODO further tests are needed working with postgres, mysql, hslmem
   public void importSequences(Database database) {
-    StopWatch watch = new StopWatch("importSequences");
+    ImportProfile.Phase phase = profile.start("importSequences");
     try {
       if (dialect.isSequenceSupported()) {
         String catalogNameLocal = getConnection().getCatalog();
@@ -834,6 +1239,7 @@ public void importSequences(Database database) {
           logger.info("Importing sequences from schema '{}'", schemaNameLocal);
         }
         DBSequence[] sequences = dialect.querySequences(getConnection());
+        phase.roundTrip();
         for (DBSequence sequence : sequences) {
           if (sequence.getSchemaName().equals(schemaNameLocal)) {
             DBCatalog catalog = database.getCatalog(catalogNameLocal);
@@ -854,7 +1260,7 @@ public void importSequences(Database database) {
     } catch (Exception e) {
       logger.error("Error importing sequences from environment '{}'", url, e);
     }
-    watch.stop();
+    phase.end();
   }
 
   public void importTriggers(Database database) throws SQLException {
@@ -869,9 +1275,10 @@ public void importTriggers(Database database) throws SQLException {
   // trigger import --------------------------------------------------------------------------------------------------
 
   private void importTriggersForSchema(DBSchema schema) throws SQLException {
-    StopWatch watch = new StopWatch("importTriggersForSchema");
+    ImportProfile.Phase phase = profile.start("importTriggersForSchema");
     dialect.queryTriggers(schema, connection);
-    watch.stop();
+    phase.roundTrip();
+    phase.end();
   }
 
   public void importPackages(Database database) throws SQLException {
@@ -886,13 +1293,145 @@ public void importPackages(Database database) throws SQLException {
   // package import --------------------------------------------------------------------------------------------------
 
   private void importPackagesOfSchema(DBSchema schema) throws SQLException {
-    StopWatch watch = new StopWatch("importPackagesOfSchema");
+    ImportProfile.Phase phase = profile.start("importPackagesOfSchema");
     List<DBPackage> packages = dialect.queryPackages(schema, connection);
+    phase.roundTrip();
     for (DBPackage pkg : packages) {
       schema.receivePackage(pkg);
       pkg.setSchema(schema);
     }
-    watch.stop();
+    phase.end();
+  }
+
+  // bulk import helpers ---------------------------------------------------------------------------------------------
+
+  private static Map<DBSchema, SchemaBulkData> createBulkData() {
+    return Collections.synchronizedMap(new IdentityHashMap<>());
+  }
+
+  private SchemaBulkData bulkDataOf(DBSchema schema) {
+    return bulkData.computeIfAbsent(schema, k -> new SchemaBulkData());
+  }
+
+  /** Discards the meta data which has been fetched in bulk for the schema, for example after tables have been
+   *  added or altered, so that it is fetched again when a table requests it. */
+  public synchronized void discardBulkData(DBSchema schema) {
+    bulkData.remove(schema);
+  }
+
+  private static Set<String> tableNames(DBSchema schema) {
+    Set<String> result = new HashSet<>();
+    for (DBTable table : schema.getTables()) {
+      result.add(table.getName());
+    }
+    return result;
+  }
+
+  /** Queries the meta data of a complete schema with the dialect's data dictionary query if there is one,
+   *  otherwise or if it fails with {@link DatabaseMetaData}.
+   *  @param allTablesQuery true if the {@link DatabaseMetaData} query uses a null table name, which not all
+   *                        drivers support, see {@link DatabaseDialect#isMetaDataOfAllTablesSupported(DatabaseMetaData)}
+   *  @throws SQLException if the query fails or the driver does not support it */
+  private ResultSet queryInBulk(String part, DBSchema schema, DialectQuery dialectQuery, MetaDataQuery metaDataQuery,
+      boolean allTablesQuery) throws SQLException {
+    MetaDataProvider provider = (dialectQueries ? dialect.getMetaDataProvider() : null);
+    if (provider != null) {
+      try {
+        ResultSet result = dialectQuery.query(provider);
+        if (result != null) {
+          return result;
+        }
+      } catch (SQLException e) {
+        logger.debug("Data dictionary query for {} of schema {} failed, using DatabaseMetaData", part, schema, e);
+      }
+    }
+    if (allTablesQuery && !dialect.isMetaDataOfAllTablesSupported(metaData)) {
+      throw new SQLException("The driver does not support querying the " + part + " of all tables");
+    }
+    return metaDataQuery.query();
+  }
+
+  private <R> BulkMetaData<R> bulkFetchFailed(String part, DBSchema schema, SQLException e) {
+    logger.debug("Fetching {} in bulk failed for schema {}, querying them per table", part, schema, e);
+    return BulkMetaData.unavailable();
+  }
+
+
+  // table change detection ------------------------------------------------------------------------------------------
+
+  /** Queries a marker for each table of the schema which the database changes when the table definition changes,
+   *  see {@link MetaDataProvider#getTableChangeMarkers(Connection, String, String)}.
+   *  @return the change markers by table name, or null if the database does not provide them */
+  public Map<String, String> queryTableChangeMarkers(DBSchema schema) {
+    MetaDataProvider provider = dialect.getMetaDataProvider();
+    if (provider == null) {
+      return null;
+    }
+    ImportProfile.Phase phase = profile.start("queryTableChangeMarkers");
+    ResultSet resultSet = null;
+    try {
+      resultSet = provider.getTableChangeMarkers(getConnection(),
+          NameUtil.nameOrNull(schema.getCatalog()), NameUtil.nameOrNull(schema));
+      phase.roundTrip();
+      if (resultSet == null) {
+        return null;
+      }
+      Map<String, String> markers = new LinkedHashMap<>();
+      while (resultSet.next()) {
+        phase.row();
+        String tableName = resultSet.getString(1);
+        if (tableSupported(tableName)) {
+          markers.put(tableName, resultSet.getString(2));
+        }
+      }
+      return markers;
+    } catch (SQLException | ConnectFailedException e) {
+      logger.debug("Querying table change markers failed for schema {}", schema, e);
+      return null;
+    } finally {
+      DBUtil.closeResultSetAndStatement(resultSet);
+      phase.end();
+    }
+  }
+  /** Queries the fingerprint of this importer's schema, see {@link #querySchemaFingerprint(String)}.
+   *  @return the fingerprint, or null if the database does not provide one or the schema is not known yet */
+  public String querySchemaFingerprint() {
+    return querySchemaFingerprint(schemaName);
+  }
+
+  /** Queries the fingerprint of a schema of this importer's catalog with a single data dictionary query,
+   *  see {@link MetaDataProvider#getSchemaFingerprint(Connection, String, String)}.
+   *  @return the fingerprint, or null if the database does not provide one */
+  public String querySchemaFingerprint(String schemaName) {
+    MetaDataProvider provider = dialect.getMetaDataProvider();
+    if (provider == null) {
+      return null;
+    }
+    ImportProfile.Phase phase = profile.start("querySchemaFingerprint");
+    ResultSet resultSet = null;
+    try {
+      resultSet = provider.getSchemaFingerprint(getConnection(), catalogName, schemaName);
+      phase.roundTrip();
+      if (resultSet == null || !resultSet.next()) {
+        return null;
+      }
+      phase.row();
+      StringBuilder builder = new StringBuilder();
+      int columnCount = resultSet.getMetaData().getColumnCount();
+      for (int i = 1; i <= columnCount; i++) {
+        if (i > 1) {
+          builder.append('/');
+        }
+        builder.append(resultSet.getString(i));
+      }
+      return builder.toString();
+    } catch (SQLException | ConnectFailedException e) {
+      logger.debug("Querying the fingerprint of schema {} failed", schemaName, e);
+      return null;
+    } finally {
+      DBUtil.closeResultSetAndStatement(resultSet);
+      phase.end();
+    }
   }
 
   // helper methods --------------------------------------------------------------------------------------------------
@@ -909,6 +1448,14 @@ private void debug(String format, Object... data) {
     logger.debug(format, data);
   }
 
+  private String pooled(String name) {
+    return (namePool != null ? namePool.name(name) : name);
+  }
+
+  private String[] pooled(String[] names) {
+    return (namePool != null ? namePool.names(names) : names);
+  }
+
 
   // java.lang.Object overrides --------------------------------------------------------------------------------------
 
@@ -917,6 +1464,22 @@ public String toString() {
     return getClass().getSimpleName();
   }
 
+  private interface DialectQuery {
+    ResultSet query(MetaDataProvider provider) throws SQLException;
+  }
+
+  private interface MetaDataQuery {
+    ResultSet query() throws SQLException;
+  }
+
+  private static class SchemaBulkData {
+    BulkMetaData<ColumnReceiver> columns;
+    BulkMetaData<PKReceiver> primaryKeys;
+    BulkMetaData<IndexReceiver> indexes;
+    BulkMetaData<FKReceiver> importedKeys;
+    BulkMetaData<ReferrerReceiver> referrers;
+  }
+
   public interface ColumnReceiver {
     void receiveColumn(String columnName, DBDataType dataType, Integer columnSize, Integer fractionDigits,
                        boolean nullable, String defaultValue, String comment, DBTable table);
@@ -0,0 +1,247 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl.model.jdbc;
+
+import com.rapiddweller.common.depend.DependencyModel;
+import com.rapiddweller.common.exception.ExceptionFactory;
+import com.rapiddweller.jdbacl.model.DBTable;
+import com.rapiddweller.jdbacl.model.Database;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Prefetches the columns, primary keys, foreign keys, indexes and referrers of all tables of a {@link Database}
+ * in the background, so that the first accesses to a table do not need to wait for meta data queries.
+ * The tables are processed by a bounded number of threads, each with a connection of its own,
+ * in the order of a user-supplied priority list, followed by the remaining tables in dependency order.
+ * For the dependency order, the foreign keys of all tables are imported in bulk before the threads are started.
+ * If that fails, the tables are processed in their natural order.
+ * An access to a table which is being prefetched waits only for that table.<br/><br/>
+ * Created: 16.03.2022 09:21:44
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+public class MetaDataWarmUp {
+
+  private static final Logger logger = LoggerFactory.getLogger(MetaDataWarmUp.class);
+
+  private final JDBCDBImporter source;
+  private final int threads;
+  private List<String> priority;
+
+  private final Queue<DBTable> queue;
+  private final AtomicInteger completedTableCount;
+  private final AtomicInteger runningWorkers;
+  private final CompletableFuture<Database> completion;
+  private volatile int tableCount;
+  private Database database;
+
+  /**
+   * @param source  the importer whose URL and settings are used for opening the warm-up connections
+   * @param threads the maximum number of threads and connections to use
+   */
+  public MetaDataWarmUp(JDBCDBImporter source, int threads) {
+    if (threads <= 0) {
+      throw ExceptionFactory.getInstance().illegalArgument("threads must be positive, but was " + threads);
+    }
+    this.source = source;
+    this.threads = threads;
+    this.queue = new ConcurrentLinkedQueue<>();
+    this.completedTableCount = new AtomicInteger();
+    this.runningWorkers = new AtomicInteger();
+    this.completion = new CompletableFuture<>();
+  }
+
+  // properties ------------------------------------------------------------------------------------------------------
+
+  public int getThreads() {
+    return threads;
+  }
+
+  public List<String> getPriority() {
+    return priority;
+  }
+
+  /** @param priority the names of the tables to be prefetched first, in this order */
+  public void setPriority(List<String> priority) {
+    this.priority = priority;
+  }
+
+  // operations ------------------------------------------------------------------------------------------------------
+
+  /** Starts prefetching the details of the database's tables in the background.
+   *  @return a future which is completed with the database when all tables have been processed */
+  public synchronized CompletableFuture<Database> start(Database database) {
+    if (this.database != null) {
+      throw ExceptionFactory.getInstance().illegalOperation("Warm-up has already been started");
+    }
+    this.database = database;
+    List<DBTable> tables = database.getTables();
+    if (!allFKsImported(tables)) {
+      importForeignKeys(tables);
+    }
+    tables = orderTables(tables, priority);
+    this.tableCount = tables.size();
+    this.queue.addAll(tables);
+    int workerCount = Math.min(threads, tables.size());
+    if (workerCount == 0) {
+      completion.complete(database);
+      return completion;
+    }
+    logger.info("Warming up the meta data of {} tables with {} connections", tables.size(), workerCount);
+    runningWorkers.set(workerCount);
+    AtomicInteger threadNumber = new AtomicInteger();
+    ExecutorService threadPool = Executors.newFixedThreadPool(workerCount, r -> {
+      Thread thread = new Thread(r, "MetaDataWarmUp-" + threadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    });
+    for (int i = 0; i < workerCount; i++) {
+      threadPool.execute(this::runWorker);
+    }
+    threadPool.shutdown();
+    return completion;
+  }
+
+  /** Stops the warm-up after the tables which are currently being prefetched.
+   *  The remaining tables are imported on demand as usual. */
+  public void cancel() {
+    queue.clear();
+  }
+
+  // progress --------------------------------------------------------------------------------------------------------
+
+  /** @return a future which is completed with the database when all tables have been processed,
+   *  or completed exceptionally with the first error */
+  public CompletableFuture<Database> getCompletion() {
+    return completion;
+  }
+
+  public int getTableCount() {
+    return tableCount;
+  }
+
+  public int getCompletedTableCount() {
+    return completedTableCount.get();
+  }
+
+  /** @return the share of tables which have been processed, between 0 and 1 */
+  public double getProgress() {
+    int total = tableCount;
+    return (total > 0 ? (double) completedTableCount.get() / total : (completion.isDone() ? 1. : 0.));
+  }
+
+  public boolean isDone() {
+    return completion.isDone();
+  }
+
+  // java.lang.Object overrides --------------------------------------------------------------------------------------
+
+  @Override
+  public String toString() {
+    return getClass().getSimpleName() + "[" + completedTableCount + "/" + tableCount + " tables" +
+        (completion.isDone() ? ", done" : "") + "]";
+  }
+
+  // private helpers -------------------------------------------------------------------------------------------------
+
+  /** Orders the tables by priority first and then by their dependencies, if their foreign keys are already known. */
+  static List<DBTable> orderTables(List<DBTable> tables, List<String> priority) {
+    Set<DBTable> result = new LinkedHashSet<>(tables.size());
+    if (priority != null) {
+      for (String tableName : priority) {
+        for (DBTable table : tables) {
+          if (table.getName().equalsIgnoreCase(tableName)) {
+            result.add(table);
+          }
+        }
+      }
+    }
+    if (allFKsImported(tables)) {
+      DependencyModel<DBTable> model = new DependencyModel<>();
+      for (DBTable table : tables) {
+        model.addNode(table);
+      }
+      result.addAll(model.dependencyOrderedObjects(true));
+    } else {
+      result.addAll(tables);
+    }
+    return new ArrayList<>(result);
+  }
+
+  /** Imports the foreign keys of all tables in bulk, so that the tables can be processed in dependency order */
+  private void importForeignKeys(List<DBTable> tables) {
+    try (JDBCDBImporter fkImporter = source.createWorker()) {
+      if (!fkImporter.isBulkImport()) {
+        fkImporter.setBulkImport(true);
+      }
+      for (DBTable table : tables) {
+        table.importForeignKeys(fkImporter);
+      }
+    } catch (RuntimeException e) {
+      logger.debug("Importing the foreign keys in bulk failed, processing the tables in their natural order", e);
+    }
+  }
+
+  private static boolean allFKsImported(List<DBTable> tables) {
+    for (DBTable table : tables) {
+      if (!table.areFKsImported()) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void runWorker() {
+    try (JDBCDBImporter worker = source.createWorker()) {
+      DBTable table;
+      while ((table = queue.poll()) != null && !completion.isDone()) {
+        table.importDetails(worker);
+        completedTableCount.incrementAndGet();
+      }
+    } catch (RuntimeException | Error e) {
+      queue.clear();
+      logger.error("Meta data warm-up failed", e);
+      completion.completeExceptionally(e);
+    }
+    if (runningWorkers.decrementAndGet() == 0) {
+      completion.complete(database);
+    }
+  }
+
+}
@@ -0,0 +1,143 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl.model.jdbc;
+
+import com.rapiddweller.common.ImportFailedException;
+import com.rapiddweller.common.exception.ConnectFailedException;
+import com.rapiddweller.common.exception.ExceptionFactory;
+import com.rapiddweller.jdbacl.model.DBTable;
+import com.rapiddweller.jdbacl.model.Database;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * {@link JDBCDBImporter} which imports the table details of a database with several connections concurrently.
+ * After the catalogs, schemas and table names have been imported, the tables are distributed over up to
+ * 'parallelism' worker importers, each with its own connection, which import the columns, primary key,
+ * foreign keys, indexes and referrers of one table after the other. Each table is modified only by the worker
+ * which imports it, the other tables of the model are only read. Workers use the table name filter and
+ * the error handler of this importer, so an error which the error handler escalates aborts the import
+ * and is rethrown to the caller.<br/><br/>
+ * Created: 19.10.2022 10:41:17
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+public class ParallelJDBCDBImporter extends JDBCDBImporter {
+
+  private final int parallelism;
+
+  public ParallelJDBCDBImporter(String url, String driver, String user, String password,
+                                String catalog, String schema, int parallelism) {
+    super(url, driver, user, password, catalog, schema);
+    if (parallelism <= 0) {
+      throw ExceptionFactory.getInstance().illegalArgument("parallelism must be positive, but was " + parallelism);
+    }
+    this.parallelism = parallelism;
+  }
+
+  public int getParallelism() {
+    return parallelism;
+  }
+
+  @Override
+  public Database importDatabase() throws ConnectFailedException, ImportFailedException {
+    Database database = super.importDatabase();
+    importTableDetails(database);
+    logProfile();
+    return database;
+  }
+
+  /** Imports the details of all tables of the database which have not been imported yet */
+  public void importTableDetails(Database database) throws ConnectFailedException {
+    Queue<DBTable> tables = new ConcurrentLinkedQueue<>(database.getTables());
+    int workerCount = Math.min(parallelism, tables.size());
+    if (workerCount == 0) {
+      return;
+    }
+    logger.info("Importing details of {} tables with {} connections from '{}'", tables.size(), workerCount, url);
+    ImportProfile.Phase phase = profile.start("importTableDetails");
+    List<JDBCDBImporter> workers = new ArrayList<>(workerCount);
+    ExecutorService threadPool = Executors.newFixedThreadPool(workerCount);
+    try {
+      for (int i = 0; i < workerCount; i++) {
+        workers.add(createWorker());
+      }
+      List<Future<?>> futures = new ArrayList<>(workerCount);
+      for (JDBCDBImporter worker : workers) {
+        futures.add(threadPool.submit(() -> importTables(tables, worker)));
+      }
+      for (Future<?> future : futures) {
+        awaitWorker(future);
+      }
+    } finally {
+      threadPool.shutdownNow();
+      for (JDBCDBImporter worker : workers) {
+        worker.close();
+      }
+      phase.end();
+    }
+  }
+
+  // private helpers -------------------------------------------------------------------------------------------------
+
+  private static void importTables(Queue<DBTable> tables, JDBCDBImporter worker) {
+    try {
+      DBTable table;
+      while ((table = tables.poll()) != null) {
+        table.importDetails(worker);
+      }
+    } catch (RuntimeException e) {
+      tables.clear(); // makes the other workers stop after their current table
+      throw e;
+    }
+  }
+
+  private static void awaitWorker(Future<?> future) {
+    try {
+      future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw ExceptionFactory.getInstance().operationCancelled("Parallel meta data import was interrupted");
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      }
+      throw ExceptionFactory.getInstance().operationFailed("Parallel meta data import failed", cause);
+    }
+  }
+
+}
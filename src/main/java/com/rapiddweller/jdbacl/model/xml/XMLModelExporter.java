@@ -66,6 +66,7 @@ public class XMLModelExporter implements DBMetaDataExporter {
   private static final String COLUMNS = "columns";
   private static final String COLUMN = "column";
   private static final String NAME = "name";
+  private static final String SCHEMA_FINGERPRINT = "schemaFingerprint";
   private static final String FALSE = "false";
 
   private final SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
@@ -121,6 +122,9 @@ private void exportDatabase(Database database, SimpleXMLWriter writer)
     addAttribute("user", database.getUser(), attribs);
     addAttribute("tableInclusionPattern", database.getTableInclusionPattern(), attribs);
     addAttribute("tableExclusionPattern", database.getTableExclusionPattern(), attribs);
+    if (database.getSchemaFingerprint() != null) {
+      addAttribute(SCHEMA_FINGERPRINT, database.getSchemaFingerprint(), attribs);
+    }
     addAttribute("checksImported", String.valueOf(database.isChecksImported()), attribs);
     addAttribute("sequencesImported", String.valueOf(database.isSequencesImported()), attribs);
     addAttribute("triggersImported", String.valueOf(database.isTriggersImported()), attribs);
@@ -21,7 +21,6 @@
 
 package com.rapiddweller.jdbacl.model.xml;
 
-import com.rapiddweller.common.ArrayUtil;
 import com.rapiddweller.common.Assert;
 import com.rapiddweller.common.IOUtil;
 import com.rapiddweller.common.exception.ExceptionFactory;
@@ -53,7 +52,14 @@
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigInteger;
 import java.util.Set;
@@ -70,6 +76,7 @@ public class XMLModelImporter implements DBMetaDataImporter {
 
   public static final String AUTO_NAMED = "autoNamed";
   public static final String COLUMN = "column";
+  public static final String SCHEMA_FINGERPRINT = "schemaFingerprint";
 
   private final String uri;
   private final JDBCDBImporter realImporter;
@@ -93,12 +100,33 @@ public Database importDatabase() throws ImportFailedException {
     }
   }
 
+  /** Reads the schema fingerprint from the root element of a model file without parsing the rest of the file.
+   *  @return the fingerprint, or null if the file does not contain one */
+  public static String readSchemaFingerprint(File file) {
+    try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+      XMLStreamReader reader = XMLInputFactory.newInstance().createXMLStreamReader(in);
+      try {
+        while (reader.hasNext()) {
+          if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+            return StringUtil.emptyToNull(reader.getAttributeValue(null, SCHEMA_FINGERPRINT));
+          }
+        }
+        return null;
+      } finally {
+        reader.close();
+      }
+    } catch (IOException | XMLStreamException e) {
+      throw ExceptionFactory.getInstance().importFailed("Error reading schema fingerprint from " + file, e);
+    }
+  }
+
   private Database parseDatabase(Element e) {
     Database db = new Database(null, realImporter, false);
     db.setName(e.getAttribute("name"));
     db.setUser(e.getAttribute("user"));
     db.setTableInclusionPattern(e.getAttribute("tableInclusionPattern"));
     db.setTableExclusionPattern(e.getAttribute("tableExclusionPattern"));
+    db.setSchemaFingerprint(StringUtil.emptyToNull(e.getAttribute(SCHEMA_FINGERPRINT)));
 
     db.setSequencesImported(XMLUtil.getBooleanAttribute(e, "sequencesImported", true));
     db.setTriggersImported(XMLUtil.getBooleanAttribute(e, "triggersImported", true));
@@ -252,9 +280,11 @@ private static void parseFK(Element e, DBTable owner, DBSchema schema) {
     } else {
       Element colsElement = XMLUtil.getChildElement(e, false, true, "columns");
       Element[] colElements = XMLUtil.getChildElements(colsElement, false, COLUMN);
-      for (Element colElement : colElements) {
-        columnNames = ArrayUtil.append(colElement.getAttribute("name"), columnNames);
-        refereeColumnNames = ArrayUtil.append(colElement.getAttribute("refereeColumn"), refereeColumnNames);
+      columnNames = new String[colElements.length];
+      refereeColumnNames = new String[colElements.length];
+      for (int i = 0; i < colElements.length; i++) {
+        columnNames[i] = colElements[i].getAttribute("name");
+        refereeColumnNames[i] = colElements[i].getAttribute("refereeColumn");
       }
     }
     boolean autoNamed = false;
@@ -308,24 +338,30 @@ public String[] parseColumnNames(Element e) {
     } else {
       Element colsElement = XMLUtil.getChildElement(e, false, true, "columns");
       Element[] colElements = XMLUtil.getChildElements(colsElement, false, COLUMN);
-      for (Element colElement : colElements) {
-        columnNames = ArrayUtil.append(colElement.getAttribute("name"), columnNames);
+      columnNames = new String[colElements.length];
+      for (int i = 0; i < colElements.length; i++) {
+        columnNames[i] = colElements[i].getAttribute("name");
       }
     }
     return columnNames;
   }
 
   private static void scanReferers(Database database) {
+    // foreign keys which are not in the file are not imported here, since that would query each table's details
+    boolean allFKsImported = true;
     for (DBTable table : database.getTables()) {
-      Set<DBForeignKeyConstraint> fks = table.getForeignKeyConstraints();
-      for (DBForeignKeyConstraint fk : fks) {
-        fk.getRefereeTable().receiveReferrer(table);
+      if (table.areFKsImported()) {
+        Set<DBForeignKeyConstraint> fks = table.getForeignKeyConstraints();
+        for (DBForeignKeyConstraint fk : fks) {
+          fk.getRefereeTable().receiveReferrer(table);
+        }
+      } else {
+        allFKsImported = false;
       }
     }
+    // if foreign keys are missing, the referrers are incomplete and need to be imported lazily
     for (DBTable table : database.getTables()) {
-      if (table.areReferrersImported()) {
-        table.setReferrersImported(true);
-      }
+      table.setReferrersImported(allFKsImported);
     }
   }
 
@@ -27,7 +27,6 @@
 package com.rapiddweller.jdbacl.proxy;
 
 import com.rapiddweller.common.BeanUtil;
-import com.rapiddweller.common.ConfigurationError;
 import com.rapiddweller.common.Converter;
 import com.rapiddweller.common.LogCategoriesConstants;
 import com.rapiddweller.common.StringUtil;
@@ -112,7 +111,7 @@ public Object invoke(Object proxy, Method method, Object[] args)
         }
         return result;
       }
-    } catch (ConfigurationError e) {
+    } catch (RuntimeException e) { // BeanUtil wraps exceptions of the invoked method
       if (e.getCause() instanceof InvocationTargetException && e.getCause().getCause() instanceof SQLException) {
         throw e.getCause().getCause();
       } else {
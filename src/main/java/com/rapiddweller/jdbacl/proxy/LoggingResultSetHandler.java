@@ -22,7 +22,6 @@
 package com.rapiddweller.jdbacl.proxy;
 
 import com.rapiddweller.common.BeanUtil;
-import com.rapiddweller.common.ConfigurationError;
 import com.rapiddweller.common.LogCategoriesConstants;
 import com.rapiddweller.common.debug.Debug;
 import com.rapiddweller.common.debug.ResourceMonitor;
@@ -96,7 +95,7 @@ public Object invoke(Object proxy, Method method, Object[] args)
           return statement;
       }
       return BeanUtil.invoke(realResultSet, method, args);
-    } catch (ConfigurationError e) {
+    } catch (RuntimeException e) { // BeanUtil wraps exceptions of the invoked method
       if (e.getCause() instanceof InvocationTargetException && e.getCause().getCause() instanceof SQLException) {
         throw e.getCause().getCause();
       } else {
@@ -28,7 +28,6 @@
 
 import com.rapiddweller.common.BeanUtil;
 import com.rapiddweller.common.CollectionUtil;
-import com.rapiddweller.common.ConfigurationError;
 import com.rapiddweller.common.LogCategoriesConstants;
 import com.rapiddweller.common.debug.Debug;
 import com.rapiddweller.common.debug.ResourceMonitor;
@@ -123,7 +122,7 @@ public Object invoke(Object proxy, Method method, Object[] args)
         Profiler.defaultInstance().addSample(CollectionUtil.toList("SQL", sql), duration);
       }
       return result;
-    } catch (ConfigurationError e) {
+    } catch (RuntimeException e) { // BeanUtil wraps exceptions of the invoked method
       if (e.getCause() instanceof InvocationTargetException && e.getCause().getCause() instanceof SQLException) {
         throw e.getCause().getCause();
       } else {
@@ -80,12 +80,19 @@ private SQLParserUtil() {
   }
 
   public static Object parse(CharStream in, DatabaseDialect dialect) {
+    return parse(in, dialect, true);
+  }
+
+  /** Parses SQL commands like {@link #parse(CharStream, DatabaseDialect)}.
+   *  @param printErrors tells if the lexer and parser print syntax errors to the console before the parse fails;
+   *                     this is unwanted when parsing is only attempted */
+  public static Object parse(CharStream in, DatabaseDialect dialect, boolean printErrors) {
     String text = null;
     if (in instanceof TextHolder) {
       text = ((TextHolder) in).getText();
     }
     try {
-      SQLParser parser = parser(in);
+      SQLParser parser = (printErrors ? parser(in) : silentParser(in));
       SQLParser.commands_return r = parser.commands();
       checkForSyntaxErrors(text, "weightedLiteralList", parser, r);
       return convertNode((CommonTree) r.getTree(), dialect);
@@ -451,7 +458,7 @@ private static List<Object> convertNodes(List<CommonTree> nodes, DatabaseDialect
   }
 
   private static DBTable convertCreateTable(CommonTree node, DatabaseDialect dialect) {
-    String tableName = convertString(childAt(0, node));
+    String tableName = convertTableName(childAt(0, node));
     DBTable table = new DBTable(tableName);
     convertTableDetails(childAt(1, node), table, dialect);
     // TODO parse ora_configs
@@ -544,12 +551,35 @@ private static String convertString(CommonTree node) {
     return node.getText();
   }
 
+  /** Extracts the table name from a TABLE_NAME node, which has the parts of a qualified name as children */
+  private static String convertTableName(CommonTree node) {
+    int childCount = node.getChildCount();
+    return (childCount > 0 ? childAt(childCount - 1, node).getText() : node.getText());
+  }
+
   private static SQLParser parser(CharStream in) {
     SQLLexer lex = new SQLLexer(in);
     CommonTokenStream tokens = new CommonTokenStream(lex);
     return new SQLParser(tokens);
   }
 
+  /** Creates a parser which counts syntax errors without printing them */
+  private static SQLParser silentParser(CharStream in) {
+    SQLLexer lex = new SQLLexer(in) {
+      @Override
+      public void emitErrorMessage(String msg) {
+        // the error is reported by the exception of the parse
+      }
+    };
+    CommonTokenStream tokens = new CommonTokenStream(lex);
+    return new SQLParser(tokens) {
+      @Override
+      public void emitErrorMessage(String msg) {
+        // the error is reported by the exception of the parse
+      }
+    };
+  }
+
   @SuppressWarnings("unchecked")
   private static List<CommonTree> getChildNodes(CommonTree node) {
     return node.getChildren();
@@ -0,0 +1,596 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl.sql;
+
+import com.rapiddweller.common.IOUtil;
+import com.rapiddweller.common.exception.ExceptionFactory;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.regex.Pattern;
+
+/**
+ * Splits an SQL script into statements with a character-level lexer which streams the script
+ * with bounded memory. Separators are only recognized outside of string literals, quoted identifiers
+ * and comments. Line comments and comments preceding a statement are removed, while comments inside
+ * a statement are kept, since they may contain optimizer hints. Dialect-specific syntax is supported
+ * by configuration (see {@link com.rapiddweller.jdbacl.DatabaseDialect#configureScriptReader(SQLScriptReader)}):
+ * <ul>
+ *   <li>block delimiters: a line consisting only of the delimiter (like <code>/</code> in Oracle
+ *       or <code>GO</code> in SQL Server) ends a statement, and separators inside statements which match
+ *       the block start pattern (like PL/SQL blocks) are ignored until the delimiter is found</li>
+ *   <li>dollar quoting as in PostgreSQL: <code>$$ ... $$</code> and <code>$tag$ ... $tag$</code></li>
+ *   <li>backslash escapes in string literals and <code>#</code> line comments as in MySQL</li>
+ *   <li>bracket-quoted identifiers as in SQL Server: <code>[name]</code></li>
+ * </ul>
+ * The reader tracks its position in the script. For files in UTF-8 or a single-byte charset,
+ * the position is a byte offset to which a later reader can {@link #seek(long, int, long)}
+ * for resuming the script after a given statement.
+ * Created: 21.03.2022 09:12:48
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+public class SQLScriptReader implements Closeable {
+
+  public static final int DEFAULT_BUFFER_SIZE = 65536;
+
+  private static final int EOF = -1;
+
+  private enum State {
+    NORMAL, SINGLE_QUOTE, DOUBLE_QUOTE, BACKTICK, BRACKET, DOLLAR_QUOTE, LINE_COMMENT, BLOCK_COMMENT
+  }
+
+  // configuration
+  private char separator;
+  private String blockDelimiter;
+  private Pattern blockStartPattern;
+  private boolean dollarQuotes;
+  private boolean backslashEscapes;
+  private boolean hashComments;
+  private boolean bracketQuotes;
+
+  // input
+  private final File file;
+  private final Reader reader;
+  private final FileChannel channel;
+  private final CharsetDecoder decoder;
+  private final ByteBuffer bytes;
+  private boolean channelExhausted;
+  private boolean decoderFlushed;
+  private final char[] buffer;
+  private int bufferPos;
+  private int bufferLimit;
+  private int pushedBack;
+  private final boolean utf8;
+  private final boolean seekable;
+  private long position;
+
+  // lexer state
+  private final StringBuilder statement;
+  private int lineStart;
+  private boolean hasContent;
+  private boolean inBlock;
+  private String dollarTag;
+  private int lineNo;
+  private int statementLineNo;
+  private long statementCount;
+
+  // constructors ----------------------------------------------------------------------------------------------------
+
+  public SQLScriptReader(Reader reader) {
+    this(null, reader, null, null, DEFAULT_BUFFER_SIZE);
+  }
+
+  /** Reads a script file through a {@link FileChannel}, decoding a buffer of {@link #DEFAULT_BUFFER_SIZE} bytes at a time. */
+  public SQLScriptReader(File file, Charset charset) {
+    this(file, null, openChannel(file), charset, DEFAULT_BUFFER_SIZE);
+  }
+
+  private SQLScriptReader(File file, Reader reader, FileChannel channel, Charset charset, int bufferSize) {
+    this.file = file;
+    this.reader = reader;
+    this.channel = channel;
+    if (channel != null) {
+      this.decoder = charset.newDecoder()
+          .onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+      this.bytes = ByteBuffer.allocate(bufferSize);
+      this.bytes.flip();
+      this.utf8 = StandardCharsets.UTF_8.equals(charset);
+      this.seekable = (utf8 || (charset.canEncode() && charset.newEncoder().maxBytesPerChar() == 1f));
+    } else {
+      this.decoder = null;
+      this.bytes = null;
+      this.utf8 = false;
+      this.seekable = false;
+    }
+    this.buffer = new char[bufferSize];
+    this.bufferPos = 0;
+    this.bufferLimit = 0;
+    this.pushedBack = EOF;
+    this.position = 0;
+    this.separator = ';';
+    this.statement = new StringBuilder();
+    this.lineNo = 1;
+    this.statementCount = 0;
+  }
+
+  // configuration ---------------------------------------------------------------------------------------------------
+
+  public SQLScriptReader withSeparator(char separator) {
+    this.separator = separator;
+    return this;
+  }
+
+  /**
+   * Sets a delimiter which ends a statement if it appears alone on a line.
+   * @param blockDelimiter    the delimiter, compared case-insensitively
+   * @param blockStartPattern statements matching this pattern are only ended by the delimiter, not by the separator.
+   *                          If it is null, separators always end statements.
+   */
+  public SQLScriptReader withBlockDelimiter(String blockDelimiter, Pattern blockStartPattern) {
+    this.blockDelimiter = blockDelimiter;
+    this.blockStartPattern = blockStartPattern;
+    return this;
+  }
+
+  public SQLScriptReader withDollarQuotes(boolean dollarQuotes) {
+    this.dollarQuotes = dollarQuotes;
+    return this;
+  }
+
+  public SQLScriptReader withBackslashEscapes(boolean backslashEscapes) {
+    this.backslashEscapes = backslashEscapes;
+    return this;
+  }
+
+  public SQLScriptReader withHashComments(boolean hashComments) {
+    this.hashComments = hashComments;
+    return this;
+  }
+
+  public SQLScriptReader withBracketQuotes(boolean bracketQuotes) {
+    this.bracketQuotes = bracketQuotes;
+    return this;
+  }
+
+  // properties ------------------------------------------------------------------------------------------------------
+
+  /** @return the line on which the statement returned by the last call to {@link #nextStatement()} starts */
+  public int getStatementLineNo() {
+    return statementLineNo;
+  }
+
+  /** @return the number of the line which is currently read */
+  public int getLineNo() {
+    return lineNo;
+  }
+
+  public long getStatementCount() {
+    return statementCount;
+  }
+
+  /** @return the number of bytes consumed so far if the reader {@link #isSeekable()}, otherwise
+   *  the number of characters. After {@link #nextStatement()}, this is the position behind the statement's
+   *  separator or delimiter. */
+  public long getPosition() {
+    return position;
+  }
+
+  /** @return the script file, or null if the script is read from a {@link Reader} */
+  public File getFile() {
+    return file;
+  }
+
+  /** @return true if the reader reads a file in a charset for which it calculates exact byte offsets */
+  public boolean isSeekable() {
+    return seekable;
+  }
+
+  // operational interface -------------------------------------------------------------------------------------------
+
+  /** @return the next statement without separator or delimiter, or null if the end of the script has been reached */
+  public String nextStatement() throws IOException {
+    String result;
+    do {
+      result = readStatement();
+    } while (result != null && result.isEmpty());
+    if (result != null) {
+      statementCount++;
+    }
+    return result;
+  }
+
+  /** Continues reading at a position which has been reported by {@link #getPosition()}
+   *  of a reader on the same file, e.g. for resuming a script after the last committed statement.
+   *  @param position       the byte offset at which to continue reading
+   *  @param lineNo         the line number at the position
+   *  @param statementCount the number of statements preceding the position */
+  public void seek(long position, int lineNo, long statementCount) throws IOException {
+    if (!seekable) {
+      throw ExceptionFactory.getInstance().illegalOperation(
+          "Seeking is only supported for script files in UTF-8 or a single-byte charset");
+    }
+    channel.position(position);
+    bytes.clear();
+    bytes.flip();
+    decoder.reset();
+    channelExhausted = false;
+    decoderFlushed = false;
+    bufferPos = 0;
+    bufferLimit = 0;
+    pushedBack = EOF;
+    this.position = position;
+    this.lineNo = lineNo;
+    this.statementCount = statementCount;
+  }
+
+  @Override
+  public void close() {
+    IOUtil.close(reader);
+    IOUtil.close(channel);
+  }
+
+  // lexer -----------------------------------------------------------------------------------------------------------
+
+  /** @return the next statement, an empty string if a separator or delimiter without preceding statement
+   *  was found, or null at the end of the script */
+  private String readStatement() throws IOException {
+    resetStatement();
+    State state = State.NORMAL;
+    int c;
+    while ((c = read()) != EOF) {
+      switch (state) {
+        case NORMAL:
+          if (c == separator && !inBlock) {
+            if (blockStartPattern != null && blockStartPattern.matcher(statement).lookingAt()) {
+              inBlock = true;
+            } else {
+              return completeStatement(statement.length());
+            }
+          }
+          state = processNormal(c);
+          break;
+        case SINGLE_QUOTE:
+          state = processQuoted(c, '\'', State.SINGLE_QUOTE);
+          break;
+        case DOUBLE_QUOTE:
+          state = processQuoted(c, '"', State.DOUBLE_QUOTE);
+          break;
+        case BACKTICK:
+          state = processQuoted(c, '`', State.BACKTICK);
+          break;
+        case BRACKET:
+          state = processQuoted(c, ']', State.BRACKET);
+          break;
+        case DOLLAR_QUOTE:
+          state = processDollarQuoted(c);
+          break;
+        case LINE_COMMENT:
+          if (c == '\n') {
+            state = processNormal(c);
+          }
+          break;
+        case BLOCK_COMMENT:
+          state = processBlockComment(c);
+          break;
+        default:
+          throw ExceptionFactory.getInstance().programmerStateError("Unexpected state: " + state);
+      }
+      if (state == null) {
+        // a line with the block delimiter was found
+        return completeStatement(lineStart);
+      }
+    }
+    if (blockDelimiter != null && isDelimiterLine()) {
+      statement.setLength(lineStart);
+    }
+    return (hasContent ? completeStatement(statement.length()) : null);
+  }
+
+  /** Processes a character outside of quotes and comments.
+   *  @return the next state, or null if a line consisting of the block delimiter has been completed */
+  private State processNormal(int c) throws IOException {
+    switch (c) {
+      case '\n':
+        if (blockDelimiter != null && isDelimiterLine()) {
+          lineNo++;
+          return null;
+        }
+        lineNo++;
+        appendWhitespace(c);
+        lineStart = statement.length();
+        return State.NORMAL;
+      case '\'':
+        append(c);
+        return State.SINGLE_QUOTE;
+      case '"':
+        append(c);
+        return State.DOUBLE_QUOTE;
+      case '`':
+        append(c);
+        return State.BACKTICK;
+      case '[':
+        append(c);
+        return (bracketQuotes ? State.BRACKET : State.NORMAL);
+      case '#':
+        if (hashComments) {
+          return State.LINE_COMMENT;
+        }
+        append(c);
+        return State.NORMAL;
+      case '-':
+        return processPotentialCommentStart(c, '-', State.LINE_COMMENT);
+      case '/':
+        return processPotentialCommentStart(c, '*', State.BLOCK_COMMENT);
+      case '$':
+        append(c);
+        return (dollarQuotes ? processPotentialDollarTag() : State.NORMAL);
+      default:
+        if (Character.isWhitespace(c)) {
+          appendWhitespace(c);
+        } else {
+          append(c);
+        }
+        return State.NORMAL;
+    }
+  }
+
+  private State processPotentialCommentStart(int c, char second, State commentState) throws IOException {
+    int next = read();
+    if (next != second) {
+      append(c);
+      unread(next);
+      return State.NORMAL;
+    }
+    if (commentState == State.BLOCK_COMMENT) {
+      int third = read();
+      unread(third);
+      // comments inside a statement and executable or hint comments are kept
+      if (hasContent || third == '!' || third == '+') {
+        append(c);
+        append(next);
+        return State.BLOCK_COMMENT;
+      }
+      return State.BLOCK_COMMENT;
+    }
+    return commentState;
+  }
+
+  private State processBlockComment(int c) throws IOException {
+    boolean kept = hasContent;
+    if (c == '\n') {
+      lineNo++;
+    }
+    if (kept) {
+      statement.append((char) c);
+    }
+    if (c == '*') {
+      int next = read();
+      if (next == '/') {
+        if (kept) {
+          statement.append('/');
+        }
+        return State.NORMAL;
+      }
+      unread(next);
+    }
+    return State.BLOCK_COMMENT;
+  }
+
+  private State processQuoted(int c, char closingQuote, State quoteState) throws IOException {
+    statement.append((char) c);
+    if (c == '\n') {
+      lineNo++;
+    } else if (c == '\\' && backslashEscapes && quoteState != State.BRACKET) {
+      int next = read();
+      if (next != EOF) {
+        statement.append((char) next);
+        if (next == '\n') {
+          lineNo++;
+        }
+      }
+    } else if (c == closingQuote) {
+      int next = read();
+      if (next == closingQuote) { // doubled quote character
+        statement.append((char) next);
+      } else {
+        unread(next);
+        return State.NORMAL;
+      }
+    }
+    return quoteState;
+  }
+
+  /** Checks if a '$' which has just been appended starts a dollar-quoted string like $$...$$ or $tag$...$tag$. */
+  private State processPotentialDollarTag() throws IOException {
+    String tag = readDollarTag();
+    if (tag == null) {
+      return State.NORMAL;
+    }
+    this.dollarTag = tag;
+    return State.DOLLAR_QUOTE;
+  }
+
+  private State processDollarQuoted(int c) throws IOException {
+    statement.append((char) c);
+    if (c == '\n') {
+      lineNo++;
+    } else if (c == '$') {
+      String tag = readDollarTag();
+      if (dollarTag.equals(tag)) {
+        return State.NORMAL;
+      } else if (tag != null) {
+        // a different tag's closing '$' may open the wanted one
+        unread('$');
+        statement.setLength(statement.length() - 1);
+      }
+    }
+    return State.DOLLAR_QUOTE;
+  }
+
+  /** Reads and appends the characters after a '$' up to and including the next '$' if they form a valid tag.
+   *  @return the tag or null if the characters do not form a tag */
+  private String readDollarTag() throws IOException {
+    int start = statement.length();
+    int c = read();
+    while (c != EOF && c != '$' && (Character.isLetter(c) || c == '_' || (Character.isDigit(c) && statement.length() > start))) {
+      statement.append((char) c);
+      c = read();
+    }
+    if (c == '$') {
+      statement.append('$');
+      return statement.substring(start, statement.length() - 1);
+    }
+    unread(c);
+    return null;
+  }
+
+  // statement assembly ----------------------------------------------------------------------------------------------
+
+  private void resetStatement() {
+    statement.setLength(0);
+    lineStart = 0;
+    hasContent = false;
+    inBlock = false;
+  }
+
+  private void append(int c) {
+    if (!hasContent) {
+      hasContent = true;
+      statementLineNo = lineNo;
+      statement.setLength(0);
+      lineStart = 0;
+    }
+    statement.append((char) c);
+  }
+
+  private void appendWhitespace(int c) {
+    if (hasContent) {
+      statement.append((char) c);
+    }
+  }
+
+  private boolean isDelimiterLine() {
+    int start = lineStart;
+    int end = statement.length();
+    while (start < end && Character.isWhitespace(statement.charAt(start))) {
+      start++;
+    }
+    while (end > start && Character.isWhitespace(statement.charAt(end - 1))) {
+      end--;
+    }
+    return (end - start == blockDelimiter.length() &&
+        statement.substring(start, end).equalsIgnoreCase(blockDelimiter));
+  }
+
+  private String completeStatement(int end) {
+    statement.setLength(end);
+    return (hasContent ? statement.toString().trim() : "");
+  }
+
+  // input -----------------------------------------------------------------------------------------------------------
+
+  private int read() throws IOException {
+    if (pushedBack != EOF) {
+      int c = pushedBack;
+      pushedBack = EOF;
+      position += charLength(c);
+      return c;
+    }
+    if (bufferPos == bufferLimit) {
+      bufferLimit = (reader != null ? reader.read(buffer, 0, buffer.length) : readFromChannel());
+      bufferPos = 0;
+      if (bufferLimit <= 0) {
+        bufferLimit = 0;
+        return EOF;
+      }
+    }
+    char c = buffer[bufferPos++];
+    position += charLength(c);
+    return c;
+  }
+
+  private void unread(int c) {
+    pushedBack = c;
+    if (c != EOF) {
+      position -= charLength(c);
+    }
+  }
+
+  /** @return the number of bytes the character occupies in the script, a supplementary character counting
+   *  4 bytes on its high surrogate. Malformed input is counted as the UTF-8 length of the replacement character. */
+  private int charLength(int c) {
+    if (!utf8 || c < 0x80) {
+      return 1;
+    } else if (c < 0x800) {
+      return 2;
+    } else if (Character.isHighSurrogate((char) c)) {
+      return 4;
+    } else if (Character.isLowSurrogate((char) c)) {
+      return 0;
+    } else {
+      return 3;
+    }
+  }
+
+  private int readFromChannel() throws IOException {
+    CharBuffer out = CharBuffer.wrap(buffer);
+    while (out.position() == 0 && !decoderFlushed) {
+      if (!channelExhausted) {
+        bytes.compact();
+        channelExhausted = (channel.read(bytes) < 0);
+        bytes.flip();
+      }
+      CoderResult result = decoder.decode(bytes, out, channelExhausted);
+      if (channelExhausted && result.isUnderflow()) {
+        decoder.flush(out);
+        decoderFlushed = true;
+      }
+    }
+    return (out.position() > 0 ? out.position() : EOF);
+  }
+
+  private static FileChannel openChannel(File file) {
+    try {
+      return FileChannel.open(file.toPath(), StandardOpenOption.READ);
+    } catch (IOException e) {
+      throw ExceptionFactory.getInstance().operationFailed("Error opening SQL script " + file, e);
+    }
+  }
+
+}
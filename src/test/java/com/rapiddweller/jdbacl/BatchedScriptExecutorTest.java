@@ -0,0 +1,164 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl;
+
+import com.rapiddweller.common.ErrorHandler;
+import com.rapiddweller.common.Level;
+import com.rapiddweller.jdbacl.dialect.H2Util;
+import com.rapiddweller.jdbacl.dialect.HSQLUtil;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link BatchedScriptExecutor}.<br/><br/>
+ * Created: 18.03.2022 11:42:17
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+public class BatchedScriptExecutorTest {
+
+  private static final ErrorHandler LENIENT = new ErrorHandler(BatchedScriptExecutorTest.class.getName(), Level.debug);
+
+  @Test
+  public void testBatchesAndCommits() throws SQLException {
+    Connection connection = HSQLUtil.connectInMemoryDB(getClass().getSimpleName());
+    connection.setAutoCommit(false);
+    try (BatchedScriptExecutor executor = new BatchedScriptExecutor(connection, 50, 100, null)) {
+      executor.execute("create table BSE_T (ID int, NAME varchar(10))", 1);
+      for (int i = 0; i < 250; i++) {
+        executor.execute("insert into BSE_T values (" + i + ", 'N" + i + "')", i + 2);
+      }
+      assertEquals(251, executor.getStatementCount());
+      executor.execute("select count(*) from BSE_T", 252);
+      assertEquals(250, ((Number) executor.getResult()).intValue());
+      executor.finish();
+      assertEquals(252, executor.getStatementCount());
+      assertEquals(3, executor.getCommitCount());
+      assertTrue(executor.isChangedStructure());
+      assertEquals(null, executor.getException());
+    } finally {
+      DBUtil.executeUpdate("drop table BSE_T", connection);
+      DBUtil.close(connection);
+    }
+  }
+
+  @Test
+  public void testFailureLineNumberHSQL() throws SQLException {
+    Connection connection = HSQLUtil.connectInMemoryDB(getClass().getSimpleName());
+    try {
+      checkFailureLineNumber(connection);
+    } finally {
+      DBUtil.close(connection);
+    }
+  }
+
+  @Test
+  public void testFailureLineNumberH2() throws SQLException {
+    Connection connection = H2Util.connectInMemoryDB(getClass().getSimpleName());
+    try {
+      checkFailureLineNumber(connection);
+    } finally {
+      DBUtil.close(connection);
+    }
+  }
+
+  @Test
+  public void testMultipleFailuresHSQL() throws SQLException {
+    Connection connection = HSQLUtil.connectInMemoryDB(getClass().getSimpleName());
+    try {
+      checkMultipleFailures(connection);
+    } finally {
+      DBUtil.close(connection);
+    }
+  }
+
+  @Test
+  public void testMultipleFailuresH2() throws SQLException {
+    Connection connection = H2Util.connectInMemoryDB(getClass().getSimpleName());
+    try {
+      checkMultipleFailures(connection);
+    } finally {
+      DBUtil.close(connection);
+    }
+  }
+
+  @Test
+  public void testIsBatchable() {
+    assertTrue(BatchedScriptExecutor.isBatchable("insert into T values (1)"));
+    assertTrue(BatchedScriptExecutor.isBatchable("UPDATE T set X = 1"));
+    assertTrue(BatchedScriptExecutor.isBatchable("delete from T"));
+    assertFalse(BatchedScriptExecutor.isBatchable("create table T (ID int)"));
+    assertFalse(BatchedScriptExecutor.isBatchable("select * from T"));
+  }
+
+  private static void checkFailureLineNumber(Connection connection) throws SQLException {
+    String script =
+        "create table BSE_F (ID int, primary key (ID));\n" +
+        "-- some data\n" +
+        "insert into BSE_F values (1);\n" +
+        "insert into BSE_F\n" +
+        "  values (2);\n" +
+        "insert into BSE_F values (1);\n" +
+        "insert into BSE_F values (3);\n" +
+        "select count(*) from BSE_F;";
+    DBExecutionResult result = DBUtil.executeScript(script, ';', connection, false, 10, 0, LENIENT);
+    assertTrue(result.result instanceof SQLScriptException);
+    assertEquals(6, ((SQLScriptException) result.result).getLineNo());
+    assertEquals(3, DBUtil.queryInt("select count(*) from BSE_F", connection).intValue());
+    DBUtil.executeUpdate("drop table BSE_F", connection);
+  }
+
+  private static void checkMultipleFailures(Connection connection) throws SQLException {
+    String script =
+        "create table BSE_M (ID int, primary key (ID));\n" +
+        "insert into BSE_M values (1);\n" +
+        "insert into BSE_M values (1);\n" +
+        "insert into BSE_M values (2);\n" +
+        "insert into BSE_M values (2);\n" +
+        "insert into BSE_M values (3);";
+    List<Integer> failedLines = new ArrayList<>();
+    ErrorHandler errorHandler = new ErrorHandler(BatchedScriptExecutorTest.class.getName(), Level.debug) {
+      @Override
+      public void handleError(String message, Throwable t) {
+        failedLines.add(((SQLScriptException) t).getLineNo());
+      }
+    };
+    DBUtil.executeScript(script, ';', connection, false, 10, 0, errorHandler);
+    assertEquals(List.of(3, 5), failedLines);
+    assertEquals(3, DBUtil.queryInt("select count(*) from BSE_M", connection).intValue());
+    DBUtil.executeUpdate("drop table BSE_M", connection);
+  }
+
+}
@@ -0,0 +1,213 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl;
+
+import com.rapiddweller.jdbacl.dialect.H2Dialect;
+import com.rapiddweller.jdbacl.dialect.H2Util;
+import com.rapiddweller.jdbacl.dialect.HSQLDialect;
+import com.rapiddweller.jdbacl.dialect.HSQLUtil;
+import com.rapiddweller.jdbacl.model.DBCatalog;
+import com.rapiddweller.jdbacl.model.DBPrimaryKeyConstraint;
+import com.rapiddweller.jdbacl.model.DBRow;
+import com.rapiddweller.jdbacl.model.DBSchema;
+import com.rapiddweller.jdbacl.model.DBTable;
+import com.rapiddweller.jdbacl.model.TableType;
+import com.rapiddweller.common.exception.MutationFailed;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the {@link BulkWriter}.<br/><br/>
+ * Created: 14.03.2022 10:17:03
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+public class BulkWriterTest {
+
+  private static final List<ColumnInfo> COLUMNS = List.of(
+      new ColumnInfo("ID", Types.INTEGER, Integer.class),
+      new ColumnInfo("NAME", Types.VARCHAR, String.class));
+
+  private Connection connection;
+  private DBTable table;
+
+  @Before
+  public void setUp() throws SQLException {
+    connection = HSQLUtil.connectInMemoryDB(getClass().getSimpleName());
+    DBUtil.executeUpdate("create table BW_T (ID int, NAME varchar(30), primary key (ID))", connection);
+    DBSchema schema = new DBSchema("PUBLIC", new DBCatalog(null));
+    table = new DBTable("BW_T", TableType.TABLE, schema);
+    new DBPrimaryKeyConstraint(table, "BW_T_PK", true, "ID");
+  }
+
+  @After
+  public void tearDown() throws SQLException {
+    DBUtil.executeUpdate("drop table BW_T", connection);
+    DBUtil.close(connection);
+  }
+
+  @Test
+  public void testInsert() throws SQLException {
+    try (BulkWriter writer = new BulkWriter(table, COLUMNS, connection, new HSQLDialect())
+        .withBatchSize(3).withCommitInterval(6)) {
+      for (int i = 1; i <= 10; i++) {
+        writer.write(new Object[] {i, "N" + i});
+      }
+      assertEquals(9, writer.getRowCount());
+      assertEquals(3, writer.getBatchCount());
+      writer.close();
+      assertEquals(10, writer.getRowCount());
+      assertTrue(writer.getRowsPerSecond() > 0);
+    }
+    assertEquals(10, DBUtil.queryInt("select count(*) from BW_T", connection).intValue());
+    assertEquals("N7", DBUtil.queryScalar("select NAME from BW_T where ID = 7", connection));
+  }
+
+  @Test
+  public void testPipelinedInsertWithConversion() throws SQLException {
+    try (BulkWriter writer = new BulkWriter(table, COLUMNS, connection, new HSQLDialect())
+        .withBatchSize(7).withPipelining(true)) {
+      for (int i = 1; i <= 100; i++) {
+        writer.write(new Object[] {String.valueOf(i), (i % 10 == 0 ? null : "N" + i)});
+      }
+    }
+    assertEquals(100, DBUtil.queryInt("select count(*) from BW_T", connection).intValue());
+    assertEquals(10, DBUtil.queryInt("select count(*) from BW_T where NAME is null", connection).intValue());
+  }
+
+  @Test
+  public void testMultiRowInsert() throws SQLException {
+    Connection h2 = H2Util.connectInMemoryDB(getClass().getSimpleName());
+    try {
+      DBUtil.executeUpdate("create table BW_T (ID int, NAME varchar(30), primary key (ID))", h2);
+      try (BulkWriter writer = new BulkWriter(table, COLUMNS, h2, new H2Dialect()).withBatchSize(4)) {
+        for (int i = 1; i <= 10; i++) {
+          writer.write(new Object[] {i, (i == 5 ? null : "N" + i)});
+        }
+        assertEquals(4, writer.getRowsPerStatement());
+      }
+      assertEquals(10, DBUtil.queryInt("select count(*) from BW_T", h2).intValue());
+      assertEquals("N10", DBUtil.queryScalar("select NAME from BW_T where ID = 10", h2));
+      assertNull(DBUtil.queryScalar("select NAME from BW_T where ID = 5", h2));
+    } finally {
+      DBUtil.close(h2);
+    }
+  }
+
+  @Test
+  public void testBatchSplitByInlinedLength() throws SQLException {
+    // a dialect whose driver inlines the values into statements of at most 200 characters
+    H2Dialect dialect = new H2Dialect() {
+      @Override
+      public boolean isInliningParameters() {
+        return true;
+      }
+
+      @Override
+      public int getMaxStatementLength() {
+        return 200;
+      }
+    };
+    Connection h2 = H2Util.connectInMemoryDB(getClass().getSimpleName());
+    try {
+      DBUtil.executeUpdate("create table BW_T (ID int, NAME varchar(30), primary key (ID))", h2);
+      try (BulkWriter writer = new BulkWriter(table, COLUMNS, h2, dialect).withBatchSize(4)) {
+        for (int i = 1; i <= 10; i++) {
+          writer.write(new Object[] {i, "NAME_" + (1000000000000L + i)}); // 3 + 38 characters when inlined
+        }
+        writer.flush();
+        // the batches are smaller than the batch size, since only few 41 character rows fit beside the statement text
+        assertEquals(4, writer.getRowsPerStatement());
+        int rowsPerBatch = (200 - dialect.insertMultiRow(table, COLUMNS, 4).length()) / 41;
+        assertTrue(rowsPerBatch < 4);
+        assertEquals((10 + rowsPerBatch - 1) / rowsPerBatch, writer.getBatchCount());
+      }
+      assertEquals(10, DBUtil.queryInt("select count(*) from BW_T", h2).intValue());
+    } finally {
+      DBUtil.close(h2);
+    }
+  }
+
+  @Test
+  public void testFailedBatch() throws SQLException {
+    BulkWriter writer = new BulkWriter(table, COLUMNS, connection, new HSQLDialect()).withBatchSize(2);
+    writer.write(new Object[] {1, "A"});
+    try {
+      writer.write(new Object[] {1, "B"});
+      fail("MutationFailed expected");
+    } catch (MutationFailed e) {
+      // the original exception must be reported...
+      assertTrue(e.getCause() instanceof SQLException);
+    }
+    // ...and closing must not execute the failed batch again
+    writer.close();
+    assertEquals(0, writer.getRowCount());
+  }
+
+  @Test
+  public void testFailedPipelinedBatch() throws SQLException {
+    BulkWriter writer = new BulkWriter(table, COLUMNS, connection, new HSQLDialect())
+        .withBatchSize(2).withPipelining(true);
+    writer.write(new Object[] {1, "A"});
+    writer.write(new Object[] {1, "B"});
+    writer.write(new Object[] {2, "C"});
+    try {
+      writer.flush();
+      fail("MutationFailed expected");
+    } catch (MutationFailed e) {
+      assertTrue(e.getCause() instanceof SQLException);
+    }
+    writer.close();
+  }
+
+  @Test
+  public void testUpdate() throws SQLException {
+    DBUtil.executeUpdate("insert into BW_T values (1, 'A')", connection);
+    DBUtil.executeUpdate("insert into BW_T values (2, 'B')", connection);
+    try (BulkWriter writer = new BulkWriter(table, COLUMNS, BulkWriter.Operation.UPDATE, connection, new HSQLDialect())) {
+      DBRow row = new DBRow(table);
+      row.setCellValue("ID", 2);
+      row.setCellValue("NAME", "Bob");
+      writer.write(row);
+    }
+    assertArrayEquals(new String[] {"A", "Bob"},
+        DBUtil.queryScalarRowsAsArray("select NAME from BW_T order by ID", String.class, connection));
+  }
+
+}
@@ -25,9 +25,19 @@
 import com.rapiddweller.jdbacl.dialect.HSQL2Dialect;
 import com.rapiddweller.jdbacl.dialect.HSQLDialect;
 import com.rapiddweller.jdbacl.dialect.OracleDialect;
+import com.rapiddweller.jdbacl.dialect.UnknownDialect;
 import org.junit.Test;
 
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
 
 /**
  * Tests the {@link DatabaseDialectManager}.<br/><br/>
@@ -57,6 +67,51 @@ public void testVersionedSettings() {
     check("HSQLDB", "2.9", HSQL2Dialect.class);
   }
 
+  @Test
+  public void testSharedInstances() {
+    VersionNumber v2 = VersionNumber.valueOf("2.0.0");
+    DatabaseDialect dialect = DatabaseDialectManager.getDialectForProduct("HSQL Database Engine", v2);
+    assertSame(dialect, DatabaseDialectManager.getDialectForProduct("HSQL Database Engine", VersionNumber.valueOf("2.0.0")));
+    assertNotSame(dialect, DatabaseDialectManager.getDialectForProduct("HSQL Database Engine", VersionNumber.valueOf("1.8")));
+    assertSame(DatabaseDialectManager.getDialectForProduct("Oracle", null),
+        DatabaseDialectManager.getDialectForProduct("Oracle", null));
+  }
+
+  @Test
+  public void testUnknownProduct() {
+    DatabaseDialect dialect = DatabaseDialectManager.getDialectForProduct("NoSuchDB", null);
+    assertEquals(UnknownDialect.class, dialect.getClass());
+    assertSame(dialect, DatabaseDialectManager.getDialectForProduct("NoSuchDB", null));
+  }
+
+  @Test
+  public void testConcurrentFormatting() throws Exception {
+    DatabaseDialect dialect = DatabaseDialectManager.getDialectForProduct("H2", null);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<Integer>> futures = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        final int day = t + 1;
+        futures.add(executor.submit(() -> {
+          Date date = Date.valueOf("2022-01-0" + day);
+          String expected = "'2022-01-0" + day + "'";
+          int errors = 0;
+          for (int i = 0; i < 2000; i++) {
+            if (!expected.equals(dialect.formatValue(date))) {
+              errors++;
+            }
+          }
+          return errors;
+        }));
+      }
+      for (Future<Integer> future : futures) {
+        assertEquals(0, (int) future.get());
+      }
+    } finally {
+      executor.shutdown();
+    }
+  }
+
   private static void check(String product, String version, Class<? extends DatabaseDialect> expectedClass) {
     VersionNumber versionNumber = VersionNumber.valueOf(version);
     DatabaseDialect dialect = DatabaseDialectManager.getDialectForProduct(product, versionNumber);
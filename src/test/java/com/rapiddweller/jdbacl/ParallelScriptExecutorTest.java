@@ -0,0 +1,217 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl;
+
+import com.rapiddweller.common.CollectionUtil;
+import com.rapiddweller.common.ErrorHandler;
+import com.rapiddweller.common.Level;
+import com.rapiddweller.jdbacl.dialect.H2Util;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the {@link ParallelScriptExecutor}.<br/><br/>
+ * Created: 22.03.2022 14:20:51
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+public class ParallelScriptExecutorTest {
+
+  private static final String DB_NAME = ParallelScriptExecutorTest.class.getSimpleName();
+  private static final int PARALLELISM = 4;
+  private static final int TABLE_COUNT = 8;
+  private static final ErrorHandler LENIENT = new ErrorHandler(ParallelScriptExecutorTest.class.getName(), Level.debug);
+
+  private List<Connection> connections;
+
+  @Before
+  public void setUp() {
+    connections = new ArrayList<>();
+    for (int i = 0; i < PARALLELISM; i++) {
+      connections.add(H2Util.connectInMemoryDB(DB_NAME));
+    }
+  }
+
+  @After
+  public void tearDown() throws SQLException {
+    DBUtil.executeUpdate("drop all objects", connections.get(0));
+    for (Connection connection : connections) {
+      DBUtil.close(connection);
+    }
+  }
+
+  @Test
+  public void testTouchedTables() {
+    try (ParallelScriptExecutor executor = new ParallelScriptExecutor(connections, null)) {
+      assertEquals(CollectionUtil.toSet("T1"), executor.touchedTables("create table T1 (ID int, NAME varchar(10))"));
+      assertEquals(CollectionUtil.toSet("T1"), executor.touchedTables("create table t1 (ID NUMBER(8) NOT NULL)"));
+      assertEquals(CollectionUtil.toSet("T1"), executor.touchedTables("create unique index T1_IDX on T1 (NAME)"));
+      assertEquals(CollectionUtil.toSet("T1", "T2"),
+          executor.touchedTables("alter table T1 add constraint T1_FK foreign key (T2_ID) references T2 (ID)"));
+      assertEquals(CollectionUtil.toSet("T1"), executor.touchedTables("insert into T1 values (1, 'A')"));
+      assertEquals(CollectionUtil.toSet("T1", "T2"), executor.touchedTables("select * from T1 join T2 on T1.X = T2.X"));
+      assertNull(executor.touchedTables("create sequence S1"));
+      assertNull(executor.touchedTables("call P1()"));
+    }
+  }
+
+  @Test
+  public void testSchemaBuild() {
+    try (ParallelScriptExecutor executor = new ParallelScriptExecutor(connections, null)) {
+      int lineNo = 1;
+      for (int t = 0; t < TABLE_COUNT; t++) {
+        executor.execute("create table PSE_T" + t + " (ID int not null, REF_ID int, NAME varchar(20))", lineNo++);
+        for (int i = 0; i < 100; i++) {
+          executor.execute("insert into PSE_T" + t + " values (" + i + ", " + i + ", 'N" + i + "')", lineNo++);
+        }
+      }
+      for (int t = 0; t < TABLE_COUNT; t++) {
+        executor.execute("alter table PSE_T" + t + " add constraint PSE_T" + t + "_PK primary key (ID)", lineNo++);
+        executor.execute("create index PSE_T" + t + "_IDX on PSE_T" + t + " (NAME)", lineNo++);
+      }
+      for (int t = 1; t < TABLE_COUNT; t++) {
+        executor.execute("alter table PSE_T" + t + " add constraint PSE_T" + t + "_FK " +
+            "foreign key (REF_ID) references PSE_T" + (t - 1) + " (ID)", lineNo++);
+      }
+      executor.finish();
+      assertNull(executor.getException());
+      assertEquals(lineNo - 1, executor.getStatementCount());
+      assertEquals(lineNo - 1, executor.getCommittedCount());
+      assertTrue(executor.isChangedStructure());
+      assertTrue(executor.getMaxRunningCount() > 1);
+      assertTrue(executor.getMaxRunningCount() <= PARALLELISM);
+    }
+    for (int t = 0; t < TABLE_COUNT; t++) {
+      assertEquals(100, DBUtil.queryInt("select count(*) from PSE_T" + t, connections.get(0)).intValue());
+    }
+    assertEquals(TABLE_COUNT - 1, DBUtil.queryInt("select count(*) from INFORMATION_SCHEMA.CONSTRAINTS " +
+        "where CONSTRAINT_TYPE = 'REFERENTIAL' and TABLE_NAME like 'PSE_T%'", connections.get(0)).intValue());
+  }
+
+  @Test
+  public void testBarrier() {
+    try (ParallelScriptExecutor executor = new ParallelScriptExecutor(connections, null)) {
+      executor.execute("create table PSE_A (ID int)", 1);
+      executor.execute("create sequence PSE_SEQ", 2);
+      executor.execute("insert into PSE_A values (next value for PSE_SEQ)", 3);
+      executor.execute("insert into PSE_A values (next value for PSE_SEQ)", 4);
+      executor.finish();
+      assertNull(executor.getException());
+    }
+    assertEquals(3, DBUtil.queryInt("select sum(ID) from PSE_A", connections.get(0)).intValue());
+  }
+
+  @Test
+  public void testSessionStatement() {
+    try (ParallelScriptExecutor executor = new ParallelScriptExecutor(connections, null)) {
+      executor.execute("create schema PSE_S", 1);
+      executor.execute("set schema PSE_S", 2);
+      for (int t = 0; t < TABLE_COUNT; t++) {
+        executor.execute("create table PSE_ST" + t + " (ID int)", 3 + t);
+      }
+      executor.finish();
+      assertNull(executor.getException());
+      assertEquals(TABLE_COUNT + 2, executor.getStatementCount());
+    }
+    // all connections have been switched to the schema before any table was created
+    assertEquals(TABLE_COUNT, DBUtil.queryInt("select count(*) from INFORMATION_SCHEMA.TABLES " +
+        "where TABLE_SCHEMA = 'PSE_S' and TABLE_NAME like 'PSE_ST%'", connections.get(0)).intValue());
+    assertTrue(ParallelScriptExecutor.isSessionStatement("alter session set NLS_DATE_FORMAT = 'YYYY-MM-DD'"));
+    assertTrue(ParallelScriptExecutor.isSessionStatement("SET search_path TO app"));
+    assertFalse(ParallelScriptExecutor.isSessionStatement("set table T1 source 't1.csv'"));
+    assertFalse(ParallelScriptExecutor.isSessionStatement("update T1 set NAME = 'x'"));
+  }
+
+  @Test
+  public void testNoSyntaxErrorOutput() {
+    PrintStream err = System.err;
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    System.setErr(new PrintStream(buffer));
+    try (ParallelScriptExecutor executor = new ParallelScriptExecutor(connections, null)) {
+      assertEquals(CollectionUtil.toSet("T1", "T2"), executor.touchedTables(
+          "alter table T1 add constraint T1_FK foreign key (T2_ID) references T2 (ID) on delete cascade"));
+      assertEquals(CollectionUtil.toSet("T1"), executor.touchedTables("create table T1 (ID int) engine = InnoDB"));
+    } finally {
+      System.setErr(err);
+    }
+    assertEquals("", buffer.toString());
+  }
+
+  @Test
+  public void testErrorContinuation() {
+    try (ParallelScriptExecutor executor = new ParallelScriptExecutor(connections, LENIENT)) {
+      executor.execute("create table PSE_B (ID int)", 1);
+      executor.execute("insert into PSE_B values (1)", 2);
+      executor.execute("insert into PSE_MISSING values (1)", 3);
+      executor.execute("insert into PSE_B values (2)", 4);
+      executor.finish();
+      assertEquals(4, executor.getStatementCount());
+      assertEquals(3, executor.getException().getLineNo());
+    }
+    assertEquals(2, DBUtil.queryInt("select count(*) from PSE_B", connections.get(0)).intValue());
+  }
+
+  @Test
+  public void testErrorAbort() {
+    try (ParallelScriptExecutor executor = new ParallelScriptExecutor(connections, null)) {
+      executor.execute("insert into PSE_MISSING values (1)", 1);
+      executor.finish();
+      fail("Exception expected");
+    } catch (RuntimeException e) {
+      // expected
+    }
+  }
+
+  @Test
+  public void testExecuteScript() throws SQLException {
+    JDBCConnectData connectData = new JDBCConnectData(H2Util.DRIVER, H2Util.getInMemoryURL(DB_NAME),
+        H2Util.DEFAULT_USER, H2Util.DEFAULT_PASSWORD);
+    DBExecutionResult result = DBUtil.executeScript(
+        "create table PSE_C (ID int); create table PSE_D (ID int);\n" +
+        "insert into PSE_C values (1); insert into PSE_D values (2);\n" +
+        "create index PSE_C_IDX on PSE_C (ID); create index PSE_D_IDX on PSE_D (ID);",
+        ';', connectData, false, PARALLELISM, null);
+    assertNull(result.result);
+    assertTrue(result.changedStructure);
+    assertEquals(3, DBUtil.queryInt("select (select ID from PSE_C) + (select ID from PSE_D)", connections.get(0)).intValue());
+  }
+
+}
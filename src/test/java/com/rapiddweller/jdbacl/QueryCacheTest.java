@@ -0,0 +1,174 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl;
+
+import com.rapiddweller.jdbacl.dialect.HSQLUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link QueryCache} and its use by {@link DBUtil}.<br/><br/>
+ * Created: 11.03.2022 10:02:13
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+public class QueryCacheTest {
+
+  private Connection connection;
+  private QueryCache cache;
+
+  @Before
+  public void setUp() throws SQLException {
+    connection = HSQLUtil.connectInMemoryDB(getClass().getSimpleName());
+    DBUtil.executeUpdate("create table QC_T1 (ID int, NAME varchar(30))", connection);
+    DBUtil.executeUpdate("create table QC_T2 (ID int)", connection);
+    DBUtil.executeUpdate("insert into QC_T1 values (1, 'Alice')", connection);
+    DBUtil.executeUpdate("insert into QC_T2 values (1)", connection);
+    cache = new QueryCache(2, 100, 60000);
+    DBUtil.setQueryCache(cache);
+  }
+
+  @After
+  public void tearDown() throws SQLException {
+    DBUtil.setQueryCache(null);
+    DBUtil.executeUpdate("drop table QC_T1", connection);
+    DBUtil.executeUpdate("drop table QC_T2", connection);
+    DBUtil.close(connection);
+  }
+
+  @Test
+  public void testHitAndInvalidation() throws SQLException {
+    String query = "select count(*) from QC_T1";
+    assertEquals(1, DBUtil.queryInt(query, connection).intValue());
+    assertEquals(1, DBUtil.queryInt(query, connection).intValue());
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cache.getMissCount());
+    assertEquals(0.5, cache.hitRatio(), 0.);
+    // writes to another table leave the entry untouched
+    DBUtil.executeUpdate("insert into QC_T2 values (2)", connection);
+    assertEquals(1, cache.size());
+    // writes to the queried table evict it
+    DBUtil.executeUpdate("insert into QC_T1 values (2, 'Bob')", connection);
+    assertEquals(0, cache.size());
+    assertEquals(1, cache.getInvalidationCount());
+    assertEquals(2, DBUtil.queryInt(query, connection).intValue());
+  }
+
+  @Test
+  public void testScriptInvalidation() {
+    String query = "select NAME from QC_T1 order by ID";
+    assertArrayEquals(new String[] {"Alice"}, DBUtil.queryScalarRowsAsArray(query, String.class, connection));
+    DBUtil.executeScript("insert into QC_T1 values (2, 'Bob');", connection, false, null);
+    assertArrayEquals(new String[] {"Alice", "Bob"}, DBUtil.queryScalarRowsAsArray(query, String.class, connection));
+  }
+
+  @Test
+  public void testQueryResultsAreCopied() throws SQLException {
+    String query = "select ID, NAME from QC_T1";
+    List<Object[]> rows = DBUtil.query(query, connection);
+    rows.get(0)[1] = "changed";
+    rows.clear();
+    List<Object[]> cached = DBUtil.query(query, connection);
+    assertEquals(1, cache.getHitCount());
+    assertEquals(1, cached.size());
+    assertEquals("Alice", cached.get(0)[1]);
+  }
+
+  @Test
+  public void testMutableValuesAreCopied() throws SQLException {
+    String query = "select cast('2022-03-11 10:00:00' as timestamp) from QC_T1";
+    Timestamp timestamp = (Timestamp) DBUtil.queryScalar(query, connection);
+    long time = timestamp.getTime();
+    timestamp.setTime(0);
+    Timestamp cached = (Timestamp) DBUtil.queryScalar(query, connection);
+    assertEquals(1, cache.getHitCount());
+    assertEquals(time, cached.getTime());
+    assertNotSame(cached, DBUtil.queryScalar(query, connection));
+    List<Object[]> rows = DBUtil.query(query, connection);
+    ((Timestamp) rows.get(0)[0]).setTime(0);
+    assertEquals(time, ((Timestamp) DBUtil.query(query, connection).get(0)[0]).getTime());
+  }
+
+  @Test
+  public void testLruEviction() {
+    DBUtil.queryScalar("select count(*) from QC_T1", connection);
+    DBUtil.queryScalar("select count(*) from QC_T2", connection);
+    DBUtil.queryScalar("select count(*) from QC_T1", connection); // makes QC_T2 query the eldest one
+    DBUtil.queryScalar("select max(ID) from QC_T1", connection);
+    assertEquals(2, cache.size());
+    assertEquals(1, cache.getEvictionCount());
+    DBUtil.queryScalar("select count(*) from QC_T1", connection);
+    assertEquals(2, cache.getHitCount());
+  }
+
+  @Test
+  public void testExpiry() throws InterruptedException {
+    QueryCache shortLived = new QueryCache(10, 10, 1);
+    QueryCache.Key key = shortLived.createKey(connection, "select ID from QC_T1");
+    assertNull(shortLived.get(key));
+    shortLived.put(key, "x", 1);
+    Thread.sleep(5);
+    assertNull(shortLived.get(key));
+    assertEquals(0, shortLived.size());
+  }
+
+  @Test
+  public void testWriteBetweenGetAndPut() {
+    QueryCache.Key key = cache.createKey(connection, "select ID from QC_T1");
+    assertNull(cache.get(key));
+    cache.invalidate("update QC_T1 set ID = 3");
+    cache.put(key, "stale", 1);
+    assertEquals(0, cache.size());
+  }
+
+  @Test
+  public void testCacheable() {
+    assertTrue(QueryCache.isCacheable("select * from QC_T1"));
+    assertFalse(QueryCache.isCacheable("select next value for SEQ1 from QC_T1"));
+    assertFalse(QueryCache.isCacheable("select seq1.nextval from dual"));
+    assertFalse(QueryCache.isCacheable("select current_timestamp from QC_T1"));
+    assertFalse(QueryCache.isCacheable("delete from QC_T1"));
+    Object value = DBUtil.queryScalar("select current_timestamp from QC_T1", connection);
+    assertSame(value.getClass(), DBUtil.queryScalar("select current_timestamp from QC_T1", connection).getClass());
+    assertEquals(0, cache.size());
+  }
+
+}
@@ -0,0 +1,122 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl;
+
+import com.rapiddweller.jdbacl.dialect.H2Util;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+
+import static com.rapiddweller.jdbacl.SQLMetaDataProvider.query;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link SQLMetaDataProvider}.<br/><br/>
+ * Created: 22.03.2022 11:20:36
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+public class SQLMetaDataProviderTest {
+
+  private static final String TABLES_QUERY =
+      "select TABLE_NAME from INFORMATION_SCHEMA.TABLES where TABLE_SCHEMA = ? order by TABLE_NAME";
+
+  @Test
+  public void testSchemaAsOwner() throws Exception {
+    try (Connection connection = H2Util.connectInMemoryDB("SQLMetaDataProviderTest")) {
+      DBUtil.executeUpdate("create table TT (ID int)", connection);
+      SQLMetaDataProvider provider = new SQLMetaDataProvider(false, query(TABLES_QUERY, 1), null, null, null, null);
+      ResultSet resultSet = provider.getColumns(connection, "ANY_CATALOG", "PUBLIC");
+      try {
+        assertTrue(resultSet.next());
+        assertEquals("TT", resultSet.getString(1));
+        assertFalse(resultSet.next());
+      } finally {
+        DBUtil.closeResultSetAndStatement(resultSet);
+      }
+      DBUtil.executeUpdate("drop table TT", connection);
+    }
+  }
+
+  @Test
+  public void testCatalogAsOwner() throws Exception {
+    try (Connection connection = H2Util.connectInMemoryDB("SQLMetaDataProviderTest")) {
+      DBUtil.executeUpdate("create table TT (ID int)", connection);
+      SQLMetaDataProvider provider = new SQLMetaDataProvider(true, query(TABLES_QUERY, 1), null, null, null, null);
+      // the catalog name is used as owner if there is one...
+      ResultSet resultSet = provider.getColumns(connection, "PUBLIC", "OTHER");
+      try {
+        assertTrue(resultSet.next());
+        assertEquals("TT", resultSet.getString(1));
+      } finally {
+        DBUtil.closeResultSetAndStatement(resultSet);
+      }
+      // ...otherwise the schema name
+      resultSet = provider.getColumns(connection, null, "PUBLIC");
+      try {
+        assertTrue(resultSet.next());
+        assertEquals("TT", resultSet.getString(1));
+      } finally {
+        DBUtil.closeResultSetAndStatement(resultSet);
+      }
+      DBUtil.executeUpdate("drop table TT", connection);
+    }
+  }
+
+  @Test
+  public void testQuestionMarkInLiteral() throws Exception {
+    try (Connection connection = H2Util.connectInMemoryDB("SQLMetaDataProviderTest")) {
+      DBUtil.executeUpdate("create table TT (ID int)", connection);
+      // only the declared parameter is bound, the question mark in the literal is left alone
+      String sql = "select TABLE_NAME from INFORMATION_SCHEMA.TABLES where TABLE_SCHEMA = ? and TABLE_NAME <> 'WHAT?'";
+      SQLMetaDataProvider provider = new SQLMetaDataProvider(false, query(sql, 1), null, null, null, null);
+      ResultSet resultSet = provider.getColumns(connection, null, "PUBLIC");
+      try {
+        assertTrue(resultSet.next());
+        assertEquals("TT", resultSet.getString(1));
+        assertFalse(resultSet.next());
+      } finally {
+        DBUtil.closeResultSetAndStatement(resultSet);
+      }
+      DBUtil.executeUpdate("drop table TT", connection);
+    }
+  }
+
+  @Test
+  public void testUnsupported() throws Exception {
+    try (Connection connection = H2Util.connectInMemoryDB("SQLMetaDataProviderTest")) {
+      SQLMetaDataProvider provider = new SQLMetaDataProvider(false, query(TABLES_QUERY, 1), null, null, null, null);
+      assertNull(provider.getPrimaryKeys(connection, null, "PUBLIC"));
+      assertNull(provider.getColumns(connection, null, null));
+    }
+  }
+
+}
@@ -22,6 +22,7 @@
 package com.rapiddweller.jdbacl;
 
 import com.rapiddweller.common.ArrayFormat;
+import com.rapiddweller.common.CollectionUtil;
 import com.rapiddweller.common.exception.IllegalArgumentError;
 import com.rapiddweller.jdbacl.model.DBCatalog;
 import com.rapiddweller.jdbacl.model.DBColumn;
@@ -39,6 +40,7 @@
 import java.util.ArrayList;
 import java.util.Arrays;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
@@ -79,6 +81,9 @@ public void testPrependAlias() {
     assertEquals(1, SQLUtil.prependAlias("Table Alias", new String[] {"Column Names"}).length);
     assertEquals(1, SQLUtil.prependAlias(null, new String[] {"Column Names"}).length);
     assertEquals(0, SQLUtil.prependAlias("Table Alias", new String[] {}).length);
+    String[] columnNames = {"ID", "NAME"};
+    assertArrayEquals(new String[] {"t.ID", "t.NAME"}, SQLUtil.prependAlias("t", columnNames));
+    assertArrayEquals(new String[] {"ID", "NAME"}, columnNames);
   }
 
   @Test
@@ -886,6 +891,23 @@ public void testAllNull() {
     assertEquals("Columns IS NULL", SQLUtil.allNull(new String[] {"Columns"}, null));
   }
 
+  @Test
+  public void testReferencedTables() {
+    assertEquals(CollectionUtil.toSet("USERS"), SQLUtil.referencedTables(INSERT));
+    assertEquals(CollectionUtil.toSet("USERS"), SQLUtil.referencedTables(UPDATE));
+    assertEquals(CollectionUtil.toSet("USERS"), SQLUtil.referencedTables(DELETE));
+    assertEquals(CollectionUtil.toSet("T1", "T2", "T3"),
+        SQLUtil.referencedTables("select a.x from sch.t1 a, \"t2\" b join T3 c on b.y = c.y where a.z = 'from t4'"));
+    assertEquals(CollectionUtil.toSet("T1", "T2"),
+        SQLUtil.referencedTables("select * from t1 where id in (select id from t2) -- from t3"));
+    assertEquals(CollectionUtil.toSet("T1"), SQLUtil.referencedTables("create table if not exists t1 (id int)"));
+    assertEquals(CollectionUtil.toSet("T1"), SQLUtil.referencedTables("create index t1_idx on t1 (id)"));
+    assertEquals(CollectionUtil.toSet("T1", "T2"),
+        SQLUtil.referencedTables("alter table t1 add constraint t1_fk foreign key (t2_id) references t2 (id)"));
+    assertEquals(CollectionUtil.toSet("V1", "T1"), SQLUtil.referencedTables("create view v1 as select * from t1"));
+    assertEquals(CollectionUtil.toSet(), SQLUtil.referencedTables(CALL));
+  }
+
   // helpers ---------------------------------------------------------------------------------------------------------
 
   public void checkParsing(String spec, Object... expected) {
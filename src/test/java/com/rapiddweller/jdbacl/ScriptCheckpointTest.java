@@ -0,0 +1,223 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl;
+
+import com.rapiddweller.common.ErrorHandler;
+import com.rapiddweller.common.Level;
+import com.rapiddweller.jdbacl.dialect.HSQLUtil;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the {@link ScriptCheckpoint}.<br/><br/>
+ * Created: 23.03.2022 14:05:52
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+public class ScriptCheckpointTest {
+
+  private static final ErrorHandler STRICT = new ErrorHandler(ScriptCheckpointTest.class.getName(), Level.fatal);
+
+  @Test
+  public void testSaveAndLoad() throws IOException {
+    File file = File.createTempFile("ScriptCheckpointTest", ScriptCheckpoint.FILE_SUFFIX);
+    try {
+      file.delete();
+      ScriptCheckpoint checkpoint = new ScriptCheckpoint(file, false, 0);
+      assertFalse(checkpoint.load());
+      checkpoint.update(1234, 56, 78);
+      assertTrue(file.exists());
+      ScriptCheckpoint resumed = new ScriptCheckpoint(file, true);
+      assertTrue(resumed.load());
+      assertEquals(1234, resumed.getPosition());
+      assertEquals(56, resumed.getLineNo());
+      assertEquals(78, resumed.getStatementIndex());
+      assertFalse(new ScriptCheckpoint(file, false).load());
+      resumed.delete();
+      assertFalse(file.exists());
+    } finally {
+      file.delete();
+    }
+  }
+
+  @Test
+  public void testResumeSequential() throws IOException, SQLException {
+    checkResume(0);
+  }
+
+  @Test
+  public void testResumeBatched() throws IOException, SQLException {
+    checkResume(2);
+  }
+
+  @Test
+  public void testSaveFailure() throws IOException, SQLException {
+    File script = File.createTempFile("ScriptCheckpointTest", ".sql");
+    ScriptCheckpoint checkpoint = new ScriptCheckpoint(new File(script.getPath() + ScriptCheckpoint.FILE_SUFFIX),
+        false, Long.MAX_VALUE) {
+      @Override
+      public void save() {
+        throw new IllegalStateException("Disk full");
+      }
+    };
+    Connection connection = HSQLUtil.connectInMemoryDB(getClass().getSimpleName());
+    try {
+      Files.write(script.toPath(), "create table SCP_F (ID int);\ninsert into SCP_F2 values (1);\n"
+          .getBytes(StandardCharsets.UTF_8));
+      try {
+        execute(script, connection, 0, checkpoint);
+        fail("Exception expected");
+      } catch (RuntimeException e) {
+        // the script failure is reported, with the checkpoint failure attached
+        assertFalse(e instanceof IllegalStateException);
+        assertEquals(1, e.getSuppressed().length);
+        assertEquals("Disk full", e.getSuppressed()[0].getMessage());
+      }
+    } finally {
+      DBUtil.executeUpdate("drop table SCP_F", connection);
+      DBUtil.close(connection);
+      script.delete();
+    }
+  }
+
+  @Test
+  public void testChangedScript() throws IOException, SQLException {
+    File script = File.createTempFile("ScriptCheckpointTest", ".sql");
+    File otherScript = File.createTempFile("ScriptCheckpointTest", ".sql");
+    ScriptCheckpoint checkpoint = ScriptCheckpoint.forScript(script.getPath(), true);
+    Connection connection = HSQLUtil.connectInMemoryDB(getClass().getSimpleName());
+    try {
+      String executed = "create table SCP_C (ID int primary key);\ninsert into SCP_C values (1);\n";
+      Files.write(script.toPath(), (executed + "insert into SCP_C2 values (2);\n").getBytes(StandardCharsets.UTF_8));
+      try {
+        execute(script, connection, 0, checkpoint);
+        fail("Exception expected");
+      } catch (RuntimeException e) {
+        // expected
+      }
+      // the checkpoint does not apply to another script...
+      Files.write(otherScript.toPath(), Files.readAllBytes(script.toPath()));
+      Files.copy(checkpoint.getFile().toPath(), new File(otherScript.getPath() + ScriptCheckpoint.FILE_SUFFIX).toPath());
+      try {
+        ScriptCheckpoint.forScript(otherScript.getPath(), true).load();
+        fail("Exception expected");
+      } catch (RuntimeException e) {
+        assertTrue(e.getMessage().contains("belongs to script"));
+      }
+      // ...nor to the script after a change of its executed part...
+      Files.write(script.toPath(), (executed.replace("(1)", "(3)") + "insert into SCP_C values (2);\n")
+          .getBytes(StandardCharsets.UTF_8));
+      try {
+        execute(script, connection, 0, ScriptCheckpoint.forScript(script.getPath(), true));
+        fail("Exception expected");
+      } catch (RuntimeException e) {
+        assertTrue(e.getMessage().contains("has been changed"));
+      }
+      assertEquals(1, DBUtil.queryInt("select count(*) from SCP_C", connection).intValue());
+      // ...but the statements after the checkpoint may be fixed
+      Files.write(script.toPath(), (executed + "insert into SCP_C values (2);\n").getBytes(StandardCharsets.UTF_8));
+      execute(script, connection, 0, ScriptCheckpoint.forScript(script.getPath(), true));
+      assertEquals(2, DBUtil.queryInt("select count(*) from SCP_C", connection).intValue());
+      assertFalse(checkpoint.getFile().exists());
+    } finally {
+      DBUtil.executeUpdate("drop table SCP_C", connection);
+      DBUtil.close(connection);
+      checkpoint.delete();
+      new File(otherScript.getPath() + ScriptCheckpoint.FILE_SUFFIX).delete();
+      script.delete();
+      otherScript.delete();
+    }
+  }
+
+  /** Runs a script which fails in the middle, fixes the cause and resumes it.
+   *  Re-executing a statement from before the checkpoint would violate the primary key. */
+  private void checkResume(int commitInterval) throws IOException, SQLException {
+    File script = File.createTempFile("ScriptCheckpointTest", ".sql");
+    ScriptCheckpoint checkpoint = ScriptCheckpoint.forScript(script.getPath(), true);
+    Connection connection = HSQLUtil.connectInMemoryDB(getClass().getSimpleName());
+    connection.setAutoCommit(commitInterval == 0);
+    try {
+      Files.write(script.toPath(), (
+          "create table SCP_T (ID int primary key, NAME varchar(10));\n" +
+          "insert into SCP_T values (1, 'Ä');\n" +
+          "insert into SCP_T values (2, 'Ö');\n" +
+          "insert into SCP_T values (3, 'Ü');\n" +
+          "insert into SCP_T2 select * from SCP_T;\n" +
+          "insert into SCP_T values (4, 'ß');\n").getBytes(StandardCharsets.UTF_8));
+      try {
+        execute(script, connection, commitInterval, checkpoint);
+        fail("Exception expected");
+      } catch (RuntimeException e) {
+        // expected
+      }
+      assertTrue(checkpoint.getFile().exists());
+      ScriptCheckpoint saved = ScriptCheckpoint.forScript(script.getPath(), true);
+      assertTrue(saved.load());
+      assertEquals(4, saved.getStatementIndex());
+      DBUtil.executeUpdate("create table SCP_T2 (ID int, NAME varchar(10))", connection);
+      ScriptProgress progress = new ScriptProgress();
+      execute(script, connection, commitInterval, ScriptCheckpoint.forScript(script.getPath(), true), progress);
+      assertEquals(2, progress.getStatementCount());
+      assertEquals(7, progress.getLines());
+      assertFalse(checkpoint.getFile().exists());
+      assertEquals(4, DBUtil.queryInt("select count(*) from SCP_T", connection).intValue());
+      assertEquals(3, DBUtil.queryInt("select count(*) from SCP_T2", connection).intValue());
+    } finally {
+      DBUtil.executeUpdate("drop table SCP_T", connection);
+      DBUtil.executeUpdate("drop table SCP_T2 if exists", connection);
+      DBUtil.close(connection);
+      script.delete();
+      checkpoint.delete();
+    }
+  }
+
+  private static void execute(File script, Connection connection, int commitInterval, ScriptCheckpoint checkpoint) {
+    execute(script, connection, commitInterval, checkpoint, null);
+  }
+
+  private static void execute(File script, Connection connection, int commitInterval, ScriptCheckpoint checkpoint,
+                              ScriptProgress progress) {
+    if (commitInterval > 0) {
+      DBUtil.executeScriptFile(script.getPath(), "UTF-8", ';', connection, false, 1, commitInterval, STRICT,
+          progress, checkpoint);
+    } else {
+      DBUtil.executeScriptFile(script.getPath(), "UTF-8", ';', connection, false, STRICT, progress, checkpoint);
+    }
+  }
+
+}
@@ -0,0 +1,65 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl;
+
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link ScriptProgress}.<br/><br/>
+ * Created: 23.03.2022 13:44:10
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+public class ScriptProgressTest {
+
+  @Test
+  public void testMetrics() {
+    ScriptProgress progress = new ScriptProgress(3, 0);
+    progress.start();
+    for (int i = 1; i <= 10; i++) {
+      progress.statementExecuted("insert into T values (" + i + ")", i, i * 1000000L);
+      progress.positionReached(i * 30L, i + 1);
+    }
+    progress.finish();
+    assertEquals(10, progress.getStatementCount());
+    assertEquals(300, progress.getBytes());
+    assertEquals(11, progress.getLines());
+    assertTrue(progress.getStatementsPerSecond() >= 0);
+    List<ScriptProgress.StatementTiming> slowest = progress.getSlowestStatements();
+    assertEquals(3, slowest.size());
+    assertEquals(10, slowest.get(0).getLineNo());
+    assertEquals(9, slowest.get(1).getLineNo());
+    assertEquals(8, slowest.get(2).getLineNo());
+    assertEquals("line 10 (10 ms): insert into T values (10)", slowest.get(0).toString());
+  }
+
+}
@@ -0,0 +1,66 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl.dialect;
+
+import com.rapiddweller.common.IOUtil;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Tests the {@link CSVRowReader}.<br/><br/>
+ * Created: 16.03.2022 15:12:40
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+public class CSVRowReaderTest {
+
+  private static final List<Object[]> ROWS = List.of(
+      new Object[] {1, "a \"quoted\" text", null},
+      new Object[] {true, "", Timestamp.valueOf("2022-03-16 15:12:40")});
+
+  @Test
+  public void testReader() throws IOException {
+    CSVRowReader reader = new CSVRowReader(ROWS.iterator(), "", false);
+    assertEquals("\"1\",\"a \"\"quoted\"\" text\",\n\"true\",\"\",\"2022-03-16 15:12:40.0\"\n", IOUtil.readAndClose(reader));
+    assertEquals(2, reader.getRowCount());
+  }
+
+  @Test
+  public void testInputStream() throws IOException {
+    InputStream in = new CSVRowReader(ROWS.iterator(), "NULL", true).asInputStream();
+    assertEquals("\"1\",\"a \"\"quoted\"\" text\",NULL\n\"1\",\"\",\"2022-03-16 15:12:40.0\"\n",
+        new String(in.readAllBytes(), StandardCharsets.UTF_8));
+  }
+
+}
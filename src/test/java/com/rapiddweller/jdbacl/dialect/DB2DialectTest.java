@@ -22,6 +22,11 @@
 package com.rapiddweller.jdbacl.dialect;
 
 import com.rapiddweller.common.exception.IllegalOperationError;
+import com.rapiddweller.jdbacl.model.DBCatalog;
+import com.rapiddweller.jdbacl.model.DBPrimaryKeyConstraint;
+import com.rapiddweller.jdbacl.model.DBSchema;
+import com.rapiddweller.jdbacl.model.DBTable;
+import com.rapiddweller.jdbacl.model.TableType;
 import org.junit.Test;
 
 import static org.junit.Assert.assertEquals;
@@ -129,6 +134,26 @@ public void testRegexQuery() {
     dialect.regexQuery("code", false, "[A-Z]{4}");
   }
 
+  @Test
+  public void testUpsert() {
+    assertEquals("merge into PUBLIC.UPSERT_T t using (values (CAST(? AS INTEGER),CAST(? AS VARCHAR(20))," +
+        "CAST(? AS DECIMAL(10,2)),CAST(? AS DATE))) s (ID,NAME,AMOUNT,D) on (t.ID=s.ID) " +
+        "when matched then update set t.NAME=s.NAME,t.AMOUNT=s.AMOUNT,t.D=s.D " +
+        "when not matched then insert (ID,NAME,AMOUNT,D) values (s.ID,s.NAME,s.AMOUNT,s.D)",
+        dialect.upsert(createUpsertTable(), UPSERT_COLUMNS));
+  }
+
+  @Test
+  public void testUpsertWithoutColumnModel() {
+    DBTable table = new DBTable("UPSERT_T", TableType.TABLE, new DBSchema("PUBLIC", new DBCatalog(null)));
+    new DBPrimaryKeyConstraint(table, "UPSERT_T_PK", true, "ID");
+    assertEquals("merge into PUBLIC.UPSERT_T t using (values (CAST(? AS INTEGER),CAST(? AS VARCHAR(32672))," +
+        "CAST(? AS DECFLOAT(34)),CAST(? AS DATE))) s (ID,NAME,AMOUNT,D) on (t.ID=s.ID) " +
+        "when matched then update set t.NAME=s.NAME,t.AMOUNT=s.AMOUNT,t.D=s.D " +
+        "when not matched then insert (ID,NAME,AMOUNT,D) values (s.ID,s.NAME,s.AMOUNT,s.D)",
+        dialect.upsert(table, UPSERT_COLUMNS));
+  }
+
   @Test
   public void testRenderCase() {
     assertEquals("CASE WHEN condition1 THEN result1 WHEN condition2 THEN result2 ELSE result4 END AS col",
@@ -24,23 +24,38 @@
 import com.rapiddweller.common.NameUtil;
 import com.rapiddweller.common.StringUtil;
 import com.rapiddweller.common.TimeUtil;
+import com.rapiddweller.jdbacl.ColumnInfo;
 import com.rapiddweller.jdbacl.DBUtil;
 import com.rapiddweller.jdbacl.DatabaseDialect;
 import com.rapiddweller.jdbacl.DatabaseTestUtil;
 import com.rapiddweller.jdbacl.JDBCConnectData;
+import com.rapiddweller.jdbacl.model.DBCatalog;
+import com.rapiddweller.jdbacl.model.DBColumn;
+import com.rapiddweller.jdbacl.model.DBDataType;
+import com.rapiddweller.jdbacl.model.DBPrimaryKeyConstraint;
+import com.rapiddweller.jdbacl.model.DBSchema;
 import com.rapiddweller.jdbacl.model.DBSequence;
+import com.rapiddweller.jdbacl.model.DBTable;
+import com.rapiddweller.jdbacl.model.TableType;
 import org.slf4j.LoggerFactory;
 import org.slf4j.Logger;
 import org.junit.Test;
 
+import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.sql.Connection;
 import java.sql.Time;
 import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.Collections;
 import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 
@@ -60,6 +75,11 @@
   protected final static Date DATETIME_19710203131415 = TimeUtil.date(1971, 1, 3, 13, 14, 15, 0);
   protected final static Date DATE_19710203 = TimeUtil.date(1971, 1, 3);
   protected final static Time TIME_131415 = TimeUtil.time(13, 14, 15, 0);
+  protected final static List<ColumnInfo> UPSERT_COLUMNS = List.of(
+      new ColumnInfo("ID", Types.INTEGER, Integer.class), new ColumnInfo("NAME", Types.VARCHAR, String.class),
+      new ColumnInfo("AMOUNT", Types.DECIMAL, BigDecimal.class), new ColumnInfo("D", Types.DATE, java.sql.Date.class));
+  protected final static List<ColumnInfo> BULK_COLUMNS = List.of(new ColumnInfo("ID", Types.INTEGER, Integer.class),
+      new ColumnInfo("NAME", Types.VARCHAR, String.class), new ColumnInfo("D", Types.DATE, java.sql.Date.class));
   protected final static Timestamp TIMESTAMP_19710203131415123456789 = TimeUtil.timestamp(1971, 1, 3, 13, 14, 15, 123456789);
 
   public DatabaseDialectTest(E dialect) {
@@ -142,4 +162,84 @@ protected DBSequence createConfiguredSequence() {
     return seq;
   }
 
+  /** Verifies that the dialect offers its data dictionary queries only if the system property
+   *  {@link DatabaseDialect#UNTESTED_META_DATA_QUERIES_SYSPROP} is set. */
+  protected void checkUntestedMetaDataQueries() {
+    assertNull(dialect.getMetaDataProvider());
+    System.setProperty(DatabaseDialect.UNTESTED_META_DATA_QUERIES_SYSPROP, "true");
+    try {
+      assertNotNull(dialect.getMetaDataProvider());
+    } finally {
+      System.clearProperty(DatabaseDialect.UNTESTED_META_DATA_QUERIES_SYSPROP);
+    }
+  }
+
+  /** Creates the model of a table UPSERT_T with the {@link #UPSERT_COLUMNS} and the primary key ID. */
+  protected static DBTable createUpsertTable() {
+    DBTable table = new DBTable("UPSERT_T", TableType.TABLE, new DBSchema("PUBLIC", new DBCatalog(null)));
+    new DBColumn("ID", table, DBDataType.getInstance(Types.INTEGER, "INTEGER"));
+    new DBColumn("NAME", table, DBDataType.getInstance(Types.VARCHAR, "VARCHAR"), 20);
+    new DBColumn("AMOUNT", table, DBDataType.getInstance(Types.DECIMAL, "DECIMAL"), 10, 2);
+    new DBColumn("D", table, DBDataType.getInstance(Types.DATE, "DATE"));
+    new DBPrimaryKeyConstraint(table, "UPSERT_T_PK", true, "ID");
+    return table;
+  }
+
+  /** Loads three rows with special characters and null values into a new table BULK_T, verifies them and drops the
+   *  table. It also verifies that an empty input is loaded without error, that a row of null values is loaded
+   *  and that empty strings and null values keep being distinguished.
+   *  @param nativeExpected tells if the dialect is expected to support a native bulk load for the connection,
+   *                        otherwise {@link DatabaseDialect#bulkLoad} is expected to fall back to batch inserts
+   *  @param nativeLoad calls the dialect's protected nativeBulkLoad() with the {@link #BULK_COLUMNS}
+   *  @return the number of rows reported by the load of the three rows */
+  protected long bulkLoad(Connection connection, boolean nativeExpected, NativeBulkLoad nativeLoad) throws Exception {
+    DBUtil.executeUpdate("create table BULK_T (ID int, NAME varchar(20), D date)", connection);
+    try {
+      // empty input
+      assertEquals(0, load(Collections.emptyList(), connection, nativeExpected, nativeLoad));
+      assertEquals(0, DBUtil.queryInt("select count(*) from BULK_T", connection).intValue());
+      // a row of null values
+      assertEquals(1, load(Collections.singletonList(new Object[] {null, null, null}), connection, nativeExpected,
+          nativeLoad));
+      assertEquals(1, DBUtil.queryInt(
+          "select count(*) from BULK_T where ID is null and NAME is null and D is null", connection).intValue());
+      DBUtil.executeUpdate("delete from BULK_T", connection);
+      // an empty string next to a null value
+      assertEquals(1, load(Collections.singletonList(new Object[] {1, "", null}), connection, nativeExpected,
+          nativeLoad));
+      assertEquals("", DBUtil.queryScalar("select NAME from BULK_T where ID = 1", connection));
+      assertEquals(1, DBUtil.queryInt("select count(*) from BULK_T where D is null", connection).intValue());
+      DBUtil.executeUpdate("delete from BULK_T", connection);
+      // regular data
+      long count = load(List.of(
+          new Object[] {1, "Alice", java.sql.Date.valueOf("2022-03-16")},
+          new Object[] {2, "say \"hi\", Bob", null},
+          new Object[] {3, null, java.sql.Date.valueOf("2022-03-17")}), connection, nativeExpected, nativeLoad);
+      assertEquals("say \"hi\", Bob", DBUtil.queryScalar("select NAME from BULK_T where ID = 2", connection));
+      assertEquals(1, DBUtil.queryInt("select count(*) from BULK_T where NAME is null", connection).intValue());
+      assertEquals(java.sql.Date.valueOf("2022-03-17"), DBUtil.queryScalar("select D from BULK_T where ID = 3", connection));
+      return count;
+    } finally {
+      DBUtil.executeUpdate("drop table BULK_T", connection);
+    }
+  }
+
+  private long load(List<Object[]> rows, Connection connection, boolean nativeExpected, NativeBulkLoad nativeLoad)
+      throws Exception {
+    DBTable table = new DBTable("BULK_T", TableType.TABLE, new DBSchema("PUBLIC", new DBCatalog(null)));
+    if (nativeExpected) {
+      Long count = nativeLoad.load(table, rows.iterator(), connection);
+      assertNotNull(count);
+      return count;
+    } else {
+      assertNull(nativeLoad.load(table, rows.iterator(), connection));
+      return dialect.bulkLoad(table, BULK_COLUMNS, rows.iterator(), connection);
+    }
+  }
+
+  /** Calls the protected nativeBulkLoad() of the tested dialect, which is only accessible in its own package. */
+  protected interface NativeBulkLoad {
+    Long load(DBTable table, Iterator<Object[]> rows, Connection connection) throws Exception;
+  }
+
 }
@@ -21,17 +21,32 @@
 
 package com.rapiddweller.jdbacl.dialect;
 
+import com.rapiddweller.common.StringUtil;
 import com.rapiddweller.common.exception.ConnectFailedException;
+import com.rapiddweller.common.exception.IllegalArgumentError;
+import com.rapiddweller.jdbacl.ColumnInfo;
 import com.rapiddweller.jdbacl.DBUtil;
+import com.rapiddweller.jdbacl.model.DBCatalog;
+import com.rapiddweller.jdbacl.model.DBSchema;
 import com.rapiddweller.jdbacl.model.DBSequence;
+import com.rapiddweller.jdbacl.model.DBTable;
+import com.rapiddweller.jdbacl.model.DBUniqueConstraint;
+import com.rapiddweller.jdbacl.model.TableType;
 import com.rapiddweller.jdbacl.sql.Query;
 import org.junit.Test;
 
+import java.math.BigDecimal;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
@@ -184,6 +199,25 @@ public void testSetNextSequenceValue() throws Exception {
     }
   }
 
+  @Test
+  public void testReservedWordsOfDriver() throws Exception {
+    H2Dialect h2Dialect = new H2Dialect();
+    // a call without connection must not prevent the driver keywords from being merged later
+    Set<String> configured = h2Dialect.getReservedWords(null);
+    assertTrue(configured.contains("TABLE"));
+    Connection connection = H2Util.connectInMemoryDB(getClass().getSimpleName() + "RW");
+    try {
+      Set<String> words = h2Dialect.getReservedWords(connection);
+      assertTrue(words.containsAll(configured));
+      for (String keyword : StringUtil.splitAndTrim(connection.getMetaData().getSQLKeywords(), ',')) {
+        assertTrue(keyword, words.contains(keyword.toUpperCase()));
+      }
+      assertSame(configured, h2Dialect.getReservedWords(null));
+    } finally {
+      DBUtil.close(connection);
+    }
+  }
+
   @Test
   public void testSetSequenceValue() {
     assertEquals("alter sequence Sequence Name restart with 42",
@@ -264,4 +298,69 @@ private static void createAndFillSimpleTable(Connection connection, String table
     }
   }
 
+  @Test
+  public void testNativeBulkLoad() throws Exception {
+    Connection connection = H2Util.connectInMemoryDB(getClass().getSimpleName());
+    try {
+      assertEquals(3, bulkLoad(connection, true, this::nativeBulkLoad));
+    } finally {
+      DBUtil.close(connection);
+    }
+  }
+
+  @Test
+  public void testInsertMultiRow() {
+    DBTable table = new DBTable("T", TableType.TABLE, new DBSchema("PUBLIC", new DBCatalog(null)));
+    List<ColumnInfo> columns = List.of(new ColumnInfo("ID", Types.INTEGER, Integer.class),
+        new ColumnInfo("NAME", Types.VARCHAR, String.class));
+    assertEquals("insert into \"PUBLIC\".\"T\" (\"ID\",\"NAME\") values (?,?),(?,?),(?,?)",
+        dialect.insertMultiRow(table, columns, 3));
+    assertEquals(dialect.insert(table, columns), dialect.insertMultiRow(table, columns, 1));
+    assertEquals(1000, dialect.getMultiRowInsertLimit(table, columns));
+  }
+
+  @Test
+  public void testUpsert() throws Exception {
+    DBTable table = createUpsertTable();
+    assertEquals("merge into \"PUBLIC\".\"UPSERT_T\" (\"ID\",\"NAME\",\"AMOUNT\",\"D\") key (\"ID\") values (?,?,?,?)",
+        dialect.upsert(table, UPSERT_COLUMNS));
+    Connection connection = H2Util.connectInMemoryDB(getClass().getSimpleName());
+    try {
+      DBUtil.executeUpdate("create table UPSERT_T (ID int primary key, NAME varchar(20), AMOUNT decimal(10,2), D date)",
+          connection);
+      DBUtil.executeUpdate("insert into UPSERT_T values (1, 'Alice', 1.5, '2022-03-16'), (2, 'Bob', 2.5, null)", connection);
+      List<Object[]> delta = List.of(
+          new Object[] {2, "Bill", new BigDecimal("3.25"), java.sql.Date.valueOf("2022-03-17")},
+          new Object[] {3, "Charly", null, java.sql.Date.valueOf("2022-03-18")});
+      assertEquals(2, dialect.bulkUpsert(table, UPSERT_COLUMNS, delta.iterator(), connection));
+      assertArrayEquals(new String[] {"Alice", "Bill", "Charly"},
+          DBUtil.queryScalarRowsAsArray("select NAME from UPSERT_T order by ID", String.class, connection));
+      assertEquals(new BigDecimal("3.25"), DBUtil.queryScalar("select AMOUNT from UPSERT_T where ID = 2", connection));
+      assertEquals(java.sql.Date.valueOf("2022-03-17"), DBUtil.queryScalar("select D from UPSERT_T where ID = 2", connection));
+      assertNull(DBUtil.queryScalar("select AMOUNT from UPSERT_T where ID = 3", connection));
+    } finally {
+      DBUtil.close(connection);
+    }
+  }
+
+  @Test
+  public void testUpsertKeyColumns() {
+    DBTable table = new DBTable("T", TableType.TABLE, new DBSchema("PUBLIC", new DBCatalog(null)));
+    new DBUniqueConstraint(table, "T_UK1", true, "ID", "NAME");
+    new DBUniqueConstraint(table, "T_UK2", true, "NAME");
+    assertArrayEquals(new String[] {"NAME"}, dialect.upsertKeyColumns(table, UPSERT_COLUMNS));
+  }
+
+  @Test(expected = IllegalArgumentError.class)
+  public void testUpsertWithoutKey() {
+    DBTable table = new DBTable("T", TableType.TABLE, new DBSchema("PUBLIC", new DBCatalog(null)));
+    dialect.upsert(table, UPSERT_COLUMNS);
+  }
+
+  // private helpers -------------------------------------------------------------------------------------------------
+
+  private Long nativeBulkLoad(DBTable table, Iterator<Object[]> rows, Connection connection) throws Exception {
+    return dialect.nativeBulkLoad(table, BULK_COLUMNS, rows, connection);
+  }
+
 }
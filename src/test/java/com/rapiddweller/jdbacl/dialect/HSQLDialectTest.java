@@ -21,15 +21,27 @@
 
 package com.rapiddweller.jdbacl.dialect;
 
+import com.rapiddweller.common.FileUtil;
 import com.rapiddweller.common.exception.ConnectFailedException;
 import com.rapiddweller.common.exception.IllegalOperationError;
+import com.rapiddweller.common.exception.ProgrammerUnsupportedError;
+import com.rapiddweller.jdbacl.ColumnInfo;
 import com.rapiddweller.jdbacl.DBUtil;
+import com.rapiddweller.jdbacl.model.DBCatalog;
+import com.rapiddweller.jdbacl.model.DBSchema;
 import com.rapiddweller.jdbacl.model.DBSequence;
+import com.rapiddweller.jdbacl.model.DBTable;
+import com.rapiddweller.jdbacl.model.TableType;
 import com.rapiddweller.jdbacl.sql.Query;
 import org.junit.Test;
 
+import java.io.File;
+import java.nio.file.Files;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Iterator;
+import java.util.List;
 
 import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
@@ -259,4 +271,44 @@ private static void createAndFillSimpleTable(Connection connection, String table
     }
   }
 
+  @Test
+  public void testBulkLoadFallback() throws Exception {
+    // in-memory databases do not support text tables, so batch inserts are used
+    Connection connection = HSQLUtil.connectInMemoryDB(getClass().getSimpleName());
+    try {
+      assertEquals(3, bulkLoad(connection, false, this::nativeBulkLoad));
+    } finally {
+      DBUtil.close(connection);
+    }
+  }
+
+  @Test
+  public void testNativeBulkLoad() throws Exception {
+    File folder = Files.createTempDirectory("jdbacl-hsql").toFile();
+    String url = "jdbc:hsqldb:file:" + folder.getAbsolutePath() + "/db";
+    assertEquals(folder.getAbsoluteFile(), HSQLDialect.fileDatabaseFolder(url));
+    Connection connection = DBUtil.connect(url, HSQLUtil.DRIVER, HSQLUtil.DEFAULT_USER, null, false);
+    try {
+      assertEquals(3, bulkLoad(connection, true, this::nativeBulkLoad));
+      DBUtil.executeUpdate("shutdown", connection);
+    } finally {
+      DBUtil.close(connection);
+      FileUtil.deleteDirectory(folder);
+    }
+  }
+
+  @Test(expected = ProgrammerUnsupportedError.class)
+  public void testInsertMultiRow() {
+    DBTable table = new DBTable("T", TableType.TABLE, new DBSchema("PUBLIC", new DBCatalog(null)));
+    List<ColumnInfo> columns = List.of(new ColumnInfo("ID", Types.INTEGER, Integer.class));
+    assertEquals(1, dialect.getMultiRowInsertLimit(table, columns));
+    dialect.insertMultiRow(table, columns, 2);
+  }
+
+  // private helpers -------------------------------------------------------------------------------------------------
+
+  private Long nativeBulkLoad(DBTable table, Iterator<Object[]> rows, Connection connection) throws Exception {
+    return dialect.nativeBulkLoad(table, BULK_COLUMNS, rows, connection);
+  }
+
 }
@@ -117,4 +117,16 @@ public void testRenderCase() {
         dialect.renderCase("col", "result4", "condition1", "result1", "condition2", "result2"));
   }
 
+  @Test
+  public void testUpsert() {
+    assertEquals("insert into PUBLIC.UPSERT_T (ID,NAME,AMOUNT,D) values (?,?,?,?) " +
+        "on duplicate key update NAME=values(NAME),AMOUNT=values(AMOUNT),D=values(D)",
+        dialect.upsert(createUpsertTable(), UPSERT_COLUMNS));
+  }
+
+  @Test
+  public void testUntestedMetaDataQueries() {
+    checkUntestedMetaDataQueries();
+  }
+
 }
@@ -22,13 +22,20 @@
 package com.rapiddweller.jdbacl.dialect;
 
 import com.rapiddweller.common.TimeUtil;
+import com.rapiddweller.jdbacl.ColumnInfo;
+import com.rapiddweller.jdbacl.model.DBCatalog;
+import com.rapiddweller.jdbacl.model.DBSchema;
 import com.rapiddweller.jdbacl.model.DBSequence;
+import com.rapiddweller.jdbacl.model.DBTable;
+import com.rapiddweller.jdbacl.model.TableType;
 import com.rapiddweller.jdbacl.sql.Query;
 import org.junit.Test;
 
 import java.sql.Time;
 import java.sql.Timestamp;
+import java.sql.Types;
 import java.util.Date;
+import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
@@ -256,4 +263,29 @@ public void testTrim() {
     assertEquals("TRIM(Expression)", (new OracleDialect()).trim("Expression"));
   }
 
+  @Test
+  public void testInsertMultiRow() {
+    DBTable table = new DBTable("T", TableType.TABLE, new DBSchema("PUBLIC", new DBCatalog(null)));
+    List<ColumnInfo> columns = List.of(new ColumnInfo("ID", Types.INTEGER, Integer.class),
+        new ColumnInfo("NAME", Types.VARCHAR, String.class));
+    assertEquals("INSERT ALL INTO \"PUBLIC\".\"T\" (\"ID\",\"NAME\") VALUES (?,?) " +
+        "INTO \"PUBLIC\".\"T\" (\"ID\",\"NAME\") VALUES (?,?) SELECT 1 FROM DUAL",
+        dialect.insertMultiRow(table, columns, 2));
+    assertEquals(499, dialect.getMultiRowInsertLimit(table, columns));
+  }
+
+  @Test
+  public void testUpsert() {
+    assertEquals("merge into \"PUBLIC\".\"UPSERT_T\" t using " +
+        "(select ? \"ID\", ? \"NAME\", ? \"AMOUNT\", ? \"D\" from dual) s on (t.\"ID\"=s.\"ID\") " +
+        "when matched then update set t.\"NAME\"=s.\"NAME\",t.\"AMOUNT\"=s.\"AMOUNT\",t.\"D\"=s.\"D\" " +
+        "when not matched then insert (\"ID\",\"NAME\",\"AMOUNT\",\"D\") values (s.\"ID\",s.\"NAME\",s.\"AMOUNT\",s.\"D\")",
+        dialect.upsert(createUpsertTable(), UPSERT_COLUMNS));
+  }
+
+  @Test
+  public void testUntestedMetaDataQueries() {
+    checkUntestedMetaDataQueries();
+  }
+
 }
@@ -21,6 +21,10 @@
 
 package com.rapiddweller.jdbacl.dialect;
 
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
 /**
  * Tests the PostgreSQL10DialectTest.<br/><br/>
  *
@@ -31,4 +35,11 @@ public class PostgreSQL10DialectTest extends DatabaseDialectTest<PostgreSQL10Dia
   public PostgreSQL10DialectTest() {
     super(new PostgreSQL10Dialect());
   }
+
+  @Test
+  public void testUpsert() {
+    assertEquals("insert into \"PUBLIC\".\"UPSERT_T\" (\"ID\",\"NAME\",\"AMOUNT\",\"D\") values (?,?,?,?) " +
+        "on conflict (\"ID\") do update set \"NAME\"=excluded.\"NAME\",\"AMOUNT\"=excluded.\"AMOUNT\",\"D\"=excluded.\"D\"",
+        dialect.upsert(createUpsertTable(), UPSERT_COLUMNS));
+  }
 }
@@ -194,4 +194,9 @@ public void testRenderCase() {
         dialect.renderCase("col", "result4", "condition1", "result1", "condition2", "result2"));
   }
 
+  @Test
+  public void testUntestedMetaDataQueries() {
+    checkUntestedMetaDataQueries();
+  }
+
 }
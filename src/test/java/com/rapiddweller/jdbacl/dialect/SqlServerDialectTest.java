@@ -22,10 +22,18 @@
 package com.rapiddweller.jdbacl.dialect;
 
 import com.rapiddweller.common.exception.IllegalOperationError;
+import com.rapiddweller.jdbacl.ColumnInfo;
+import com.rapiddweller.jdbacl.model.DBCatalog;
+import com.rapiddweller.jdbacl.model.DBSchema;
+import com.rapiddweller.jdbacl.model.DBTable;
+import com.rapiddweller.jdbacl.model.TableType;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import java.sql.Types;
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
@@ -127,4 +135,20 @@ public void testRenderCase2() {
     (new SqlServerDialect()).renderCase("Column Name", "Else Expression", "foo", "foo", "foo");
   }
 
+  @Test
+  public void testGetMultiRowInsertLimit() {
+    DBTable table = new DBTable("T", TableType.TABLE, new DBSchema("dbo", new DBCatalog(null)));
+    ColumnInfo column = new ColumnInfo("C", Types.INTEGER, Integer.class);
+    assertEquals(1000, dialect.getMultiRowInsertLimit(table, List.of(column)));
+    assertEquals(699, dialect.getMultiRowInsertLimit(table, List.of(column, column, column)));
+  }
+
+  @Test
+  public void testUpsert() {
+    assertEquals("merge into \"PUBLIC\".\"UPSERT_T\" t using (values (?,?,?,?)) s (\"ID\",\"NAME\",\"AMOUNT\",\"D\") " +
+        "on (t.\"ID\"=s.\"ID\") when matched then update set t.\"NAME\"=s.\"NAME\",t.\"AMOUNT\"=s.\"AMOUNT\",t.\"D\"=s.\"D\" " +
+        "when not matched then insert (\"ID\",\"NAME\",\"AMOUNT\",\"D\") values (s.\"ID\",s.\"NAME\",s.\"AMOUNT\",s.\"D\");",
+        dialect.upsert(createUpsertTable(), UPSERT_COLUMNS));
+  }
+
 }
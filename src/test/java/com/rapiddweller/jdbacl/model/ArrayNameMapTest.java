@@ -0,0 +1,126 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl.model;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests the {@link ArrayNameMap}.<br/><br/>
+ * Created: 21.03.2022 11:24:13
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+public class ArrayNameMapTest {
+
+  @Test
+  public void testEmpty() {
+    ArrayNameMap<DBColumn> map = ArrayNameMap.empty();
+    assertEquals(0, map.size());
+    assertNull(map.get("ID"));
+    assertEquals(0, map.values().size());
+  }
+
+  @Test
+  public void testSmall() {
+    DBColumn id = column("ID");
+    DBColumn name = column("NAME");
+    ArrayNameMap<DBColumn> map = ArrayNameMap.<DBColumn>empty().with(id).with(name);
+    assertEquals(2, map.size());
+    assertSame(id, map.get("id"));
+    assertSame(name, map.get("Name"));
+    assertNull(map.get("OTHER"));
+    assertArrayEquals(new String[] {"ID", "NAME"}, map.names());
+  }
+
+  @Test
+  public void testLarge() {
+    List<DBColumn> columns = new ArrayList<>();
+    for (int i = 0; i <= ArrayNameMap.LINEAR_SEARCH_LIMIT * 2; i++) {
+      columns.add(column("C" + i));
+    }
+    ArrayNameMap<DBColumn> map = ArrayNameMap.of(columns);
+    assertEquals(columns.size(), map.size());
+    for (DBColumn column : columns) {
+      assertSame(column, map.get(column.getName().toLowerCase()));
+    }
+    assertNull(map.get("OTHER"));
+    assertEquals(columns, map.values());
+  }
+
+  @Test
+  public void testWithReplaces() {
+    DBColumn id = column("ID");
+    ArrayNameMap<DBColumn> map = ArrayNameMap.of(Arrays.asList(id, column("NAME")));
+    DBColumn replacement = column("id");
+    ArrayNameMap<DBColumn> changed = map.with(replacement);
+    assertEquals(2, changed.size());
+    assertSame(replacement, changed.get("ID"));
+    assertSame(id, map.get("ID"));
+  }
+
+  @Test
+  public void testAppendSharesArray() {
+    ArrayNameMap<DBColumn> map = ArrayNameMap.empty();
+    List<ArrayNameMap<DBColumn>> versions = new ArrayList<>();
+    for (int i = 0; i <= ArrayNameMap.LINEAR_SEARCH_LIMIT * 4; i++) {
+      map = map.with(column("C" + i));
+      assertSame(map.get("C" + i), map.get("c" + i)); // builds and then extends the index
+      versions.add(map);
+    }
+    // earlier versions are not affected by later appends
+    for (int i = 0; i < versions.size(); i++) {
+      ArrayNameMap<DBColumn> version = versions.get(i);
+      assertEquals(i + 1, version.size());
+      assertEquals("C" + i, version.get("C" + i).getName());
+      assertNull(version.get("C" + (i + 1)));
+    }
+    // appending to an earlier version does not overwrite the elements of a later one
+    ArrayNameMap<DBColumn> middle = versions.get(ArrayNameMap.LINEAR_SEARCH_LIMIT * 2);
+    DBColumn other = column("OTHER");
+    ArrayNameMap<DBColumn> branch = middle.with(other);
+    assertSame(other, branch.get("OTHER"));
+    assertNull(map.get("OTHER"));
+    assertEquals("C" + middle.size(), map.get("C" + middle.size()).getName());
+    ArrayNameMap<DBColumn> trimmed = map.trimmed();
+    assertEquals(map.values(), trimmed.values());
+    assertSame(trimmed, trimmed.trimmed());
+  }
+
+  private static DBColumn column(String name) {
+    return new DBColumn(name, null, DBDataType.getInstance("INT"));
+  }
+
+}
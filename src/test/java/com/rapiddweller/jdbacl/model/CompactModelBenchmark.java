@@ -0,0 +1,110 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl.model;
+
+import org.junit.Test;
+
+import java.sql.Types;
+import java.util.Date;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Compares the heap footprint of a large generated meta data model before and after compacting it
+ * with a {@link NamePool}. The names are created as distinct string instances, like a JDBC driver does.
+ * The class is not matched by the surefire test name patterns and needs to be invoked explicitly:
+ * <code>mvn test -Dtest=CompactModelBenchmark -Dbenchmark.tables=12000</code><br/><br/>
+ * Created: 21.03.2022 14:37:50
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+public class CompactModelBenchmark {
+
+  private static final int DEFAULT_TABLE_COUNT = 12000;
+
+  private static final String[] COMMON_COLUMNS = {
+      "ID", "VERSION", "CREATED_AT", "CREATED_BY", "UPDATED_AT", "UPDATED_BY", "TENANT_ID", "STATUS" };
+  private static final int SPECIFIC_COLUMNS = 25;
+
+  @Test
+  public void testHeapFootprint() {
+    int tableCount = Integer.getInteger("benchmark.tables", DEFAULT_TABLE_COUNT);
+    long baseline = usedHeap();
+    Database db = createModel(tableCount);
+    long plain = usedHeap() - baseline;
+    NamePool pool = new NamePool();
+    long start = System.nanoTime();
+    db.compact(pool);
+    double millis = (System.nanoTime() - start) / 1e6;
+    long compact = usedHeap() - baseline;
+    int columnCount = tableCount * (COMMON_COLUMNS.length + SPECIFIC_COLUMNS);
+    System.out.printf("%d tables, %d columns: plain %,d KB, compact %,d KB (%s), compacted in %.1f ms%n",
+        tableCount, columnCount, plain / 1024, compact / 1024, pool, millis);
+    assertTrue(compact < plain);
+    assertTrue(db.getTables().size() == tableCount); // keeps the model reachable until here
+  }
+
+  private static Database createModel(int tableCount) {
+    Database db = new Database("bench", "h2", "1.4", new Date());
+    DBSchema schema = new DBSchema(copy("PUBLIC"), new DBCatalog(null, db));
+    DBTable previous = null;
+    for (int i = 0; i < tableCount; i++) {
+      DBTable table = new DBTable(copy("T" + i), TableType.TABLE, schema);
+      table.setFKsImported(true);
+      table.setIndexesImported(true);
+      for (String name : COMMON_COLUMNS) {
+        DBColumn column = new DBColumn(copy(name), table, DBDataType.getInstance(Types.INTEGER, copy("INTEGER")));
+        column.setDefaultValue(copy("0"));
+      }
+      for (int j = 0; j < SPECIFIC_COLUMNS; j++) {
+        new DBColumn(copy("ATTRIBUTE_" + j), table, DBDataType.getInstance(Types.VARCHAR, copy("VARCHAR")), 100);
+      }
+      new DBPrimaryKeyConstraint(table, copy("T" + i + "_PK"), true, copy("ID"));
+      if (previous != null) {
+        new DBForeignKeyConstraint(copy("T" + i + "_FK"), true, table,
+            new String[] {copy("TENANT_ID")}, previous, new String[] {copy("ID")});
+      }
+      new DBNonUniqueIndex(copy("T" + i + "_STATUS_IDX"), true, table, copy("STATUS"), copy("TENANT_ID"));
+      previous = table;
+    }
+    return db;
+  }
+
+  /** @return a distinct instance of the string, like the ones a JDBC driver returns */
+  private static String copy(String name) {
+    return new String(name.toCharArray());
+  }
+
+  private static long usedHeap() {
+    Runtime runtime = Runtime.getRuntime();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+    }
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+}
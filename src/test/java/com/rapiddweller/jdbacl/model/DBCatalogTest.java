@@ -5,6 +5,9 @@
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import java.util.Arrays;
+import java.util.List;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
@@ -190,6 +193,29 @@ public void testGetTable3() {
     dbCatalog.getTable("Name", true);
   }
 
+  /**
+   * Test that table lookups and the table list reflect added and removed tables.
+   */
+  @Test
+  public void testGetTable4() {
+    DBCatalog dbCatalog = new DBCatalog();
+    DBSchema schema1 = new DBSchema("S1", dbCatalog);
+    DBSchema schema2 = new DBSchema("S2", dbCatalog);
+    DBTable t2 = new DBTable("T", TableType.TABLE, schema2);
+    assertSame(t2, dbCatalog.getTable("T"));
+    assertNull(dbCatalog.getTable("t", false));
+    List<DBTable> tables = dbCatalog.getTables();
+    assertSame(tables, dbCatalog.getTables());
+    DBTable t1 = new DBTable("T", TableType.TABLE, schema1);
+    assertSame(t1, dbCatalog.getTable("T"));
+    assertEquals(Arrays.asList(t1, t2), dbCatalog.getTables());
+    schema1.removeTable(t1);
+    assertSame(t2, dbCatalog.getTable("T"));
+    assertEquals(1, dbCatalog.getTables().size());
+    thrown.expect(UnsupportedOperationException.class);
+    dbCatalog.getTables().clear();
+  }
+
   /**
    * Test get sequences.
    */
@@ -0,0 +1,215 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl.model;
+
+import com.rapiddweller.jdbacl.DBUtil;
+import com.rapiddweller.jdbacl.dialect.H2Util;
+import com.rapiddweller.jdbacl.model.jdbc.JDBCDBImporter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.rapiddweller.jdbacl.model.jdbc.AbstractJDBCDBImporterTest.createTableChain;
+import static com.rapiddweller.jdbacl.model.jdbc.AbstractJDBCDBImporterTest.dropTableChain;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Stress-tests the lazy import of {@link DBTable} details by concurrent threads.<br/><br/>
+ * Created: 15.03.2022 16:03:41
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+public class DBTableConcurrencyTest {
+
+  private static final String DB_NAME = "DBTableConcurrencyTest";
+  private static final int TABLE_COUNT = 12;
+  private static final int THREAD_COUNT = 16;
+  private static final int ROUNDS = 5;
+
+  private Connection connection;
+  private ExecutorService executor;
+
+  @Before
+  public void setUp() throws Exception {
+    connection = H2Util.connectInMemoryDB(DB_NAME);
+    createTableChain("CT", TABLE_COUNT, connection);
+    executor = Executors.newFixedThreadPool(THREAD_COUNT);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    executor.shutdownNow();
+    dropTableChain("CT", TABLE_COUNT, connection);
+    DBUtil.close(connection);
+  }
+
+  @Test
+  public void testConcurrentJDBCImport() throws Exception {
+    for (int round = 0; round < ROUNDS; round++) {
+      try (CountingImporter importer = new CountingImporter()) {
+        Database database = importer.importDatabase();
+        List<DBTable> tables = database.getTables();
+        assertEquals(TABLE_COUNT, tables.size());
+        runConcurrently(seed -> {
+          List<DBTable> order = new ArrayList<>(tables);
+          Collections.shuffle(order, new Random(seed));
+          for (DBTable table : order) {
+            checkTable(table);
+          }
+        });
+        // each detail of each table must have been imported exactly once,
+        // except for the referrers, which are derived from the foreign keys once all of them are known
+        assertEquals(4 * TABLE_COUNT, importer.counts.keySet().stream().filter(k -> !k.startsWith("referrers")).count());
+        for (Map.Entry<String, AtomicInteger> entry : importer.counts.entrySet()) {
+          assertEquals(entry.getKey(), 1, entry.getValue().get());
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testConcurrentDetailLoader() throws Exception {
+    for (int round = 0; round < ROUNDS; round++) {
+      DBTable table = new DBTable("T");
+      AtomicInteger loads = new AtomicInteger();
+      table.setDetailLoader(t -> {
+        loads.incrementAndGet();
+        t.setColumnsImported(true);
+        for (int i = 0; i < 100; i++) {
+          new DBColumn("C" + i, t, DBDataType.getInstance("INTEGER"), null, null);
+          Thread.yield();
+        }
+        t.setPKImported(true);
+        new DBPrimaryKeyConstraint(t, "T_PK", false, "C0");
+      });
+      runConcurrently(seed -> {
+        assertEquals(100, table.getColumns().size());
+        assertArrayEquals(new String[] { "C0" }, table.getPKColumnNames());
+      });
+      assertEquals(1, loads.get());
+    }
+  }
+
+  // helpers ---------------------------------------------------------------------------------------------------------
+
+  static void checkTable(DBTable table) {
+    int index = Integer.parseInt(table.getName().substring(2));
+    assertEquals(3, table.getColumns().size());
+    assertEquals("ID", table.getColumn("ID").getName());
+    assertArrayEquals(new String[] { "ID" }, table.getPKColumnNames());
+    assertEquals(index > 0 ? 1 : 0, table.getForeignKeyConstraints().size());
+    assertEquals(index < TABLE_COUNT - 1 ? 1 : 0, table.getReferrers().size());
+    boolean nameIndexFound = false;
+    for (DBIndex dbIndex : table.getIndexes()) {
+      nameIndexFound |= dbIndex.getName().equals("CT" + index + "_NAME_IDX");
+    }
+    assertEquals(true, nameIndexFound);
+  }
+
+  private void runConcurrently(Task task) throws Exception {
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<Object>> results = new ArrayList<>();
+    for (int i = 0; i < THREAD_COUNT; i++) {
+      long seed = i;
+      Callable<Object> callable = () -> {
+        start.await();
+        task.run(seed);
+        return null;
+      };
+      results.add(executor.submit(callable));
+    }
+    start.countDown();
+    for (Future<Object> result : results) {
+      result.get(30, TimeUnit.SECONDS);
+    }
+  }
+
+  interface Task {
+    void run(long seed) throws Exception;
+  }
+
+  static class CountingImporter extends JDBCDBImporter {
+
+    final Map<String, AtomicInteger> counts = new ConcurrentHashMap<>();
+
+    CountingImporter() {
+      super(H2Util.getInMemoryURL(DB_NAME), H2Util.DRIVER, H2Util.DEFAULT_USER, H2Util.DEFAULT_PASSWORD,
+          null, H2Util.DEFAULT_SCHEMA);
+    }
+
+    @Override
+    public synchronized void importColumnsOfTable(DBTable table, ColumnReceiver receiver) {
+      count("columns", table);
+      super.importColumnsOfTable(table, receiver);
+    }
+
+    @Override
+    public synchronized void importPrimaryKeyOfTable(DBTable table, PKReceiver receiver) {
+      count("pk", table);
+      super.importPrimaryKeyOfTable(table, receiver);
+    }
+
+    @Override
+    public synchronized void importIndexesOfTable(DBTable table, boolean uniquesOnly, IndexReceiver receiver) {
+      count("indexes", table);
+      super.importIndexesOfTable(table, uniquesOnly, receiver);
+    }
+
+    @Override
+    public synchronized void importImportedKeys(DBTable table, FKReceiver receiver) {
+      count("fks", table);
+      super.importImportedKeys(table, receiver);
+    }
+
+    @Override
+    public synchronized void importRefererTables(DBTable table, ReferrerReceiver receiver) {
+      count("referrers", table);
+      super.importRefererTables(table, receiver);
+    }
+
+    private void count(String aspect, DBTable table) {
+      counts.computeIfAbsent(aspect + ' ' + table.getName(), k -> new AtomicInteger()).incrementAndGet();
+    }
+  }
+
+}
@@ -6,14 +6,17 @@
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import java.sql.Types;
 import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * The type Db table test.
@@ -290,6 +293,18 @@ public void testGetColumns4() {
     assertEquals(0, dbTable.getColumnNames().length);
   }
 
+  /**
+   * Test get columns with an unknown column name.
+   */
+  @Test
+  public void testGetColumns5() {
+    DBTable dbTable = new DBTable("Name");
+    DBColumn id = new DBColumn("ID", dbTable, DBDataType.getInstance("INT"));
+    assertSame(id, dbTable.getColumns(new String[] {"id"})[0]);
+    thrown.expect(ObjectNotFoundException.class);
+    dbTable.getColumns(new String[] {"ID", "foo"});
+  }
+
   /**
    * Test add column.
    */
@@ -1106,5 +1121,35 @@ public void testEquals3() {
     DBTable dbTable = new DBTable("Name");
     assertNotEquals(dbTable, new DBTable("Name", TableType.TABLE, new DBSchema("Name")));
   }
-}
 
+  /**
+   * Test detail loader.
+   */
+  @Test
+  public void testDetailLoader() {
+    DBTable dbTable = new DBTable("Name");
+    int[] loadCount = {0};
+    dbTable.setDetailLoader(table -> {
+      loadCount[0]++;
+      table.setColumnsImported(true);
+      new DBColumn("id", table, Types.INTEGER, "int");
+    });
+    assertEquals("Name", dbTable.getName());
+    assertEquals(0, loadCount[0]);
+    assertEquals(1, dbTable.getColumns().size());
+    assertEquals(1, loadCount[0]);
+    assertNotNull(dbTable.getColumn("id"));
+    assertEquals(1, loadCount[0]);
+  }
+
+  /**
+   * Test discard details with detail loader.
+   */
+  @Test
+  public void testDiscardDetailsWithDetailLoader() {
+    DBTable dbTable = new DBTable("Name");
+    dbTable.setDetailLoader(table -> fail("Discarded details must not be loaded"));
+    dbTable.discardDetails();
+    assertTrue(dbTable.getColumns().isEmpty());
+  }
+}
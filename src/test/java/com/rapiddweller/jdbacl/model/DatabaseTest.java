@@ -6,12 +6,14 @@
 import org.junit.rules.ExpectedException;
 
 import java.util.Date;
+import java.util.List;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
 /**
  * The type Database test.
@@ -296,5 +298,104 @@ public void testSetChecksImported() {
     createTestModelResult.setChecksImported(true);
     assertTrue(createTestModelResult.isChecksImported());
   }
-}
 
+  /**
+   * Test get table by qualified and case-insensitive names.
+   */
+  @Test
+  public void testGetTableByName() {
+    Database db = AbstractModelTest.createTestModel();
+    DBTable table2 = db.getTable("table2");
+    assertSame(table2, db.getTable("TABLE2"));
+    assertSame(table2, db.getTable("public.table2"));
+    assertSame(table2, db.getTable("PUBLIC.Table2"));
+    assertNull(db.getTable("other.table2", false));
+    assertSame(db.getSchema("public"), db.getSchema("PUBLIC"));
+  }
+
+  /**
+   * Test that the lookup index follows structural changes.
+   */
+  @Test
+  public void testIndexUpdates() {
+    Database db = AbstractModelTest.createTestModel();
+    assertEquals(4, db.getTables().size());
+    assertNull(db.getTable("table5", false));
+    DBTable table5 = new DBTable("table5", TableType.TABLE, db.getSchema("public"));
+    assertSame(table5, db.getTable("TABLE5"));
+    assertEquals(5, db.getTables().size());
+    db.removeTable("table5");
+    assertNull(db.getTable("table5", false));
+    assertEquals(4, db.getTables().size());
+    DBCatalog catalog = new DBCatalog("cat", db);
+    DBTable table6 = new DBTable("table6", TableType.TABLE, new DBSchema("sch", catalog));
+    assertSame(table6, db.getTable("cat.sch.table6"));
+    assertSame(table6, db.getTable("sch.table6"));
+    assertSame(catalog.getSchema("sch"), db.getSchema("cat.sch"));
+    db.setSequencesImported(true);
+    assertNull(db.getSequence("seq"));
+    new DBSequence("seq", catalog.getSchema("sch"));
+    assertEquals("seq", db.getSequence("CAT.SCH.SEQ").getName());
+  }
+
+  /**
+   * Test that the lookup index resolves ambiguous simple names in catalog and schema order.
+   */
+  @Test
+  public void testAmbiguousTableNames() {
+    Database db = new Database("db", "h2", "1.4", new Date());
+    DBCatalog catalog = new DBCatalog("cat", db);
+    DBSchema schema1 = new DBSchema("s1", catalog);
+    DBSchema schema2 = new DBSchema("s2", catalog);
+    DBTable t2 = new DBTable("T", TableType.TABLE, schema2);
+    assertSame(t2, db.getTable("t"));
+    DBTable t1 = new DBTable("T", TableType.TABLE, schema1);
+    assertSame(t1, db.getTable("t"));
+    assertSame(t2, db.getTable("s2.t"));
+    schema1.removeTable(t1);
+    assertSame(t2, db.getTable("t"));
+    assertNull(db.getTable("s1.t", false));
+    schema2.removeTable(t2);
+    assertNull(db.getTable("t", false));
+    // the table list is cached until tables are added or removed
+    assertEquals(0, db.getTables().size());
+    List<DBTable> tables = db.getTables();
+    assertSame(tables, db.getTables());
+    new DBTable("U", TableType.TABLE, schema1);
+    assertEquals(1, db.getTables().size());
+    try {
+      db.getTables().clear();
+      fail("table list is modifiable");
+    } catch (UnsupportedOperationException e) {
+      // expected
+    }
+  }
+
+  /**
+   * Test that compacting the model shares equal names and keeps the model intact.
+   */
+  @Test
+  public void testCompact() {
+    Database db = new Database("db", "h2", "1.4", new Date());
+    DBSchema schema = new DBSchema("public", new DBCatalog(null, db));
+    DBTable t1 = new DBTable("T1", TableType.TABLE, schema);
+    DBTable t2 = new DBTable("T2", TableType.TABLE, schema);
+    new DBColumn(new String("ID"), t1, DBDataType.getInstance("INT"));
+    new DBColumn(new String("ID"), t2, DBDataType.getInstance("INT"));
+    new DBColumn(new String("REF"), t2, DBDataType.getInstance("INT"));
+    t2.setFKsImported(true);
+    DBForeignKeyConstraint fk = new DBForeignKeyConstraint("T2_FK", true, t2,
+        new String[] {new String("REF")}, t1, new String[] {new String("REF")});
+    NamePool pool = new NamePool();
+    db.compact(pool);
+    assertSame(t1.getColumn("ID").getName(), t2.getColumn("ID").getName());
+    assertSame(fk.getForeignKeyColumnNames()[0], fk.getRefereeColumnNames()[0]);
+    assertSame(t2.getColumn("REF").getName(), fk.getForeignKeyColumnNames()[0]);
+    // the getters return copies, so callers cannot modify the shared arrays
+    fk.getForeignKeyColumnNames()[0] = "X";
+    assertEquals("REF", fk.getRefereeColumnNames()[0]);
+    assertEquals("REF", fk.getForeignKeyColumnNames()[0]);
+    assertEquals(2, t2.getColumns().size());
+    assertSame(t1, db.getTable("t1"));
+  }
+}
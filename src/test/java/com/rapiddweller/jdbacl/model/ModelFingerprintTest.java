@@ -0,0 +1,132 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl.model;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.sql.Types;
+import java.util.Date;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+/**
+ * Tests the {@link ModelFingerprint}.<br/><br/>
+ * Created: 24.03.2022 11:20:48
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+public class ModelFingerprintTest extends AbstractModelTest {
+
+  @Test
+  public void testEqualModels() {
+    Database db1 = createTestModel();
+    Database db2 = createTestModel();
+    for (DBTable table1 : db1.getTables()) {
+      DBTable table2 = db2.getTable(table1.getName());
+      assertEquals(ModelFingerprint.of(table1), ModelFingerprint.of(table2));
+    }
+    assertNotEquals(ModelFingerprint.of(db1.getTable("table1")), ModelFingerprint.of(db1.getTable("table2")));
+  }
+
+  @Test
+  public void testSchema() {
+    Database db1 = createTestModel();
+    Database db2 = createTestModel();
+    DBSchema schema2 = db2.getSchema("public");
+    assertEquals(db1.getSchema("public").getFingerprint(), schema2.getFingerprint());
+    DBTable table4 = schema2.getTable("table4");
+    assertEquals(ModelFingerprint.of(table4), table4.getFingerprint());
+    new DBColumn("name4", table4, Types.VARCHAR, "varchar(20)");
+    assertNotEquals(db1.getSchema("public").getFingerprint(), schema2.getFingerprint());
+  }
+
+  @Test
+  public void testIdentifierCase() {
+    DBTable lower = new DBTable("tab", TableType.TABLE, newSchema());
+    new DBColumn("id", lower, Types.INTEGER, "int");
+    DBTable upper = new DBTable("TAB", TableType.TABLE, newSchema());
+    new DBColumn("ID", upper, Types.INTEGER, "INT");
+    assertEquals(ModelFingerprint.of(lower), ModelFingerprint.of(upper));
+  }
+
+  @Test
+  public void testColumnChange() {
+    Database db1 = createTestModel();
+    Database db2 = createTestModel();
+    DBColumn column = db2.getTable("table3").getColumn("name3");
+    assertEquals(ModelFingerprint.of(db1.getTable("table3")), ModelFingerprint.of(db2.getTable("table3")));
+    column.setSize(9);
+    assertNotEquals(ModelFingerprint.of(db1.getTable("table3").getColumn("name3")), ModelFingerprint.of(column));
+    assertNotEquals(ModelFingerprint.of(db1.getTable("table3")), ModelFingerprint.of(db2.getTable("table3")));
+  }
+
+  @Test
+  public void testIndexOrder() {
+    DBTable table1 = new DBTable("tab", TableType.TABLE, newSchema());
+    new DBNonUniqueIndex("idx_a", true, table1, "a");
+    new DBNonUniqueIndex("idx_b", true, table1, "b");
+    DBTable table2 = new DBTable("tab", TableType.TABLE, newSchema());
+    new DBNonUniqueIndex("idx_b", true, table2, "b");
+    new DBNonUniqueIndex("idx_a", true, table2, "a");
+    assertEquals(ModelFingerprint.of(table1), ModelFingerprint.of(table2));
+  }
+
+  @Test
+  public void testConstraintNames() {
+    DBTable table = new DBTable("tab", TableType.TABLE, newSchema());
+    DBUniqueConstraint generated1 = new DBUniqueConstraint(table, "SYS_C001", false, "a");
+    DBUniqueConstraint generated2 = new DBUniqueConstraint(table, "SYS_C002", false, "a");
+    assertEquals(ModelFingerprint.of(generated1), ModelFingerprint.of(generated2));
+    DBUniqueConstraint named1 = new DBUniqueConstraint(table, "UK_1", true, "a");
+    DBUniqueConstraint named2 = new DBUniqueConstraint(table, "UK_2", true, "a");
+    assertNotEquals(ModelFingerprint.of(named1), ModelFingerprint.of(named2));
+    assertNotEquals(ModelFingerprint.of(generated1), ModelFingerprint.of(new DBUniqueConstraint(table, "SYS_C3", false, "b")));
+  }
+
+  @Test
+  public void testSequence() {
+    DBSequence seq1 = new DBSequence("seq", null, null);
+    seq1.setStart(BigInteger.ONE);
+    seq1.setLastNumber(BigInteger.valueOf(100));
+    DBSequence seq2 = new DBSequence("SEQ", null, null);
+    seq2.setStart(BigInteger.ONE);
+    seq2.setLastNumber(BigInteger.valueOf(200));
+    assertEquals(ModelFingerprint.of(seq1), ModelFingerprint.of(seq2));
+    seq2.setIncrement(BigInteger.TEN);
+    assertNotEquals(ModelFingerprint.of(seq1), ModelFingerprint.of(seq2));
+  }
+
+  // helpers ---------------------------------------------------------------------------------------------------------
+
+  private static DBSchema newSchema() {
+    Database db = new Database("db", "hsql", "1.5.8", new Date());
+    return new DBSchema("public", new DBCatalog(null, db));
+  }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl.model;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ * Tests the {@link NamePool}.<br/><br/>
+ * Created: 21.03.2022 11:02:45
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+public class NamePoolTest {
+
+  @Test
+  public void testName() {
+    NamePool pool = new NamePool();
+    String first = new String("CUSTOMER_ID");
+    String second = new String("CUSTOMER_ID");
+    assertNotSame(first, second);
+    assertSame(first, pool.name(first));
+    assertSame(first, pool.name(second));
+    assertNull(pool.name(null));
+    assertEquals(1, pool.getNameCount());
+  }
+
+  @Test
+  public void testNames() {
+    NamePool pool = new NamePool();
+    String[] first = {new String("A"), new String("B")};
+    String[] pooled = pool.names(first);
+    assertArrayEquals(first, pooled);
+    assertNotSame(first, pooled);
+    assertSame(pooled, pool.names(new String("A"), new String("B")));
+    assertSame(pooled[0], pool.name(new String("A")));
+    assertEquals(0, pool.names().length);
+    assertNull(pool.names((String[]) null));
+    assertEquals(1, pool.getArrayCount());
+  }
+
+  @Test
+  public void testClear() {
+    NamePool pool = new NamePool();
+    pool.names("A", "B");
+    pool.clear();
+    assertEquals(0, pool.getNameCount());
+    assertEquals(0, pool.getArrayCount());
+  }
+
+}
@@ -0,0 +1,200 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl.model;
+
+import com.rapiddweller.jdbacl.DBUtil;
+import com.rapiddweller.jdbacl.dialect.H2Util;
+import com.rapiddweller.jdbacl.model.jdbc.JDBCDBImporter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link ReferrerIndex} and its use by {@link DBTable#getReferrers()}.<br/><br/>
+ * Created: 23.03.2022 11:40:27
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+public class ReferrerIndexTest {
+
+  private static final String DB_NAME = "ReferrerIndexTest";
+
+  private Connection connection;
+
+  @Before
+  public void setUp() throws Exception {
+    connection = H2Util.connectInMemoryDB(DB_NAME);
+    DBUtil.executeUpdate("create table CUSTOMER (ID int not null, constraint CUSTOMER_PK primary key (ID))",
+        connection);
+    DBUtil.executeUpdate("create table ORDERS (ID int not null, CUSTOMER_ID int, " +
+        "constraint ORDERS_PK primary key (ID), " +
+        "constraint ORDERS_CUSTOMER_FK foreign key (CUSTOMER_ID) references CUSTOMER (ID))", connection);
+    DBUtil.executeUpdate("create table ADDRESS (ID int not null, CUSTOMER_ID int, " +
+        "constraint ADDRESS_PK primary key (ID), " +
+        "constraint ADDRESS_CUSTOMER_FK foreign key (CUSTOMER_ID) references CUSTOMER (ID))", connection);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    DBUtil.executeUpdate("drop all objects", connection);
+    DBUtil.close(connection);
+  }
+
+  @Test
+  public void testDerivedFromForeignKeys() throws Exception {
+    try (CountingImporter importer = new CountingImporter()) {
+      Database db = importer.importDatabase();
+      for (DBTable table : db.getTables()) {
+        table.getForeignKeyConstraints();
+      }
+      DBTable customer = db.getTable("CUSTOMER");
+      assertEquals(names("ORDERS", "ADDRESS"), names(customer.getReferrers()));
+      assertTrue(db.getTable("ORDERS").getReferrers().isEmpty());
+      assertEquals(0, importer.referrerQueries.get());
+    }
+  }
+
+  @Test
+  public void testFallbackForPartialImport() throws Exception {
+    try (CountingImporter importer = new CountingImporter()) {
+      Database db = importer.importDatabase();
+      DBTable customer = db.getTable("CUSTOMER");
+      // the foreign keys of ORDERS and ADDRESS are unknown, so the database is queried
+      assertEquals(names("ORDERS", "ADDRESS"), names(customer.getReferrers()));
+      assertEquals(1, importer.referrerQueries.get());
+    }
+  }
+
+  @Test
+  public void testMaintenance() {
+    Database db = new Database("db", "h2", "1.4", new Date());
+    DBSchema schema = new DBSchema("public", new DBCatalog(null, db));
+    DBTable customer = table("CUSTOMER", schema);
+    DBTable orders = table("ORDERS", schema);
+    DBForeignKeyConstraint fk1 = new DBForeignKeyConstraint("FK1", true, orders, "C1", customer, "ID");
+    assertEquals(names("ORDERS"), names(customer.getReferrers()));
+    // changes after the referrers have been derived are reflected
+    DBTable address = table("ADDRESS", schema);
+    DBForeignKeyConstraint fk2 = new DBForeignKeyConstraint("FK2", true, orders, "C2", customer, "ID");
+    new DBForeignKeyConstraint("FK3", true, address, "C1", customer, "ID");
+    assertEquals(names("ORDERS", "ADDRESS"), names(customer.getReferrers()));
+    orders.removeForeignKeyConstraint(fk1);
+    assertEquals(names("ORDERS", "ADDRESS"), names(customer.getReferrers()));
+    orders.removeForeignKeyConstraint(fk2);
+    assertEquals(names("ADDRESS"), names(customer.getReferrers()));
+    // a new table's index is rebuilt from the foreign keys
+    DBTable item = table("ITEM", schema);
+    new DBForeignKeyConstraint("FK4", true, item, "C1", address, "ID");
+    assertEquals(names("ITEM"), names(address.getReferrers()));
+  }
+
+  @Test
+  public void testIncompleteForeignKeysAreCheckedOnce() {
+    Database db = new Database("db", "h2", "1.4", new Date());
+    DBSchema schema = new DBSchema("public", new DBCatalog(null, db));
+    CheckCountingTable t1 = new CheckCountingTable("T1", schema);
+    CheckCountingTable t2 = new CheckCountingTable("T2", schema);
+    CheckCountingTable t3 = new CheckCountingTable("T3", schema);
+    t1.setFKsImported(true);
+    t2.setFKsImported(true);
+    assertNull(db.getReferrerIndex());
+    assertNull(db.getReferrerIndex());
+    assertNull(db.getReferrerIndex());
+    // only the table with missing foreign keys is checked again
+    assertEquals(1, t1.checks);
+    assertEquals(1, t2.checks);
+    assertEquals(3, t3.checks);
+    t3.setFKsImported(true);
+    assertNotNull(db.getReferrerIndex());
+  }
+
+  // helpers ---------------------------------------------------------------------------------------------------------
+
+  private static DBTable table(String name, DBSchema schema) {
+    DBTable table = new DBTable(name, TableType.TABLE, schema);
+    table.setFKsImported(true);
+    new DBColumn("ID", table, DBDataType.getInstance("INT"));
+    return table;
+  }
+
+  private static HashSet<String> names(Iterable<DBTable> tables) {
+    HashSet<String> result = new HashSet<>();
+    for (DBTable table : tables) {
+      result.add(table.getName());
+    }
+    return result;
+  }
+
+  private static HashSet<String> names(String... names) {
+    HashSet<String> result = new HashSet<>();
+    Collections.addAll(result, names);
+    return result;
+  }
+
+  static class CountingImporter extends JDBCDBImporter {
+
+    final AtomicInteger referrerQueries = new AtomicInteger();
+
+    CountingImporter() {
+      super(H2Util.getInMemoryURL(DB_NAME), H2Util.DRIVER, H2Util.DEFAULT_USER, H2Util.DEFAULT_PASSWORD,
+          null, H2Util.DEFAULT_SCHEMA);
+    }
+
+    @Override
+    public synchronized void importRefererTables(DBTable table, ReferrerReceiver receiver) {
+      referrerQueries.incrementAndGet();
+      super.importRefererTables(table, receiver);
+    }
+  }
+
+  static class CheckCountingTable extends DBTable {
+
+    int checks;
+
+    CheckCountingTable(String name, DBSchema schema) {
+      super(name, TableType.TABLE, schema);
+    }
+
+    @Override
+    boolean areFKsKnown() {
+      checks++;
+      return super.areFKsKnown();
+    }
+  }
+
+}
@@ -0,0 +1,82 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl.model.bin;
+
+import com.rapiddweller.jdbacl.model.AbstractModelTest;
+import com.rapiddweller.jdbacl.model.DBTable;
+import com.rapiddweller.jdbacl.model.Database;
+import com.rapiddweller.jdbacl.model.xml.XMLModelImporter;
+import org.junit.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link BinaryModelExporter}.<br/><br/>
+ * Created: 19.10.2022 14:02:36
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+public class BinaryModelExporterTest extends AbstractModelTest {
+
+  @Test
+  public void testEager() throws Exception {
+    Database expected = createTestModel();
+    File file = new File("target", getClass().getSimpleName() + "-eager" + BinaryModelFormat.FILE_SUFFIX);
+    new BinaryModelExporter(file, false).export(expected);
+    byte[] bytes = Files.readAllBytes(file.toPath());
+    assertArrayEquals(BinaryModelFormat.MAGIC, new byte[] {bytes[0], bytes[1], bytes[2], bytes[3]});
+    Database actual = new BinaryModelImporter(file, null).importDatabase();
+    assertTrue(expected.isIdentical(actual));
+    assertEquals(expected.getImportDate(), actual.getImportDate());
+    assertEquals("MY_.*", actual.getTableInclusionPattern());
+  }
+
+  @Test
+  public void testLazy() throws Exception {
+    Database lazyModel = new XMLModelImporter(LAZY_TEST_MODEL_FILENAME, null).importDatabase();
+    File file = new File("target", getClass().getSimpleName() + "-lazy" + BinaryModelFormat.FILE_SUFFIX);
+    new BinaryModelExporter(file).export(lazyModel);
+    Database db = new BinaryModelImporter(file, null).importDatabase();
+    DBTable table1 = db.getTable("table1");
+    assertTrue(table1.areColumnsImported());
+    assertTrue(table1.areIndexesImported());
+    assertFalse(table1.areFKsImported());
+    DBTable table2 = db.getTable("table2");
+    assertFalse(table2.areIndexesImported());
+    assertTrue(table2.areFKsImported());
+    assertEquals("table1", table2.getForeignKeyConstraint("ref2").getRefereeTable().getName());
+    assertFalse(db.getTable("table3").areFKsImported());
+    assertEquals(1, db.getTable("table4").getIndexes().size());
+  }
+
+}
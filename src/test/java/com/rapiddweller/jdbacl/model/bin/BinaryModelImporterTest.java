@@ -0,0 +1,151 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl.model.bin;
+
+import com.rapiddweller.common.ImportFailedException;
+import com.rapiddweller.common.IOUtil;
+import com.rapiddweller.jdbacl.model.AbstractModelTest;
+import com.rapiddweller.jdbacl.model.DBSequence;
+import com.rapiddweller.jdbacl.model.DBTable;
+import com.rapiddweller.jdbacl.model.Database;
+import com.rapiddweller.jdbacl.model.jdbc.JDBCDBImporter;
+import com.rapiddweller.jdbacl.model.xml.XMLModelImporter;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link BinaryModelImporter}.<br/><br/>
+ * Created: 19.10.2022 14:25:50
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+public class BinaryModelImporterTest extends AbstractModelTest {
+
+  @Before
+  public void setUpTables() throws Exception {
+    createTables();
+  }
+
+  @After
+  public void tearDownTables() throws Exception {
+    dropTables();
+  }
+
+  @Test
+  public void testOffline() throws Exception {
+    Database expected = new XMLModelImporter(EAGER_TEST_MODEL_FILENAME, null).importDatabase();
+    File file = export(expected, "offline");
+    Database actual = new BinaryModelImporter(file, null).importDatabase();
+    assertTrue(expected.isIdentical(actual));
+    assertTrue(createTestModel().isIdentical(actual));
+  }
+
+  @Test
+  public void testOnline() throws Exception {
+    File file = export(new XMLModelImporter(LAZY_TEST_MODEL_FILENAME, null).importDatabase(), "online");
+    BinaryModelImporter importer = new BinaryModelImporter(
+        file, new JDBCDBImporter(URL, DRIVER, USER, PASSWORD, CATALOG, SCHEMA));
+    try {
+      Database db = importer.importDatabase();
+      assertFalse(db.isSequencesImported());
+      List<DBSequence> sequences = db.getSequences();
+      assertEquals(1, sequences.size());
+      assertEquals("SEQ1", sequences.get(0).getName());
+      assertEquals(BigInteger.valueOf(1000), sequences.get(0).getStart());
+      assertTrue(db.isSequencesImported());
+      assertFalse(db.getTable("table1").areFKsImported());
+    } finally {
+      IOUtil.close(importer);
+    }
+  }
+
+  @Test
+  public void testLazy() throws Exception {
+    Database expected = createTestModel();
+    File file = new File("target", getClass().getSimpleName() + "-lazy" + BinaryModelFormat.FILE_SUFFIX);
+    new BinaryModelExporter(file, false).export(expected);
+    Database actual = new BinaryModelImporter(file, null, true).importDatabase();
+    // referrers are loaded from the file, not from the foreign keys of other tables
+    DBTable table1 = actual.getTable("table1");
+    assertFalse(table1.areReferrersImported());
+    assertEquals(1, table1.getReferrers().size());
+    // the details of the other tables are still available after the file has been replaced
+    Files.write(file.toPath(), new byte[0]);
+    assertTrue(expected.isIdentical(actual));
+    new BinaryModelExporter(file).export(actual);
+    assertTrue(expected.isIdentical(new BinaryModelImporter(file, null, false).importDatabase()));
+  }
+
+  @Test
+  public void testReadSchemaFingerprint() throws Exception {
+    Database database = createTestModel();
+    assertNull(BinaryModelImporter.readSchemaFingerprint(export(database, "fingerprint")));
+    // a fingerprint which exceeds the header bytes read in advance
+    String fingerprint = "x".repeat(300);
+    database.setSchemaFingerprint(fingerprint);
+    assertEquals(fingerprint, BinaryModelImporter.readSchemaFingerprint(export(database, "fingerprint")));
+    database.setSchemaFingerprint("fp");
+    assertEquals("fp", BinaryModelImporter.readSchemaFingerprint(export(database, "fingerprint")));
+  }
+
+  @Test(expected = ImportFailedException.class)
+  public void testIllegalFile() throws Exception {
+    File file = new File("target", getClass().getSimpleName() + "-illegal" + BinaryModelFormat.FILE_SUFFIX);
+    Files.write(file.toPath(), "<database/>".getBytes(StandardCharsets.UTF_8));
+    new BinaryModelImporter(file, null).importDatabase();
+  }
+
+  @Test(expected = ImportFailedException.class)
+  public void testUnsupportedVersion() throws Exception {
+    File file = export(createTestModel(), "version");
+    byte[] bytes = Files.readAllBytes(file.toPath());
+    bytes[7] = (byte) (BinaryModelFormat.VERSION + 1);
+    Files.write(file.toPath(), bytes);
+    new BinaryModelImporter(file, null).importDatabase();
+  }
+
+  // private helpers -------------------------------------------------------------------------------------------------
+
+  private File export(Database database, String testName) throws Exception {
+    File file = new File("target", getClass().getSimpleName() + "-" + testName + BinaryModelFormat.FILE_SUFFIX);
+    new BinaryModelExporter(file).export(database);
+    return file;
+  }
+
+}
@@ -0,0 +1,126 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl.model.bin;
+
+import com.rapiddweller.jdbacl.model.DBCatalog;
+import com.rapiddweller.jdbacl.model.DBColumn;
+import com.rapiddweller.jdbacl.model.DBForeignKeyConstraint;
+import com.rapiddweller.jdbacl.model.DBNonUniqueIndex;
+import com.rapiddweller.jdbacl.model.DBPrimaryKeyConstraint;
+import com.rapiddweller.jdbacl.model.DBSchema;
+import com.rapiddweller.jdbacl.model.DBTable;
+import com.rapiddweller.jdbacl.model.Database;
+import com.rapiddweller.jdbacl.model.TableType;
+import com.rapiddweller.jdbacl.model.xml.XMLModelExporter;
+import com.rapiddweller.jdbacl.model.xml.XMLModelImporter;
+import org.junit.Test;
+
+import java.io.File;
+import java.sql.Types;
+import java.util.Date;
+import java.util.concurrent.Callable;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares the load times of a large meta data model from an XML and a binary cache file.
+ * The class is not matched by the surefire test name patterns and needs to be invoked explicitly:
+ * <code>mvn test -Dtest=ModelCacheBenchmark -Dbenchmark.tables=8000</code><br/><br/>
+ * Created: 20.10.2022 11:38:15
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+public class ModelCacheBenchmark {
+
+  private static final int DEFAULT_TABLE_COUNT = 8000;
+  private static final int ACCESSED_TABLE_COUNT = 50;
+
+  @Test
+  public void testLoadTimes() throws Exception {
+    int tableCount = Integer.getInteger("benchmark.tables", DEFAULT_TABLE_COUNT);
+    Database model = createModel(tableCount);
+    File xmlFile = File.createTempFile("ModelCacheBenchmark", ".meta.xml");
+    File binFile = File.createTempFile("ModelCacheBenchmark", BinaryModelFormat.FILE_SUFFIX);
+    try {
+      new XMLModelExporter(xmlFile, false).export(model);
+      new BinaryModelExporter(binFile, false).export(model);
+      measure("XML", xmlFile, () -> accessTables(new XMLModelImporter(xmlFile, null).importDatabase()));
+      measure("binary", binFile, () -> accessTables(new BinaryModelImporter(binFile, null, false).importDatabase()));
+      measure("lazy binary", binFile, () -> accessTables(new BinaryModelImporter(binFile, null).importDatabase()));
+    } finally {
+      xmlFile.delete();
+      binFile.delete();
+    }
+  }
+
+  private static void measure(String label, File file, Callable<Integer> loader) throws Exception {
+    loader.call(); // warm up
+    System.gc();
+    long start = System.nanoTime();
+    int columnCount = loader.call();
+    double millis = (System.nanoTime() - start) / 1e6;
+    assertEquals(ACCESSED_TABLE_COUNT * 6, columnCount);
+    System.out.printf("%-12s %7d KB, loaded and accessed %d tables in %8.1f ms%n",
+        label, file.length() / 1024, ACCESSED_TABLE_COUNT, millis);
+  }
+
+  private static int accessTables(Database db) {
+    int columnCount = 0;
+    int tableCount = db.getTables().size();
+    for (int i = 0; i < ACCESSED_TABLE_COUNT; i++) {
+      DBTable table = db.getTable("T" + (i * tableCount / ACCESSED_TABLE_COUNT));
+      columnCount += table.getColumns().size();
+      table.getForeignKeyConstraints();
+      table.getIndexes();
+    }
+    return columnCount;
+  }
+
+  private static Database createModel(int tableCount) {
+    Database db = new Database("bench", "h2", "1.4", new Date());
+    DBSchema schema = new DBSchema("PUBLIC", new DBCatalog(null, db));
+    DBTable previous = null;
+    for (int i = 0; i < tableCount; i++) {
+      DBTable table = new DBTable("T" + i, TableType.TABLE, schema);
+      table.setFKsImported(true);
+      new DBColumn("ID", table, Types.INTEGER, "int");
+      new DBColumn("REF", table, Types.INTEGER, "int");
+      new DBColumn("NAME", table, Types.VARCHAR, "varchar(100)");
+      new DBColumn("DESCRIPTION", table, Types.VARCHAR, "varchar(2000)");
+      new DBColumn("CREATED", table, Types.TIMESTAMP, "timestamp");
+      new DBColumn("AMOUNT", table, Types.DECIMAL, "decimal(10,2)");
+      new DBPrimaryKeyConstraint(table, "T" + i + "_PK", true, "ID");
+      if (previous != null) {
+        new DBForeignKeyConstraint("T" + i + "_FK", true, table, new String[] {"REF"}, previous, new String[] {"ID"});
+      }
+      new DBNonUniqueIndex("T" + i + "_NAME_IDX", true, table, "NAME");
+      previous = table;
+    }
+    return db;
+  }
+
+}
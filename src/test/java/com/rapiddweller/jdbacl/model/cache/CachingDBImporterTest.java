@@ -23,18 +23,31 @@
 
 import com.rapiddweller.common.FileUtil;
 import com.rapiddweller.common.IOUtil;
+import com.rapiddweller.common.Period;
 import com.rapiddweller.jdbacl.DBUtil;
+import com.rapiddweller.jdbacl.dialect.H2Util;
+import com.rapiddweller.jdbacl.model.DBSchema;
 import com.rapiddweller.jdbacl.model.DBTable;
 import com.rapiddweller.jdbacl.model.Database;
 import com.rapiddweller.jdbacl.model.jdbc.AbstractJDBCDBImporterTest;
+import com.rapiddweller.jdbacl.model.jdbc.ImportProfile;
 import com.rapiddweller.jdbacl.model.jdbc.JDBCDBImporter;
+import com.rapiddweller.jdbacl.model.jdbc.ParallelJDBCDBImporter;
 import org.junit.Test;
 
 import java.io.File;
 import java.sql.Connection;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Tests the {@link CachingDBImporter}.<br/><br/>
@@ -73,12 +86,342 @@ public void testLazyImport() throws Exception {
     }
   }
 
+  @Test
+  public void testIncrementalRefresh() throws Exception {
+    // given a cached H2 database, which provides table change markers
+    String url = H2Util.getInMemoryURL("CachingDBImporterTest");
+    Connection connection = H2Util.connectInMemoryDB("CachingDBImporterTest");
+    try {
+      DBUtil.executeUpdate("create table CT_A (ID int not null, primary key (ID))", connection);
+      DBUtil.executeUpdate("create table CT_B (ID int not null, A_ID int, primary key (ID), " +
+          "constraint CT_B_FK foreign key (A_ID) references CT_A (ID))", connection);
+      DBUtil.executeUpdate("create table CT_C (ID int)", connection);
+      DBUtil.executeUpdate("create table CT_T (ID int)", connection);
+      CachingDBImporter importer = createH2Importer(url, new HashSet<>());
+      File cacheFile = importer.getCacheFile();
+      importer.invalidate();
+      try {
+        importer.importDatabase();
+      } finally {
+        IOUtil.close(importer);
+      }
+      assertTrue(new File(cacheFile.getPath() + ".markers").exists());
+      // when altering one table, dropping one and creating a new one...
+      DBUtil.executeUpdate("alter table CT_A add column NAME varchar(20)", connection);
+      DBUtil.executeUpdate("drop table CT_C", connection);
+      DBUtil.executeUpdate("create table CT_D (ID int not null, A_ID int, primary key (ID), " +
+          "constraint CT_D_FK foreign key (A_ID) references CT_A (ID))", connection);
+      Set<String> columnImports = new HashSet<>();
+      importer = createH2Importer(url, columnImports);
+      try {
+        Database db = importer.importDatabase();
+        // ...then the changes must be reflected in the cached model...
+        assertNull(db.getTable("CT_C", false));
+        DBTable tableA = db.getTable("CT_A");
+        assertTrue(tableA.areColumnsImported());
+        assertNotNull(tableA.getColumn("NAME"));
+        DBTable tableD = db.getTable("CT_D");
+        assertEquals(1, tableD.getForeignKeyConstraints().size());
+        assertTrue(tableA.getReferrers().contains(tableD));
+        // ...and unchanged tables must not have been imported again
+        assertFalse(columnImports.contains("CT_T"));
+      } finally {
+        IOUtil.close(importer);
+      }
+      importer.invalidate();
+      assertFalse(cacheFile.exists());
+      assertFalse(new File(cacheFile.getPath() + ".markers").exists());
+    } finally {
+      DBUtil.executeUpdate("drop table CT_D", connection);
+      DBUtil.executeUpdate("drop table CT_B", connection);
+      DBUtil.executeUpdate("drop table CT_A", connection);
+      DBUtil.executeUpdate("drop table CT_T", connection);
+      DBUtil.close(connection);
+    }
+  }
+
+  @Test
+  public void testRenamedColumn() throws Exception {
+    // given a cached H2 table...
+    String url = H2Util.getInMemoryURL("CachingDBImporterTest_rn");
+    Connection connection = H2Util.connectInMemoryDB("CachingDBImporterTest_rn");
+    try {
+      DBUtil.executeUpdate("create table CR_B (ID int)", connection);
+      assertEquals("[ID]", cachedColumnNames(url, "CR_B", true));
+      DBUtil.executeUpdate("alter table CR_B add column X int", connection);
+      assertEquals("[ID, X]", cachedColumnNames(url, "CR_B", false));
+      // when renaming a column, which H2 does not reflect in INFORMATION_SCHEMA.TABLES.LAST_MODIFICATION...
+      DBUtil.executeUpdate("alter table CR_B alter column X rename to Y", connection);
+      // ...then the cached model must reflect the change
+      assertEquals("[ID, Y]", cachedColumnNames(url, "CR_B", false));
+      assertEquals("[ID, Y]", cachedColumnNames(url, "CR_B", false));
+    } finally {
+      DBUtil.executeUpdate("drop table CR_B", connection);
+      DBUtil.close(connection);
+    }
+  }
+
+  @Test
+  public void testChangeMissedByMarkers() throws Exception {
+    // given a database whose change markers miss a change which the schema fingerprint reveals...
+    String url = H2Util.getInMemoryURL("CachingDBImporterTest_mm");
+    Connection connection = H2Util.connectInMemoryDB("CachingDBImporterTest_mm");
+    try {
+      DBUtil.executeUpdate("create table CM_A (ID int)", connection);
+      CachingDBImporter importer = createImporterWithConstantMarkers(url);
+      File cacheFile = importer.getCacheFile();
+      importer.invalidate();
+      try {
+        importer.importDatabase();
+      } finally {
+        IOUtil.close(importer);
+      }
+      DBUtil.executeUpdate("alter table CM_A add column X int", connection);
+      // ...then the model must be imported anew...
+      for (int i = 0; i < 2; i++) {
+        importer = createImporterWithConstantMarkers(url);
+        try {
+          assertNotNull(importer.importDatabase().getTable("CM_A").getColumn("X"));
+          // ...and the cache file must store the fingerprint of the new model
+          assertEquals(modelFingerprint(importer), importer.getFormat().readSchemaFingerprint(cacheFile));
+        } finally {
+          IOUtil.close(importer);
+        }
+      }
+      importer.invalidate();
+    } finally {
+      DBUtil.executeUpdate("drop table CM_A", connection);
+      DBUtil.close(connection);
+    }
+  }
+
+  @Test
+  public void testTimeToLive() throws Exception {
+    // given a cached H2 database, which provides table change markers
+    String url = H2Util.getInMemoryURL("CachingDBImporterTest");
+    Connection connection = H2Util.connectInMemoryDB("CachingDBImporterTest");
+    CachingDBImporter importer = createH2Importer(url, new HashSet<>());
+    try {
+      DBUtil.executeUpdate("create table CT_E (ID int)", connection);
+      importer.importDatabase();
+      // (the cache file name is only complete when the catalog is known)
+      File cacheFile = importer.getCacheFile();
+      importer.invalidate();
+      importer.importDatabase();
+      // when a table changes, the refreshed cache file keeps the time of the last complete import...
+      long importTime = System.currentTimeMillis() - Period.HOUR.getMillis();
+      assertTrue(cacheFile.setLastModified(importTime));
+      importTime = cacheFile.lastModified();
+      DBUtil.executeUpdate("alter table CT_E add column NAME varchar(20)", connection);
+      assertNotNull(importer.importDatabase().getTable("CT_E").getColumn("NAME"));
+      assertEquals(importTime, cacheFile.lastModified());
+      // ...so that the model is imported completely once the time to live has passed
+      assertTrue(cacheFile.setLastModified(importTime - CachingDBImporter.DEFAULT_TIME_TO_LIVE));
+      importer.importDatabase();
+      assertTrue(cacheFile.lastModified() > importTime);
+    } finally {
+      IOUtil.close(importer);
+      importer.invalidate();
+      DBUtil.executeUpdate("drop table CT_E", connection);
+      DBUtil.close(connection);
+    }
+  }
+
+  @Test
+  public void testBinaryFormat() throws Exception {
+    // given a database and an importer which caches in binary format
+    String url = H2Util.getInMemoryURL("CachingDBImporterTest_bin");
+    Connection connection = H2Util.connectInMemoryDB("CachingDBImporterTest_bin");
+    try {
+      DBUtil.executeUpdate("create table CB_A (ID int not null, primary key (ID))", connection);
+      DBUtil.executeUpdate("create table CB_B (ID int not null, A_ID int, primary key (ID), " +
+          "constraint CB_B_FK foreign key (A_ID) references CB_A (ID))", connection);
+      Set<String> columnImports = new HashSet<>();
+      CachingDBImporter importer = createH2Importer(url, columnImports);
+      importer.setFormat(CacheFormat.BINARY);
+      File cacheFile = importer.getCacheFile();
+      assertTrue(cacheFile.getName().endsWith(".meta.bin"));
+      importer.invalidate();
+      try {
+        // ...and a cache file which contains the table details
+        Database db = importer.importDatabase();
+        for (DBTable table : db.getTables()) {
+          table.importDetails(importer.getRealImporter());
+        }
+        CachingDBImporter.writeCacheFile(cacheFile, db);
+      } finally {
+        IOUtil.close(importer);
+      }
+      assertTrue(cacheFile.exists());
+      // when importing the database again...
+      columnImports.clear();
+      importer = createH2Importer(url, columnImports);
+      importer.setFormat(CacheFormat.BINARY);
+      try {
+        Database db = importer.importDatabase();
+        // ...then the table details must be restored from the cache file
+        DBTable tableB = db.getTable("CB_B");
+        assertEquals(1, tableB.getForeignKeyConstraints().size());
+        assertTrue(db.getTable("CB_A").getReferrers().contains(tableB));
+        assertTrue(columnImports.isEmpty());
+      } finally {
+        IOUtil.close(importer);
+      }
+      importer.invalidate();
+      assertFalse(cacheFile.exists());
+    } finally {
+      DBUtil.executeUpdate("drop table CB_B", connection);
+      DBUtil.executeUpdate("drop table CB_A", connection);
+      DBUtil.close(connection);
+    }
+  }
+
+  @Test
+  public void testFormatSysProp() {
+    String url = H2Util.getInMemoryURL("CachingDBImporterTest_format");
+    try {
+      System.setProperty(CachingDBImporter.FORMAT_SYSPROP, "binary");
+      assertEquals(CacheFormat.BINARY, createH2Importer(url, new HashSet<>()).getFormat());
+      // an unknown format falls back to XML
+      System.setProperty(CachingDBImporter.FORMAT_SYSPROP, "json");
+      assertEquals(CacheFormat.XML, createH2Importer(url, new HashSet<>()).getFormat());
+    } finally {
+      System.clearProperty(CachingDBImporter.FORMAT_SYSPROP);
+    }
+  }
+
+  @Test
+  public void testSchemaFingerprint() throws Exception {
+    // given an H2 database, which provides a schema fingerprint...
+    String url = H2Util.getInMemoryURL("CachingDBImporterTest_fp");
+    Connection connection = H2Util.connectInMemoryDB("CachingDBImporterTest_fp");
+    try {
+      DBUtil.executeUpdate("create table CF_A (ID int not null, primary key (ID))", connection);
+      for (CacheFormat format : CacheFormat.values()) {
+        // ...and an hour old cache file which stores the fingerprint of the unchanged schema
+        CachingDBImporter importer = createH2Importer(url, new HashSet<>());
+        importer.setFormat(format);
+        File cacheFile = importer.getCacheFile();
+        importer.invalidate();
+        String fingerprint;
+        try {
+          importer.importDatabase();
+          fingerprint = modelFingerprint(importer);
+        } finally {
+          IOUtil.close(importer);
+        }
+        assertNotNull(fingerprint);
+        assertEquals(fingerprint, format.readSchemaFingerprint(cacheFile));
+        assertTrue(cacheFile.setLastModified(System.currentTimeMillis() - Period.HOUR.getMillis()));
+        // when importing the database again...
+        importer = createH2Importer(url, new HashSet<>());
+        importer.setFormat(format);
+        try {
+          Database db = importer.importDatabase();
+          // ...then the cached model must be used after a single fingerprint query
+          assertNotNull(db.getTable("CF_A"));
+          ImportProfile profile = importer.getRealImporter().getProfile();
+          // one round trip per schema of the model
+          assertEquals(2, profile.getPhase("querySchemaFingerprint").getRoundTrips());
+          assertNull(profile.getPhase("queryTableChangeMarkers"));
+        } finally {
+          IOUtil.close(importer);
+        }
+        // when the schema is changed...
+        String columnName = "N_" + format;
+        DBUtil.executeUpdate("alter table CF_A add column " + columnName + " int", connection);
+        importer = createH2Importer(url, new HashSet<>());
+        importer.setFormat(format);
+        try {
+          // ...then the cached model must be refreshed and the cache file must store the new fingerprint
+          Database db = importer.importDatabase();
+          assertNotNull(db.getTable("CF_A").getColumn(columnName));
+          String newFingerprint = modelFingerprint(importer);
+          assertNotEquals(fingerprint, newFingerprint);
+          assertEquals(newFingerprint, format.readSchemaFingerprint(cacheFile));
+          fingerprint = newFingerprint;
+        } finally {
+          IOUtil.close(importer);
+        }
+        // when only an index is added...
+        String indexName = "IX_" + format;
+        DBUtil.executeUpdate("create index " + indexName + " on CF_A (" + columnName + ")", connection);
+        importer = createH2Importer(url, new HashSet<>());
+        importer.setFormat(format);
+        try {
+          // ...then the fingerprint must change as well and the cached model must contain the index
+          Database db = importer.importDatabase();
+          assertNotNull(db.getTable("CF_A").getIndex(indexName));
+          String newFingerprint = modelFingerprint(importer);
+          assertNotEquals(fingerprint, newFingerprint);
+          assertEquals(newFingerprint, format.readSchemaFingerprint(cacheFile));
+        } finally {
+          IOUtil.close(importer);
+        }
+        DBUtil.executeUpdate("drop index " + indexName, connection);
+        importer.invalidate();
+      }
+    } finally {
+      DBUtil.executeUpdate("drop table CF_A", connection);
+      DBUtil.close(connection);
+    }
+  }
+
   @Test
   public void testGetCacheFileName() {
     assertEquals("jdbc_hsqldb_mem_mydb_9001-usr_sa-cat_topcat-sch_public.meta.xml",
         CachingDBImporter.getCacheFileName("jdbc:hsqldb:mem:mydb:9001", "sa", "TOPCAT", "PUBLIC"));
     assertEquals("jdbc_hsqldb_mem_mydb_9001-usr_sa.meta.xml", CachingDBImporter.getCacheFileName(
         "jdbc:hsqldb:mem:mydb:9001", "sa", null, null));
+    assertEquals("jdbc_hsqldb_mem_mydb_9001-usr_sa.meta.bin", CachingDBImporter.getCacheFileName(
+        "jdbc:hsqldb:mem:mydb:9001", "sa", null, null, CacheFormat.BINARY));
+  }
+
+  // private helpers -------------------------------------------------------------------------------------------------
+
+  private static CachingDBImporter createH2Importer(String url, Set<String> columnImports) {
+    JDBCDBImporter realImporter = new JDBCDBImporter(url, H2Util.DRIVER, H2Util.DEFAULT_USER,
+        H2Util.DEFAULT_PASSWORD, null, H2Util.DEFAULT_SCHEMA) {
+      @Override
+      public void importColumnsOfTable(DBTable table, ColumnReceiver receiver) {
+        columnImports.add(table.getName());
+        super.importColumnsOfTable(table, receiver);
+      }
+    };
+    return new CachingDBImporter(url, realImporter);
+  }
+
+  private static String cachedColumnNames(String url, String tableName, boolean invalidate) throws Exception {
+    CachingDBImporter importer = createH2Importer(url, new HashSet<>());
+    try {
+      if (invalidate) {
+        importer.invalidate();
+      }
+      return Arrays.toString(importer.importDatabase().getTable(tableName).getColumnNames());
+    } finally {
+      IOUtil.close(importer);
+    }
+  }
+
+  /** @return an importer which imports all table details and whose table change markers never change */
+  private static CachingDBImporter createImporterWithConstantMarkers(String url) {
+    JDBCDBImporter realImporter = new ParallelJDBCDBImporter(url, H2Util.DRIVER, H2Util.DEFAULT_USER,
+        H2Util.DEFAULT_PASSWORD, null, H2Util.DEFAULT_SCHEMA, 1) {
+      @Override
+      public Map<String, String> queryTableChangeMarkers(DBSchema schema) {
+        Map<String, String> markers = super.queryTableChangeMarkers(schema);
+        markers.replaceAll((table, marker) -> "0");
+        return markers;
+      }
+    };
+    return new CachingDBImporter(url, realImporter);
+  }
+
+  /** @return the expected fingerprint of the H2 model, which contains the PUBLIC and the INFORMATION_SCHEMA */
+  private static String modelFingerprint(CachingDBImporter importer) {
+    JDBCDBImporter realImporter = importer.getRealImporter();
+    return "INFORMATION_SCHEMA=" + realImporter.querySchemaFingerprint("INFORMATION_SCHEMA")
+        + ";PUBLIC=" + realImporter.querySchemaFingerprint();
   }
 
 }
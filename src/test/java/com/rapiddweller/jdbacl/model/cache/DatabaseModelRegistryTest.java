@@ -0,0 +1,266 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl.model.cache;
+
+import com.rapiddweller.common.exception.IllegalArgumentError;
+import com.rapiddweller.jdbacl.DBUtil;
+import com.rapiddweller.jdbacl.dialect.H2Util;
+import com.rapiddweller.jdbacl.model.DBForeignKeyConstraint;
+import com.rapiddweller.jdbacl.model.DBMetaDataImporter;
+import com.rapiddweller.jdbacl.model.DBTable;
+import com.rapiddweller.jdbacl.model.Database;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link DatabaseModelRegistry}.<br/><br/>
+ * Created: 14.03.2022 11:27:05
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+public class DatabaseModelRegistryTest {
+
+  private static final DatabaseModelRegistry.Key KEY1 = new DatabaseModelRegistry.Key("jdbc:test:1", "sa", null, "PUBLIC");
+  private static final DatabaseModelRegistry.Key KEY2 = new DatabaseModelRegistry.Key("jdbc:test:2", "sa", null, "PUBLIC");
+  private static final DatabaseModelRegistry.Key KEY3 = new DatabaseModelRegistry.Key("jdbc:test:3", "sa", null, "PUBLIC");
+
+  @Test(expected = IllegalArgumentError.class)
+  public void testIllegalMaxEntries() {
+    new DatabaseModelRegistry(0);
+  }
+
+  @Test
+  public void testHitAndMiss() {
+    DatabaseModelRegistry registry = new DatabaseModelRegistry(10);
+    AtomicInteger imports = new AtomicInteger();
+    assertNull(registry.getIfPresent(KEY1));
+    Database db1 = registry.getDatabase(KEY1, () -> new TestImporter(imports, 0));
+    Database db2 = registry.getDatabase(KEY1, () -> new TestImporter(imports, 0));
+    assertSame(db1, db2);
+    assertSame(db1, registry.getIfPresent(KEY1));
+    assertEquals(1, imports.get());
+    assertEquals(1, registry.getMissCount());
+    assertEquals(2, registry.getHitCount());
+    assertEquals(2. / 3, registry.hitRatio(), 1e-9);
+    registry.resetMetrics();
+    assertEquals(0, registry.getHitCount());
+    assertEquals(0., registry.hitRatio(), 0.);
+  }
+
+  @Test
+  public void testSingleFlight() throws Exception {
+    DatabaseModelRegistry registry = new DatabaseModelRegistry(10);
+    AtomicInteger imports = new AtomicInteger();
+    int threads = 8;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    try {
+      CountDownLatch start = new CountDownLatch(1);
+      List<Future<Database>> results = new ArrayList<>();
+      for (int i = 0; i < threads; i++) {
+        results.add(executor.submit(() -> {
+          start.await();
+          return registry.getDatabase(KEY1, () -> new TestImporter(imports, 100));
+        }));
+      }
+      start.countDown();
+      Database expected = results.get(0).get(10, TimeUnit.SECONDS);
+      for (Future<Database> result : results) {
+        assertSame(expected, result.get(10, TimeUnit.SECONDS));
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals(1, imports.get());
+    assertEquals(1, registry.getMissCount());
+    assertEquals(threads - 1, registry.getHitCount());
+  }
+
+  @Test
+  public void testEviction() {
+    DatabaseModelRegistry registry = new DatabaseModelRegistry(2);
+    AtomicInteger imports = new AtomicInteger();
+    AtomicInteger closes = new AtomicInteger();
+    registry.getDatabase(KEY1, () -> new TestImporter(imports, closes));
+    Database db2 = registry.getDatabase(KEY2, () -> new TestImporter(imports, closes));
+    registry.getDatabase(KEY1, () -> new TestImporter(imports, closes));
+    registry.getDatabase(KEY3, () -> new TestImporter(imports, closes));
+    assertEquals(2, registry.size());
+    assertEquals(1, registry.getEvictionCount());
+    assertNotNull(registry.getIfPresent(KEY1));
+    assertNull(registry.getIfPresent(KEY2));
+    assertNotNull(registry.getIfPresent(KEY3));
+    // the importer of the evicted model is kept open while the model is held...
+    assertEquals(0, closes.get());
+    // ...and only that importer is closed when the model is released
+    registry.release(db2);
+    assertEquals(1, closes.get());
+  }
+
+  @Test
+  public void testInvalidation() {
+    DatabaseModelRegistry registry = new DatabaseModelRegistry(10);
+    AtomicInteger imports = new AtomicInteger();
+    AtomicInteger closes = new AtomicInteger();
+    Database db1 = registry.getDatabase(KEY1, () -> new TestImporter(imports, closes));
+    Database other = registry.getDatabase(KEY2, () -> new TestImporter(imports, closes));
+    registry.invalidate(KEY1.url, KEY1.user, KEY1.catalog, KEY1.schema);
+    assertEquals(1, registry.getInvalidationCount());
+    Database db2 = registry.getDatabase(KEY1, () -> new TestImporter(imports, closes));
+    assertNotSame(db1, db2);
+    assertEquals(3, imports.get());
+    // the invalidated model is still held
+    assertEquals(0, closes.get());
+    registry.release(db1);
+    assertEquals(1, closes.get());
+    registry.invalidateAll();
+    assertEquals(0, registry.size());
+    assertEquals(3, registry.getInvalidationCount());
+    assertEquals(1, closes.get());
+    registry.release(db2);
+    registry.release(other);
+    assertEquals(3, closes.get());
+  }
+
+  @Test(expected = IllegalArgumentError.class)
+  public void testReleaseOfUnheldModel() {
+    DatabaseModelRegistry registry = new DatabaseModelRegistry(10);
+    Database database = registry.getDatabase(KEY1, () -> new TestImporter(new AtomicInteger(), 0));
+    registry.release(database);
+    registry.release(database);
+  }
+
+  @Test
+  public void testFailedImport() {
+    DatabaseModelRegistry registry = new DatabaseModelRegistry(10);
+    try {
+      registry.getDatabase(KEY1, () -> { throw new IllegalStateException("failed"); });
+    } catch (IllegalStateException e) {
+      // expected
+    }
+    AtomicInteger imports = new AtomicInteger();
+    assertNotNull(registry.getDatabase(KEY1, () -> new TestImporter(imports, 0)));
+    assertEquals(1, imports.get());
+  }
+
+  @Test
+  public void testJDBCImport() throws Exception {
+    String url = H2Util.getInMemoryURL("DatabaseModelRegistryTest");
+    try (Connection connection = DBUtil.connect(url, H2Util.DRIVER, H2Util.DEFAULT_USER, H2Util.DEFAULT_PASSWORD, false)) {
+      DBUtil.executeUpdate("create table DMR_TABLE (id int, primary key (id))", connection);
+      DBUtil.executeUpdate("create table DMR_REF (id int, table_id int, primary key (id), " +
+          "constraint DMR_REF_FK foreign key (table_id) references DMR_TABLE (id))", connection);
+      DatabaseModelRegistry registry = new DatabaseModelRegistry(10);
+      CachingDBImporter.deleteCacheFile(url, H2Util.DEFAULT_USER, null, H2Util.DEFAULT_SCHEMA);
+      try {
+        for (int i = 0; i < 2; i++) {
+          // the first model is imported from the database, the second one from the cache file
+          registry.invalidateAll();
+          Database db1 = registry.getDatabase(url, H2Util.DRIVER, H2Util.DEFAULT_USER, H2Util.DEFAULT_PASSWORD,
+              null, H2Util.DEFAULT_SCHEMA);
+          Database db2 = registry.getDatabase(url, H2Util.DRIVER, H2Util.DEFAULT_USER, H2Util.DEFAULT_PASSWORD,
+              null, H2Util.DEFAULT_SCHEMA);
+          assertSame(db1, db2);
+          // the details are loaded lazily after the import, even if the model has been dropped from the registry
+          registry.invalidateAll();
+          DBTable table = db1.getTable("DMR_TABLE");
+          assertEquals(1, table.getColumns().size());
+          assertArrayEquals(new String[] {"ID"}, table.getPKColumnNames());
+          DBTable ref = db1.getTable("DMR_REF");
+          assertEquals(2, ref.getColumns().size());
+          DBForeignKeyConstraint fk = ref.getForeignKeyConstraint(new String[] {"TABLE_ID"});
+          assertSame(table, fk.getRefereeTable());
+          registry.release(db1);
+          registry.release(db2);
+        }
+        assertTrue(registry.toString().contains("hits=2"));
+      } finally {
+        registry.invalidateAll();
+        CachingDBImporter.deleteCacheFile(url, H2Util.DEFAULT_USER, null, H2Util.DEFAULT_SCHEMA);
+        DBUtil.executeUpdate("drop table DMR_REF", connection);
+        DBUtil.executeUpdate("drop table DMR_TABLE", connection);
+      }
+    }
+  }
+
+  // helpers ---------------------------------------------------------------------------------------------------------
+
+  private static class TestImporter implements DBMetaDataImporter {
+
+    private final AtomicInteger imports;
+    private final AtomicInteger closes;
+    private final long delay;
+
+    TestImporter(AtomicInteger imports, long delay) {
+      this(imports, new AtomicInteger(), delay);
+    }
+
+    TestImporter(AtomicInteger imports, AtomicInteger closes) {
+      this(imports, closes, 0);
+    }
+
+    private TestImporter(AtomicInteger imports, AtomicInteger closes, long delay) {
+      this.imports = imports;
+      this.closes = closes;
+      this.delay = delay;
+    }
+
+    @Override
+    public Database importDatabase() {
+      imports.incrementAndGet();
+      try {
+        Thread.sleep(delay);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return new Database("test", "test", "1.0", new Date());
+    }
+
+    @Override
+    public void close() {
+      closes.incrementAndGet();
+    }
+  }
+
+}
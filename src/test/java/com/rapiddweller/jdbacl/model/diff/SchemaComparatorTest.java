@@ -0,0 +1,241 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl.model.diff;
+
+import com.rapiddweller.jdbacl.model.AbstractModelTest;
+import com.rapiddweller.jdbacl.model.DBCatalog;
+import com.rapiddweller.jdbacl.model.DBColumn;
+import com.rapiddweller.jdbacl.model.DBForeignKeyConstraint;
+import com.rapiddweller.jdbacl.model.DBIndex;
+import com.rapiddweller.jdbacl.model.DBNonUniqueIndex;
+import com.rapiddweller.jdbacl.model.DBPrimaryKeyConstraint;
+import com.rapiddweller.jdbacl.model.DBSchema;
+import com.rapiddweller.jdbacl.model.DBSequence;
+import com.rapiddweller.jdbacl.model.DBTable;
+import com.rapiddweller.jdbacl.model.Database;
+import com.rapiddweller.jdbacl.model.TableType;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.sql.Types;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link SchemaComparator}.<br/><br/>
+ * Created: 24.03.2022 11:42:05
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+public class SchemaComparatorTest extends AbstractModelTest {
+
+  @Test
+  public void testIdentical() {
+    SchemaDiff diff = new SchemaComparator().compare(createTestModel(), createTestModel());
+    assertTrue(diff.isEmpty());
+  }
+
+  @Test
+  public void testTables() {
+    Database db1 = createTestModel();
+    Database db2 = createTestModel();
+    DBSchema schema2 = db2.getSchema("public");
+    schema2.removeTable(schema2.getTable("table4"));
+    DBTable table5 = new DBTable("table5", TableType.TABLE, schema2);
+    new DBColumn("id5", table5, Types.INTEGER, "int");
+    SchemaDiff diff = new SchemaComparator().compare(db1, db2);
+    assertEquals(2, diff.size());
+    assertChange(ChangeType.DROPPED, ObjectKind.TABLE, "table4", diff.getChanges().get(0));
+    assertChange(ChangeType.ADDED, ObjectKind.TABLE, "table5", diff.getChanges().get(1));
+  }
+
+  @Test
+  public void testColumns() {
+    Database db1 = createTestModel();
+    Database db2 = createTestModel();
+    DBTable table3 = db2.getTable("table3");
+    table3.getColumn("name3").setSize(16);
+    new DBColumn("desc3", table3, Types.VARCHAR, "varchar(100)");
+    List<SchemaChange> changes = new SchemaComparator().compare(db1, db2).getChanges();
+    assertEquals(2, changes.size());
+    assertChange(ChangeType.ALTERED, ObjectKind.COLUMN, "name3", changes.get(0));
+    assertEquals(8, (int) ((DBColumn) changes.get(0).getOldObject()).getSize());
+    assertSame(table3, changes.get(0).getTable());
+    assertChange(ChangeType.ADDED, ObjectKind.COLUMN, "desc3", changes.get(1));
+  }
+
+  @Test
+  public void testConstraintsAndIndexes() {
+    Database db1 = createTestModel();
+    Database db2 = createTestModel();
+    DBTable table2 = db2.getTable("table2");
+    table2.removeForeignKeyConstraint(table2.getForeignKeyConstraint(new String[] {"ref2"}));
+    DBTable table4 = db2.getTable("table4");
+    table4.removeIndex(table4.getIndex("index4"));
+    DBIndex index4 = new DBNonUniqueIndex("index4", true, table4, "ref4_2", "ref4_1");
+    new DBNonUniqueIndex("index4b", false, table4, "id4", "ref4_1");
+    List<SchemaChange> changes = new SchemaComparator().compare(db1, db2).getChanges();
+    assertEquals(3, changes.size());
+    assertChange(ChangeType.DROPPED, ObjectKind.FOREIGN_KEY, "table2_fk2", changes.get(0));
+    assertEquals("table2", changes.get(0).getTableName());
+    assertChange(ChangeType.ALTERED, ObjectKind.INDEX, "index4", changes.get(1));
+    assertSame(index4, changes.get(1).getNewObject());
+    assertChange(ChangeType.ADDED, ObjectKind.INDEX, "index4b", changes.get(2));
+  }
+
+  @Test
+  public void testPrimaryKey() {
+    DBTable oldTable = new DBTable("tab", TableType.TABLE, newSchema());
+    new DBColumn("id", oldTable, Types.INTEGER, "int");
+    new DBPrimaryKeyConstraint(oldTable, "tab_pk", true, "id");
+    DBTable newTable = new DBTable("tab", TableType.TABLE, newSchema());
+    new DBColumn("id", newTable, Types.INTEGER, "int");
+    List<SchemaChange> changes = new SchemaComparator().compare(oldTable, newTable);
+    assertEquals(1, changes.size());
+    assertChange(ChangeType.DROPPED, ObjectKind.PRIMARY_KEY, "tab_pk", changes.get(0));
+    assertNull(changes.get(0).getNewObject());
+    assertTrue(new SchemaComparator().compare(oldTable, oldTable).isEmpty());
+  }
+
+  @Test
+  public void testSequences() {
+    Database db1 = createTestModel();
+    Database db2 = createTestModel();
+    new DBSequence("seq1", db1.getSchema("public"));
+    new DBSequence("seq2", db1.getSchema("public"));
+    new DBSequence("SEQ2", db2.getSchema("public")).setIncrement(BigInteger.TEN);
+    new DBSequence("seq3", db2.getSchema("public"));
+    List<SchemaChange> changes = new SchemaComparator().compare(db1, db2).getChanges();
+    assertEquals(3, changes.size());
+    assertChange(ChangeType.DROPPED, ObjectKind.SEQUENCE, "seq1", changes.get(0));
+    assertChange(ChangeType.ALTERED, ObjectKind.SEQUENCE, "SEQ2", changes.get(1));
+    assertChange(ChangeType.ADDED, ObjectKind.SEQUENCE, "seq3", changes.get(2));
+  }
+
+  @Test
+  public void testSchemasOfEqualNameInDifferentCatalogs() {
+    Database db1 = new Database("db1", "hsql", "1.5.8", new Date());
+    table("a", new DBSchema("s", new DBCatalog("c1", db1)));
+    table("b", new DBSchema("s", new DBCatalog("c2", db1)));
+    Database db2 = new Database("db2", "hsql", "1.5.8", new Date());
+    table("a", new DBSchema("s", new DBCatalog("c1", db2)));
+    DBSchema schema2 = new DBSchema("s", new DBCatalog("c2", db2));
+    table("b", schema2);
+    table("c", schema2);
+    List<SchemaChange> changes = new SchemaComparator().compare(db1, db2).getChanges();
+    assertEquals(1, changes.size());
+    assertChange(ChangeType.ADDED, ObjectKind.TABLE, "c", changes.get(0));
+  }
+
+  @Test
+  public void testSchemasOfDifferentCatalogNames() {
+    Database db1 = new Database("db1", "hsql", "1.5.8", new Date());
+    table("a", new DBSchema("s", new DBCatalog("DB1", db1)));
+    Database db2 = new Database("db2", "hsql", "1.5.8", new Date());
+    table("a", new DBSchema("s", new DBCatalog("DB2", db2)));
+    assertTrue(new SchemaComparator().compare(db1, db2).isEmpty());
+  }
+
+  @Test
+  public void testSchemasOfDifferentNames() {
+    Database db = new Database("db", "hsql", "1.5.8", new Date());
+    DBCatalog catalog = new DBCatalog(null, db);
+    DBSchema schema1 = new DBSchema("s1", catalog);
+    DBSchema schema2 = new DBSchema("s2", catalog);
+    DBSchema other = new DBSchema("other", catalog);
+    DBTable shared = table("shared", other);
+    for (DBSchema schema : new DBSchema[] {schema1, schema2}) {
+      DBTable parent = table("parent", schema);
+      DBTable child = table("child", schema);
+      new DBForeignKeyConstraint("child_fk", true, child, "ref", parent, "id");
+      new DBForeignKeyConstraint("child_fk2", true, child, "ref", shared, "id");
+    }
+    assertTrue(new SchemaComparator().compare(schema1, schema2).isEmpty());
+    // a foreign key to another schema is a change
+    DBTable child = schema2.getTable("child");
+    child.removeForeignKeyConstraint(child.getForeignKeyConstraint(new String[] {"ref"}));
+    new DBForeignKeyConstraint("child_fk", true, child, "ref", schema1.getTable("parent"), "id");
+    assertEquals(1, new SchemaComparator().compare(schema1, schema2).getChanges(ObjectKind.FOREIGN_KEY).size());
+  }
+
+  @Test
+  public void testParallel() {
+    Database db1 = createLargeModel(500, false);
+    Database db2 = createLargeModel(500, true);
+    SchemaDiff serial = new SchemaComparator(1).compare(db1, db2);
+    SchemaDiff parallel = new SchemaComparator(4).compare(db1, db2);
+    assertEquals(250, serial.getChanges(ObjectKind.COLUMN).size());
+    assertEquals(249, serial.getChanges(ObjectKind.FOREIGN_KEY).size());
+    assertEquals(serial.toString(), parallel.toString());
+  }
+
+  // helpers ---------------------------------------------------------------------------------------------------------
+
+  private static Database createLargeModel(int tableCount, boolean modified) {
+    DBSchema schema = newSchema();
+    DBTable previous = null;
+    for (int i = 0; i < tableCount; i++) {
+      DBTable table = new DBTable("t" + i, TableType.TABLE, schema);
+      new DBColumn("id", table, Types.INTEGER, "int");
+      new DBColumn("ref", table, Types.INTEGER, "int");
+      new DBPrimaryKeyConstraint(table, "t" + i + "_pk", true, "id");
+      if (modified && i % 2 == 0) {
+        new DBColumn("extra", table, Types.VARCHAR, "varchar(20)");
+      }
+      if (previous != null && (!modified || i % 2 == 1)) {
+        new DBForeignKeyConstraint("t" + i + "_fk", true, table, "ref", previous, "id");
+      }
+      previous = table;
+    }
+    return schema.getDatabase();
+  }
+
+  private static DBTable table(String name, DBSchema schema) {
+    DBTable table = new DBTable(name, TableType.TABLE, schema);
+    new DBColumn("id", table, Types.INTEGER, "int");
+    new DBColumn("ref", table, Types.INTEGER, "int");
+    table.setFKsImported(true);
+    return table;
+  }
+
+  private static DBSchema newSchema() {
+    Database db = new Database("db", "hsql", "1.5.8", new Date());
+    return new DBSchema("public", new DBCatalog(null, db));
+  }
+
+  private static void assertChange(ChangeType type, ObjectKind kind, String name, SchemaChange change) {
+    assertEquals(type, change.getType());
+    assertEquals(kind, change.getKind());
+    assertEquals(name, change.getObject().getName());
+  }
+
+}
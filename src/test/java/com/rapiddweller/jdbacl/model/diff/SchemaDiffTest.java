@@ -0,0 +1,165 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl.model.diff;
+
+import com.rapiddweller.jdbacl.NameSpec;
+import com.rapiddweller.jdbacl.dialect.HSQLDialect;
+import com.rapiddweller.jdbacl.model.AbstractModelTest;
+import com.rapiddweller.jdbacl.model.DBColumn;
+import com.rapiddweller.jdbacl.model.DBForeignKeyConstraint;
+import com.rapiddweller.jdbacl.model.DBNonUniqueIndex;
+import com.rapiddweller.jdbacl.model.DBPrimaryKeyConstraint;
+import com.rapiddweller.jdbacl.model.DBSchema;
+import com.rapiddweller.jdbacl.model.DBSequence;
+import com.rapiddweller.jdbacl.model.DBTable;
+import com.rapiddweller.jdbacl.model.DBUniqueConstraint;
+import com.rapiddweller.jdbacl.model.DBUniqueIndex;
+import com.rapiddweller.jdbacl.model.Database;
+import com.rapiddweller.jdbacl.model.TableType;
+import org.junit.Test;
+
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.math.BigInteger;
+import java.sql.Types;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link SchemaDiff}.<br/><br/>
+ * Created: 24.03.2022 12:08:33
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+public class SchemaDiffTest extends AbstractModelTest {
+
+  @Test
+  public void testFilters() {
+    SchemaDiff diff = createDiff();
+    assertEquals(6, diff.size());
+    assertEquals(1, diff.getChanges(ChangeType.ADDED).size());
+    assertEquals(4, diff.getChanges(ChangeType.DROPPED).size());
+    assertEquals(1, diff.getChanges(ChangeType.ALTERED).size());
+    assertEquals(2, diff.getChanges(ObjectKind.TABLE).size());
+  }
+
+  @Test
+  public void testRenderDDL() {
+    StringWriter out = new StringWriter();
+    createDiff().renderDDL(new HSQLDialect(), NameSpec.ALWAYS, new PrintWriter(out));
+    String ddl = out.toString();
+    assertOrder(ddl,
+        "ALTER TABLE \"public\".\"table4\" DROP CONSTRAINT \"table4_fk2\";",
+        "DROP INDEX \"public\".\"index4\";",
+        "DROP TABLE \"public\".\"table3\";",
+        "create table \"public\".\"table5\" (",
+        "-- column table1.name1 changed from 'name1 INT NULL' to 'name1 INT NOT NULL'",
+        "drop sequence seq1;"
+    );
+    assertTrue(ddl.contains("ALTER TABLE \"public\".\"table5\" ADD \n\tCONSTRAINT \"table5_fk\" FOREIGN KEY (\"ref5\") "
+        + "REFERENCES \"public\".\"table1\"(\"id1\");"));
+  }
+
+  @Test
+  public void testRenderIndexesOfConstraints() {
+    Database db1 = createTestModel();
+    Database db2 = createTestModel();
+    DBTable table2 = db2.getTable("table2");
+    new DBUniqueIndex("table2_ref2_uk", true, new DBUniqueConstraint(table2, "table2_ref2_uk", true, "ref2"));
+    new DBNonUniqueIndex("index2", true, table2, "id2", "ref2");
+    // the index of an added unique constraint is created by the database
+    StringWriter out = new StringWriter();
+    new SchemaComparator().compare(db1, db2).renderDDL(new HSQLDialect(), NameSpec.ALWAYS, new PrintWriter(out));
+    String ddl = out.toString();
+    assertOrder(ddl,
+        "ALTER TABLE \"public\".\"table2\" ADD CONSTRAINT \"table2_ref2_uk\" UNIQUE (\"ref2\");",
+        "CREATE INDEX \"index2\" ON \"public\".\"table2\" (\"id2\", \"ref2\");"
+    );
+    assertFalse(ddl.contains("INDEX \"table2_ref2_uk\""));
+    // the index of a dropped unique constraint is dropped by the database
+    out = new StringWriter();
+    new SchemaComparator().compare(db2, db1).renderDDL(new HSQLDialect(), NameSpec.ALWAYS, new PrintWriter(out));
+    ddl = out.toString();
+    assertOrder(ddl,
+        "DROP INDEX \"public\".\"index2\";",
+        "ALTER TABLE \"public\".\"table2\" DROP CONSTRAINT \"table2_ref2_uk\";"
+    );
+    assertFalse(ddl.contains("DROP INDEX \"public\".\"table2_ref2_uk\""));
+  }
+
+  @Test
+  public void testRenderAlteredSequence() {
+    Database db1 = createTestModel();
+    new DBSequence("seq1", db1.getSchema("public"));
+    Database db2 = createTestModel();
+    new DBSequence("seq1", db2.getSchema("public")).setIncrement(BigInteger.TEN);
+    StringWriter out = new StringWriter();
+    new SchemaComparator().compare(db1, db2).renderDDL(new HSQLDialect(), NameSpec.ALWAYS, new PrintWriter(out));
+    String ddl = out.toString();
+    assertOrder(ddl,
+        "-- sequence seq1 changed from 'CREATE SEQUENCE seq1' to 'CREATE SEQUENCE seq1 INCREMENT BY 10'",
+        "ALTER SEQUENCE seq1 INCREMENT BY 10;"
+    );
+    assertFalse(ddl.contains("drop sequence"));
+  }
+
+  // helpers ---------------------------------------------------------------------------------------------------------
+
+  private static SchemaDiff createDiff() {
+    Database db1 = createTestModel();
+    new DBSequence("seq1", db1.getSchema("public"));
+    Database db2 = createTestModel();
+    DBSchema schema2 = db2.getSchema("public");
+    schema2.removeTable(schema2.getTable("table3"));
+    schema2.removeTable(schema2.getTable("table4"));
+    DBTable table4 = new DBTable("table4", TableType.TABLE, schema2);
+    new DBColumn("id4", table4, Types.INTEGER, "int");
+    new DBColumn("ref4_1", table4, Types.INTEGER, "int");
+    new DBColumn("ref4_2", table4, Types.INTEGER, "int");
+    new DBPrimaryKeyConstraint(table4, "table4_pk", false, "id4");
+    DBTable table5 = new DBTable("table5", TableType.TABLE, schema2);
+    new DBColumn("id5", table5, Types.INTEGER, "int");
+    new DBColumn("ref5", table5, Types.INTEGER, "int");
+    new DBForeignKeyConstraint("table5_fk", true, table5, "ref5",
+        schema2.getTable("table1"), "id1");
+    db2.getTable("table1").getColumn("name1").setNullable(false);
+    return new SchemaComparator().compare(db1, db2);
+  }
+
+  private static void assertOrder(String text, String... parts) {
+    int position = -1;
+    for (String part : parts) {
+      int index = text.indexOf(part);
+      assertTrue("Missing: " + part + " in:\n" + text, index >= 0);
+      assertTrue("Wrong order of: " + part, index > position);
+      position = index;
+    }
+  }
+
+}
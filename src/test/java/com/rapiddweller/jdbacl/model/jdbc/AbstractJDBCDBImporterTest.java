@@ -26,6 +26,8 @@
 import com.rapiddweller.common.exception.ConnectFailedException;
 import com.rapiddweller.jdbacl.DBUtil;
 import com.rapiddweller.jdbacl.model.DBCatalog;
+import com.rapiddweller.jdbacl.model.DBColumn;
+import com.rapiddweller.jdbacl.model.DBForeignKeyConstraint;
 import com.rapiddweller.jdbacl.model.DBIndex;
 import com.rapiddweller.jdbacl.model.DBNonUniqueIndex;
 import com.rapiddweller.jdbacl.model.DBSchema;
@@ -36,7 +38,9 @@
 import java.io.IOException;
 import java.sql.Connection;
 import java.sql.SQLException;
+import java.util.Arrays;
 import java.util.List;
+import java.util.TreeSet;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
@@ -68,6 +72,7 @@ protected Connection setupDatabase() throws ConnectFailedException, IOException
 
   protected void dropDatabaseTables(Connection connection) throws SQLException {
     DBUtil.executeUpdate("drop table t1;", connection);
+    DBUtil.executeUpdate("drop sequence SEQ1;", connection);
     connection.close();
   }
 
@@ -112,4 +117,62 @@ protected static void checkIndexes(DBTable table) {
     }
   }
 
+  // shared fixtures -------------------------------------------------------------------------------------------------
+
+  /** Creates the tables &lt;prefix&gt;0 to &lt;prefix&gt;n-1 with the columns ID (primary key), REF and NAME
+   *  and an index on NAME. Each table but the first one refers to its predecessor with a foreign key on REF. */
+  public static void createTableChain(String prefix, int tableCount, Connection connection) throws SQLException {
+    for (int i = 0; i < tableCount; i++) {
+      String fk = (i > 0 ?
+          ", constraint " + prefix + i + "_FK foreign key (REF) references " + prefix + (i - 1) + " (ID)" : "");
+      DBUtil.executeUpdate("create table " + prefix + i + " (ID int not null, REF int, NAME varchar(20), " +
+          "constraint " + prefix + i + "_PK primary key (ID)" + fk + ")", connection);
+      DBUtil.executeUpdate("create index " + prefix + i + "_NAME_IDX on " + prefix + i + " (NAME)", connection);
+    }
+  }
+
+  /** Drops the tables created by {@link #createTableChain(String, int, Connection)}. */
+  public static void dropTableChain(String prefix, int tableCount, Connection connection) throws SQLException {
+    for (int i = tableCount - 1; i >= 0; i--) {
+      DBUtil.executeUpdate("drop table " + prefix + i, connection);
+    }
+  }
+
+  /** Renders the columns, primary key, foreign keys, indexes and referrers of all tables of a database
+   *  for comparing the results of different import strategies. */
+  public static String describe(Database database) {
+    return describe(database.getTables());
+  }
+
+  /** Renders the columns, primary key, foreign keys, indexes and referrers of all tables of a schema
+   *  for comparing the results of different import strategies. */
+  public static String describe(DBSchema schema) {
+    return describe(schema.getTables());
+  }
+
+  private static String describe(List<DBTable> tables) {
+    StringBuilder builder = new StringBuilder();
+    for (DBTable table : tables) {
+      builder.append(table.getName()).append('\n');
+      for (DBColumn column : table.getColumns()) {
+        builder.append("  column ").append(column).append(column.isNullable() ? " null" : " not null").append('\n');
+      }
+      builder.append("  pk ").append(Arrays.toString(table.getPKColumnNames())).append('\n');
+      for (DBForeignKeyConstraint fk : table.getForeignKeyConstraints()) {
+        builder.append("  fk ").append(fk).append('\n');
+      }
+      TreeSet<String> indexes = new TreeSet<>();
+      for (DBIndex index : table.getIndexes()) {
+        indexes.add(index.getName() + Arrays.toString(index.getColumnNames()));
+      }
+      builder.append("  indexes ").append(indexes).append('\n');
+      TreeSet<String> referrers = new TreeSet<>();
+      for (DBTable referrer : table.getReferrers()) {
+        referrers.add(referrer.getName());
+      }
+      builder.append("  referrers ").append(referrers).append('\n');
+    }
+    return builder.toString();
+  }
+
 }
@@ -0,0 +1,164 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl.model.jdbc;
+
+import com.rapiddweller.jdbacl.DBUtil;
+import com.rapiddweller.jdbacl.dialect.H2Util;
+import com.rapiddweller.jdbacl.model.DBTable;
+import com.rapiddweller.jdbacl.model.Database;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link ImportProfile}.<br/><br/>
+ * Created: 17.03.2022 10:15:48
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+public class ImportProfileTest {
+
+  @Test
+  public void testRecording() {
+    ImportProfile profile = new ImportProfile();
+    ImportProfile.Phase phase = profile.start("importColumns", "S.A");
+    phase.roundTrip();
+    phase.row();
+    phase.row();
+    phase.end();
+    phase.end(); // has no effect
+    phase = profile.start("importColumns", "S.B");
+    phase.roundTrip();
+    phase.end();
+    profile.start("importSchemas").end();
+    ImportProfile.Stats columns = profile.getPhase("importColumns");
+    assertEquals(2, columns.getCount());
+    assertEquals(2, columns.getRoundTrips());
+    assertEquals(2, columns.getRows());
+    assertTrue(columns.getMaxNanos() <= columns.getNanos());
+    assertEquals(2, profile.getPhases().size());
+    assertEquals(2, profile.getTableCount());
+    assertEquals(2, profile.getTable("S.A").getRows());
+    assertNull(profile.getTable("S.C"));
+    assertEquals(1, profile.getSlowestTables(1).size());
+    assertEquals(2, profile.getSlowestTables(5).size());
+    String report = profile.format(5);
+    assertTrue(report.contains("importColumns: "));
+    assertTrue(report.contains("S.B: "));
+    profile.reset();
+    assertTrue(profile.getPhases().isEmpty());
+  }
+
+  @Test
+  public void testMultiTableRows() {
+    ImportProfile profile = new ImportProfile();
+    ImportProfile.Phase phase = profile.start("fetchColumnsInBulk");
+    phase.roundTrip();
+    phase.row("S.A");
+    phase.row("S.A");
+    phase.row("S.A");
+    phase.row("S.B");
+    phase.end();
+    ImportProfile.Stats bulk = profile.getPhase("fetchColumnsInBulk");
+    assertEquals(4, bulk.getRows());
+    assertEquals(2, profile.getTableCount());
+    ImportProfile.Stats tableA = profile.getTable("S.A");
+    ImportProfile.Stats tableB = profile.getTable("S.B");
+    assertEquals(3, tableA.getRows());
+    assertEquals(1, tableB.getRows());
+    // the duration is apportioned by the row counts
+    assertTrue(tableA.getNanos() >= tableB.getNanos());
+    assertTrue(tableA.getNanos() + tableB.getNanos() <= bulk.getNanos() + 1);
+    assertEquals("S.A", profile.getSlowestTables(1).get(0).getName());
+  }
+
+  @Test
+  public void testJfrEvents() {
+    ImportProfile profile = new ImportProfile();
+    profile.setJfrEvents(true);
+    ImportProfile.Phase phase = profile.start("importTables");
+    phase.roundTrip();
+    phase.end();
+    assertEquals(1, profile.getPhase("importTables").getRoundTrips());
+  }
+
+  @Test
+  public void testJDBCImport() throws Exception {
+    String dbName = "ImportProfileTest";
+    try (Connection connection = H2Util.connectInMemoryDB(dbName)) {
+      DBUtil.executeUpdate("create table IP_A (ID int not null, NAME varchar(20), primary key (ID))", connection);
+      DBUtil.executeUpdate("create table IP_B (ID int not null, A_ID int, primary key (ID), " +
+          "foreign key (A_ID) references IP_A (ID))", connection);
+      try (JDBCDBImporter importer = new JDBCDBImporter(H2Util.getInMemoryURL(dbName), H2Util.DRIVER,
+          H2Util.DEFAULT_USER, H2Util.DEFAULT_PASSWORD, null, H2Util.DEFAULT_SCHEMA)) {
+        Database database = importer.importDatabase();
+        for (DBTable table : database.getTables()) {
+          table.importDetails(importer);
+        }
+        ImportProfile profile = importer.getProfile();
+        assertNotNull(profile.getPhase("importAllTables"));
+        ImportProfile.Stats columns = profile.getPhase("importColumns");
+        assertEquals(2, columns.getRoundTrips());
+        assertEquals(4, columns.getRows());
+        assertEquals(1, profile.getPhase("importImportedKeys").getRows());
+        ImportProfile.Stats tableB = profile.getTable(H2Util.DEFAULT_SCHEMA + ".IP_B");
+        // one round trip each for columns, primary key, indexes and foreign keys -
+        // the referrers are derived from the foreign keys, which are known for all tables at that point
+        assertEquals(4, tableB.getRoundTrips());
+        // 2 columns, 1 primary key column, 1 foreign key and the index rows
+        assertTrue(tableB.getRows() >= 4);
+        List<ImportProfile.Stats> slowest = profile.getSlowestTables(1);
+        assertEquals(1, slowest.size());
+      }
+      // in bulk import mode, the rows of the schema-wide calls are attributed to their tables
+      try (JDBCDBImporter importer = new JDBCDBImporter(H2Util.getInMemoryURL(dbName), H2Util.DRIVER,
+          H2Util.DEFAULT_USER, H2Util.DEFAULT_PASSWORD, null, H2Util.DEFAULT_SCHEMA)) {
+        importer.setBulkImport(true);
+        Database database = importer.importDatabase();
+        for (DBTable table : database.getTables()) {
+          table.importDetails(importer);
+        }
+        ImportProfile profile = importer.getProfile();
+        assertEquals(4, profile.getPhase("fetchColumnsInBulk").getRows());
+        ImportProfile.Stats tableB = profile.getTable(H2Util.DEFAULT_SCHEMA + ".IP_B");
+        // 2 columns, 1 primary key column, 1 foreign key and the index rows
+        assertTrue(tableB.getRows() >= 4);
+        assertEquals(2, profile.getSlowestTables(5).size());
+      } finally {
+        DBUtil.executeUpdate("drop table IP_B", connection);
+        DBUtil.executeUpdate("drop table IP_A", connection);
+      }
+    }
+  }
+
+}
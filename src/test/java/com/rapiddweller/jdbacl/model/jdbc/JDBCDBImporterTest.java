@@ -21,18 +21,32 @@
 
 package com.rapiddweller.jdbacl.model.jdbc;
 
+import com.rapiddweller.jdbacl.DBUtil;
+import com.rapiddweller.jdbacl.dialect.H2Util;
+import com.rapiddweller.jdbacl.dialect.HSQLUtil;
+import com.rapiddweller.jdbacl.model.DBForeignKeyConstraint;
 import com.rapiddweller.jdbacl.model.DBSchema;
 import com.rapiddweller.jdbacl.model.DBSequence;
 import com.rapiddweller.jdbacl.model.DBTable;
 import com.rapiddweller.jdbacl.model.Database;
+import com.rapiddweller.jdbacl.model.TableType;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
+import java.sql.DatabaseMetaData;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 /**
  * Tests the {@link JDBCDBImporter}.<br/><br/>
@@ -70,6 +84,156 @@ public void testImportDatabase_H2() {
     checkImports(true, true, true, db);
   }
 
+  @Test
+  public void testBulkImport_HSQL() throws Exception {
+    try (Connection bulkConnection = HSQLUtil.connectInMemoryDB("bulkimport")) {
+      createBulkTestTables(bulkConnection);
+      String expected = describe(importSchema(bulkConnection, false, false, null));
+      assertTrue(expected.contains("ORDER_ITEM_ORDERS_FK"));
+      assertTrue(expected.contains("referrers [ORDER_ITEM]"));
+      Map<String, Integer> callCounts = new TreeMap<>();
+      assertEquals(expected, describe(importSchema(bulkConnection, true, false, callCounts)));
+      // one schema-wide call each, no per-table calls
+      assertEquals(1, callCounts.get("getColumns").intValue());
+      assertEquals(1, callCounts.get("getPrimaryKeys").intValue());
+      assertEquals(1, callCounts.get("getIndexInfo").intValue());
+      assertEquals(1, callCounts.get("getImportedKeys").intValue());
+      assertEquals(1, callCounts.get("getExportedKeys").intValue());
+      // HSQLDB's DatabaseMetaData is faster in bulk than data dictionary queries, so the dialect has none
+      callCounts.clear();
+      assertEquals(expected, describe(importSchema(bulkConnection, true, true, callCounts)));
+      assertEquals(1, callCounts.get("getColumns").intValue());
+      assertEquals(1, callCounts.get("getImportedKeys").intValue());
+      for (String table : new String[] {"ORDER_ITEM", "ORDERS", "CUSTOMER", "TAG"}) {
+        DBUtil.executeUpdate("drop table " + table, bulkConnection);
+      }
+    }
+  }
+
+  @Test
+  public void testBulkImport_H2() throws Exception {
+    try (Connection bulkConnection = H2Util.connectInMemoryDB("bulkimport")) {
+      createBulkTestTables(bulkConnection);
+      String expected = describe(importSchema(bulkConnection, false, false, null));
+      // H2 1.4's DatabaseMetaData returns empty results for a null table name, so only the columns are fetched in bulk
+      Map<String, Integer> callCounts = new TreeMap<>();
+      assertEquals(expected, describe(importSchema(bulkConnection, true, false, callCounts)));
+      assertEquals(1, callCounts.get("getColumns").intValue());
+      assertEquals(4, callCounts.get("getPrimaryKeys").intValue());
+      // the INFORMATION_SCHEMA queries of the H2 dialect fetch everything in bulk
+      callCounts.clear();
+      assertEquals(expected, describe(importSchema(bulkConnection, true, true, callCounts)));
+      assertEquals(null, callCounts.get("getColumns"));
+      assertEquals(null, callCounts.get("getPrimaryKeys"));
+      DBUtil.executeUpdate("drop all objects", bulkConnection);
+    }
+  }
+
+  @Test
+  public void testBulkImportOfEmptyParts_HSQL() throws Exception {
+    try (Connection bulkConnection = HSQLUtil.connectInMemoryDB("emptyparts")) {
+      DBUtil.executeUpdate("create table TAG (NAME varchar(20))", bulkConnection);
+      DBUtil.executeUpdate("create table NOTE (TEXT varchar(100))", bulkConnection);
+      // empty bulk results are valid and do not cause per-table queries
+      Map<String, Integer> callCounts = new TreeMap<>();
+      String description = describe(importSchema(bulkConnection, true, false, callCounts));
+      assertTrue(description.contains("pk []"));
+      assertEquals(1, callCounts.get("getPrimaryKeys").intValue());
+      assertEquals(1, callCounts.get("getImportedKeys").intValue());
+      assertEquals(1, callCounts.get("getExportedKeys").intValue());
+      DBUtil.executeUpdate("drop table TAG", bulkConnection);
+      DBUtil.executeUpdate("drop table NOTE", bulkConnection);
+    }
+  }
+
+  @Test
+  public void testBulkImportOfLaterTables_HSQL() throws Exception {
+    try (Connection bulkConnection = HSQLUtil.connectInMemoryDB("latertables")) {
+      createBulkTestTables(bulkConnection);
+      JDBCDBImporter importer = new JDBCDBImporter(bulkConnection, USER, CATALOG, SCHEMA);
+      importer.setBulkImport(true);
+      DBSchema schema = checkSchema(new Database("later", importer, true));
+      // the primary keys of the schema are fetched in bulk...
+      assertNotNull(schema.getTable("CUSTOMER").getPrimaryKeyConstraint());
+      // ...before further tables are created
+      DBUtil.executeUpdate("create table LATE_A (ID int not null, constraint LATE_A_PK primary key (ID))",
+          bulkConnection);
+      DBUtil.executeUpdate("create table LATE_B (ID int not null, constraint LATE_B_PK primary key (ID))",
+          bulkConnection);
+      // a table which is imported later has its own details...
+      importer.importTables(schema, Set.of("LATE_A"));
+      assertEquals("LATE_A_PK", schema.getTable("LATE_A").getPrimaryKeyConstraint().getName());
+      // ...and so does a table which is added to the model in another way
+      new DBTable("LATE_B", TableType.TABLE, null, schema, importer);
+      assertEquals("LATE_B_PK", schema.getTable("LATE_B").getPrimaryKeyConstraint().getName());
+      assertNotNull(schema.getTable("ORDERS").getPrimaryKeyConstraint());
+      DBUtil.executeUpdate("drop table LATE_A", bulkConnection);
+      DBUtil.executeUpdate("drop table LATE_B", bulkConnection);
+      for (String table : new String[] {"ORDER_ITEM", "ORDERS", "CUSTOMER", "TAG"}) {
+        DBUtil.executeUpdate("drop table " + table, bulkConnection);
+      }
+    }
+  }
+
+  @Test
+  public void testCompactModel_H2() throws Exception {
+    try (Connection compactConnection = H2Util.connectInMemoryDB("compactmodel")) {
+      createBulkTestTables(compactConnection);
+      String expected = describe(importSchema(compactConnection, false, false, null));
+      JDBCDBImporter importer = new JDBCDBImporter(compactConnection, USER, CATALOG, SCHEMA);
+      importer.setCompactModel(true);
+      DBSchema schema = checkSchema(new Database("compact", importer, true));
+      assertEquals(expected, describe(schema));
+      assertTrue(importer.getNamePool().getNameCount() > 0);
+      // equal names and name arrays of different tables are shared
+      DBTable orders = schema.getTable("ORDERS");
+      DBTable orderItem = schema.getTable("ORDER_ITEM");
+      assertSame(orders.getColumn("CUSTOMER_ID").getName(), orderItem.getColumn("CUSTOMER_ID").getName());
+      DBForeignKeyConstraint fk = orderItem.getForeignKeyConstraints().iterator().next();
+      String[] fkColumnNames = fk.getForeignKeyColumnNames();
+      assertSame(fkColumnNames[0], fk.getRefereeColumnNames()[0]);
+      // the getters return copies, so callers cannot modify the shared arrays
+      fkColumnNames[0] = "X";
+      assertSame(fk.getRefereeColumnNames()[0], fk.getForeignKeyColumnNames()[0]);
+      DBUtil.executeUpdate("drop all objects", compactConnection);
+    }
+  }
+
+  private static void createBulkTestTables(Connection connection) throws Exception {
+    DBUtil.executeUpdate("create table CUSTOMER (ID int not null, NAME varchar(30), constraint CUSTOMER_PK primary key (ID))",
+        connection);
+    DBUtil.executeUpdate("create table ORDERS (CUSTOMER_ID int not null, ORDER_NO int not null, " +
+        "constraint ORDERS_PK primary key (CUSTOMER_ID, ORDER_NO), " +
+        "constraint ORDERS_CUSTOMER_FK foreign key (CUSTOMER_ID) references CUSTOMER (ID))", connection);
+    DBUtil.executeUpdate("create table ORDER_ITEM (ID int not null, CUSTOMER_ID int not null, ORDER_NO int not null, " +
+        "ITEM varchar(20), constraint ORDER_ITEM_PK primary key (ID), " +
+        "constraint ORDER_ITEM_ORDERS_FK foreign key (CUSTOMER_ID, ORDER_NO) references ORDERS (CUSTOMER_ID, ORDER_NO))",
+        connection);
+    DBUtil.executeUpdate("create index ORDER_ITEM_ITEM_IDX on ORDER_ITEM (ITEM)", connection);
+    DBUtil.executeUpdate("create table TAG (NAME varchar(20))", connection);
+  }
+
+  private static DBSchema importSchema(Connection connection, boolean bulk, boolean dialectQueries,
+                                       Map<String, Integer> callCounts) {
+    JDBCDBImporter importer = new JDBCDBImporter(connection, USER, CATALOG, SCHEMA);
+    importer.setBulkImport(bulk);
+    importer.setDialectQueries(dialectQueries);
+    if (callCounts != null) {
+      DatabaseMetaData realMetaData = importer.metaData;
+      importer.metaData = (DatabaseMetaData) Proxy.newProxyInstance(DatabaseMetaData.class.getClassLoader(),
+          new Class[] {DatabaseMetaData.class}, (proxy, method, args) -> {
+            callCounts.merge(method.getName(), 1, Integer::sum);
+            try {
+              return method.invoke(realMetaData, args);
+            } catch (InvocationTargetException e) {
+              throw e.getCause();
+            }
+          });
+    }
+    Database db = new Database("bulk", importer, true);
+    return checkSchema(db);
+  }
+
   private static void checkSequences(DBSchema schema) {
     List<DBSequence> sequences = schema.getSequences(true);
     assertEquals(1, sequences.size());
@@ -0,0 +1,106 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl.model.jdbc;
+
+import com.rapiddweller.jdbacl.dialect.H2Util;
+import com.rapiddweller.jdbacl.dialect.HSQLUtil;
+import com.rapiddweller.jdbacl.model.DBSchema;
+import com.rapiddweller.jdbacl.model.DBTable;
+import com.rapiddweller.jdbacl.model.Database;
+import org.junit.Test;
+
+import java.sql.Connection;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Compares the meta data import time of the {@link JDBCDBImporter} on a generated schema
+ * in per-table mode, in bulk mode with {@link java.sql.DatabaseMetaData} and in bulk mode
+ * with the dialect's data dictionary queries. The class is not matched by the surefire
+ * test name patterns and needs to be invoked explicitly:
+ * <code>mvn test -Dtest=MetaDataImportBenchmark -Dbenchmark.tables=2000</code><br/><br/>
+ * Created: 22.03.2022 13:05:52
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+public class MetaDataImportBenchmark {
+
+  private static final int DEFAULT_TABLE_COUNT = 2000;
+
+  @Test
+  public void testH2() throws Exception {
+    try (Connection connection = H2Util.connectInMemoryDB("MetaDataImportBenchmark")) {
+      runBenchmark("H2", connection, H2Util.DEFAULT_USER, H2Util.DEFAULT_SCHEMA);
+    }
+  }
+
+  @Test
+  public void testHSQL() throws Exception {
+    try (Connection connection = HSQLUtil.connectInMemoryDB("MetaDataImportBenchmark")) {
+      runBenchmark("HSQL", connection, HSQLUtil.DEFAULT_USER, HSQLUtil.DEFAULT_SCHEMA);
+    }
+  }
+
+  private static void runBenchmark(String label, Connection connection, String user, String schema) throws Exception {
+    int tableCount = Integer.getInteger("benchmark.tables", DEFAULT_TABLE_COUNT);
+    AbstractJDBCDBImporterTest.createTableChain("BT", tableCount, connection);
+    try {
+      long perTable = importAll(label + " per table", connection, user, schema, false, false, tableCount);
+      long bulk = importAll(label + " bulk, DatabaseMetaData", connection, user, schema, true, false, tableCount);
+      long dialect = importAll(label + " bulk, dialect queries", connection, user, schema, true, true, tableCount);
+      System.out.printf("%s speedup over per-table import: %.1fx with DatabaseMetaData, %.1fx with dialect queries%n",
+          label, (double) perTable / bulk, (double) perTable / dialect);
+    } finally {
+      AbstractJDBCDBImporterTest.dropTableChain("BT", tableCount, connection);
+    }
+  }
+
+  /** imports all meta data of all tables and returns the duration in milliseconds */
+  private static long importAll(String label, Connection connection, String user, String schemaName,
+                                boolean bulk, boolean dialectQueries, int tableCount) {
+    long start = System.currentTimeMillis();
+    JDBCDBImporter importer = new JDBCDBImporter(connection, user, null, schemaName);
+    importer.setBulkImport(bulk);
+    importer.setDialectQueries(dialectQueries);
+    Database database = new Database(label, importer, true);
+    DBSchema schema = database.getSchema(schemaName);
+    int fkCount = 0;
+    for (DBTable table : schema.getTables()) {
+      table.getColumns();
+      table.getPrimaryKeyConstraint();
+      fkCount += table.getForeignKeyConstraints().size();
+      table.getIndexes();
+      table.getReferrers();
+    }
+    long duration = System.currentTimeMillis() - start;
+    assertEquals(tableCount, schema.getTables().size());
+    assertEquals(tableCount - 1, fkCount);
+    System.out.printf("%s: imported %d tables in %d ms%n", label, tableCount, duration);
+    return duration;
+  }
+
+}
@@ -0,0 +1,174 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl.model.jdbc;
+
+import com.rapiddweller.common.exception.IllegalArgumentError;
+import com.rapiddweller.jdbacl.DBUtil;
+import com.rapiddweller.jdbacl.dialect.H2Util;
+import com.rapiddweller.jdbacl.model.DBTable;
+import com.rapiddweller.jdbacl.model.Database;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Tests the {@link MetaDataWarmUp}.<br/><br/>
+ * Created: 16.03.2022 10:02:17
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+public class MetaDataWarmUpTest extends AbstractJDBCDBImporterTest {
+
+  private static final String DB_NAME = "MetaDataWarmUpTest";
+  private static final int TABLE_COUNT = 20;
+
+  private Connection connection;
+
+  @Before
+  public void setUp() throws Exception {
+    connection = H2Util.connectInMemoryDB(DB_NAME);
+    createTableChain("WT", TABLE_COUNT, connection);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    dropTableChain("WT", TABLE_COUNT, connection);
+    DBUtil.close(connection);
+  }
+
+  @Test(expected = IllegalArgumentError.class)
+  public void testIllegalThreadCount() {
+    new MetaDataWarmUp(null, 0);
+  }
+
+  @Test
+  public void testWarmUpOnImport() throws Exception {
+    try (JDBCDBImporter importer = createImporter()) {
+      assertNull(importer.getWarmUp());
+      importer.setWarmUpThreads(3);
+      importer.setWarmUpPriority(Arrays.asList("WT7", "WT3"));
+      Database database = importer.importDatabase();
+      MetaDataWarmUp warmUp = importer.getWarmUp();
+      assertNotNull(warmUp);
+      // foreground access while the warm-up is running
+      for (int i = TABLE_COUNT - 1; i >= 0; i--) {
+        DBTable table = database.getTable("WT" + i);
+        assertEquals(3, table.getColumns().size());
+        assertEquals(i > 0 ? 1 : 0, table.getForeignKeyConstraints().size());
+      }
+      assertSame(database, warmUp.getCompletion().get(30, TimeUnit.SECONDS));
+      assertTrue(warmUp.isDone());
+      assertEquals(TABLE_COUNT, warmUp.getTableCount());
+      assertEquals(TABLE_COUNT, warmUp.getCompletedTableCount());
+      assertEquals(1., warmUp.getProgress(), 0.);
+      for (DBTable table : database.getTables()) {
+        assertTrue(table.areColumnsImported());
+        assertTrue(table.isPKImported());
+        assertTrue(table.areFKsImported());
+        assertTrue(table.areIndexesImported());
+      }
+    }
+  }
+
+  @Test
+  public void testOrderTables() {
+    try (JDBCDBImporter importer = createImporter()) {
+      Database database = importer.importDatabase();
+      List<DBTable> tables = database.getTables();
+      // without foreign key information, the priority tables are followed by the natural order
+      List<DBTable> order = MetaDataWarmUp.orderTables(tables, Arrays.asList("wt5", "WT3"));
+      assertEquals(TABLE_COUNT, order.size());
+      assertEquals("WT5", order.get(0).getName());
+      assertEquals("WT3", order.get(1).getName());
+      assertEquals(tables.get(0), order.get(2));
+      // with foreign keys, providers come before the tables which refer to them
+      for (DBTable table : tables) {
+        table.getForeignKeyConstraints();
+      }
+      order = MetaDataWarmUp.orderTables(tables, null);
+      for (int i = 1; i < TABLE_COUNT; i++) {
+        assertTrue(order.indexOf(database.getTable("WT" + (i - 1))) < order.indexOf(database.getTable("WT" + i)));
+      }
+    }
+  }
+
+  @Test
+  public void testForeignKeysImportedBeforeOrdering() throws Exception {
+    try (JDBCDBImporter importer = createImporter()) {
+      Database database = importer.importDatabase();
+      for (DBTable table : database.getTables()) {
+        assertFalse(table.areFKsImported());
+      }
+      MetaDataWarmUp warmUp = new MetaDataWarmUp(importer, 2);
+      CompletableFuture<Database> completion = warmUp.start(database);
+      // the foreign keys are imported in bulk before the tables are ordered
+      for (DBTable table : database.getTables()) {
+        assertTrue(table.areFKsImported());
+      }
+      assertEquals(1, importer.getProfile().getPhase("fetchImportedKeysInBulk").getCount());
+      assertSame(database, completion.get(30, TimeUnit.SECONDS));
+    }
+  }
+
+  @Test
+  public void testImporterWithConnection() throws Exception {
+    JDBCDBImporter importer = new JDBCDBImporter(connection, H2Util.DEFAULT_USER, null, H2Util.DEFAULT_SCHEMA);
+    Database database = importer.importDatabase();
+    MetaDataWarmUp warmUp = new MetaDataWarmUp(importer, 2);
+    try {
+      warmUp.start(database).get(30, TimeUnit.SECONDS);
+      fail(IllegalArgumentError.class.getSimpleName() + " expected");
+    } catch (ExecutionException e) {
+      assertTrue(e.getCause() instanceof IllegalArgumentError);
+    }
+    // the tables are still imported on demand
+    assertEquals(3, database.getTable("WT1").getColumns().size());
+  }
+
+  // helpers ---------------------------------------------------------------------------------------------------------
+
+  private static JDBCDBImporter createImporter() {
+    return new JDBCDBImporter(H2Util.getInMemoryURL(DB_NAME), H2Util.DRIVER, H2Util.DEFAULT_USER,
+        H2Util.DEFAULT_PASSWORD, null, H2Util.DEFAULT_SCHEMA);
+  }
+
+}
@@ -0,0 +1,147 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl.model.jdbc;
+
+import com.rapiddweller.common.exception.IllegalArgumentError;
+import com.rapiddweller.jdbacl.DBUtil;
+import com.rapiddweller.jdbacl.dialect.H2Util;
+import com.rapiddweller.jdbacl.model.DBTable;
+import com.rapiddweller.jdbacl.model.Database;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.sql.Connection;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link ParallelJDBCDBImporter}.<br/><br/>
+ * Created: 19.10.2022 11:26:03
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+public class ParallelJDBCDBImporterTest extends AbstractJDBCDBImporterTest {
+
+  private static final String DB_NAME = "ParallelJDBCDBImporterTest";
+  private static final int TABLE_COUNT = 20;
+
+  private Connection connection;
+
+  @Before
+  public void setUp() throws Exception {
+    connection = H2Util.connectInMemoryDB(DB_NAME);
+    createTableChain("PT", TABLE_COUNT, connection);
+  }
+
+  @After
+  public void tearDown() throws Exception {
+    dropTableChain("PT", TABLE_COUNT, connection);
+    DBUtil.close(connection);
+  }
+
+  @Test
+  public void testImportDatabase() throws Exception {
+    String expected;
+    try (JDBCDBImporter serialImporter = createSerialImporter()) {
+      expected = describe(serialImporter.importDatabase());
+    }
+    Database database;
+    try (ParallelJDBCDBImporter parallelImporter = new ParallelJDBCDBImporter(H2Util.getInMemoryURL(DB_NAME),
+        H2Util.DRIVER, H2Util.DEFAULT_USER, H2Util.DEFAULT_PASSWORD, null, H2Util.DEFAULT_SCHEMA, 4)) {
+      database = parallelImporter.importDatabase();
+    }
+    // the importer is closed, so the details must have been imported before
+    for (DBTable table : database.getTables()) {
+      assertTrue(table.areColumnsImported());
+      assertTrue(table.isPKImported());
+      assertTrue(table.areFKsImported());
+      assertTrue(table.areIndexesImported());
+    }
+    assertEquals(expected, describe(database));
+  }
+
+  @Test
+  public void testBulkImport() throws Exception {
+    String expected;
+    try (JDBCDBImporter serialImporter = createSerialImporter()) {
+      expected = describe(serialImporter.importDatabase());
+    }
+    try (ParallelJDBCDBImporter parallelImporter = new ParallelJDBCDBImporter(H2Util.getInMemoryURL(DB_NAME),
+        H2Util.DRIVER, H2Util.DEFAULT_USER, H2Util.DEFAULT_PASSWORD, null, H2Util.DEFAULT_SCHEMA, 4)) {
+      parallelImporter.setBulkImport(true);
+      assertEquals(expected, describe(parallelImporter.importDatabase()));
+      // the workers share the bulk data, so each schema-wide query is performed once
+      ImportProfile profile = parallelImporter.getProfile();
+      assertEquals(1, profile.getPhase("fetchColumnsInBulk").getCount());
+      assertEquals(1, profile.getPhase("fetchPrimaryKeysInBulk").getCount());
+      assertEquals(1, profile.getPhase("fetchImportedKeysInBulk").getCount());
+    }
+  }
+
+  @Test
+  public void testCreateWorker() throws Exception {
+    try (JDBCDBImporter importer = createSerialImporter()) {
+      importer.setTableInclusionPattern("PT.*");
+      importer.setTableExclusionPattern("PT_X.*");
+      importer.setFaultTolerant(true);
+      importer.setBulkImport(true);
+      importer.setDialectQueries(false);
+      importer.setCompactModel(true);
+      try (JDBCDBImporter worker = importer.createWorker()) {
+        assertEquals(importer.getUrl(), worker.getUrl());
+        assertEquals("PT.*", worker.tableInclusionPattern);
+        assertEquals("PT_X.*", worker.tableExclusionPattern);
+        assertSame(importer.tableNameFilter, worker.tableNameFilter);
+        assertSame(importer.errorHandler, worker.errorHandler);
+        assertTrue(worker.isBulkImport());
+        assertFalse(worker.isDialectQueries());
+        assertSame(importer.getNamePool(), worker.getNamePool());
+        assertSame(importer.getProfile(), worker.getProfile());
+        assertSame(importer.bulkData, worker.bulkData);
+        assertEquals(0, worker.getWarmUpThreads());
+      }
+    }
+  }
+
+  @Test(expected = IllegalArgumentError.class)
+  public void testIllegalParallelism() {
+    new ParallelJDBCDBImporter(H2Util.getInMemoryURL(DB_NAME),
+        H2Util.DRIVER, H2Util.DEFAULT_USER, H2Util.DEFAULT_PASSWORD, null, H2Util.DEFAULT_SCHEMA, 0);
+  }
+
+  // private helpers -------------------------------------------------------------------------------------------------
+
+  private static JDBCDBImporter createSerialImporter() {
+    return new JDBCDBImporter(H2Util.getInMemoryURL(DB_NAME),
+        H2Util.DRIVER, H2Util.DEFAULT_USER, H2Util.DEFAULT_PASSWORD, null, H2Util.DEFAULT_SCHEMA);
+  }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl.sql;
+
+import com.rapiddweller.common.IOUtil;
+import org.junit.Test;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Measures the throughput of the {@link SQLScriptReader} on a generated dump file.
+ * The class is not matched by the surefire test name patterns and needs to be invoked explicitly:
+ * <code>mvn test -Dtest=SQLScriptReaderBenchmark -Dbenchmark.mb=300</code><br/><br/>
+ * Created: 21.03.2022 16:41:08
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+public class SQLScriptReaderBenchmark {
+
+  private static final int DEFAULT_SIZE_MB = 300;
+
+  @Test
+  public void testThroughput() throws IOException {
+    long targetSize = Long.getLong("benchmark.mb", DEFAULT_SIZE_MB) * 1024 * 1024;
+    File file = File.createTempFile("SQLScriptReaderBenchmark", ".sql");
+    try {
+      long expectedCount = createDump(file, targetSize);
+      SQLScriptReader reader = new SQLScriptReader(file, StandardCharsets.UTF_8);
+      long start = System.nanoTime();
+      long count = 0;
+      try {
+        while (reader.nextStatement() != null) {
+          count++;
+        }
+      } finally {
+        IOUtil.close(reader);
+      }
+      double seconds = (System.nanoTime() - start) / 1e9;
+      assertEquals(expectedCount, count);
+      System.out.printf("Parsed %d statements (%d MB) in %.2f s: %.1f MB/s, %.0f statements/s, max heap used %d MB%n",
+          count, file.length() / 1024 / 1024, seconds, file.length() / 1024. / 1024. / seconds, count / seconds,
+          (Runtime.getRuntime().totalMemory() - Runtime.getRuntime().freeMemory()) / 1024 / 1024);
+    } finally {
+      file.delete();
+    }
+  }
+
+  private static long createDump(File file, long targetSize) throws IOException {
+    long count = 0;
+    long size = 0;
+    try (BufferedWriter out = Files.newBufferedWriter(file.toPath(), StandardCharsets.UTF_8)) {
+      while (size < targetSize) {
+        String statement;
+        if (count % 1000 == 0) {
+          statement = "-- chunk " + count + "; generated\ncreate table T" + count + " (ID int, NAME varchar(100));\n";
+        } else {
+          statement = "insert into T" + (count / 1000 * 1000) + " (ID, NAME) values (" + count +
+              ", 'Name; ''" + count + "'' /* no comment */');\n";
+        }
+        out.write(statement);
+        size += statement.length();
+        count++;
+      }
+    }
+    return count;
+  }
+
+}
@@ -0,0 +1,240 @@
+/*
+ * (c) Copyright 2022 by Volker Bergmann. All rights reserved.
+ *
+ * Redistribution and use in source and binary forms, with or without
+ * modification, is permitted under the terms of the
+ * GNU General Public License.
+ *
+ * For redistributing this software or a derivative work under a license other
+ * than the GPL-compatible Free Software License as defined by the Free
+ * Software Foundation or approved by OSI, you must first obtain a commercial
+ * license to this software product from Volker Bergmann.
+ *
+ * THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS "AS IS"
+ * WITHOUT A WARRANTY OF ANY KIND. ALL EXPRESS OR IMPLIED CONDITIONS,
+ * REPRESENTATIONS AND WARRANTIES, INCLUDING ANY IMPLIED WARRANTY OF
+ * MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE OR NON-INFRINGEMENT, ARE
+ * HEREBY EXCLUDED. IN NO EVENT SHALL THE COPYRIGHT OWNER OR CONTRIBUTORS BE
+ * LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL, SPECIAL, EXEMPLARY, OR
+ * CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT LIMITED TO, PROCUREMENT OF
+ * SUBSTITUTE GOODS OR SERVICES; LOSS OF USE, DATA, OR PROFITS; OR BUSINESS
+ * INTERRUPTION) HOWEVER CAUSED AND ON ANY THEORY OF LIABILITY, WHETHER IN
+ * CONTRACT, STRICT LIABILITY, OR TORT (INCLUDING NEGLIGENCE OR OTHERWISE)
+ * ARISING IN ANY WAY OUT OF THE USE OF THIS SOFTWARE, EVEN IF ADVISED OF THE
+ * POSSIBILITY OF SUCH DAMAGE.
+ */
+
+package com.rapiddweller.jdbacl.sql;
+
+import com.rapiddweller.common.IOUtil;
+import com.rapiddweller.common.exception.IllegalOperationError;
+import com.rapiddweller.jdbacl.dialect.MySQLDialect;
+import com.rapiddweller.jdbacl.dialect.OracleDialect;
+import com.rapiddweller.jdbacl.dialect.PostgreSQLDialect;
+import com.rapiddweller.jdbacl.dialect.SqlServerDialect;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Tests the {@link SQLScriptReader}.<br/><br/>
+ * Created: 21.03.2022 14:03:26
+ * @author Volker Bergmann
+ * @since 1.1.16
+ */
+public class SQLScriptReaderTest {
+
+  @Test
+  public void testSeparators() throws IOException {
+    SQLScriptReader reader = new SQLScriptReader(new StringReader(
+        "insert into T values (1); insert into T values (2);\n\n" +
+        "insert into T\n  values (3)"));
+    assertEquals("insert into T values (1)", reader.nextStatement());
+    assertEquals(1, reader.getStatementLineNo());
+    assertEquals("insert into T values (2)", reader.nextStatement());
+    assertEquals("insert into T\n  values (3)", reader.nextStatement());
+    assertEquals(3, reader.getStatementLineNo());
+    assertNull(reader.nextStatement());
+    assertEquals(3, reader.getStatementCount());
+  }
+
+  @Test
+  public void testQuotes() throws IOException {
+    assertEquals(List.of("insert into T values ('a;b', 'it''s;')", "select \"x;y\" from T"),
+        statements(new SQLScriptReader(new StringReader(
+            "insert into T values ('a;b', 'it''s;');select \"x;y\" from T;"))));
+  }
+
+  @Test
+  public void testComments() throws IOException {
+    SQLScriptReader reader = new SQLScriptReader(new StringReader(
+        "-- header; with separator\n" +
+        "/* block; comment */\n" +
+        "select /*+ index(T) */ x -- trailing; comment\n" +
+        "from T;\n" +
+        "select 1 - 2 / 3 from T;"));
+    assertEquals("select /*+ index(T) */ x \nfrom T", reader.nextStatement());
+    assertEquals(3, reader.getStatementLineNo());
+    assertEquals("select 1 - 2 / 3 from T", reader.nextStatement());
+    assertEquals(5, reader.getStatementLineNo());
+    assertNull(reader.nextStatement());
+  }
+
+  @Test
+  public void testCustomSeparator() throws IOException {
+    assertEquals(List.of("select 1 from T", "select ';' from T"),
+        statements(new SQLScriptReader(new StringReader("select 1 from T@\nselect ';' from T@")).withSeparator('@')));
+  }
+
+  @Test
+  public void testOracle() throws IOException {
+    String script =
+        "create table T (ID int);\n" +
+        "create or replace procedure P is\n" +
+        "begin\n" +
+        "  insert into T values (1);\n" +
+        "end;\n" +
+        "/\n" +
+        "select 1 from dual\n" +
+        "/\n";
+    SQLScriptReader reader = new OracleDialect().configureScriptReader(new SQLScriptReader(new StringReader(script)));
+    assertEquals("create table T (ID int)", reader.nextStatement());
+    assertEquals("create or replace procedure P is\nbegin\n  insert into T values (1);\nend;", reader.nextStatement());
+    assertEquals(2, reader.getStatementLineNo());
+    assertEquals("select 1 from dual", reader.nextStatement());
+    assertNull(reader.nextStatement());
+  }
+
+  @Test
+  public void testPostgreSQL() throws IOException {
+    String script =
+        "create function f() returns int as $$ begin return 1; end; $$ language plpgsql;\n" +
+        "create function g() returns text as $body$ select 'x;$$'; $body$ language sql;\n" +
+        "select $1 from T;";
+    SQLScriptReader reader = new PostgreSQLDialect().configureScriptReader(new SQLScriptReader(new StringReader(script)));
+    assertEquals("create function f() returns int as $$ begin return 1; end; $$ language plpgsql", reader.nextStatement());
+    assertEquals("create function g() returns text as $body$ select 'x;$$'; $body$ language sql", reader.nextStatement());
+    assertEquals("select $1 from T", reader.nextStatement());
+    assertNull(reader.nextStatement());
+  }
+
+  @Test
+  public void testSqlServer() throws IOException {
+    String script =
+        "create table [T;1] (ID int);\n" +
+        "GO\n" +
+        "create procedure P as\n" +
+        "  insert into [T;1] values (1);\n" +
+        "  insert into [T;1] values (2);\n" +
+        "go\n" +
+        "select 1";
+    SQLScriptReader reader = new SqlServerDialect().configureScriptReader(new SQLScriptReader(new StringReader(script)));
+    assertEquals("create table [T;1] (ID int)", reader.nextStatement());
+    assertEquals("create procedure P as\n  insert into [T;1] values (1);\n  insert into [T;1] values (2);",
+        reader.nextStatement());
+    assertEquals("select 1", reader.nextStatement());
+    assertNull(reader.nextStatement());
+  }
+
+  @Test
+  public void testMySQL() throws IOException {
+    String script =
+        "# dump header; with separator\n" +
+        "/*!40101 SET NAMES utf8 */;\n" +
+        "insert into T values ('it\\'s; fine', `a;b`);";
+    SQLScriptReader reader = new MySQLDialect().configureScriptReader(new SQLScriptReader(new StringReader(script)));
+    assertEquals("/*!40101 SET NAMES utf8 */", reader.nextStatement());
+    assertEquals("insert into T values ('it\\'s; fine', `a;b`)", reader.nextStatement());
+    assertNull(reader.nextStatement());
+  }
+
+  @Test
+  public void testFile() throws IOException {
+    File file = File.createTempFile("SQLScriptReaderTest", ".sql");
+    try {
+      StringBuilder script = new StringBuilder();
+      for (int i = 0; i < 10000; i++) {
+        script.append("insert into T values (").append(i).append(", 'Grüße; ").append(i).append("');\n");
+      }
+      Files.write(file.toPath(), script.toString().getBytes(StandardCharsets.UTF_8));
+      SQLScriptReader reader = new SQLScriptReader(file, StandardCharsets.UTF_8);
+      try {
+        List<String> statements = statements(reader);
+        assertEquals(10000, statements.size());
+        assertEquals("insert into T values (9999, 'Grüße; 9999')", statements.get(9999));
+        assertEquals(10000, reader.getStatementLineNo());
+      } finally {
+        IOUtil.close(reader);
+      }
+    } finally {
+      file.delete();
+    }
+  }
+
+  @Test
+  public void testPositionAndSeek() throws IOException {
+    File file = File.createTempFile("SQLScriptReaderTest", ".sql");
+    try {
+      String script = "insert into T values ('Grüße');\n-- €uro; comment\ninsert into T values ('\uD83D\uDE00');\n" +
+          "insert into T values (3);\ninsert into T values (4);\n";
+      Files.write(file.toPath(), script.getBytes(StandardCharsets.UTF_8));
+      long position;
+      int lineNo;
+      SQLScriptReader reader = new SQLScriptReader(file, StandardCharsets.UTF_8);
+      try {
+        assertTrue(reader.isSeekable());
+        reader.nextStatement();
+        reader.nextStatement();
+        position = reader.getPosition();
+        lineNo = reader.getLineNo();
+        assertEquals(3, lineNo);
+        assertEquals("insert into T values ('Grüße');\n-- €uro; comment\ninsert into T values ('\uD83D\uDE00');"
+            .getBytes(StandardCharsets.UTF_8).length, position);
+      } finally {
+        IOUtil.close(reader);
+      }
+      reader = new SQLScriptReader(file, StandardCharsets.UTF_8);
+      try {
+        reader.seek(position, lineNo, 2);
+        assertEquals("insert into T values (3)", reader.nextStatement());
+        assertEquals(4, reader.getStatementLineNo());
+        assertEquals(3, reader.getStatementCount());
+        assertEquals("insert into T values (4)", reader.nextStatement());
+        assertNull(reader.nextStatement());
+        assertEquals(file.length(), reader.getPosition());
+      } finally {
+        IOUtil.close(reader);
+      }
+    } finally {
+      file.delete();
+    }
+  }
+
+  @Test(expected = IllegalOperationError.class)
+  public void testSeekOnReader() throws IOException {
+    SQLScriptReader reader = new SQLScriptReader(new StringReader("select 1 from T;"));
+    assertFalse(reader.isSeekable());
+    reader.seek(3, 1, 0);
+  }
+
+  private static List<String> statements(SQLScriptReader reader) throws IOException {
+    List<String> result = new ArrayList<>();
+    String statement;
+    while ((statement = reader.nextStatement()) != null) {
+      result.add(statement);
+    }
+    return result;
+  }
+
+}